@@ -0,0 +1,58 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Program runs JMH benchmarks of JNotepadPP. </br>
+ * Arguments are ordinary JMH command line options, so single benchmarks or sizes can be chosen.
+ * Unless other result file is given, results are written in JSON format into
+ * {@code results/jnotepadpp-<time>.json}, so results of different runs can be compared.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * Directory of result files
+	 */
+	private static final Path RESULTS_DIRECTORY = Paths.get("results");
+	/**
+	 * Format of the time in names of result files
+	 */
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+	/**
+	 * Method that starts the program.
+	 *
+	 * @param args JMH command line options
+	 * @throws CommandLineOptionException if options are invalid
+	 * @throws RunnerException            if benchmarks failed
+	 * @throws IOException                if results directory can not be created
+	 */
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+		if (!commandLine.getResult().hasValue()) {
+			Files.createDirectories(RESULTS_DIRECTORY);
+			String name = "jnotepadpp-" + LocalDateTime.now().format(TIME_FORMAT) + ".json";
+			options.resultFormat(ResultFormatType.JSON).result(RESULTS_DIRECTORY.resolve(name).toString());
+		}
+		new Runner(options.build()).run();
+	}
+
+}
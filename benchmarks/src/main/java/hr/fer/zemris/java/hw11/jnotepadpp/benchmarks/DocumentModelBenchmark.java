@@ -0,0 +1,137 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.DefaultMultipleDocumentModel;
+import hr.fer.zemris.java.hw11.jnotepadpp.SingleDocumentModel;
+
+/**
+ * Class represents benchmarks of loading and saving documents through {@link DefaultMultipleDocumentModel}.
+ * Loaded document is closed after every load, so every invocation reads the file again.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Xmx8g" })
+public class DocumentModelBenchmark {
+
+	/**
+	 * Size of the document
+	 */
+	@Param({ "1KB", "1MB", "64MB", "1GB" })
+	public String size;
+
+	/**
+	 * File that is loaded
+	 */
+	private Path file;
+	/**
+	 * File to which document is saved
+	 */
+	private Path savedFile;
+	/**
+	 * Model that documents are loaded into
+	 */
+	private DefaultMultipleDocumentModel model;
+	/**
+	 * Document that is saved
+	 */
+	private SingleDocumentModel document;
+
+	/**
+	 * Method writes the document and loads it for saving.
+	 *
+	 * @throws IOException if document can not be written
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		file = SyntheticText.write(SyntheticText.parseSize(size), SyntheticText.DEFAULT_SEED);
+		savedFile = Files.createTempFile("jnotepadpp-bench", ".txt");
+		model = new DefaultMultipleDocumentModel();
+		document = model.loadDocument(file);
+	}
+
+	/**
+	 * Method deletes written files.
+	 *
+	 * @throws IOException if files can not be deleted
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		model.closeDocument(document);
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(savedFile);
+	}
+
+	/**
+	 * Benchmark of {@link DefaultMultipleDocumentModel#loadDocument(Path)}.
+	 *
+	 * @param loader state with the model that document is loaded into
+	 * @return       loaded document
+	 */
+	@Benchmark
+	public SingleDocumentModel loadDocument(Loader loader) {
+		SingleDocumentModel loaded = loader.model.loadDocument(file);
+		loader.model.closeDocument(loaded);
+		return loaded;
+	}
+
+	/**
+	 * Benchmark of {@link DefaultMultipleDocumentModel#saveDocument(SingleDocumentModel, Path)}.
+	 *
+	 * @return saved document
+	 */
+	@Benchmark
+	public SingleDocumentModel saveDocument() {
+		model.saveDocument(document, savedFile);
+		return document;
+	}
+
+	/**
+	 * Class represents state with empty model that documents are loaded into.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	@State(Scope.Thread)
+	public static class Loader {
+
+		/**
+		 * Model that documents are loaded into
+		 */
+		private DefaultMultipleDocumentModel model;
+
+		/**
+		 * Method creates the model.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			model = new DefaultMultipleDocumentModel();
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.DefaultMultipleDocumentModel;
+import hr.fer.zemris.java.hw11.jnotepadpp.DefaultSingleDocumentModel;
+import hr.fer.zemris.java.hw11.jnotepadpp.DocumentStatistics;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.DocumentReader;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+
+/**
+ * Class represents benchmarks of work that is done for the status bar and statistical info. </br>
+ * Status bar is refreshed after every typed character, so typing benchmark measures single edit
+ * followed by everything status bar reads: statistics of the document and line and column of the caret.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Xmx8g" })
+public class StatusBarBenchmark {
+
+	/**
+	 * Size of the document
+	 */
+	@Param({ "1KB", "1MB", "64MB", "1GB" })
+	public String size;
+
+	/**
+	 * File with the text of the document
+	 */
+	private Path file;
+	/**
+	 * Model of the document
+	 */
+	private DefaultSingleDocumentModel model;
+	/**
+	 * Text of the document
+	 */
+	private PieceTableDocument document;
+	/**
+	 * Position of the caret, in the middle of the document
+	 */
+	private int caret;
+
+	/**
+	 * Method writes and loads the document.
+	 *
+	 * @throws IOException if document can not be written or read
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		file = SyntheticText.write(SyntheticText.parseSize(size), SyntheticText.DEFAULT_SEED);
+		document = DocumentReader.read(file, DefaultMultipleDocumentModel.DEFAULT_MAPPED_LOADING_THRESHOLD, null);
+		model = new DefaultSingleDocumentModel(file, document);
+		caret = document.getLength() / 2;
+	}
+
+	/**
+	 * Method deletes the written file.
+	 *
+	 * @throws IOException if file can not be deleted
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	/**
+	 * Benchmark of building statistical info of the document.
+	 *
+	 * @return statistical info
+	 */
+	@Benchmark
+	public String statInfo() {
+		DocumentStatistics statistics = model.getStatistics();
+		return String.format(
+				"File: %s%n" +
+				"- Number of characters: %d%n" +
+				"- Number of non-blank characters: %d%n" +
+				"- Number of lines: %d",
+				file.getFileName(), statistics.getCharacters(), statistics.getNonBlankCharacters(),
+				statistics.getLines());
+	}
+
+	/**
+	 * Benchmark of finding line and column of the caret.
+	 *
+	 * @param blackhole consumer of the results
+	 */
+	@Benchmark
+	public void caretPosition(Blackhole blackhole) {
+		consumeCaretPosition(blackhole);
+	}
+
+	/**
+	 * Benchmark of typing and deleting single character, each followed by status bar refresh.
+	 *
+	 * @param blackhole             consumer of the results
+	 * @throws BadLocationException if caret is not inside of the document
+	 */
+	@Benchmark
+	public void typeCharacter(Blackhole blackhole) throws BadLocationException {
+		document.insertString(caret, "x", null);
+		blackhole.consume(model.getStatistics());
+		consumeCaretPosition(blackhole);
+		document.remove(caret, 1);
+		blackhole.consume(model.getStatistics());
+		consumeCaretPosition(blackhole);
+	}
+
+	/**
+	 * Method finds line and column of the caret just like the status bar does.
+	 *
+	 * @param blackhole consumer of the results
+	 */
+	private void consumeCaretPosition(Blackhole blackhole) {
+		Element lines = document.getDefaultRootElement();
+		int line = lines.getElementIndex(caret);
+		blackhole.consume(line);
+		blackhole.consume(caret - lines.getElement(line).getStartOffset());
+	}
+
+}
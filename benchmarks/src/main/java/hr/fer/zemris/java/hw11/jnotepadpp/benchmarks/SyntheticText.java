@@ -0,0 +1,136 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Class generates synthetic text files that benchmarks work with. </br>
+ * Text consists of lines of one to ten words taken from a small vocabulary,
+ * so it contains lines of different lengths, letters of both cases and plenty of equal lines.
+ * For the same size and seed generated text is always the same.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public final class SyntheticText {
+
+	/**
+	 * Seed of the generated text
+	 */
+	public static final long DEFAULT_SEED = 42;
+	/**
+	 * Words that text is made of
+	 */
+	private static final String[] WORDS = {
+			"lorem", "ipsum", "Dolor", "sit", "AMET", "consectetur", "adipiscing", "elit", "sed", "Do",
+			"eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "Magna", "aliqua", "šifra"
+	};
+	/**
+	 * Maximal number of words in a line
+	 */
+	private static final int MAX_WORDS = 10;
+	/**
+	 * Size of the buffer of the writer
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Private constructor that prevents creating instances of this class.
+	 */
+	private SyntheticText() {
+	}
+
+	/**
+	 * Method parses given {@code size} with optional unit {@code KB}, {@code MB} or {@code GB},
+	 * for example {@code 64MB}.
+	 *
+	 * @param size size that is parsed
+	 * @return     size in bytes
+	 * @throws IllegalArgumentException if size can not be parsed
+	 */
+	public static long parseSize(String size) {
+		Objects.requireNonNull(size, "Size must not be null");
+		String value = size.trim().toUpperCase(Locale.ROOT);
+		long unit = 1;
+		if (value.endsWith("KB")) {
+			unit = 1L << 10;
+		} else if (value.endsWith("MB")) {
+			unit = 1L << 20;
+		} else if (value.endsWith("GB")) {
+			unit = 1L << 30;
+		}
+		if (unit != 1) {
+			value = value.substring(0, value.length() - 2).trim();
+		}
+		try {
+			return Long.parseLong(value) * unit;
+		} catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("Invalid size: " + size);
+		}
+	}
+
+	/**
+	 * Method writes new temporary file with {@code size} bytes of UTF-8 encoded synthetic text.
+	 *
+	 * @param size         size of the file in bytes
+	 * @param seed         seed of the generated text
+	 * @return             path of the written file
+	 * @throws IOException if file can not be written
+	 */
+	public static Path write(long size, long seed) throws IOException {
+		Path file = Files.createTempFile("jnotepadpp-bench", ".txt");
+		Random random = new Random(seed);
+		try (Writer writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+			long written = 0;
+			StringBuilder line = new StringBuilder();
+			while (written < size) {
+				line.setLength(0);
+				int words = 1 + random.nextInt(MAX_WORDS);
+				for (int i = 0; i < words; i++) {
+					if (i > 0) {
+						line.append(' ');
+					}
+					line.append(WORDS[random.nextInt(WORDS.length)]);
+				}
+				line.append('\n');
+
+				long lineSize = utf8Length(line);
+				if (written + lineSize > size) {
+					// Last line is filled with spaces up to the exact size
+					line.setLength(0);
+					for (long i = written; i < size; i++) {
+						line.append(' ');
+					}
+					lineSize = line.length();
+				}
+				writer.append(line);
+				written += lineSize;
+			}
+		}
+		return file;
+	}
+
+	/**
+	 * Method returns number of bytes of given {@code text} encoded in UTF-8.
+	 *
+	 * @param text text whose size is calculated
+	 * @return     size of the text in bytes
+	 */
+	private static long utf8Length(CharSequence text) {
+		long length = 0;
+		for (int i = 0, n = text.length(); i < n; i++) {
+			char c = text.charAt(i);
+			length += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+		}
+		return length;
+	}
+
+}
@@ -0,0 +1,183 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Collator;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.MappedTextSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextSnapshot;
+import hr.fer.zemris.java.hw11.jnotepadpp.transform.CaseConverter;
+import hr.fer.zemris.java.hw11.jnotepadpp.transform.CaseConverter.Conversion;
+import hr.fer.zemris.java.hw11.jnotepadpp.transform.LineDeduplicator;
+import hr.fer.zemris.java.hw11.jnotepadpp.transform.LineSorter;
+
+/**
+ * Class represents benchmarks of transformations of selected text: sorting lines,
+ * removing equal lines and case conversion. </br>
+ * Every transformation works on the snapshot of the whole document, just like transformations run by the editor.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Xmx8g" })
+public class TextTransformBenchmark {
+
+	/**
+	 * Listener that ignores progress
+	 */
+	private static final IntConsumer NO_PROGRESS = p -> {};
+
+	/**
+	 * Size of the document
+	 */
+	@Param({ "1KB", "1MB", "64MB", "1GB" })
+	public String size;
+
+	/**
+	 * File with the text of the document
+	 */
+	private Path file;
+	/**
+	 * Snapshot of the document that is transformed
+	 */
+	private TextSnapshot text;
+
+	/**
+	 * Method writes the document and takes its snapshot.
+	 *
+	 * @throws IOException if document can not be written or read
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		file = SyntheticText.write(SyntheticText.parseSize(size), SyntheticText.DEFAULT_SEED);
+		text = new PieceTableDocument(MappedTextSource.open(file).awaitIndex()).snapshot();
+	}
+
+	/**
+	 * Method deletes the written file.
+	 *
+	 * @throws IOException if file can not be deleted
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	/**
+	 * Benchmark of sorting lines in ascending order.
+	 *
+	 * @return                      sorted text
+	 * @throws IOException          if lines can not be sorted on disk
+	 * @throws InterruptedException if benchmark thread was interrupted
+	 */
+	@Benchmark
+	public String sortAscending() throws IOException, InterruptedException {
+		return new LineSorter(Collator.getInstance(Locale.ENGLISH), true)
+				.transform(text, 0, text.length(), NO_PROGRESS);
+	}
+
+	/**
+	 * Benchmark of sorting lines in descending order.
+	 *
+	 * @return                      sorted text
+	 * @throws IOException          if lines can not be sorted on disk
+	 * @throws InterruptedException if benchmark thread was interrupted
+	 */
+	@Benchmark
+	public String sortDescending() throws IOException, InterruptedException {
+		return new LineSorter(Collator.getInstance(Locale.ENGLISH), false)
+				.transform(text, 0, text.length(), NO_PROGRESS);
+	}
+
+	/**
+	 * Benchmark of removing all equal lines.
+	 *
+	 * @return                      text without equal lines
+	 * @throws InterruptedException if benchmark thread was interrupted
+	 */
+	@Benchmark
+	public String removeEqualLines() throws InterruptedException {
+		return new LineDeduplicator(false, false).removeEqualLines(text, 0, text.length(), NO_PROGRESS);
+	}
+
+	/**
+	 * Benchmark of removing adjacent equal lines.
+	 *
+	 * @return                      text without adjacent equal lines
+	 * @throws InterruptedException if benchmark thread was interrupted
+	 */
+	@Benchmark
+	public String removeAdjacentEqualLines() throws InterruptedException {
+		return new LineDeduplicator(true, false).removeEqualLines(text, 0, text.length(), NO_PROGRESS);
+	}
+
+	/**
+	 * Benchmark of removing equal lines ignoring case.
+	 *
+	 * @return                      text without equal lines
+	 * @throws InterruptedException if benchmark thread was interrupted
+	 */
+	@Benchmark
+	public String removeEqualLinesIgnoreCase() throws InterruptedException {
+		return new LineDeduplicator(false, true).removeEqualLines(text, 0, text.length(), NO_PROGRESS);
+	}
+
+	/**
+	 * Benchmark of conversion to upper case.
+	 *
+	 * @return                      converted text
+	 * @throws InterruptedException if benchmark thread was interrupted
+	 */
+	@Benchmark
+	public String toUpperCase() throws InterruptedException {
+		return new CaseConverter(Conversion.UPPERCASE, Locale.ENGLISH).transform(text, 0, text.length(), NO_PROGRESS);
+	}
+
+	/**
+	 * Benchmark of conversion to lower case.
+	 *
+	 * @return                      converted text
+	 * @throws InterruptedException if benchmark thread was interrupted
+	 */
+	@Benchmark
+	public String toLowerCase() throws InterruptedException {
+		return new CaseConverter(Conversion.LOWERCASE, Locale.ENGLISH).transform(text, 0, text.length(), NO_PROGRESS);
+	}
+
+	/**
+	 * Benchmark of inverting case.
+	 *
+	 * @return                      converted text
+	 * @throws InterruptedException if benchmark thread was interrupted
+	 */
+	@Benchmark
+	public String invertCase() throws InterruptedException {
+		return new CaseConverter(Conversion.INVERTCASE, Locale.ENGLISH).transform(text, 0, text.length(), NO_PROGRESS);
+	}
+
+}
@@ -1,26 +1,93 @@
 package hr.fer.zemris.java.hw11.jnotepadpp;
 
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.FlowLayout;
 import java.awt.Image;
+import java.awt.Point;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
 
+import javax.swing.GrayFilter;
+import javax.swing.Icon;
 import javax.swing.ImageIcon;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
 import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
 import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.text.BadLocationException;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.DocumentReader;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.DocumentWriter;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextDifference;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextSnapshot;
+import hr.fer.zemris.java.hw11.jnotepadpp.journal.EditJournal;
+import hr.fer.zemris.java.hw11.jnotepadpp.journal.JournalDirectory;
+import hr.fer.zemris.java.hw11.jnotepadpp.session.Session;
+import hr.fer.zemris.java.hw11.jnotepadpp.session.SessionEntry;
 
 /**
  * Class represents implementation of {@link MultipleDocumentModel} that also extends {@link JTabbedPane}. </br>
  * It is used for managing multiple opened documents.
+ * </p>
+ * 
+ * Tabs are filled lazily: a tab holds a lightweight placeholder until it is selected for the first time,
+ * only then text area and scroll pane of its document are created.
+ * Documents added by {@link #loadDocumentLazily(Path)} are not even read until their tab is selected.
+ * Optionally, components of tabs that were not shown for some time are released again,
+ * see {@link #setTabReleaseDelay(int)}.
+ * </p>
+ * 
+ * Index of every document's tab and canonical path of every document are kept in hash maps,
+ * so finding a document or its tab takes constant time no matter how many documents are opened.
+ * Paths are compared by their real paths, so the same file can not be opened twice under different names.
+ * </p>
+ * 
+ * State of all tabs can be captured as a {@link Session} and restored later, see {@link #restoreSession(Session)}.
+ * </p>
+ * 
+ * Optionally, edits of every loaded document are recorded in its {@link EditJournal},
+ * which is compacted whenever the document is saved. Journals that were left behind by a crash
+ * are replayed by {@link #recoverJournals()}, see {@link #setJournalDirectory(Path, int)}.
+ * </p>
+ * 
+ * Files of loaded documents are watched by a {@link FileChangeWatcher}. Once another program changes a file,
+ * unmodified document is reloaded by replacing only the changed range of its text,
+ * while modified document is marked as conflicted and its tab is highlighted.
+ * Conflicted documents are not saved automatically, see {@link #isConflicted(SingleDocumentModel)}.
  * 
  * @author Ante Gazibaric
  * @version 1.0
@@ -32,6 +99,18 @@ public class DefaultMultipleDocumentModel extends JTabbedPane implements Multipl
 	 * List of opened documents
 	 */
 	private List<SingleDocumentModel> documents;
+	/**
+	 * Opened documents mapped to indexes of their tabs
+	 */
+	private Map<SingleDocumentModel, Integer> documentIndexes;
+	/**
+	 * Canonical paths of opened documents mapped to the documents
+	 */
+	private Map<Path, SingleDocumentModel> documentsByPath;
+	/**
+	 * Opened documents that have path mapped to their canonical paths
+	 */
+	private Map<SingleDocumentModel, Path> canonicalPaths;
 	/**
 	 * Currently shown document
 	 */
@@ -52,10 +131,122 @@ public class DefaultMultipleDocumentModel extends JTabbedPane implements Multipl
 	 * Icon that is shown when document is modified
 	 */
 	private ImageIcon modifiedDocumentIcon;
+	/**
+	 * Icon that is shown while document is being saved
+	 */
+	private ImageIcon savingDocumentIcon;
 	/**
 	 * Size of image icons
 	 */
 	private static final int IMAGE_SIZE = 16;
+	/**
+	 * Color of the title of conflicted document's tab
+	 */
+	private static final Color CONFLICT_COLOR = Color.RED;
+	/**
+	 * Number of last bytes of a file that are kept for recognizing that the file was only appended to
+	 */
+	private static final int STAMP_TAIL_SIZE = 4096;
+	/**
+	 * Default size of file in bytes from which files are loaded using memory mapping
+	 */
+	public static final long DEFAULT_MAPPED_LOADING_THRESHOLD = 8 * 1024 * 1024;
+	/**
+	 * Size of file in bytes from which files are loaded using memory mapping
+	 */
+	private long mappedLoadingThreshold = DEFAULT_MAPPED_LOADING_THRESHOLD;
+	/**
+	 * Flag that shows whether mapped files are copied before they are mapped
+	 */
+	private boolean privateCopies;
+	/**
+	 * Number of documents that can be loaded in parallel
+	 */
+	private static final int LOADING_THREADS = Runtime.getRuntime().availableProcessors();
+	/**
+	 * Executor on which documents are loaded in background
+	 */
+	private ExecutorService loadingExecutor;
+	/**
+	 * Documents that are still loading mapped to workers that load them
+	 */
+	private Map<SingleDocumentModel, DocumentLoadingWorker> loadingDocuments;
+	/**
+	 * Writer used for saving documents on the Event Dispatch Thread
+	 */
+	private DocumentWriter documentWriter;
+	/**
+	 * Scheduler used for saving documents in background
+	 */
+	private DocumentSaveScheduler saveScheduler;
+	/**
+	 * Periodic task that saves modified documents, {@code null} if autosave is turned off
+	 */
+	private ScheduledFuture<?> autosaveTask;
+	/**
+	 * Interval of automatic saving in milliseconds, not positive if autosave is turned off
+	 */
+	private int autosaveInterval;
+	/**
+	 * Documents whose text is loaded once their tab is selected mapped to sources of their text
+	 */
+	private Map<SingleDocumentModel, DocumentSource> deferredDocuments;
+	/**
+	 * Restored documents that are loaded in background one by one, in order of their tabs
+	 */
+	private Deque<SingleDocumentModel> restoredDocuments;
+	/**
+	 * Scroll positions that are applied once scroll panes of the documents are created
+	 */
+	private Map<SingleDocumentModel, Point> scrollPositions;
+	/**
+	 * Documents whose tabs are not selected mapped to time in milliseconds when they were hidden
+	 */
+	private Map<SingleDocumentModel, Long> hiddenDocuments;
+	/**
+	 * Document whose tab is selected
+	 */
+	private SingleDocumentModel shownDocument;
+	/**
+	 * Time in milliseconds after which components of hidden tabs are released
+	 */
+	private int tabReleaseDelay;
+	/**
+	 * Periodic task that releases components of hidden tabs, {@code null} if they are never released
+	 */
+	private ScheduledFuture<?> tabReleaseTask;
+	/**
+	 * Locked journal directory of this instance, {@code null} if edits are not journaled
+	 */
+	private JournalDirectory journalDirectory;
+	/**
+	 * Interval in milliseconds in which journaled edits are written
+	 */
+	private int journalInterval = EditJournal.DEFAULT_COMMIT_INTERVAL;
+	/**
+	 * Loaded documents mapped to journals of their edits
+	 */
+	private Map<SingleDocumentModel, EditJournal> journals;
+	/**
+	 * Documents that are recovered mapped to journal files from which they are recovered
+	 */
+	private Map<SingleDocumentModel, Path> recoveredJournals;
+	/**
+	 * Watcher of files of opened documents
+	 */
+	private FileChangeWatcher fileWatcher;
+	/**
+	 * Loaded documents mapped to states of their files when they were loaded or saved
+	 */
+	private Map<SingleDocumentModel, FileStamp> fileStamps;
+	/**
+	 * Documents whose files were changed by another program while they were modified
+	 */
+	private Set<SingleDocumentModel> conflictedDocuments;
+	/**
+	 * Documents that are being reloaded because their files were changed
+	 */
+	private Set<SingleDocumentModel> reloadingDocuments;
 	
 	/**
 	 * Serial number
@@ -67,7 +258,28 @@ public class DefaultMultipleDocumentModel extends JTabbedPane implements Multipl
 	 */
 	public DefaultMultipleDocumentModel() {
 		documents = new ArrayList<>();
+		documentIndexes = new IdentityHashMap<>();
+		documentsByPath = new HashMap<>();
+		canonicalPaths = new IdentityHashMap<>();
 		listeners = new LinkedList<>();
+		loadingDocuments = new HashMap<>();
+		deferredDocuments = new HashMap<>();
+		restoredDocuments = new ArrayDeque<>();
+		scrollPositions = new HashMap<>();
+		hiddenDocuments = new HashMap<>();
+		journals = new HashMap<>();
+		recoveredJournals = new HashMap<>();
+		fileStamps = new HashMap<>();
+		conflictedDocuments = new HashSet<>();
+		reloadingDocuments = new HashSet<>();
+		fileWatcher = new FileChangeWatcher(this::filesChanged, FileChangeWatcher.DEFAULT_DEBOUNCE_DELAY);
+		documentWriter = new DocumentWriter();
+		saveScheduler = new DocumentSaveScheduler();
+		loadingExecutor = Executors.newFixedThreadPool(LOADING_THREADS, r -> {
+			Thread thread = new Thread(r, "document-loader");
+			thread.setDaemon(true);
+			return thread;
+		});
 		initModel();
 	}
 	
@@ -79,7 +291,8 @@ public class DefaultMultipleDocumentModel extends JTabbedPane implements Multipl
 			int index = this.getSelectedIndex();
 			if (index == -1)
 				return;
-			currentDocument = documents.get(this.getSelectedIndex());
+			showDocument(index);
+			currentDocument = documents.get(index);
 			fireDocumentChanged(null, currentDocument);
 		});
 		
@@ -91,8 +304,9 @@ public class DefaultMultipleDocumentModel extends JTabbedPane implements Multipl
 	 */
 	private void initIcons() {
 		try {
-			modifiedDocumentIcon = resizeIcon(getIconForPath("./icons/ModifiedDocumentIcon.png"));
-			unmodifiedDocumentIcon = resizeIcon(getIconForPath("./icons/UnmodifiedDocumentIcon.png"));
+			modifiedDocumentIcon = resizeIcon(getIconForPath("icons/ModifiedDocumentIcon.png"));
+			unmodifiedDocumentIcon = resizeIcon(getIconForPath("icons/UnmodifiedDocumentIcon.png"));
+			savingDocumentIcon = new ImageIcon(GrayFilter.createDisabledImage(modifiedDocumentIcon.getImage()));
 		} catch (IOException ex) {
 			throw new DocumentModelException("Icons can not be loaded.");
 		}
@@ -132,32 +346,137 @@ public class DefaultMultipleDocumentModel extends JTabbedPane implements Multipl
 	public SingleDocumentModel createNewDocument() {
 		SingleDocumentModel document = new DefaultSingleDocumentModel(null, "");
 		currentDocument = document;
-		documents.add(document);
-		addNewDocumentTab(null, document.getTextComponent());
+		registerDocument(document);
+		addNewDocumentTab(null, true);
 		document.addSingleDocumentListener(getSingleDocumentListener());
+		startJournal(document);
 		fireDocumentAdded(document);
 		return document;
 	}
 	
 	/**
-	 * Method creates new document tab.
+	 * Method creates new document tab for the last added document.
+	 * Tab holds a placeholder until it is selected.
 	 * 
-	 * @param name     name of document
-	 * @param textArea text area associated to the new document
+	 * @param path   path of the document, can be {@code null}
+	 * @param select flag that shows whether new tab is selected
 	 */
-	private void addNewDocumentTab(Path path, JTextArea textArea) {
-		JScrollPane scrollPane = new JScrollPane(textArea);
+	private void addNewDocumentTab(Path path, boolean select) {
 		String name = path == null ? EMPTY_DOC_NAME : path.getFileName().toString();
 		String pathName = path == null ? EMPTY_DOC_NAME : path.toAbsolutePath().toString();
 		
-		this.add(name, scrollPane);
+		this.add(name, new TabPlaceholder());
 		int index = getNumberOfDocuments() - 1;
-		this.setSelectedIndex(index);
+		if (select) {
+			this.setSelectedIndex(index);
+		}
 		this.setToolTipTextAt(index, pathName);
 		this.setIconAt(index, unmodifiedDocumentIcon);
+	}
+	
+	/**
+	 * Method prepares tab at given {@code index} to be shown. </br>
+	 * Deferred document starts loading, placeholder of loaded document is replaced with its text area
+	 * and text of loading document is shown if it can be.
+	 * Document that was shown before is marked as hidden.
+	 * 
+	 * @param index index of the selected tab
+	 */
+	private void showDocument(int index) {
+		SingleDocumentModel model = documents.get(index);
+		if (shownDocument != null && shownDocument != model && indexOf(shownDocument) != -1) {
+			hiddenDocuments.put(shownDocument, System.currentTimeMillis());
+		}
+		shownDocument = model;
+		hiddenDocuments.remove(model);
+		
+		DocumentSource source = deferredDocuments.remove(model);
+		DocumentLoadingWorker worker = loadingDocuments.get(model);
+		if (source != null) {
+			startLoading((DefaultSingleDocumentModel) model, source);
+		} else if (worker != null) {
+			worker.showLoadingText();
+		} else if (getComponentAt(index) instanceof TabPlaceholder) {
+			setComponentAt(index, createDocumentComponent(model));
+		}
+	}
+	
+	/**
+	 * Method creates component that shows text area of given {@code model}.
+	 * 
+	 * @param model document that is shown
+	 * @return      component of the document's tab
+	 */
+	private Component createDocumentComponent(SingleDocumentModel model) {
+		JTextArea textArea = model.getTextComponent();
 		textArea.addCaretListener(l -> {
 			fireDocumentChanged(null, getCurrentDocument());
 		});
+		JScrollPane scrollPane = new JScrollPane(textArea);
+		Point scrollPosition = scrollPositions.remove(model);
+		if (scrollPosition != null) {
+			// View has its size only after the scroll pane is laid out
+			SwingUtilities.invokeLater(() -> scrollPane.getViewport().setViewPosition(scrollPosition));
+		}
+		return scrollPane;
+	}
+	
+	/**
+	 * Method returns scroll position of the tab at given {@code index}.
+	 * 
+	 * @param index index of the tab
+	 * @return      position of the upper left corner of the scrolled view
+	 */
+	private Point getScrollPosition(int index) {
+		Component component = getComponentAt(index);
+		if (component instanceof JScrollPane)
+			return ((JScrollPane) component).getViewport().getViewPosition();
+		Point scrollPosition = scrollPositions.get(documents.get(index));
+		return scrollPosition == null ? new Point() : new Point(scrollPosition);
+	}
+	
+	/**
+	 * Method sets time in milliseconds after which text areas and scroll panes of tabs
+	 * that are not selected are released. </br>
+	 * Released tab shows placeholder again and its components are created again once it is selected.
+	 * Text, history and caret position of the document are kept.
+	 * If {@code delay} is not positive, components are never released.
+	 * 
+	 * @param delay time after which components of hidden tabs are released
+	 */
+	public void setTabReleaseDelay(int delay) {
+		if (tabReleaseTask != null) {
+			tabReleaseTask.cancel(false);
+			tabReleaseTask = null;
+		}
+		tabReleaseDelay = delay;
+		if (delay <= 0)
+			return;
+		tabReleaseTask = UITicker.getInstance().schedule(this::releaseHiddenTabs, delay, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Method releases components of tabs that were hidden for at least {@link #tabReleaseDelay} milliseconds.
+	 */
+	private void releaseHiddenTabs() {
+		long now = System.currentTimeMillis();
+		Iterator<Map.Entry<SingleDocumentModel, Long>> iterator = hiddenDocuments.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<SingleDocumentModel, Long> entry = iterator.next();
+			if (now - entry.getValue() < tabReleaseDelay)
+				continue;
+			iterator.remove();
+			
+			SingleDocumentModel model = entry.getKey();
+			int index = indexOf(model);
+			if (index == -1 || index == getSelectedIndex() || loadingDocuments.containsKey(model))
+				continue;
+			if (getComponentAt(index) instanceof TabPlaceholder || !(model instanceof DefaultSingleDocumentModel))
+				continue;
+			scrollPositions.put(model, getScrollPosition(index));
+			setComponentAt(index, new TabPlaceholder());
+			((DefaultSingleDocumentModel) model).releaseTextComponent();
+		}
 	}
 	
 	/**
@@ -194,40 +513,102 @@ public class DefaultMultipleDocumentModel extends JTabbedPane implements Multipl
 		});
 	}
 
+	/**
+	 * Method sets size of file in bytes from which files are loaded using memory mapping. </br>
+	 * Mapped files are decoded lazily, only parts of the file that are shown or edited are kept in memory.
+	 * 
+	 * @param threshold size of file in bytes from which mapping is used
+	 */
+	public void setMappedLoadingThreshold(long threshold) {
+		if (threshold < 0)
+			throw new IllegalArgumentException("Threshold must not be negative. Was: " + threshold);
+		this.mappedLoadingThreshold = threshold;
+	}
+	
+	/**
+	 * Method sets whether files that are loaded using memory mapping are copied into private temporary files first. </br>
+	 * Mapped file is shown while it is still being indexed, but its text changes
+	 * if another program rewrites the file in place, until the document is reloaded.
+	 * Private copy keeps the text of the document intact, but the copy has to be made before anything is shown.
+	 * 
+	 * @param privateCopies {@code true} if mapped files are copied, otherwise {@code false}
+	 */
+	public void setPrivateCopies(boolean privateCopies) {
+		this.privateCopies = privateCopies;
+	}
+
 	@Override
 	public SingleDocumentModel getCurrentDocument() {
 		return currentDocument;
 	}
 
+	@Override
+	public void setCurrentDocument(SingleDocumentModel model) {
+		int index = indexOf(model);
+		if (index == -1)
+			throw new IllegalArgumentException("Document is not opened.");
+		setSelectedIndex(index);
+	}
+
 	@Override
 	public SingleDocumentModel loadDocument(Path path) {
 		Objects.requireNonNull(path, "Path must not be null");
 		
 		// Check if there's already document with given path
-		for (SingleDocumentModel document : documents) {
-			Path documentPath = document.getFilePath();
-			if (documentPath == null)
-				continue;
-			if (document.getFilePath().equals(path)) {
-				currentDocument = document;
-				return document;
-			}
+		SingleDocumentModel openedDocument = findDocument(path);
+		if (openedDocument != null) {
+			currentDocument = openedDocument;
+			return openedDocument;
 		}
 		
 		// Add new document
-		String textContent;
+		PieceTableDocument textContent;
 		try {
-			byte[] content = Files.readAllBytes(path);
-			textContent = new String(content, "UTF-8");
+			textContent = DocumentReader.read(path, mappedLoadingThreshold, privateCopies, null);
 		} catch (IOException ex) {
-			JOptionPane.showMessageDialog(this, "Pogreška prilikom učitavanja datoteke " + path,
-					"Pogreška", JOptionPane.ERROR_MESSAGE);
+			showLoadingError(path);
 			return null;
 		}
 		SingleDocumentModel document = new DefaultSingleDocumentModel(path, textContent);
-		documents.add(document);
-		addNewDocumentTab(path, document.getTextComponent());
-		currentDocument = document;
+		addDocument(path, document);
+		startJournal(document);
+		fileStamps.put(document, FileStamp.withTail(path));
+		
+		return document;
+	}
+	
+	@Override
+	public SingleDocumentModel loadDocumentAsync(Path path) {
+		Objects.requireNonNull(path, "Path must not be null");
+		
+		// Check if there's already document with given path
+		SingleDocumentModel openedDocument = findDocument(path);
+		if (openedDocument != null) {
+			currentDocument = openedDocument;
+			return openedDocument;
+		}
+		
+		// Add empty document that starts loading once its tab is selected, which happens immediately
+		DefaultSingleDocumentModel document = new DefaultSingleDocumentModel(path, new PieceTableDocument());
+		deferredDocuments.put(document, fileSource(path));
+		addDocument(path, document);
+		
+		return document;
+	}
+	
+	@Override
+	public SingleDocumentModel loadDocumentLazily(Path path) {
+		Objects.requireNonNull(path, "Path must not be null");
+		
+		SingleDocumentModel openedDocument = findDocument(path);
+		if (openedDocument != null)
+			return openedDocument;
+		
+		// Add empty document that starts loading once its tab is selected
+		DefaultSingleDocumentModel document = new DefaultSingleDocumentModel(path, new PieceTableDocument());
+		deferredDocuments.put(document, fileSource(path));
+		registerDocument(document);
+		addNewDocumentTab(path, false);
 		document.addSingleDocumentListener(getSingleDocumentListener());
 		fireDocumentAdded(document);
 		
@@ -235,107 +616,848 @@ public class DefaultMultipleDocumentModel extends JTabbedPane implements Multipl
 	}
 	
 	/**
-	 * Method returns new implementation of {@link SingleDocumentListener}.
+	 * Method starts loading text of given {@code document} from given {@code source} in background.
 	 * 
-	 * @return {@link SingleDocumentListener} object
+	 * @param document document whose text is loaded
+	 * @param source   source of the text
 	 */
-	private SingleDocumentListener getSingleDocumentListener() {
-		return new SingleDocumentListener() {
-			
-			@Override
-			public void documentModifyStatusUpdated(SingleDocumentModel model) {
-				setModifiedIcon(model);
-				fireDocumentChanged(null, model);
-			}
-			
-			@Override
-			public void documentFilePathUpdated(SingleDocumentModel model) {
-				getSelectedComponent().setName(model.getFilePath().getFileName().toString());
-			}
-		};
+	private void startLoading(DefaultSingleDocumentModel document, DocumentSource source) {
+		DocumentLoadingWorker worker = new DocumentLoadingWorker(document, source);
+		loadingDocuments.put(document, worker);
+		loadingExecutor.execute(worker);
 	}
 	
 	/**
-	 * Method sets modified icon to the given {@code model}.
+	 * Method returns source that reads text of the file at given {@code path}.
+	 * Mapped file is returned as a document that is still loading.
 	 * 
-	 * @param model document model to which modified icon is set
+	 * @param path path of the file
+	 * @return     source of the file's text
 	 */
-	private void setModifiedIcon(SingleDocumentModel model) {
-		int index = documents.indexOf(model);
-		this.setIconAt(index, modifiedDocumentIcon);
+	private DocumentSource fileSource(Path path) {
+		return progressListener -> DocumentReader.open(path, mappedLoadingThreshold, privateCopies, progressListener);
 	}
 	
 	/**
-	 * Method sets unmodified icon to the given {@code model}.
+	 * Method captures current state of all tabs as a {@link Session}. </br>
+	 * Session holds path, caret and scroll position of every document,
+	 * modified documents also keep their unsaved text.
+	 * Text is captured as a snapshot, documents that are not loaded yet are read from their sources.
 	 * 
-	 * @param model document model to which unmodified icon is set
+	 * @return session with state of all tabs
 	 */
-	private void setUnmodified(SingleDocumentModel model) {
-		model.setModified(false);
-		int index = documents.indexOf(model);
-		this.setIconAt(index, unmodifiedDocumentIcon);
+	public Session captureSession() {
+		List<SessionEntry> entries = new ArrayList<>();
+		for (int i = 0; i < documents.size(); i++) {
+			SingleDocumentModel model = documents.get(i);
+			int dot = 0;
+			int mark = 0;
+			if (model instanceof DefaultSingleDocumentModel) {
+				dot = ((DefaultSingleDocumentModel) model).getCaretDot();
+				mark = ((DefaultSingleDocumentModel) model).getCaretMark();
+			}
+			TextSnapshot text = model.isModified() ? captureText(model) : null;
+			entries.add(new SessionEntry(model.getFilePath(), dot, mark, getScrollPosition(i), text));
+		}
+		return new Session(entries, getSelectedIndex());
 	}
 	
-	@Override
-	public void saveDocument(SingleDocumentModel model, Path newPath) {
-		// If newPath = null use model's path
-		if (newPath == null) {
-			byte[] bytes = model.getTextComponent().getText().getBytes();
-			try {
-				Files.write(model.getFilePath(), bytes);
-				setUnmodified(model);
-				return;
-			} catch (IOException ex) {
-				System.err.println("Greška save document");
-				return;
+	/**
+	 * Method captures text of given {@code model}.
+	 * 
+	 * @param model document whose text is captured
+	 * @return      snapshot of the text or {@code null} if text can not be read
+	 */
+	private TextSnapshot captureText(SingleDocumentModel model) {
+		DocumentSource source = deferredDocuments.get(model);
+		DocumentLoadingWorker worker = loadingDocuments.get(model);
+		if (worker != null) {
+			source = worker.source;
+		}
+		if (source == null)
+			return takeSnapshot(model);
+		try {
+			PieceTableDocument text = source.read(null);
+			text.awaitIndexed();
+			text.loadIndexed();
+			return text.snapshot();
+		} catch (IOException ex) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Method restores tabs of given {@code session} after the tabs that are already opened. </br>
+	 * Tabs are added at once, but documents are not read yet. Selected tab of the session is selected,
+	 * so its document is loaded first, the rest are then loaded in background one by one.
+	 * Documents whose files no longer exist and documents that are already opened are skipped.
+	 * Documents that had unsaved text are restored with that text and marked as modified.
+	 * 
+	 * @param session session that is restored
+	 */
+	public void restoreSession(Session session) {
+		Objects.requireNonNull(session, "Session must not be null");
+		List<SessionEntry> entries = session.getEntries();
+		SingleDocumentModel selectedDocument = null;
+		for (int i = 0; i < entries.size(); i++) {
+			SingleDocumentModel document = restoreDocument(session, entries.get(i));
+			if (i == session.getSelectedIndex() || selectedDocument == null) {
+				selectedDocument = document;
 			}
 		}
+		if (selectedDocument != null) {
+			setCurrentDocument(selectedDocument);
+		}
+		loadNextRestored();
+	}
+	
+	/**
+	 * Method adds tab of the document described by given {@code entry}.
+	 * 
+	 * @param session session that is restored
+	 * @param entry   entry of the restored document
+	 * @return        restored document or {@code null} if it is skipped
+	 */
+	private SingleDocumentModel restoreDocument(Session session, SessionEntry entry) {
+		Path path = entry.getPath();
+		DocumentSource source = null;
+		if (path != null && findDocument(path) != null)
+			return null;
+		if (entry.hasText()) {
+			source = progressListener -> session.readText(entry, progressListener);
+		} else if (path != null) {
+			if (!Files.isRegularFile(path))
+				return null;
+			source = fileSource(path);
+		}
 		
-		// Check if newPath already exists
-		for (SingleDocumentModel document : documents) {
-			Path documentPath = document.getFilePath();
-			if (document == model || documentPath == null)
-				continue;
-			if (document.getFilePath().equals(newPath)) {
-				throw new DocumentModelException("Specified path is already opened");
+		DefaultSingleDocumentModel document = new DefaultSingleDocumentModel(path, new PieceTableDocument());
+		document.setCaretPosition(entry.getDot(), entry.getMark());
+		scrollPositions.put(document, entry.getScrollPosition());
+		if (source != null) {
+			deferredDocuments.put(document, source);
+			restoredDocuments.add(document);
+		}
+		registerDocument(document);
+		addNewDocumentTab(path, false);
+		document.addSingleDocumentListener(getSingleDocumentListener());
+		if (entry.hasText()) {
+			document.setModified(true);
+		}
+		if (source == null) {
+			startJournal(document);
+		}
+		fireDocumentAdded(document);
+		return document;
+	}
+	
+	/**
+	 * Method starts loading the next restored document that is still not loaded.
+	 * Nothing is started while some document is loading, so restored documents never compete
+	 * with the document that user is waiting for.
+	 */
+	private void loadNextRestored() {
+		if (!loadingDocuments.isEmpty())
+			return;
+		while (!restoredDocuments.isEmpty()) {
+			SingleDocumentModel document = restoredDocuments.poll();
+			DocumentSource source = deferredDocuments.remove(document);
+			if (source != null) {
+				startLoading((DefaultSingleDocumentModel) document, source);
+				return;
 			}
 		}
-			
-		// Save document to the newPath
-		byte[] bytes = model.getTextComponent().getText().getBytes();
+	}
+	
+	/**
+	 * Method turns on journaling of edits. </br>
+	 * From now on, edits of every document are recorded in its own journal in given {@code directory}
+	 * and journal is written at most once every {@code commitInterval} milliseconds.
+	 * Journals are kept in a subdirectory that is locked for as long as this instance runs,
+	 * see {@link JournalDirectory}. If it can not be created, edits are not journaled.
+	 * Documents that are already loaded are not journaled.
+	 * 
+	 * @param directory      directory of journals
+	 * @param commitInterval interval in milliseconds in which journaled edits are written
+	 * @throws IllegalArgumentException if commit interval is not positive
+	 */
+	public void setJournalDirectory(Path directory, int commitInterval) {
+		if (commitInterval <= 0)
+			throw new IllegalArgumentException("Commit interval must be positive. Was: " + commitInterval);
+		Objects.requireNonNull(directory, "Directory must not be null");
+		if (journalDirectory != null) {
+			journalDirectory.close();
+			journalDirectory = null;
+		}
 		try {
-			Files.write(newPath, bytes);
-			currentDocument.setFilePath(newPath);
-			this.setTitleAt(this.getSelectedIndex(), newPath.getFileName().toString());
-			setUnmodified(model);
+			this.journalDirectory = JournalDirectory.open(directory);
 		} catch (IOException ex) {
+			System.err.println("Journal directory can not be used: " + directory);
 		}
+		this.journalInterval = commitInterval;
 	}
-
-	@Override
-	public void closeDocument(SingleDocumentModel model) {
-		int index = documents.indexOf(model);
-		documents.remove(model);
-		this.remove(index);
-		int selectedIndex = getSelectedIndex();
-		if (selectedIndex == -1) {
-			currentDocument = null;
-		} else {
-			currentDocument = documents.get(selectedIndex);
+	
+	/**
+	 * Method starts journal of given {@code model} whose text is loaded.
+	 * Nothing is done if journaling is turned off.
+	 * 
+	 * @param model document whose edits are journaled
+	 */
+	private void startJournal(SingleDocumentModel model) {
+		if (journalDirectory == null || !(model instanceof DefaultSingleDocumentModel) || journals.containsKey(model))
+			return;
+		EditJournal journal = new EditJournal(journalDirectory.newJournalFile(), journalInterval);
+		journals.put(model, journal);
+		((DefaultSingleDocumentModel) model).setJournal(journal);
+		compactJournal(model);
+		
+		// Recovered journal is deleted only after the new one has recorded recovered text
+		Path recoveredJournal = recoveredJournals.remove(model);
+		if (recoveredJournal != null) {
+			EditJournal.discard(recoveredJournal);
 		}
-		fireDocumentRemoved(model);
 	}
-
-	@Override
-	public void addMultipleDocumentListener(MultipleDocumentListener l) {
-		listeners.add(l);
+	
+	/**
+	 * Method starts journal of given {@code model} again from its current text.
+	 * If document is not modified, journal refers to its file instead of storing the text.
+	 * 
+	 * @param model document whose journal is compacted
+	 */
+	private void compactJournal(SingleDocumentModel model) {
+		EditJournal journal = journals.get(model);
+		if (journal != null) {
+			journal.reset(model.getFilePath(), takeSnapshot(model), !model.isModified());
+		}
 	}
-
-	@Override
-	public void removeMultipleDocumentListener(MultipleDocumentListener l) {
-		listeners.remove(l);
+	
+	/**
+	 * Method opens documents recovered from journals that were left in the journal directory,
+	 * which happens only if program was not closed properly. </br>
+	 * Only journals of instances that are no longer running are recovered, see {@link JournalDirectory#findJournals()}.
+	 * Recovered documents are added as modified tabs and their text is replayed in background one by one.
+	 * If document of a journal is already opened, journal is recovered into a new document that has no path.
+	 * Journals that hold no unsaved edits or that can not be read are deleted.
+	 */
+	public void recoverJournals() {
+		if (journalDirectory == null)
+			return;
+		List<Path> files;
+		try {
+			files = journalDirectory.findJournals();
+		} catch (IOException ex) {
+			System.err.println("Journals can not be read: " + ex.getMessage());
+			return;
+		}
+		Set<Path> liveJournals = new HashSet<>(recoveredJournals.values());
+		for (EditJournal journal : journals.values()) {
+			liveJournals.add(journal.getFile());
+		}
+		for (Path file : files) {
+			if (liveJournals.contains(file))
+				continue;
+			EditJournal.Header header;
+			try {
+				header = EditJournal.readHeader(file);
+			} catch (IOException ex) {
+				EditJournal.discard(file);
+				continue;
+			}
+			if (!header.hasUnsavedText()) {
+				EditJournal.discard(file);
+				continue;
+			}
+			
+			Path path = header.getPath();
+			if (path != null && findDocument(path) != null) {
+				path = null;
+			}
+			DefaultSingleDocumentModel document = new DefaultSingleDocumentModel(path, new PieceTableDocument());
+			deferredDocuments.put(document,
+					progressListener -> EditJournal.replay(file, mappedLoadingThreshold, progressListener));
+			restoredDocuments.add(document);
+			recoveredJournals.put(document, file);
+			registerDocument(document);
+			addNewDocumentTab(path, false);
+			document.addSingleDocumentListener(getSingleDocumentListener());
+			document.setModified(true);
+			fireDocumentAdded(document);
+		}
+		loadNextRestored();
 	}
-
+	
+	/**
+	 * Method closes journals of all documents and deletes their files, including journals that are still being recovered.
+	 * It is used once unsaved text of all documents is stored elsewhere, for example in a {@link Session}.
+	 * Method returns once all journal files are deleted.
+	 */
+	public void discardJournals() {
+		List<Future<?>> deletions = new ArrayList<>();
+		for (Map.Entry<SingleDocumentModel, EditJournal> entry : journals.entrySet()) {
+			((DefaultSingleDocumentModel) entry.getKey()).setJournal(null);
+			deletions.add(entry.getValue().close(true));
+		}
+		for (Path file : recoveredJournals.values()) {
+			deletions.add(EditJournal.discard(file));
+		}
+		journals.clear();
+		recoveredJournals.clear();
+		
+		for (Future<?> deletion : deletions) {
+			try {
+				deletion.get();
+			} catch (ExecutionException ex) {
+				// Deletion reports its own failure
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Method checks files that were changed by other programs, it is called by the {@link #fileWatcher}.
+	 * 
+	 * @param paths canonical paths of changed files
+	 */
+	private void filesChanged(Set<Path> paths) {
+		for (Path path : paths) {
+			SingleDocumentModel model = documentsByPath.get(path);
+			if (model != null) {
+				checkFile(model);
+			}
+		}
+	}
+	
+	/**
+	 * Method compares file of given {@code model} with its state when it was last loaded or saved. </br>
+	 * If file was changed and document is not modified, document is reloaded.
+	 * If document is modified or file was deleted, document is marked as conflicted.
+	 * Documents that are loading, saving or reloading are not checked.
+	 * 
+	 * @param model document whose file is checked
+	 */
+	private void checkFile(SingleDocumentModel model) {
+		Path path = model.getFilePath();
+		FileStamp stamp = fileStamps.get(model);
+		if (path == null || stamp == null || saveScheduler.isSaving(model) || reloadingDocuments.contains(model))
+			return;
+		FileStamp currentStamp = FileStamp.of(path);
+		if (stamp.equals(currentStamp))
+			return;
+		if (currentStamp != null && !model.isModified() && model.getDocument() instanceof PieceTableDocument
+				&& model instanceof DefaultSingleDocumentModel) {
+			reloadDocument(model, path, stamp, currentStamp);
+		} else {
+			setConflicted(model, true);
+		}
+	}
+	
+	/**
+	 * Method reads file of given {@code model} in background and replaces the range of document's text
+	 * that differs from the file as a single undoable edit.
+	 * If document is edited in the meantime, it is marked as conflicted instead.
+	 * </p>
+	 * 
+	 * File that was only appended to, which is recognized by its last bytes before the change,
+	 * is not read again: only the appended text is read and inserted at the end of the document.
+	 * Otherwise the whole file is read and old text is compared through the snapshot of the document.
+	 * Document that maps the file itself is not compared, since its text may already show the changed file:
+	 * it is replaced by the read document as a whole.
+	 * If file changes again while it is read, the read text is dropped without being compared and the file is checked again.
+	 * 
+	 * @param model    document that is reloaded
+	 * @param path     path of the document
+	 * @param previous state of the file whose text document holds
+	 * @param stamp    state of the file before it is read
+	 */
+	private void reloadDocument(SingleDocumentModel model, Path path, FileStamp previous, FileStamp stamp) {
+		PieceTableDocument document = (PieceTableDocument) model.getDocument();
+		TextSnapshot snapshot = document.snapshot();
+		reloadingDocuments.add(model);
+		CompletableFuture.<DocumentUpdate>supplyAsync(() -> {
+			try {
+				String appended = previous.readAppended(path, stamp, mappedLoadingThreshold);
+				if (appended != null) {
+					FileStamp appendedStamp = FileStamp.withTail(path);
+					if (!stamp.equals(appendedStamp))
+						return null;
+					return () -> {
+						document.insertString(snapshot.length(), appended, null);
+						return appendedStamp;
+					};
+				}
+				
+				PieceTableDocument reloaded = DocumentReader.read(path, mappedLoadingThreshold, privateCopies, null);
+				FileStamp reloadedStamp = FileStamp.withTail(path);
+				if (!stamp.equals(reloadedStamp))
+					return null;
+				if (document.isFileMapped()) {
+					return () -> {
+						((DefaultSingleDocumentModel) model).setDocument(reloaded);
+						return reloadedStamp;
+					};
+				}
+				TextDifference difference = TextDifference.compute(snapshot, reloaded.snapshot());
+				return () -> {
+					difference.apply(document);
+					return reloadedStamp;
+				};
+			} catch (IOException ex) {
+				throw new CompletionException(ex);
+			}
+		}, loadingExecutor).whenCompleteAsync((update, ex) -> {
+			if (!reloadingDocuments.remove(model))
+				return;
+			if (ex != null || model.isModified() || model.getDocument() != document
+					|| document.getModificationCount() != snapshot.getModificationCount()) {
+				setConflicted(model, true);
+				return;
+			}
+			if (update == null) {
+				checkFile(model);
+				return;
+			}
+			FileStamp updatedStamp;
+			try {
+				updatedStamp = update.apply();
+			} catch (BadLocationException e) {
+				setConflicted(model, true);
+				return;
+			}
+			fileStamps.put(model, updatedStamp);
+			setConflicted(model, false);
+			model.setModified(false);
+			compactJournal(model);
+			// File could have changed again while it was read
+			checkFile(model);
+		}, SwingUtilities::invokeLater);
+	}
+	
+	/**
+	 * Method sets whether file of given {@code model} was changed by another program while document was modified.
+	 * Title of conflicted document's tab is highlighted.
+	 * 
+	 * @param model      document whose flag is set
+	 * @param conflicted new value of the flag
+	 */
+	private void setConflicted(SingleDocumentModel model, boolean conflicted) {
+		if (conflicted ? !conflictedDocuments.add(model) : !conflictedDocuments.remove(model))
+			return;
+		int index = indexOf(model);
+		if (index != -1) {
+			setForegroundAt(index, conflicted ? CONFLICT_COLOR : null);
+		}
+		if (model == getCurrentDocument()) {
+			fireDocumentChanged(null, model);
+		}
+	}
+	
+	/**
+	 * Method checks whether file of given {@code model} was changed by another program
+	 * while document was modified, so saving the document would overwrite those changes.
+	 * Flag is cleared once document is saved or reloaded.
+	 * 
+	 * @param model document that is checked
+	 * @return      {@code true} if document is conflicted, otherwise {@code false}
+	 */
+	public boolean isConflicted(SingleDocumentModel model) {
+		return conflictedDocuments.contains(model);
+	}
+	
+	@Override
+	public SingleDocumentModel findDocument(Path path) {
+		Objects.requireNonNull(path, "Path must not be null");
+		return documentsByPath.get(canonicalPath(path));
+	}
+	
+	@Override
+	public int indexOf(SingleDocumentModel model) {
+		Integer index = documentIndexes.get(model);
+		return index == null ? -1 : index;
+	}
+	
+	/**
+	 * Method returns canonical form of given {@code path}. </br>
+	 * It is the real path of the file if file exists, otherwise normalized absolute path.
+	 * 
+	 * @param path path whose canonical form is returned
+	 * @return     canonical path
+	 */
+	private static Path canonicalPath(Path path) {
+		Path absolutePath = path.toAbsolutePath().normalize();
+		try {
+			return absolutePath.toRealPath();
+		} catch (IOException ex) {
+			return absolutePath;
+		}
+	}
+	
+	/**
+	 * Method adds given {@code document} to the end of the list of documents and indexes it.
+	 * 
+	 * @param document document that is added
+	 */
+	private void registerDocument(SingleDocumentModel document) {
+		documents.add(document);
+		documentIndexes.put(document, documents.size() - 1);
+		indexPath(document);
+	}
+	
+	/**
+	 * Method removes given {@code document} from the list of documents and from the indexes. </br>
+	 * Indexes of documents after it are decreased.
+	 * 
+	 * @param document document that is removed
+	 * @return         former index of the document
+	 */
+	private int unregisterDocument(SingleDocumentModel document) {
+		int index = indexOf(document);
+		documents.remove(index);
+		documentIndexes.remove(document);
+		updateIndexes(index, documents.size());
+		Path path = canonicalPaths.remove(document);
+		if (path != null && documentsByPath.get(path) == document) {
+			documentsByPath.remove(path);
+		}
+		if (path != null) {
+			fileWatcher.unwatch(path);
+		}
+		return index;
+	}
+	
+	/**
+	 * Method stores indexes of documents between {@code from} inclusive and {@code to} exclusive.
+	 * 
+	 * @param from index of the first updated document
+	 * @param to   index after the last updated document
+	 */
+	private void updateIndexes(int from, int to) {
+		for (int i = from; i < to; i++) {
+			documentIndexes.put(documents.get(i), i);
+		}
+	}
+	
+	/**
+	 * Method updates canonical path of given {@code document} in the path index.
+	 * 
+	 * @param document document whose path is indexed
+	 */
+	private void indexPath(SingleDocumentModel document) {
+		Path oldPath = canonicalPaths.remove(document);
+		if (oldPath != null && documentsByPath.get(oldPath) == document) {
+			documentsByPath.remove(oldPath);
+		}
+		if (oldPath != null) {
+			fileWatcher.unwatch(oldPath);
+		}
+		if (document.getFilePath() == null)
+			return;
+		Path path = canonicalPath(document.getFilePath());
+		canonicalPaths.put(document, path);
+		documentsByPath.put(path, document);
+		fileWatcher.watch(path);
+	}
+	
+	/**
+	 * Method moves tab of given {@code model} to the given {@code index}.
+	 * Moved document stays selected if it was selected.
+	 * 
+	 * @param model document that is moved
+	 * @param index new index of the document's tab
+	 * @throws IllegalArgumentException  if document is not opened
+	 * @throws IndexOutOfBoundsException if index is not valid
+	 */
+	public void moveDocument(SingleDocumentModel model, int index) {
+		int oldIndex = indexOf(model);
+		if (oldIndex == -1)
+			throw new IllegalArgumentException("Document is not opened.");
+		Objects.checkIndex(index, documents.size());
+		if (oldIndex == index)
+			return;
+		
+		boolean selected = oldIndex == getSelectedIndex();
+		String title = getTitleAt(oldIndex);
+		String toolTip = getToolTipTextAt(oldIndex);
+		Icon icon = getIconAt(oldIndex);
+		Component component = getComponentAt(oldIndex);
+		
+		documents.remove(oldIndex);
+		documents.add(index, model);
+		updateIndexes(Math.min(oldIndex, index), Math.max(oldIndex, index) + 1);
+		removeTabAt(oldIndex);
+		insertTab(title, icon, component, toolTip, index);
+		if (conflictedDocuments.contains(model)) {
+			setForegroundAt(index, CONFLICT_COLOR);
+		}
+		if (selected) {
+			setSelectedIndex(index);
+		}
+	}
+	
+	/**
+	 * Method adds given {@code document} loaded from {@code path} to the new tab
+	 * and notifies listeners about it.
+	 * 
+	 * @param path     path from which document is loaded
+	 * @param document document that is added
+	 */
+	private void addDocument(Path path, SingleDocumentModel document) {
+		registerDocument(document);
+		addNewDocumentTab(path, true);
+		currentDocument = document;
+		document.addSingleDocumentListener(getSingleDocumentListener());
+		fireDocumentAdded(document);
+	}
+	
+	/**
+	 * Method shows message about error that happened while loading file from given {@code path}.
+	 * 
+	 * @param path path of the file that could not be loaded
+	 */
+	private void showLoadingError(Path path) {
+		JOptionPane.showMessageDialog(this, "Pogreška prilikom učitavanja datoteke " + (path == null ? EMPTY_DOC_NAME : path),
+				"Pogreška", JOptionPane.ERROR_MESSAGE);
+	}
+	
+	/**
+	 * Method returns new implementation of {@link SingleDocumentListener}.
+	 * 
+	 * @return {@link SingleDocumentListener} object
+	 */
+	private SingleDocumentListener getSingleDocumentListener() {
+		return new SingleDocumentListener() {
+			
+			@Override
+			public void documentModifyStatusUpdated(SingleDocumentModel model) {
+				// Document whose edits were undone can take over the changed file
+				if (!model.isModified() && conflictedDocuments.contains(model)) {
+					checkFile(model);
+				}
+				updateIcon(model);
+				// Listeners show state of the current document only
+				if (model == getCurrentDocument()) {
+					fireDocumentChanged(null, model);
+				}
+			}
+			
+			@Override
+			public void documentFilePathUpdated(SingleDocumentModel model) {
+				indexPath(model);
+				getSelectedComponent().setName(model.getFilePath().getFileName().toString());
+			}
+		};
+	}
+	
+	/**
+	 * Method sets icon of given {@code model}'s tab according to its state.
+	 * Saving icon is shown while document is being saved,
+	 * otherwise modified or unmodified icon is shown.
+	 * 
+	 * @param model document model whose icon is set
+	 */
+	private void updateIcon(SingleDocumentModel model) {
+		int index = indexOf(model);
+		if (index == -1)
+			return;
+		if (saveScheduler.isSaving(model)) {
+			this.setIconAt(index, savingDocumentIcon);
+		} else {
+			this.setIconAt(index, model.isModified() ? modifiedDocumentIcon : unmodifiedDocumentIcon);
+		}
+	}
+	
+	@Override
+	public void saveDocument(SingleDocumentModel model, Path newPath) {
+		Path path = getSavePath(model, newPath);
+		TextSnapshot snapshot = takeSnapshot(model);
+		try {
+			documentWriter.write(snapshot, path);
+			saveFinished(model, newPath, snapshot);
+		} catch (IOException ex) {
+			System.err.println("Greška save document");
+		}
+	}
+	
+	@Override
+	public CompletableFuture<Void> saveDocumentAsync(SingleDocumentModel model, Path newPath) {
+		Path path = getSavePath(model, newPath);
+		CompletableFuture<TextSnapshot> save = saveScheduler.save(model, takeSnapshot(model), path);
+		updateIcon(model);
+		return save.whenCompleteAsync((snapshot, ex) -> {
+			if (ex == null) {
+				saveFinished(model, newPath, snapshot);
+			} else {
+				updateIcon(model);
+			}
+		}, SwingUtilities::invokeLater).thenRun(() -> {});
+	}
+	
+	/**
+	 * Method returns path to which given {@code model} is saved.
+	 * If {@code newPath} is {@code null} model's path is used.
+	 * 
+	 * @param model   document that is saved
+	 * @param newPath new path of the document
+	 * @return        path to which document is saved
+	 * @throws DocumentModelException if document can not be saved to the path
+	 */
+	private Path getSavePath(SingleDocumentModel model, Path newPath) {
+		if (loadingDocuments.containsKey(model) || deferredDocuments.containsKey(model))
+			throw new DocumentModelException("Document is still loading.");
+		
+		// If newPath = null use model's path
+		if (newPath == null) {
+			if (model.getFilePath() == null)
+				throw new DocumentModelException("Document has no path.");
+			return model.getFilePath();
+		}
+		
+		// Check if newPath already exists
+		SingleDocumentModel openedDocument = findDocument(newPath);
+		if (openedDocument != null && openedDocument != model)
+			throw new DocumentModelException("Specified path is already opened");
+		return newPath;
+	}
+	
+	/**
+	 * Method updates given {@code model} once its {@code snapshot} is saved. </br>
+	 * If {@code newPath} is given, it becomes model's path.
+	 * Model becomes unmodified only if it was not edited after the snapshot was taken
+	 * or if its edits brought it back to the saved state.
+	 * 
+	 * @param model    document that is saved
+	 * @param newPath  new path of the document, can be {@code null}
+	 * @param snapshot snapshot that was saved
+	 */
+	private void saveFinished(SingleDocumentModel model, Path newPath, TextSnapshot snapshot) {
+		int index = indexOf(model);
+		if (newPath != null && !newPath.equals(model.getFilePath())) {
+			model.setFilePath(newPath);
+			if (index != -1) {
+				this.setTitleAt(index, newPath.getFileName().toString());
+				this.setToolTipTextAt(index, newPath.toAbsolutePath().toString());
+			}
+		}
+		if (model instanceof DefaultSingleDocumentModel) {
+			((DefaultSingleDocumentModel) model).setSavedFingerprint(snapshot.getFingerprint());
+		} else if (getModificationCount(model) == snapshot.getModificationCount()) {
+			model.setModified(false);
+		}
+		compactJournal(model);
+		fileStamps.put(model, FileStamp.withTail(model.getFilePath()));
+		setConflicted(model, false);
+		updateIcon(model);
+	}
+	
+	/**
+	 * Method takes snapshot of the text of given {@code model}.
+	 * 
+	 * @param model document whose snapshot is taken
+	 * @return      snapshot of the document
+	 */
+	private TextSnapshot takeSnapshot(SingleDocumentModel model) {
+		if (model.getDocument() instanceof PieceTableDocument)
+			return ((PieceTableDocument) model.getDocument()).snapshot();
+		return new PieceTableDocument(model.getTextComponent().getText()).snapshot();
+	}
+	
+	/**
+	 * Method returns number of edits made to the text of given {@code model}.
+	 * 
+	 * @param model document whose number of edits is returned
+	 * @return      number of edits or -1 if it is not known
+	 */
+	private long getModificationCount(SingleDocumentModel model) {
+		if (model.getDocument() instanceof PieceTableDocument)
+			return ((PieceTableDocument) model.getDocument()).getModificationCount();
+		return -1;
+	}
+	
+	/**
+	 * Method sets interval in milliseconds in which modified documents are automatically saved. </br>
+	 * Only documents that have path and whose modified flag is set are saved.
+	 * If {@code interval} is not positive, documents are not saved automatically.
+	 * 
+	 * @param interval interval of automatic saving in milliseconds
+	 */
+	public void setAutosaveInterval(int interval) {
+		if (autosaveTask != null) {
+			autosaveTask.cancel(false);
+			autosaveTask = null;
+		}
+		autosaveInterval = interval;
+		if (interval <= 0)
+			return;
+		autosaveTask = UITicker.getInstance().schedule(this::autosave, interval, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Method returns interval in milliseconds in which modified documents are automatically saved.
+	 * 
+	 * @return interval of automatic saving, not positive if autosave is turned off
+	 */
+	public int getAutosaveInterval() {
+		return autosaveInterval;
+	}
+	
+	/**
+	 * Method schedules saving of all modified documents that have path.
+	 */
+	private void autosave() {
+		for (SingleDocumentModel document : documents) {
+			if (!document.isModified() || document.getFilePath() == null || loadingDocuments.containsKey(document)
+					|| deferredDocuments.containsKey(document) || conflictedDocuments.contains(document))
+				continue;
+			saveDocumentAsync(document, null).exceptionally(ex -> {
+				System.err.println("Autosave failed: " + document.getFilePath());
+				return null;
+			});
+		}
+	}
+
+	@Override
+	public void closeDocument(SingleDocumentModel model) {
+		DocumentLoadingWorker worker = loadingDocuments.remove(model);
+		if (worker != null) {
+			worker.cancel(true);
+		}
+		deferredDocuments.remove(model);
+		hiddenDocuments.remove(model);
+		scrollPositions.remove(model);
+		EditJournal journal = journals.remove(model);
+		if (journal != null) {
+			journal.close(true);
+		}
+		Path recoveredJournal = recoveredJournals.remove(model);
+		if (recoveredJournal != null) {
+			EditJournal.discard(recoveredJournal);
+		}
+		fileStamps.remove(model);
+		conflictedDocuments.remove(model);
+		reloadingDocuments.remove(model);
+		
+		int index = unregisterDocument(model);
+		this.remove(index);
+		int selectedIndex = getSelectedIndex();
+		if (selectedIndex == -1) {
+			currentDocument = null;
+		} else {
+			currentDocument = documents.get(selectedIndex);
+		}
+		fireDocumentRemoved(model);
+	}
+
+	@Override
+	public void addMultipleDocumentListener(MultipleDocumentListener l) {
+		listeners.add(l);
+	}
+
+	@Override
+	public void removeMultipleDocumentListener(MultipleDocumentListener l) {
+		listeners.remove(l);
+	}
+
 	@Override
 	public int getNumberOfDocuments() {
 		return documents.size();
@@ -353,6 +1475,337 @@ public class DefaultMultipleDocumentModel extends JTabbedPane implements Multipl
 		return new DocumentIterator();
 	}
 	
+	/**
+	 * Class represents worker that loads document in background. </br>
+	 * While document is loading, its tab shows progress of loading and button that cancels it.
+	 * Mapped file is shown under the progress as soon as it is mapped and its text grows as it is indexed.
+	 * Once loading is finished tab shows loaded document.
+	 * If loading is cancelled or it fails, document is closed.
+	 * 
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private class DocumentLoadingWorker extends SwingWorker<PieceTableDocument, PieceTableDocument> {
+		
+		/**
+		 * Document that is loaded
+		 */
+		private DefaultSingleDocumentModel document;
+		/**
+		 * Source from which text of the document is read
+		 */
+		private DocumentSource source;
+		/**
+		 * Panel shown in document's tab while it is loading
+		 */
+		private JPanel loadingPanel;
+		/**
+		 * Text that is shown while it is loading, {@code null} if nothing is shown yet
+		 */
+		private PieceTableDocument loadingText;
+		/**
+		 * Component that shows the {@link #loadingText}, {@code null} if it is not created
+		 */
+		private Component loadingComponent;
+		/**
+		 * Position of the caret that did not fit into the text that was shown first, {@code -1} if it fit
+		 */
+		private int pendingDot = -1;
+		/**
+		 * Position of the selection mark that belongs to the {@link #pendingDot}
+		 */
+		private int pendingMark;
+		
+		/**
+		 * Constructor that creates new {@link DocumentLoadingWorker} object
+		 * and replaces document's tab with loading panel.
+		 * 
+		 * @param document {@link #document}
+		 * @param source   {@link #source}
+		 */
+		DocumentLoadingWorker(DefaultSingleDocumentModel document, DocumentSource source) {
+			this.document = document;
+			this.source = source;
+			loadingPanel = createLoadingPanel();
+			setComponentAt(indexOf(document), loadingPanel);
+		}
+		
+		/**
+		 * Method creates panel that shows loading progress.
+		 * 
+		 * @return loading panel
+		 */
+		private JPanel createLoadingPanel() {
+			JProgressBar progressBar = new JProgressBar(0, 100);
+			progressBar.setStringPainted(true);
+			addPropertyChangeListener(e -> {
+				if ("progress".equals(e.getPropertyName())) {
+					progressBar.setValue((Integer) e.getNewValue());
+					if (loadingText != null) {
+						loadingText.loadIndexed();
+					}
+				}
+			});
+			
+			JButton cancelButton = new JButton("Cancel");
+			cancelButton.addActionListener(e -> closeDocument(document));
+			
+			JPanel controls = new JPanel(new FlowLayout());
+			controls.add(new JLabel("Loading " + getTitleAt(indexOf(document))));
+			controls.add(progressBar);
+			controls.add(cancelButton);
+			
+			JPanel panel = new JPanel(new BorderLayout());
+			panel.add(controls, BorderLayout.NORTH);
+			return panel;
+		}
+
+		@Override
+		protected PieceTableDocument doInBackground() throws Exception {
+			PieceTableDocument text = source.read(this::setProgress);
+			if (text.isLoading()) {
+				publish(text);
+				text.awaitIndexed();
+			}
+			return text;
+		}
+		
+		/**
+		 * Method attaches text that is still loading to the document and shows it below the progress,
+		 * if document's tab is selected. Text is not editable until it is loaded.
+		 */
+		@Override
+		protected void process(List<PieceTableDocument> chunks) {
+			if (isCancelled() || loadingText != null)
+				return;
+			loadingText = chunks.get(0);
+			int dot = document.getCaretDot();
+			int mark = document.getCaretMark();
+			document.setDocument(loadingText);
+			if (Math.max(dot, mark) > loadingText.getLength()) {
+				pendingDot = dot;
+				pendingMark = mark;
+			}
+			if (indexOf(document) == getSelectedIndex()) {
+				showLoadingText();
+			}
+			if (document == currentDocument) {
+				fireDocumentChanged(null, document);
+			}
+		}
+		
+		/**
+		 * Method shows text that is still loading in the loading panel, if it is not shown already.
+		 */
+		void showLoadingText() {
+			if (loadingText == null || loadingComponent != null)
+				return;
+			loadingComponent = createDocumentComponent(document);
+			loadingPanel.add(loadingComponent, BorderLayout.CENTER);
+			loadingPanel.revalidate();
+		}
+		
+		@Override
+		protected void done() {
+			if (isCancelled()) {
+				loadNextRestored();
+				return;
+			}
+			
+			loadingDocuments.remove(document);
+			try {
+				PieceTableDocument text = get();
+				if (text == loadingText) {
+					text.loadIndexed();
+					if (pendingDot != -1) {
+						document.setCaretPosition(pendingDot, pendingMark);
+					}
+				} else {
+					// Restored documents with unsaved text stay modified
+					boolean modified = document.isModified();
+					document.setDocument(text);
+					if (modified) {
+						document.setModified(true);
+					}
+				}
+				startJournal(document);
+				if (document.getFilePath() != null) {
+					fileStamps.put(document, FileStamp.withTail(document.getFilePath()));
+				}
+				int index = indexOf(document);
+				if (index != getSelectedIndex()) {
+					setComponentAt(index, new TabPlaceholder());
+					document.releaseTextComponent();
+				} else if (loadingComponent != null) {
+					setComponentAt(index, loadingComponent);
+				} else {
+					setComponentAt(index, createDocumentComponent(document));
+				}
+				if (document == currentDocument) {
+					fireDocumentChanged(null, document);
+				}
+			} catch (ExecutionException | InterruptedException ex) {
+				showLoadingError(document.getFilePath());
+				closeDocument(document);
+			}
+			loadNextRestored();
+		}
+	}
+	
+	/**
+	 * Interface represents source from which text of a document is read in background.
+	 * 
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private interface DocumentSource {
+		
+		/**
+		 * Method reads text of the document.
+		 * 
+		 * @param progressListener listener of reading progress, can be {@code null}
+		 * @return                 read document
+		 * @throws IOException     if reading failed or reading thread was interrupted
+		 */
+		PieceTableDocument read(IntConsumer progressListener) throws IOException;
+	}
+	
+	/**
+	 * Interface represents update of a document to the text of its reloaded file.
+	 * 
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private interface DocumentUpdate {
+		
+		/**
+		 * Method updates the document.
+		 * 
+		 * @return                      state of the file whose text document holds after the update
+		 * @throws BadLocationException if updated range is not inside of the document
+		 */
+		FileStamp apply() throws BadLocationException;
+	}
+	
+	/**
+	 * Class represents state of a file: its size and time of its last modification.
+	 * It is used for recognizing changes that were not made by this model.
+	 * State of a file whose text is known can also hold last bytes of the file,
+	 * so it can be recognized whether the file was only appended to.
+	 * 
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private static class FileStamp {
+		
+		/**
+		 * Size of the file in bytes
+		 */
+		private final long size;
+		/**
+		 * Time of the last modification of the file in milliseconds
+		 */
+		private final long lastModified;
+		/**
+		 * Last bytes of the file, {@code null} if they were not read
+		 */
+		private final byte[] tail;
+		
+		/**
+		 * Constructor that creates new {@link FileStamp} object.
+		 * 
+		 * @param size         {@link #size}
+		 * @param lastModified {@link #lastModified}
+		 * @param tail         {@link #tail}
+		 */
+		FileStamp(long size, long lastModified, byte[] tail) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.tail = tail;
+		}
+		
+		/**
+		 * Method reads state of the file at given {@code path}.
+		 * 
+		 * @param path path of the file
+		 * @return     state of the file or {@code null} if file does not exist or can not be read
+		 */
+		static FileStamp of(Path path) {
+			try {
+				return new FileStamp(Files.size(path), Files.getLastModifiedTime(path).toMillis(), null);
+			} catch (IOException ex) {
+				return null;
+			}
+		}
+		
+		/**
+		 * Method reads state of the file at given {@code path} together with its last {@link #STAMP_TAIL_SIZE} bytes.
+		 * 
+		 * @param path path of the file
+		 * @return     state of the file or {@code null} if file does not exist or can not be read
+		 */
+		static FileStamp withTail(Path path) {
+			try {
+				long size = Files.size(path);
+				long lastModified = Files.getLastModifiedTime(path).toMillis();
+				return new FileStamp(size, lastModified, DocumentReader.readTail(path, STAMP_TAIL_SIZE));
+			} catch (IOException ex) {
+				return null;
+			}
+		}
+		
+		/**
+		 * Method reads text that was appended to the file since this state,
+		 * up to the size of the given {@code newer} state.
+		 * 
+		 * @param path         path of the file
+		 * @param newer        newer state of the file
+		 * @param maxSize      maximal number of appended bytes that are read
+		 * @return             appended text or {@code null} if file was not only appended to or too much was appended
+		 * @throws IOException if file can not be read
+		 */
+		String readAppended(Path path, FileStamp newer, long maxSize) throws IOException {
+			if (tail == null || newer.size - size > maxSize)
+				return null;
+			return DocumentReader.readAppended(path, tail, size, newer.size);
+		}
+		
+		@Override
+		public int hashCode() {
+			return Objects.hash(size, lastModified);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof FileStamp))
+				return false;
+			FileStamp other = (FileStamp) obj;
+			return size == other.size && lastModified == other.lastModified;
+		}
+	}
+	
+	/**
+	 * Class represents lightweight component that fills the tab whose document is not shown yet.
+	 * It has no UI delegate and paints nothing.
+	 * 
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private static class TabPlaceholder extends JComponent {
+
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+	}
+	
 	/**
 	 * Class represents {@code DefaultMultipleDocumentModel}'s implementation of {@link Iterator}.
 	 * 
@@ -8,10 +8,36 @@ import java.util.Objects;
 import javax.swing.JTextArea;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Caret;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+import javax.swing.undo.UndoManager;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.UndoHistory;
+import hr.fer.zemris.java.hw11.jnotepadpp.journal.EditJournal;
 
 /**
  * Class represents implementation of {@link SingleDocumentModel}.
- * It is used for managing single opened document.
+ * It is used for managing single opened document. </br>
+ * Text of the document is stored in {@link PieceTableDocument}.
+ * Statistical informations of the document are updated with every edit,
+ * so they can be read without scanning the text.
+ * Edits of the document are kept in its own {@link UndoHistory}.
+ * </p>
+ * 
+ * Listeners are notified only when document becomes modified or unmodified, not on every edit.
+ * Document is unmodified while its fingerprint equals the fingerprint it had when it was last saved,
+ * so undoing all edits made since saving makes it unmodified again without reading the file.
+ * </p>
+ * 
+ * If document has an {@link EditJournal}, every insert and removal is recorded in it,
+ * so unsaved text can be recovered if program crashes.
+ * </p>
+ * 
+ * Text area of the document is created only once it is needed and it can be released again,
+ * while the document itself, its history and position of the caret are kept.
  * 
  * @author Ante Gazibaric
  * @version 1.0
@@ -20,9 +46,21 @@ import javax.swing.event.DocumentListener;
 public class DefaultSingleDocumentModel implements SingleDocumentModel {
 	
 	/**
-	 * Text area associated to this document model
+	 * Text area associated to this document model, {@code null} until it is needed
 	 */
 	private JTextArea textArea;
+	/**
+	 * Document that holds text of this document model
+	 */
+	private PieceTableDocument document;
+	/**
+	 * Position of the caret saved when text area was released
+	 */
+	private int savedDot;
+	/**
+	 * Position of the selection mark saved when text area was released
+	 */
+	private int savedMark;
 	/**
 	 * File path of document that this model represents
 	 */
@@ -31,10 +69,30 @@ public class DefaultSingleDocumentModel implements SingleDocumentModel {
 	 * Flag that shows is this document modified
 	 */
 	private boolean isModified;
+	/**
+	 * Fingerprint of the document when it was last loaded or saved
+	 */
+	private long savedFingerprint;
 	/**
 	 * List of listeners waiting on change of document
 	 */
 	private List<SingleDocumentListener> listeners;
+	/**
+	 * Listener that listens to changes of the {@link #document}
+	 */
+	private DocumentListener documentListener;
+	/**
+	 * Statistical informations of the document, updated with every change of the document
+	 */
+	private DocumentStatistics statistics;
+	/**
+	 * History of edits of the document
+	 */
+	private UndoHistory undoHistory;
+	/**
+	 * Journal in which edits of the document are recorded, {@code null} if edits are not recorded
+	 */
+	private EditJournal journal;
 	
 	/**
 	 * Constructor that creates new {@link DefaultSingleDocumentModel} object.
@@ -43,38 +101,149 @@ public class DefaultSingleDocumentModel implements SingleDocumentModel {
 	 * @param textContent text content that this document contains
 	 */
 	public DefaultSingleDocumentModel(Path filePath, String textContent) {
+		this(filePath, new PieceTableDocument(textContent));
+	}
+	
+	/**
+	 * Constructor that creates new {@link DefaultSingleDocumentModel} object
+	 * whose text is given {@code document}.
+	 * 
+	 * @param filePath {@link #filePath}
+	 * @param document document that holds text of this document model
+	 */
+	public DefaultSingleDocumentModel(Path filePath, PieceTableDocument document) {
 		this.filePath = filePath;
-		textArea = new JTextArea(textContent);
+		this.document = Objects.requireNonNull(document, "Document must not be null");
 		listeners = new ArrayList<>();
+		undoHistory = new UndoHistory();
+		document.addUndoableEditListener(undoHistory);
 		addTextAreaListeners();
+		updateStatistics();
+		savedFingerprint = document.getFingerprint();
 	}
 	
 	/**
-	 * Method adds listeners that listens to changes of {@link #textArea}.
+	 * Method adds listeners that listens to changes of the {@link #document}.
 	 */
 	private void addTextAreaListeners() {
-		textArea.getDocument().addDocumentListener(new DocumentListener() {
+		documentListener = new DocumentListener() {
 			
 			@Override
 			public void removeUpdate(DocumentEvent e) {
+				if (journal != null) {
+					journal.recordRemove(e.getOffset(), e.getLength());
+				}
 				modified();
 			}
 			
 			@Override
 			public void insertUpdate(DocumentEvent e) {
+				if (journal != null) {
+					journal.recordInsert(e.getOffset(), getText(e));
+				}
 				modified();
 			}
 			
 			@Override
 			public void changedUpdate(DocumentEvent e) {
-				modified();
+				// Plain text has no attributes, text changes are reported as removals and insertions
 			}
 			
 			private void modified() {
-				isModified = true;
-				fireModified();
+				updateStatistics();
+				if (document.isLoading()) {
+					// Text that is loaded is the text of the file
+					savedFingerprint = document.getFingerprint();
+				}
+				updateModified(document.getFingerprint() != savedFingerprint);
 			}
-		});
+		};
+		document.addDocumentListener(documentListener);
+	}
+	
+	/**
+	 * Method returns text of the range of the {@link #document} that given {@code event} describes.
+	 * 
+	 * @param event event of the document
+	 * @return      text of the event's range
+	 */
+	private String getText(DocumentEvent event) {
+		try {
+			return document.getText(event.getOffset(), event.getLength());
+		} catch (BadLocationException ex) {
+			throw new DocumentModelException("Edited text can not be read.");
+		}
+	}
+	
+	/**
+	 * Method sets journal in which edits of the document are recorded from now on.
+	 * 
+	 * @param journal journal of the document, {@code null} if edits are not recorded
+	 */
+	void setJournal(EditJournal journal) {
+		this.journal = journal;
+	}
+	
+	/**
+	 * Method replaces text of this document model with given {@code document}. </br>
+	 * It is used once document that was loaded in background is ready,
+	 * document model is not modified afterwards and its history is discarded.
+	 * Caret position that was set before is kept if it fits into the new text.
+	 * 
+	 * @param document new document of this document model
+	 */
+	void setDocument(PieceTableDocument document) {
+		Objects.requireNonNull(document, "Document must not be null");
+		this.document.removeDocumentListener(documentListener);
+		this.document.removeUndoableEditListener(undoHistory);
+		this.document = document;
+		savedDot = Math.min(savedDot, document.getLength());
+		savedMark = Math.min(savedMark, document.getLength());
+		if (textArea != null) {
+			textArea.setDocument(document);
+			textArea.getCaret().setDot(savedMark);
+			textArea.getCaret().moveDot(savedDot);
+		}
+		document.addDocumentListener(documentListener);
+		undoHistory.discardAllEdits();
+		document.addUndoableEditListener(undoHistory);
+		updateStatistics();
+		savedFingerprint = document.getFingerprint();
+		updateModified(false);
+	}
+	
+	/**
+	 * Method updates {@link #statistics} from the counters of the document.
+	 * Document keeps them up to date with every edit, so reading them takes constant time.
+	 */
+	private void updateStatistics() {
+		statistics = new DocumentStatistics(document.getLength(), document.getNonBlankCount(),
+				document.getDefaultRootElement().getElementCount());
+	}
+	
+	/**
+	 * Method sets modified flag and notifies listeners if flag has changed.
+	 * 
+	 * @param modified new value of the modified flag
+	 */
+	private void updateModified(boolean modified) {
+		if (isModified == modified)
+			return;
+		isModified = modified;
+		fireModified();
+	}
+	
+	/**
+	 * Method marks document as saved in the state described by given {@code fingerprint}. </br>
+	 * Document becomes unmodified if its current fingerprint is the same,
+	 * otherwise it becomes unmodified once its edits bring it back to that state.
+	 * 
+	 * @param fingerprint fingerprint of the saved text
+	 * @see PieceTableDocument#getFingerprint()
+	 */
+	void setSavedFingerprint(long fingerprint) {
+		savedFingerprint = fingerprint;
+		updateModified(document.getFingerprint() != savedFingerprint);
 	}
 	
 	/**
@@ -95,11 +264,89 @@ public class DefaultSingleDocumentModel implements SingleDocumentModel {
 		});
 	}
 
+	/**
+	 * Method checks whether text area of this document is created.
+	 * 
+	 * @return {@code true} if text area exists, otherwise {@code false}
+	 */
+	boolean hasTextComponent() {
+		return textArea != null;
+	}
+	
+	/**
+	 * Method releases text area of this document, so it can be garbage collected. </br>
+	 * Position of the caret and selection are saved and restored once text area is created again.
+	 * Released text area is detached from the document and must not be used anymore.
+	 */
+	void releaseTextComponent() {
+		if (textArea == null)
+			return;
+		Caret caret = textArea.getCaret();
+		savedDot = caret.getDot();
+		savedMark = caret.getMark();
+		// Text area and its views listen to the document, detach them so they are not kept alive
+		textArea.setDocument(new PlainDocument());
+		textArea = null;
+	}
+
+	/**
+	 * Method returns position of the caret.
+	 * 
+	 * @return position of the caret
+	 */
+	int getCaretDot() {
+		return textArea == null ? savedDot : textArea.getCaret().getDot();
+	}
+	
+	/**
+	 * Method returns position of the selection mark.
+	 * 
+	 * @return position of the selection mark
+	 */
+	int getCaretMark() {
+		return textArea == null ? savedMark : textArea.getCaret().getMark();
+	}
+	
+	/**
+	 * Method sets position of the caret and selection mark. </br>
+	 * If text area is not created yet, positions are applied once it is created,
+	 * so they can be set before the text of the document is loaded.
+	 * Applied positions are limited to the length of the text.
+	 * 
+	 * @param dot  position of the caret
+	 * @param mark position of the selection mark
+	 */
+	void setCaretPosition(int dot, int mark) {
+		savedDot = Math.max(0, dot);
+		savedMark = Math.max(0, mark);
+		if (textArea != null) {
+			int length = document.getLength();
+			textArea.getCaret().setDot(Math.min(savedMark, length));
+			textArea.getCaret().moveDot(Math.min(savedDot, length));
+		}
+	}
+
+	/**
+	 * {@inheritDoc} </br>
+	 * Text area is created on the first call and after it was released.
+	 */
 	@Override
 	public JTextArea getTextComponent() {
+		if (textArea == null) {
+			textArea = new JTextArea(document);
+			int length = document.getLength();
+			Caret caret = textArea.getCaret();
+			caret.setDot(Math.min(savedMark, length));
+			caret.moveDot(Math.min(savedDot, length));
+		}
 		return textArea;
 	}
 
+	@Override
+	public Document getDocument() {
+		return document;
+	}
+
 	@Override
 	public Path getFilePath() {
 		return filePath;
@@ -119,7 +366,20 @@ public class DefaultSingleDocumentModel implements SingleDocumentModel {
 
 	@Override
 	public void setModified(boolean modified) {
-		this.isModified = modified;
+		if (!modified) {
+			savedFingerprint = document.getFingerprint();
+		}
+		updateModified(modified);
+	}
+
+	@Override
+	public DocumentStatistics getStatistics() {
+		return statistics;
+	}
+
+	@Override
+	public UndoManager getUndoManager() {
+		return undoHistory;
 	}
 
 	@Override
@@ -0,0 +1,167 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.DocumentWriter;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextSnapshot;
+
+/**
+ * Class represents scheduler that writes snapshots of documents on a pool of worker threads. </br>
+ * Saves of the same document are written one after another, in order they were scheduled.
+ * If document is saved again to the same path while its previous save still waits to be written,
+ * both saves are coalesced: only the newer snapshot is written and both saves complete with it.
+ * </p>
+ *
+ * Worker threads are not daemon threads, so saves that are in progress
+ * are finished even after the program window is closed.
+ * Idle worker threads are stopped after a while.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+class DocumentSaveScheduler {
+
+	/**
+	 * Number of worker threads
+	 */
+	private static final int SAVE_THREADS = 2;
+	/**
+	 * Time in seconds after which idle worker threads are stopped
+	 */
+	private static final long KEEP_ALIVE_SECONDS = 5;
+
+	/**
+	 * Executor that writes documents
+	 */
+	private ThreadPoolExecutor executor;
+	/**
+	 * Writers of the worker threads
+	 */
+	private ThreadLocal<DocumentWriter> writers = ThreadLocal.withInitial(DocumentWriter::new);
+	/**
+	 * Saves that wait to be written, for every document that is being saved
+	 */
+	private Map<SingleDocumentModel, LinkedList<SaveRequest>> pendingSaves = new HashMap<>();
+
+	/**
+	 * Constructor that creates new {@link DocumentSaveScheduler} object.
+	 */
+	DocumentSaveScheduler() {
+		executor = new ThreadPoolExecutor(SAVE_THREADS, SAVE_THREADS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), r -> new Thread(r, "document-saver"));
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Method schedules writing of given {@code snapshot} of the {@code document} to the given {@code path}.
+	 *
+	 * @param document document that is saved
+	 * @param snapshot snapshot of the document's text
+	 * @param path     path to which document is saved
+	 * @return         future that completes with snapshot that was written
+	 */
+	CompletableFuture<TextSnapshot> save(SingleDocumentModel document, TextSnapshot snapshot, Path path) {
+		Objects.requireNonNull(document, "Document must not be null");
+		Objects.requireNonNull(snapshot, "Snapshot must not be null");
+		Objects.requireNonNull(path, "Path must not be null");
+
+		synchronized (pendingSaves) {
+			LinkedList<SaveRequest> requests = pendingSaves.get(document);
+			if (requests == null) {
+				requests = new LinkedList<>();
+				pendingSaves.put(document, requests);
+				executor.execute(() -> writePending(document));
+			} else if (!requests.isEmpty() && requests.getLast().path.equals(path)) {
+				SaveRequest last = requests.getLast();
+				last.snapshot = snapshot;
+				return last.result;
+			}
+			SaveRequest request = new SaveRequest(snapshot, path);
+			requests.add(request);
+			return request.result;
+		}
+	}
+
+	/**
+	 * Method checks if given {@code document} is being saved.
+	 *
+	 * @param document document that is checked
+	 * @return         {@code true} if document has saves that are not finished, otherwise {@code false}
+	 */
+	boolean isSaving(SingleDocumentModel document) {
+		synchronized (pendingSaves) {
+			return pendingSaves.containsKey(document);
+		}
+	}
+
+	/**
+	 * Method writes pending saves of given {@code document} until there are none left.
+	 *
+	 * @param document document whose saves are written
+	 */
+	private void writePending(SingleDocumentModel document) {
+		while (true) {
+			SaveRequest request;
+			synchronized (pendingSaves) {
+				LinkedList<SaveRequest> requests = pendingSaves.get(document);
+				if (requests.isEmpty()) {
+					pendingSaves.remove(document);
+					return;
+				}
+				request = requests.removeFirst();
+			}
+
+			try {
+				writers.get().write(request.snapshot, request.path);
+				request.result.complete(request.snapshot);
+			} catch (IOException | RuntimeException ex) {
+				request.result.completeExceptionally(ex);
+			}
+		}
+	}
+
+	/**
+	 * Class represents single save that waits to be written.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private static class SaveRequest {
+
+		/**
+		 * Snapshot that is written
+		 */
+		private TextSnapshot snapshot;
+		/**
+		 * Path to which snapshot is written
+		 */
+		private final Path path;
+		/**
+		 * Result of the save
+		 */
+		private final CompletableFuture<TextSnapshot> result = new CompletableFuture<>();
+
+		/**
+		 * Constructor that creates new {@link SaveRequest} object.
+		 *
+		 * @param snapshot {@link #snapshot}
+		 * @param path     {@link #path}
+		 */
+		SaveRequest(TextSnapshot snapshot, Path path) {
+			this.snapshot = snapshot;
+			this.path = path;
+		}
+	}
+
+}
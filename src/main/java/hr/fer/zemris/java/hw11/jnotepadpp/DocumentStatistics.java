@@ -0,0 +1,67 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+/**
+ * Class represents statistical informations of a document:
+ * number of its characters, non-blank characters and lines. </br>
+ * Objects of this class are immutable.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class DocumentStatistics {
+
+	/**
+	 * Number of characters
+	 */
+	private final int characters;
+	/**
+	 * Number of non-blank characters
+	 */
+	private final int nonBlankCharacters;
+	/**
+	 * Number of lines
+	 */
+	private final int lines;
+
+	/**
+	 * Constructor that creates new {@link DocumentStatistics} object.
+	 *
+	 * @param characters         {@link #characters}
+	 * @param nonBlankCharacters {@link #nonBlankCharacters}
+	 * @param lines              {@link #lines}
+	 */
+	public DocumentStatistics(int characters, int nonBlankCharacters, int lines) {
+		this.characters = characters;
+		this.nonBlankCharacters = nonBlankCharacters;
+		this.lines = lines;
+	}
+
+	/**
+	 * Method returns number of characters.
+	 *
+	 * @return number of characters
+	 */
+	public int getCharacters() {
+		return characters;
+	}
+
+	/**
+	 * Method returns number of non-blank characters.
+	 *
+	 * @return number of non-blank characters
+	 */
+	public int getNonBlankCharacters() {
+		return nonBlankCharacters;
+	}
+
+	/**
+	 * Method returns number of lines.
+	 *
+	 * @return number of lines
+	 */
+	public int getLines() {
+		return lines;
+	}
+
+}
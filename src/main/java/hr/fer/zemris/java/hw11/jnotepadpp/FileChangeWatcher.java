@@ -0,0 +1,220 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Class represents watcher of files that are changed by other programs. </br>
+ * All files are watched by a single {@link WatchService} and a single daemon thread that waits for its events,
+ * so watching costs nothing while files do not change. Service watches parent directories of the files,
+ * each directory is registered only once no matter how many of its files are watched.
+ * </p>
+ *
+ * Events are debounced: once a file changes, watcher keeps collecting events until no new event arrives
+ * for the debounce delay, so a file that is written in many steps is reported only once.
+ * Changed files are then reported together to the listener on the Event Dispatch Thread.
+ * Events of files that are not watched, such as temporary files, are ignored.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+class FileChangeWatcher {
+
+	/**
+	 * Default time in milliseconds without events after which changes are reported
+	 */
+	static final int DEFAULT_DEBOUNCE_DELAY = 200;
+	/**
+	 * Number of debounce delays after which changes are reported even if events keep arriving
+	 */
+	private static final int MAX_DEBOUNCE_DELAYS = 10;
+
+	/**
+	 * Listener that receives paths of changed files
+	 */
+	private final Consumer<Set<Path>> listener;
+	/**
+	 * Time in milliseconds without events after which changes are reported
+	 */
+	private final int debounceDelay;
+	/**
+	 * Watched files mapped to number of times they are watched
+	 */
+	private final Map<Path, Integer> files = new HashMap<>();
+	/**
+	 * Watched directories mapped to number of their watched files
+	 */
+	private final Map<Path, Integer> directoryCounts = new HashMap<>();
+	/**
+	 * Watched directories mapped to their keys
+	 */
+	private final Map<Path, WatchKey> directories = new HashMap<>();
+	/**
+	 * Service that watches directories, {@code null} until the first file is watched
+	 */
+	private WatchService service;
+
+	/**
+	 * Constructor that creates new {@link FileChangeWatcher} object.
+	 *
+	 * @param listener      {@link #listener}
+	 * @param debounceDelay {@link #debounceDelay}
+	 * @throws IllegalArgumentException if debounce delay is negative
+	 */
+	FileChangeWatcher(Consumer<Set<Path>> listener, int debounceDelay) {
+		this.listener = Objects.requireNonNull(listener, "Listener must not be null");
+		if (debounceDelay < 0)
+			throw new IllegalArgumentException("Debounce delay must not be negative. Was: " + debounceDelay);
+		this.debounceDelay = debounceDelay;
+	}
+
+	/**
+	 * Method starts watching file at given canonical {@code path}.
+	 * File that is watched more times is watched until it is unwatched as many times.
+	 *
+	 * @param path canonical path of the file
+	 */
+	synchronized void watch(Path path) {
+		Path directory = path.getParent();
+		if (directory == null)
+			return;
+		if (files.merge(path, 1, Integer::sum) > 1)
+			return;
+		if (directoryCounts.merge(directory, 1, Integer::sum) > 1)
+			return;
+		try {
+			directories.put(directory, directory.register(getService(), StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE));
+		} catch (IOException ex) {
+			// Directory can not be watched, its files are still counted so unwatching stays balanced
+			System.err.println("Directory can not be watched: " + directory);
+		}
+	}
+
+	/**
+	 * Method stops watching file at given canonical {@code path}.
+	 *
+	 * @param path canonical path of the file
+	 */
+	synchronized void unwatch(Path path) {
+		Path directory = path.getParent();
+		if (directory == null || !files.containsKey(path))
+			return;
+		if (files.merge(path, -1, Integer::sum) > 0)
+			return;
+		files.remove(path);
+		if (directoryCounts.merge(directory, -1, Integer::sum) > 0)
+			return;
+		directoryCounts.remove(directory);
+		WatchKey key = directories.remove(directory);
+		if (key != null) {
+			key.cancel();
+		}
+	}
+
+	/**
+	 * Method returns watch service, creating it and starting its thread if needed.
+	 *
+	 * @return             watch service
+	 * @throws IOException if service can not be created
+	 */
+	private WatchService getService() throws IOException {
+		if (service == null) {
+			WatchService watchService = FileSystems.getDefault().newWatchService();
+			service = watchService;
+			Thread thread = new Thread(() -> run(watchService), "file-watcher");
+			thread.setDaemon(true);
+			thread.start();
+		}
+		return service;
+	}
+
+	/**
+	 * Method waits for events of the watch service and reports changed files until the service is closed.
+	 *
+	 * @param service watch service
+	 */
+	private void run(WatchService service) {
+		try {
+			while (true) {
+				Set<Path> changed = new HashSet<>();
+				collect(service.take(), changed);
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounceDelay) * MAX_DEBOUNCE_DELAYS;
+				WatchKey key;
+				while (System.nanoTime() < deadline
+						&& (key = service.poll(debounceDelay, TimeUnit.MILLISECONDS)) != null) {
+					collect(key, changed);
+				}
+				if (!changed.isEmpty()) {
+					SwingUtilities.invokeLater(() -> listener.accept(changed));
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException ex) {
+			// Watching is finished
+		}
+	}
+
+	/**
+	 * Method adds watched files whose events are held by given {@code key} to the {@code changed} files.
+	 * If events were lost, all watched files of the key's directory are added.
+	 *
+	 * @param key     key with events
+	 * @param changed set of changed files
+	 */
+	private void collect(WatchKey key, Set<Path> changed) {
+		Path directory = (Path) key.watchable();
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				synchronized (this) {
+					for (Path path : files.keySet()) {
+						if (directory.equals(path.getParent())) {
+							changed.add(path);
+						}
+					}
+				}
+				continue;
+			}
+			Path path = directory.resolve((Path) event.context());
+			synchronized (this) {
+				if (files.containsKey(path)) {
+					changed.add(path);
+				}
+			}
+		}
+		key.reset();
+	}
+
+	/**
+	 * Method stops watching all files.
+	 */
+	synchronized void close() {
+		files.clear();
+		directoryCounts.clear();
+		directories.clear();
+		if (service == null)
+			return;
+		try {
+			service.close();
+		} catch (IOException ex) {
+			// Service is closed anyway
+		}
+		service = null;
+	}
+
+}
@@ -0,0 +1,525 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.GridLayout;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.PatternSyntaxException;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import javax.swing.SwingWorker;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextSnapshot;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.LiteralSearcher;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.MatchHighlighter;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.RegexSearcher;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.SearchTimeoutException;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.Searcher;
+
+/**
+ * Class represents dialog for finding and replacing text in the current document. </br>
+ * Searching is done on a worker thread against a snapshot of the document and matches
+ * are streamed into the {@link MatchHighlighter} in batches while search is still running.
+ * Any change of the searched document makes matches stale, so they are cleared and running search is cancelled.
+ * </p>
+ *
+ * Replacing of all matches is run as a {@link hr.fer.zemris.java.hw11.jnotepadpp.transform.TextTransform},
+ * so whole document is changed with single edit.
+ * Searching and replacing in all opened documents, as well as searching files of a directory,
+ * is delegated to the {@link SearchResultsPanel}.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+class FindReplaceDialog extends JDialog {
+
+	/**
+	 * Serial number
+	 */
+	private static final long serialVersionUID = 1L;
+	/**
+	 * Number of matches published to the Event Dispatch Thread at once
+	 */
+	private static final int BATCH_SIZE = 1024;
+	/**
+	 * Color of highlighted matches
+	 */
+	private static final Color MATCH_COLOR = new Color(255, 230, 120);
+
+	/**
+	 * Document model whose current document is searched
+	 */
+	private MultipleDocumentModel documentModel;
+	/**
+	 * Runner of replacing of all matches
+	 */
+	private TextTransformRunner transformRunner;
+	/**
+	 * Panel that searches all opened documents and shows results
+	 */
+	private SearchResultsPanel resultsPanel;
+	/**
+	 * Field with searched text
+	 */
+	private JTextField findField = new JTextField(20);
+	/**
+	 * Field with replacement
+	 */
+	private JTextField replaceField = new JTextField(20);
+	/**
+	 * Field with glob pattern of names of files searched by find in files
+	 */
+	private JTextField filesField = new JTextField("*", 20);
+	/**
+	 * Check box that shows whether searched text is regular expression
+	 */
+	private JCheckBox regexBox = new JCheckBox("Regular expression");
+	/**
+	 * Check box that shows whether case of letters is matched
+	 */
+	private JCheckBox matchCaseBox = new JCheckBox("Match case");
+	/**
+	 * Label that shows state of the search
+	 */
+	private JLabel statusLabel = new JLabel(" ");
+	/**
+	 * Painter of found matches
+	 */
+	private MatchHighlighter highlighter = new MatchHighlighter(MATCH_COLOR);
+	/**
+	 * Text area whose matches are highlighted, {@code null} if there is none
+	 */
+	private JTextArea searchedArea;
+	/**
+	 * Tag of the highlight that paints matches
+	 */
+	private Object highlightTag;
+	/**
+	 * Searched text and options that found matches belong to
+	 */
+	private String searchedQuery;
+	/**
+	 * Search that is currently running
+	 */
+	private SwingWorker<Void, int[]> searchWorker;
+	/**
+	 * Listener that clears stale matches once searched document is changed
+	 */
+	private DocumentListener documentListener = new DocumentListener() {
+		@Override
+		public void insertUpdate(DocumentEvent e) {
+			clearMatches();
+		}
+
+		@Override
+		public void removeUpdate(DocumentEvent e) {
+			clearMatches();
+		}
+
+		@Override
+		public void changedUpdate(DocumentEvent e) {
+			clearMatches();
+		}
+	};
+
+	/**
+	 * Constructor that creates new {@link FindReplaceDialog} object.
+	 *
+	 * @param owner           frame that owns the dialog
+	 * @param documentModel   document model whose current document is searched
+	 * @param transformRunner runner of replacing of all matches
+	 * @param resultsPanel    panel that searches all opened documents and shows results
+	 */
+	FindReplaceDialog(JFrame owner, MultipleDocumentModel documentModel, TextTransformRunner transformRunner,
+			SearchResultsPanel resultsPanel) {
+		super(owner, "Find / Replace", false);
+		this.documentModel = documentModel;
+		this.transformRunner = transformRunner;
+		this.resultsPanel = resultsPanel;
+		initGUI();
+		pack();
+		setLocationRelativeTo(owner);
+
+		documentModel.addMultipleDocumentListener(new MultipleDocumentListener() {
+			@Override
+			public void documentRemoved(SingleDocumentModel model) {
+				// Text area of a removed document is not created just to be compared
+				if (searchedArea != null && searchedArea.getDocument() == model.getDocument()) {
+					detach();
+				}
+			}
+
+			@Override
+			public void documentAdded(SingleDocumentModel model) {
+				// Not needed
+			}
+
+			@Override
+			public void currentDocumentChanged(SingleDocumentModel previousModel, SingleDocumentModel currentModel) {
+				detach();
+			}
+		});
+	}
+
+	/**
+	 * Method initializes components of the dialog.
+	 */
+	private void initGUI() {
+		JPanel fields = new JPanel(new GridLayout(0, 2, 5, 5));
+		fields.add(new JLabel("Find:"));
+		fields.add(findField);
+		fields.add(new JLabel("Replace with:"));
+		fields.add(replaceField);
+		fields.add(new JLabel("Files:"));
+		fields.add(filesField);
+		fields.add(regexBox);
+		fields.add(matchCaseBox);
+
+		JButton findNextButton = new JButton("Find next");
+		findNextButton.addActionListener(e -> findNext());
+		JButton findAllButton = new JButton("Find all");
+		findAllButton.addActionListener(e -> findAll(false));
+		JButton replaceButton = new JButton("Replace");
+		replaceButton.addActionListener(e -> replace());
+		JButton replaceAllButton = new JButton("Replace all");
+		replaceAllButton.addActionListener(e -> replaceAll());
+		JButton findInAllButton = new JButton("Find in all documents");
+		findInAllButton.addActionListener(e -> {
+			Searcher searcher = createSearcher();
+			if (searcher != null) {
+				resultsPanel.findInAll(searcher);
+			}
+		});
+		JButton replaceInAllButton = new JButton("Replace in all documents");
+		replaceInAllButton.addActionListener(e -> {
+			Searcher searcher = createSearcher();
+			if (searcher != null) {
+				detach();
+				resultsPanel.replaceInAll(searcher, replaceField.getText());
+			}
+		});
+		JButton findInFilesButton = new JButton("Find in files...");
+		findInFilesButton.addActionListener(e -> findInFiles());
+		JButton closeButton = new JButton("Close");
+		closeButton.addActionListener(e -> setVisible(false));
+
+		JPanel buttons = new JPanel(new GridLayout(0, 1, 5, 5));
+		buttons.add(findNextButton);
+		buttons.add(findAllButton);
+		buttons.add(replaceButton);
+		buttons.add(replaceAllButton);
+		buttons.add(findInAllButton);
+		buttons.add(replaceInAllButton);
+		buttons.add(findInFilesButton);
+		buttons.add(closeButton);
+
+		getRootPane().setDefaultButton(findNextButton);
+
+		JPanel panel = new JPanel(new BorderLayout(10, 10));
+		panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+		panel.add(fields, BorderLayout.CENTER);
+		panel.add(buttons, BorderLayout.EAST);
+		panel.add(statusLabel, BorderLayout.PAGE_END);
+		setContentPane(panel);
+	}
+
+	@Override
+	public void setVisible(boolean visible) {
+		if (!visible) {
+			detach();
+		}
+		super.setVisible(visible);
+	}
+
+	/**
+	 * Method shows the dialog with given {@code text} as searched text.
+	 *
+	 * @param text searched text, ignored if {@code null} or empty
+	 */
+	void showDialog(String text) {
+		if (text != null && !text.isEmpty()) {
+			findField.setText(text);
+		}
+		setVisible(true);
+		findField.requestFocusInWindow();
+		findField.selectAll();
+	}
+
+	/**
+	 * Method selects next match after the caret, starting the search first if needed.
+	 */
+	private void findNext() {
+		if (isSearchCurrent()) {
+			selectNextMatch();
+		} else {
+			findAll(true);
+		}
+	}
+
+	/**
+	 * Method finds all matches in the current document and highlights them.
+	 *
+	 * @param selectNext flag that shows whether the next match after the caret is selected once search is over
+	 */
+	private void findAll(boolean selectNext) {
+		SingleDocumentModel model = documentModel.getCurrentDocument();
+		Searcher searcher = createSearcher();
+		if (model == null || searcher == null)
+			return;
+
+		JTextArea textArea = model.getTextComponent();
+		attach(textArea);
+		PieceTableDocument document = (PieceTableDocument) textArea.getDocument();
+		TextSnapshot snapshot = document.snapshot();
+		searchedQuery = getQuery();
+		statusLabel.setText("Searching...");
+
+		searchWorker = new SwingWorker<Void, int[]>() {
+			@Override
+			protected Void doInBackground() throws Exception {
+				int[] batch = new int[2 * BATCH_SIZE];
+				int[] size = { 0 };
+				searcher.find(snapshot, 0, snapshot.length(), (start, end) -> {
+					batch[size[0]++] = start;
+					batch[size[0]++] = end;
+					if (size[0] == batch.length) {
+						publish(batch.clone());
+						size[0] = 0;
+					}
+				}, this::setProgress);
+				if (size[0] > 0) {
+					publish(Arrays.copyOf(batch, size[0]));
+				}
+				return null;
+			}
+
+			@Override
+			protected void process(List<int[]> batches) {
+				if (searchWorker != this)
+					return;
+				for (int[] matches : batches) {
+					for (int i = 0; i < matches.length; i += 2) {
+						highlighter.add(matches[i], matches[i + 1]);
+					}
+				}
+				statusLabel.setText("Searching... " + highlighter.size() + " matches");
+				textArea.repaint(textArea.getVisibleRect());
+			}
+
+			@Override
+			protected void done() {
+				if (searchWorker != this)
+					return;
+				searchWorker = null;
+				try {
+					get();
+					statusLabel.setText(highlighter.size() + " matches");
+					if (selectNext) {
+						selectNextMatch();
+					}
+				} catch (CancellationException | InterruptedException ex) {
+					statusLabel.setText(" ");
+				} catch (ExecutionException ex) {
+					if (ex.getCause() instanceof SearchTimeoutException) {
+						statusLabel.setText("Search timed out after " + highlighter.size() + " matches");
+					} else {
+						statusLabel.setText("Search failed");
+					}
+				}
+			}
+		};
+		searchWorker.execute();
+	}
+
+	/**
+	 * Method replaces selected match with the replacement and selects the next match.
+	 */
+	private void replace() {
+		if (!isSearchCurrent() || searchWorker != null) {
+			findNext();
+			return;
+		}
+		int dot = searchedArea.getCaret().getDot();
+		int mark = searchedArea.getCaret().getMark();
+		int start = Math.min(dot, mark);
+		int end = Math.max(dot, mark);
+		int index = highlighter.indexAfter(start);
+		if (index == highlighter.size() || highlighter.getStart(index) != start || highlighter.getEnd(index) != end) {
+			selectNextMatch();
+			return;
+		}
+
+		Searcher searcher = createSearcher();
+		PieceTableDocument document = (PieceTableDocument) searchedArea.getDocument();
+		JTextArea textArea = searchedArea;
+		try {
+			String text = searcher.replaceAll(document.snapshot(), start, end, replaceField.getText(), p -> {});
+			if (text == null)
+				return;
+			// Change of the document clears matches, so search is run again from the replaced match
+			document.replaceText(start, end - start, text);
+			textArea.setCaretPosition(start + text.length());
+			findAll(true);
+		} catch (InterruptedException | BadLocationException | SearchTimeoutException ex) {
+			statusLabel.setText("Match can not be replaced");
+		}
+	}
+
+	/**
+	 * Method replaces all matches in the current document with single edit.
+	 */
+	private void replaceAll() {
+		SingleDocumentModel model = documentModel.getCurrentDocument();
+		Searcher searcher = createSearcher();
+		if (model == null || searcher == null)
+			return;
+		detach();
+		JTextArea textArea = model.getTextComponent();
+		String replacement = replaceField.getText();
+		transformRunner.run(textArea, 0, textArea.getDocument().getLength(),
+				(text, start, end, progressListener) -> searcher.replaceAll(text, start, end, replacement, progressListener),
+				false);
+	}
+
+	/**
+	 * Method asks user for a directory and finds matches in its files whose names match the files pattern.
+	 */
+	private void findInFiles() {
+		Searcher searcher = createSearcher();
+		if (searcher == null)
+			return;
+		JFileChooser chooser = new JFileChooser();
+		chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+		chooser.setDialogTitle("Find in files");
+		if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION)
+			return;
+		String glob = filesField.getText().trim();
+		try {
+			resultsPanel.findInFiles(searcher, chooser.getSelectedFile().toPath(), glob.isEmpty() ? "*" : glob);
+		} catch (IllegalArgumentException ex) {
+			statusLabel.setText("Invalid files pattern");
+		}
+	}
+
+	/**
+	 * Method selects the first match after the caret, or the first match of the document
+	 * if there are no matches after the caret.
+	 */
+	private void selectNextMatch() {
+		if (highlighter.size() == 0) {
+			statusLabel.setText("No matches");
+			return;
+		}
+		int index = highlighter.indexAfter(searchedArea.getCaret().getDot());
+		if (index == highlighter.size()) {
+			index = 0;
+		}
+		searchedArea.select(highlighter.getStart(index), highlighter.getEnd(index));
+		statusLabel.setText((index + 1) + " of " + highlighter.size() + " matches");
+	}
+
+	/**
+	 * Method creates searcher for the current searched text and options.
+	 *
+	 * @return searcher or {@code null} if searched text is empty or invalid
+	 */
+	private Searcher createSearcher() {
+		String text = findField.getText();
+		if (text.isEmpty())
+			return null;
+		try {
+			if (regexBox.isSelected())
+				return new RegexSearcher(text, !matchCaseBox.isSelected());
+			return new LiteralSearcher(text, !matchCaseBox.isSelected());
+		} catch (PatternSyntaxException ex) {
+			statusLabel.setText("Invalid regular expression: " + ex.getDescription());
+			return null;
+		}
+	}
+
+	/**
+	 * Method returns searched text together with search options.
+	 *
+	 * @return searched text with search options
+	 */
+	private String getQuery() {
+		return regexBox.isSelected() + ":" + matchCaseBox.isSelected() + ":" + findField.getText();
+	}
+
+	/**
+	 * Method checks whether highlighted matches belong to the current document and searched text.
+	 *
+	 * @return {@code true} if matches are up to date, otherwise {@code false}
+	 */
+	private boolean isSearchCurrent() {
+		SingleDocumentModel model = documentModel.getCurrentDocument();
+		return model != null && searchedArea == model.getTextComponent()
+				&& getQuery().equals(searchedQuery);
+	}
+
+	/**
+	 * Method starts highlighting matches in given {@code textArea}.
+	 *
+	 * @param textArea text area whose matches are highlighted
+	 */
+	private void attach(JTextArea textArea) {
+		detach();
+		searchedArea = textArea;
+		textArea.getDocument().addDocumentListener(documentListener);
+		try {
+			highlightTag = textArea.getHighlighter().addHighlight(0, 0, highlighter);
+		} catch (BadLocationException ex) {
+			ex.printStackTrace();
+		}
+	}
+
+	/**
+	 * Method stops highlighting matches and cancels running search.
+	 */
+	private void detach() {
+		clearMatches();
+		if (searchedArea == null)
+			return;
+		Document document = searchedArea.getDocument();
+		document.removeDocumentListener(documentListener);
+		if (highlightTag != null) {
+			searchedArea.getHighlighter().removeHighlight(highlightTag);
+			highlightTag = null;
+		}
+		searchedArea = null;
+	}
+
+	/**
+	 * Method clears found matches and cancels running search.
+	 */
+	private void clearMatches() {
+		if (searchWorker != null) {
+			searchWorker.cancel(true);
+			searchWorker = null;
+		}
+		searchedQuery = null;
+		if (highlighter.size() > 0) {
+			highlighter.clear();
+			searchedArea.repaint(searchedArea.getVisibleRect());
+		}
+	}
+
+}
@@ -10,17 +10,21 @@ import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.Collator;
-import java.text.SimpleDateFormat;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Date;
-import java.util.LinkedHashSet;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.Action;
 import javax.swing.ActionMap;
@@ -38,16 +42,27 @@ import javax.swing.JTextArea;
 import javax.swing.JToolBar;
 import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.border.BevelBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.Caret;
 import javax.swing.text.DefaultEditorKit;
 import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.undo.UndoManager;
 
+import hr.fer.zemris.java.hw11.jnotepadpp.journal.EditJournal;
 import hr.fer.zemris.java.hw11.jnotepadpp.local.FormLocalizationProvider;
 import hr.fer.zemris.java.hw11.jnotepadpp.local.LocalizableAction;
 import hr.fer.zemris.java.hw11.jnotepadpp.local.LocalizationProvider;
 import hr.fer.zemris.java.hw11.jnotepadpp.local.swing.LJMenu;
+import hr.fer.zemris.java.hw11.jnotepadpp.session.Session;
+import hr.fer.zemris.java.hw11.jnotepadpp.transform.CaseConverter;
+import hr.fer.zemris.java.hw11.jnotepadpp.transform.CaseConverter.Conversion;
+import hr.fer.zemris.java.hw11.jnotepadpp.transform.LineDeduplicator;
+import hr.fer.zemris.java.hw11.jnotepadpp.transform.LineSorter;
 
 /**
  * Program JNotepadPP is text editor program that offers basic functionality for text editing. </br>
@@ -58,6 +73,8 @@ import hr.fer.zemris.java.hw11.jnotepadpp.local.swing.LJMenu;
  *    <li>	copy text</li>
  *    <li>	cut text</li>
  *    <li>	paste text</li>
+ *    <li>	undo and redo edits</li>
+ *    <li>	find and replace text</li>
  * </p>
  * 
  * Tools for text manipulation that it supports are: </br>
@@ -152,10 +169,102 @@ public class JNotepadPP extends JFrame {
 	 * Label that shows current time
 	 */
 	private JLabel clockLabel;
+	/**
+	 * Runner of transformations of selected text
+	 */
+	private TextTransformRunner transformRunner = new TextTransformRunner(this);
+	/**
+	 * Dialog for finding and replacing text, created when it is first shown
+	 */
+	private FindReplaceDialog findReplaceDialog;
+	/**
+	 * Panel that shows results of searching all opened documents
+	 */
+	private SearchResultsPanel searchResultsPanel;
+	/**
+	 * Timer that refreshes status bar once burst of document changes is over
+	 */
+	private Timer statusBarTimer;
+	/**
+	 * Document whose state is shown on the next refresh of the status bar
+	 */
+	private SingleDocumentModel statusBarModel;
+	/**
+	 * Text area whose copy, paste and cut actions were replaced last, {@code null} if there is none
+	 */
+	private JTextArea actionsTextArea;
+	/**
+	 * Document of the current tab whose edits refresh the status bar, {@code null} if there is none
+	 */
+	private Document statusBarDocument;
+	/**
+	 * Listener that refreshes the status bar after every edit of the {@link #statusBarDocument},
+	 * including edits that do not move the caret or change modified flag of the document
+	 */
+	private final DocumentListener statusBarListener = new DocumentListener() {
+		
+		@Override
+		public void removeUpdate(DocumentEvent e) {
+			contentChanged();
+		}
+		
+		@Override
+		public void insertUpdate(DocumentEvent e) {
+			contentChanged();
+		}
+		
+		@Override
+		public void changedUpdate(DocumentEvent e) {
+			contentChanged();
+		}
+		
+		private void contentChanged() {
+			SingleDocumentModel model = documentModel.getCurrentDocument();
+			if (model != null) {
+				scheduleStatusBarUpdate(model);
+			}
+		}
+	};
+	/**
+	 * Values currently shown in the status bar: length, line, column and selection
+	 */
+	private int[] statusBarValues = { -1, -1, -1, -1 };
+	/**
+	 * Label that shows memory used by the program
+	 */
+	private JLabel memoryLabel;
+	/**
+	 * Second that clock currently shows, in seconds since the epoch
+	 */
+	private long clockSecond = -1;
+	/**
+	 * Memory in megabytes that memory label currently shows
+	 */
+	private long shownMemory = -1;
+	/**
+	 * Periodic task that updates the clock
+	 */
+	private ScheduledFuture<?> clockTask;
+	/**
+	 * Periodic task that updates the memory gauge
+	 */
+	private ScheduledFuture<?> memoryTask;
 	/**
 	 * Date format for clock
 	 */
-	private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
+	/**
+	 * Period in milliseconds in which clock checks the time
+	 */
+	private static final int CLOCK_PERIOD = 250;
+	/**
+	 * Period in milliseconds in which memory label is refreshed
+	 */
+	private static final int MEMORY_PERIOD = 2000;
+	/**
+	 * String format for used and maximal memory in megabytes
+	 */
+	private static final String MEMORY_FORMAT = "%d / %d MB  ";
 	/**
 	 * String format for length of document
 	 */
@@ -172,10 +281,46 @@ public class JNotepadPP extends JFrame {
 	 * String format for number of selected characters
 	 */
 	private static final String SEL_FORMAT = "Sel: %d  ";
+	/**
+	 * Delay in milliseconds between change of the document and refresh of the status bar, roughly one frame
+	 */
+	private static final int STATUS_BAR_DELAY = 16;
 	/**
 	 * Name of tab for empty document
 	 */
 	private static final String EMPTY_DOC_NAME = "new";
+	/**
+	 * System property that sets interval of automatic saving in milliseconds
+	 */
+	private static final String AUTOSAVE_PROPERTY = "jnotepadpp.autosaveInterval";
+	/**
+	 * Default interval of automatic saving, autosave is turned off unless the property turns it on
+	 */
+	private static final int DEFAULT_AUTOSAVE_INTERVAL = 0;
+	/**
+	 * System property that sets path of the session file
+	 */
+	private static final String SESSION_PROPERTY = "jnotepadpp.session";
+	/**
+	 * Default path of the session file, relative to the user's home directory
+	 */
+	private static final String DEFAULT_SESSION_FILE = ".jnotepadpp/session.bin";
+	/**
+	 * System property that sets directory of edit journals
+	 */
+	private static final String JOURNAL_PROPERTY = "jnotepadpp.journal";
+	/**
+	 * Default directory of edit journals, relative to the user's home directory
+	 */
+	private static final String DEFAULT_JOURNAL_DIRECTORY = ".jnotepadpp/journal";
+	/**
+	 * System property that sets interval in milliseconds in which journaled edits are written
+	 */
+	private static final String JOURNAL_INTERVAL_PROPERTY = "jnotepadpp.journalInterval";
+	/**
+	 * System property that turns on copying of large files before they are mapped
+	 */
+	private static final String PRIVATE_COPIES_PROPERTY = "jnotepadpp.privateCopies";
 	/**
 	 * Localization provider for this frame
 	 */
@@ -214,17 +359,89 @@ public class JNotepadPP extends JFrame {
 		documentPanel.setLayout(new BorderLayout());
 		cp.add(documentPanel, BorderLayout.CENTER);
 		
-		documentModel = new DefaultMultipleDocumentModel();
+		DefaultMultipleDocumentModel defaultDocumentModel = new DefaultMultipleDocumentModel();
+		defaultDocumentModel.setAutosaveInterval(Integer.getInteger(AUTOSAVE_PROPERTY, DEFAULT_AUTOSAVE_INTERVAL));
+		defaultDocumentModel.setPrivateCopies(Boolean.getBoolean(PRIVATE_COPIES_PROPERTY));
+		documentModel = defaultDocumentModel;
 		documentPanel.add((Component) documentModel, BorderLayout.CENTER);
+		searchResultsPanel = new SearchResultsPanel(documentModel);
+		searchResultsPanel.setVisible(false);
+		documentPanel.add(searchResultsPanel, BorderLayout.PAGE_END);
 		
 		createActions();
 		createMenus();
 		createToolBars();
 		createStatusBar();
 		addListeners();
+		recoverJournals(defaultDocumentModel);
+		restoreSession(defaultDocumentModel);
 		
 	}
 	
+	/**
+	 * Method turns on journaling of edits and recovers documents from journals
+	 * that were left behind if program was not closed properly.
+	 * Recovered documents are opened before the session is restored, so they replace session's tabs of the same files.
+	 * If journal interval is not positive, edits are not journaled.
+	 * 
+	 * @param model document model whose edits are journaled
+	 */
+	private void recoverJournals(DefaultMultipleDocumentModel model) {
+		int interval = Integer.getInteger(JOURNAL_INTERVAL_PROPERTY, EditJournal.DEFAULT_COMMIT_INTERVAL);
+		if (interval <= 0)
+			return;
+		String journalDirectory = System.getProperty(JOURNAL_PROPERTY);
+		model.setJournalDirectory(journalDirectory != null ? Paths.get(journalDirectory)
+				: Paths.get(System.getProperty("user.home")).resolve(DEFAULT_JOURNAL_DIRECTORY), interval);
+		model.recoverJournals();
+	}
+	
+	/**
+	 * Method returns path of the session file.
+	 * 
+	 * @return path of the session file
+	 */
+	private static Path getSessionFile() {
+		String sessionFile = System.getProperty(SESSION_PROPERTY);
+		if (sessionFile != null)
+			return Paths.get(sessionFile);
+		return Paths.get(System.getProperty("user.home")).resolve(DEFAULT_SESSION_FILE);
+	}
+	
+	/**
+	 * Method restores session that was saved when program was closed last time.
+	 * If there's no session or it can not be read, program starts without opened documents.
+	 * 
+	 * @param model document model in which session is restored
+	 */
+	private void restoreSession(DefaultMultipleDocumentModel model) {
+		Path sessionFile = getSessionFile();
+		if (!Files.exists(sessionFile))
+			return;
+		try {
+			model.restoreSession(Session.read(sessionFile));
+		} catch (IOException ex) {
+			System.err.println("Session can not be restored: " + ex.getMessage());
+		}
+	}
+	
+	/**
+	 * Method saves state of all opened documents to the session file,
+	 * so they are opened again next time program starts.
+	 * Once session is saved, edit journals are no longer needed and they are deleted.
+	 */
+	private void saveSession() {
+		if (!(documentModel instanceof DefaultMultipleDocumentModel))
+			return;
+		DefaultMultipleDocumentModel model = (DefaultMultipleDocumentModel) documentModel;
+		try {
+			model.captureSession().write(getSessionFile());
+			model.discardJournals();
+		} catch (IOException ex) {
+			System.err.println("Session can not be saved: " + ex.getMessage());
+		}
+	}
+	
 	/**
 	 * Method adds listeners.
 	 */
@@ -240,49 +457,127 @@ public class JNotepadPP extends JFrame {
 		documentModel.addMultipleDocumentListener(new MultipleDocumentListener() {
 			@Override
 			public void documentRemoved(SingleDocumentModel model) {
-				// Not needed
+				if (model.getDocument() == statusBarDocument) {
+					listenToDocument(null);
+				}
 			}
 			@Override
 			public void documentAdded(SingleDocumentModel model) {
-				replaceActions(model.getTextComponent());
+				// Text area of the document is created once it is shown
 			}
 			
 			@Override
 			public void currentDocumentChanged(SingleDocumentModel previousModel, SingleDocumentModel currentModel) {
-				if (currentModel != null) {
-					JTextArea textArea = currentModel.getTextComponent();
-					updateStatusBar(textArea);
-					setEnabledActions(textArea);
-					setTitleForModel(currentModel);
+				if (currentModel == null)
+					return;
+				// Text area of a document that is still loading is created once it is loaded,
+				// caret events of the same text area need no new actions
+				JTextArea textArea = getCreatedTextComponent(currentModel);
+				if (textArea != null && textArea != actionsTextArea) {
+					replaceActions(textArea);
+					actionsTextArea = textArea;
 				}
+				listenToDocument(currentModel.getDocument());
+				scheduleStatusBarUpdate(currentModel);
 			}
 		});
 	}
 	
 	/**
-	 * Method updates status bar according to given {@code textArea}.
+	 * Method moves {@link #statusBarListener} to the given {@code document},
+	 * so the status bar is refreshed after its edits. </br>
+	 * Nothing is done if listener is already added to it.
+	 * 
+	 * @param document document of the current tab, {@code null} if there is none
+	 */
+	private void listenToDocument(Document document) {
+		if (document == statusBarDocument)
+			return;
+		if (statusBarDocument != null) {
+			statusBarDocument.removeDocumentListener(statusBarListener);
+		}
+		statusBarDocument = document;
+		if (document != null) {
+			document.addDocumentListener(statusBarListener);
+		}
+	}
+	
+	/**
+	 * Method schedules refresh of the status bar, title and actions for given {@code model}. </br>
+	 * Document changes and caret moves come in bursts while typing or pasting,
+	 * so all requests made within {@link #STATUS_BAR_DELAY} milliseconds
+	 * are merged into single refresh that shows the state of the latest model.
+	 * 
+	 * @param model document whose state is shown
+	 */
+	private void scheduleStatusBarUpdate(SingleDocumentModel model) {
+		statusBarModel = model;
+		if (statusBarTimer == null) {
+			statusBarTimer = new Timer(STATUS_BAR_DELAY, e -> {
+				JTextArea textArea = getCreatedTextComponent(statusBarModel);
+				if (textArea != null) {
+					updateStatusBar(textArea);
+					setEnabledActions(textArea);
+				}
+				setEnabledHistoryActions(statusBarModel);
+				setTitleForModel(statusBarModel);
+			});
+			statusBarTimer.setRepeats(false);
+		}
+		if (!statusBarTimer.isRunning()) {
+			statusBarTimer.start();
+		}
+	}
+	
+	/**
+	 * Method returns text area of given {@code model} only if it is already created,
+	 * so listeners never create text areas of documents that are not shown.
+	 * 
+	 * @param model document whose text area is returned
+	 * @return      text area of the document or {@code null} if it is not created
+	 */
+	private static JTextArea getCreatedTextComponent(SingleDocumentModel model) {
+		if (model instanceof DefaultSingleDocumentModel && !((DefaultSingleDocumentModel) model).hasTextComponent())
+			return null;
+		return model.getTextComponent();
+	}
+	
+	/**
+	 * Method updates status bar according to given {@code textArea}. </br>
+	 * Line of the caret is found in the line elements of the document in logarithmic time
+	 * and labels are changed only if values they show are changed.
 	 * 
 	 * @param textArea text area that is used to update the status bar
 	 */
 	private void updateStatusBar(JTextArea textArea) {
-		try {
-			Caret caret = textArea.getCaret();
-			Document doc = textArea.getDocument();
-
-			int docLength = doc.getLength();
-			lengthLabel.setText(String.format(LENGTH_FORMAT, docLength));
-
-			int caretIndex = textArea.getCaretPosition();
-			int currentLn = textArea.getLineOfOffset(caretIndex);
-			int currentCol = caretIndex - textArea.getLineStartOffset(currentLn);
+		Caret caret = textArea.getCaret();
+		Document doc = textArea.getDocument();
+		Element lines = doc.getDefaultRootElement();
 
-			lnLabel.setText(String.format(LN_FORMAT, currentLn + 1));
-			colLabel.setText(String.format(COL_FORMAT, currentCol + 1));
+		int caretIndex = caret.getDot();
+		int currentLn = lines.getElementIndex(caretIndex);
+		int currentCol = caretIndex - lines.getElement(currentLn).getStartOffset();
+		int selectedLen = Math.abs(caret.getDot() - caret.getMark());
 
-			int selectedLen = Math.abs(caret.getDot() - caret.getMark());
-			selLabel.setText(String.format(SEL_FORMAT, selectedLen));
-		} catch (BadLocationException ignorable) {
-		}
+		setStatusBarValue(0, doc.getLength(), lengthLabel, LENGTH_FORMAT);
+		setStatusBarValue(1, currentLn + 1, lnLabel, LN_FORMAT);
+		setStatusBarValue(2, currentCol + 1, colLabel, COL_FORMAT);
+		setStatusBarValue(3, selectedLen, selLabel, SEL_FORMAT);
+	}
+	
+	/**
+	 * Method shows given {@code value} in the {@code label} if it differs from the value it already shows.
+	 * 
+	 * @param index  index of the value in {@link #statusBarValues}
+	 * @param value  value that is shown
+	 * @param label  label that shows the value
+	 * @param format format of the label's text
+	 */
+	private void setStatusBarValue(int index, int value, JLabel label, String format) {
+		if (statusBarValues[index] == value)
+			return;
+		statusBarValues[index] = value;
+		label.setText(String.format(format, value));
 	}
 	
 	/**
@@ -317,6 +612,15 @@ public class JNotepadPP extends JFrame {
 		pasteAction.putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control V"));
 		pasteAction.putValue(Action.MNEMONIC_KEY, KeyEvent.VK_V);
 		
+		undoAction.putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control Z"));
+		undoAction.putValue(Action.MNEMONIC_KEY, KeyEvent.VK_U);
+		
+		redoAction.putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control Y"));
+		redoAction.putValue(Action.MNEMONIC_KEY, KeyEvent.VK_R);
+		
+		findAction.putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control F"));
+		findAction.putValue(Action.MNEMONIC_KEY, KeyEvent.VK_F);
+		
 		statInfoAction.putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control I"));
 		statInfoAction.putValue(Action.MNEMONIC_KEY, KeyEvent.VK_I);
 		
@@ -352,6 +656,8 @@ public class JNotepadPP extends JFrame {
 		uniqueAction.putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control shift U"));
 		uniqueAction.putValue(Action.MNEMONIC_KEY, KeyEvent.VK_U);
 		uniqueAction.setEnabled(false);
+		uniqueAdjacentAction.setEnabled(false);
+		uniqueIgnoreCaseAction.setEnabled(false);
 		
 	}
 	
@@ -375,9 +681,14 @@ public class JNotepadPP extends JFrame {
 		fileMenu.add(exitAction);
 		
 		editMenu = new LJMenu(LocalizationKeys.EDIT_KEY, formLocProvider);
+		editMenu.add(undoAction);
+		editMenu.add(redoAction);
+		editMenu.addSeparator();
 		editMenu.add(copyAction);
 		editMenu.add(cutAction);
 		editMenu.add(pasteAction);
+		editMenu.addSeparator();
+		editMenu.add(findAction);
 		
 		langMenu = new LJMenu(LocalizationKeys.LANG_KEY, formLocProvider);
 		langMenu.add(enLangAction);
@@ -394,6 +705,9 @@ public class JNotepadPP extends JFrame {
 		sortMenu.add(ascendingAction);
 		sortMenu.add(descendingAction);
 		sortMenu.add(uniqueAction);
+		sortMenu.add(uniqueAdjacentAction);
+		sortMenu.add(uniqueIgnoreCaseAction);
+		sortMenu.add(uniqueDocumentAction);
 		
 		toolsMenu.add(changeCaseMenu);
 		toolsMenu.add(sortMenu);
@@ -445,8 +759,9 @@ public class JNotepadPP extends JFrame {
 		colLabel = new JLabel("Col: 0 ");
 		selLabel = new JLabel("Sel: 0 ");
 		clockLabel = new JLabel();
+		memoryLabel = new JLabel();
 		activateClock();
-		
+		activateMemoryGauge();
 		
 		statusBar.add(lengthLabel);
 		statusBar.add(Box.createGlue());
@@ -454,6 +769,7 @@ public class JNotepadPP extends JFrame {
 		statusBar.add(colLabel);
 		statusBar.add(selLabel);
 		statusBar.add(Box.createGlue());
+		statusBar.add(memoryLabel);
 		statusBar.add(clockLabel);
 		
 		statusBar.setBorder(BorderFactory.createBevelBorder(BevelBorder.LOWERED));
@@ -462,21 +778,47 @@ public class JNotepadPP extends JFrame {
 	}
 	
 	/**
-	 * Method activates clock by starting new thread
-	 * which refreshes value every 500 milis.
+	 * Method activates clock on the {@link UITicker}. </br>
+	 * Clock checks the time every {@link #CLOCK_PERIOD} milliseconds,
+	 * but its label is changed only when the shown second changes.
 	 */
 	private void activateClock() {
-		Thread clockThread = new Thread(() -> {
-			while (true) {
-				try {
-					clockLabel.setText(dateFormat.format(new Date()));
-					Thread.sleep(500);
-				} catch (InterruptedException ignorable) {
-				}
-			}
-		});
-		clockThread.setDaemon(true);
-		clockThread.start();
+		updateClock();
+		clockTask = UITicker.getInstance().schedule(this::updateClock, CLOCK_PERIOD, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Method shows current time in the clock label if its second differs from the shown one.
+	 */
+	private void updateClock() {
+		long now = System.currentTimeMillis();
+		long second = now / 1000;
+		if (second == clockSecond)
+			return;
+		clockSecond = second;
+		LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault());
+		clockLabel.setText(DATE_FORMAT.format(time));
+	}
+	
+	/**
+	 * Method activates memory gauge on the {@link UITicker},
+	 * which shows used and maximal heap memory every {@link #MEMORY_PERIOD} milliseconds.
+	 */
+	private void activateMemoryGauge() {
+		updateMemoryGauge();
+		memoryTask = UITicker.getInstance().schedule(this::updateMemoryGauge, MEMORY_PERIOD, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Method shows used and maximal heap memory in the memory label if used memory changed.
+	 */
+	private void updateMemoryGauge() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+		if (used == shownMemory)
+			return;
+		shownMemory = used;
+		memoryLabel.setText(String.format(MEMORY_FORMAT, used, runtime.maxMemory() >> 20));
 	}
 	
 	/**
@@ -517,6 +859,7 @@ public class JNotepadPP extends JFrame {
 	/**
 	 * Method closes given {@code document}.
 	 * If document is modified, it asks user whether he wants to save it first.
+	 * In that case document is closed once it is successfully saved.
 	 * 
 	 * @param document document that is closed
 	 */
@@ -530,16 +873,21 @@ public class JNotepadPP extends JFrame {
 			if (value == JOptionPane.CANCEL_OPTION)
 				return;
 			if (value == JOptionPane.YES_OPTION) {
-				if(!saveDocument(document, document.getFilePath()))
+				CompletableFuture<Void> save = saveDocument(document, document.getFilePath());
+				if (save == null)
 					return;
+				save.thenRun(() -> documentModel.closeDocument(document));
+				return;
 			}
 		}
 		documentModel.closeDocument(document);
 	}
 	
 	/**
-	 * Action opens existing file from disk. </br>
+	 * Action opens existing files from disk. </br>
 	 * For file choosing it uses {@link JFileChooser} object.
+	 * Last chosen file is loaded in background and shown,
+	 * other chosen files are loaded once their tabs are selected.
 	 */
 	private final Action openExistingDocumentAction = new LocalizableAction(LocalizationKeys.OPEN_KEY, formLocProvider) {
 		
@@ -552,19 +900,26 @@ public class JNotepadPP extends JFrame {
 		public void actionPerformed(ActionEvent e) {
 			JFileChooser chooser = new JFileChooser();
 			chooser.setDialogTitle("Open document");
+			chooser.setMultiSelectionEnabled(true);
 			if (chooser.showOpenDialog(JNotepadPP.this) != JFileChooser.APPROVE_OPTION) {
 				return;
 			}
 			
-			File fileName = chooser.getSelectedFile();
-			Path filePath = fileName.toPath();
-			if (!Files.isReadable(filePath)) {
-				JOptionPane.showMessageDialog(JNotepadPP.this, "File " + fileName.getAbsolutePath() + " does not exit",
-						"Error",JOptionPane.ERROR_MESSAGE);
-				return;
+			File[] files = chooser.getSelectedFiles();
+			for (int i = 0; i < files.length; i++) {
+				Path filePath = files[i].toPath();
+				if (!Files.isReadable(filePath)) {
+					JOptionPane.showMessageDialog(JNotepadPP.this, "File " + files[i].getAbsolutePath() + " does not exit",
+							"Error",JOptionPane.ERROR_MESSAGE);
+					continue;
+				}
+				
+				if (i == files.length - 1) {
+					documentModel.loadDocumentAsync(filePath);
+				} else {
+					documentModel.loadDocumentLazily(filePath);
+				}
 			}
-			
-			documentModel.loadDocument(filePath);
 		}
 	};
 	
@@ -589,29 +944,40 @@ public class JNotepadPP extends JFrame {
 	
 	/**
 	 * Method runs through all documents, if document is modified 
-	 * it saves it using {@link #saveDocument(SingleDocumentModel, Path)},
-	 * and then it closes document.
+	 * it saves it using {@link #saveDocument(SingleDocumentModel, Path)}.
+	 * Documents stay opened, so they are recorded in the session.
+	 * 
+	 * @return future that completes when all documents are saved
 	 */
-	private void saveAllAndCloseDocuments() {
-		while (documentModel.getNumberOfDocuments() > 0) {
-			SingleDocumentModel document = documentModel.getCurrentDocument();
+	private CompletableFuture<Void> saveAllDocuments() {
+		List<SingleDocumentModel> documents = new ArrayList<>();
+		documentModel.forEach(documents::add);
+		
+		List<CompletableFuture<Void>> saves = new ArrayList<>();
+		for (SingleDocumentModel document : documents) {
 			if (document.isModified()) {
-				saveDocument(document, document.getFilePath());
+				CompletableFuture<Void> save = saveDocument(document, document.getFilePath());
+				if (save != null) {
+					saves.add(save);
+				}
 			}
-			documentModel.closeDocument(document);
 		}
+		return CompletableFuture.allOf(saves.toArray(new CompletableFuture<?>[saves.size()]));
 	}
 	
 	/**
-	 * Method saves given {@code document}. 
+	 * Method saves given {@code document} in background. 
 	 * If given {@code documentPath} is {@code null} it asks user to save it using {@link JFileChooser}.
 	 * Otherwise it saves document to the given path.
+	 * If file of the document was changed by another program, user is asked whether to overwrite it.
+	 * If saving fails, user is notified about it.
 	 * 
 	 * @param document     document that is saved
 	 * @param documentPath path that represents location on disk where document is saved
-	 * @return             {@code true} if document is successfully saved, otherwise {@code false}
+	 * @return             future that completes on the Event Dispatch Thread when document is saved
+	 *                     or {@code null} if saving was not started
 	 */
-	private boolean saveDocument(SingleDocumentModel document, Path documentPath) {
+	private CompletableFuture<Void> saveDocument(SingleDocumentModel document, Path documentPath) {
 		// If path == null let user choose the path
 		if (documentPath == null) {
 			JFileChooser chooser = new JFileChooser();
@@ -620,18 +986,33 @@ public class JNotepadPP extends JFrame {
 			if (chooser.showSaveDialog(JNotepadPP.this) != JFileChooser.APPROVE_OPTION) {
 				JOptionPane.showMessageDialog(JNotepadPP.this, "File is not saved", "Warning",
 						JOptionPane.WARNING_MESSAGE);
-				return false;
+				return null;
 			}
 			documentPath = chooser.getSelectedFile().toPath();
 		}
 		
+		if (documentPath.equals(document.getFilePath()) && documentModel instanceof DefaultMultipleDocumentModel
+				&& ((DefaultMultipleDocumentModel) documentModel).isConflicted(document)) {
+			int value = JOptionPane.showConfirmDialog(JNotepadPP.this,
+					"File '" + getFileName(document) + "' was changed by another program!\n" + 
+					"Do you want to overwrite it?", "Warning", 
+					JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+			if (value != JOptionPane.YES_OPTION)
+				return null;
+		}
+		
 		try {
-			documentModel.saveDocument(document, documentPath);
-			return true;
+			Path path = documentPath;
+			return documentModel.saveDocumentAsync(document, documentPath).whenComplete((v, ex) -> {
+				if (ex != null) {
+					JOptionPane.showMessageDialog(JNotepadPP.this, "Document can not be saved to " + path, 
+							"ERROR", JOptionPane.ERROR_MESSAGE);
+				}
+			});
 		} catch (DocumentModelException ex) {
 			JOptionPane.showMessageDialog(JNotepadPP.this, ex.getMessage(), 
 					"ERROR", JOptionPane.ERROR_MESSAGE);
-			return false;
+			return null;
 		}
 	}
 	
@@ -767,6 +1148,52 @@ public class JNotepadPP extends JFrame {
 		}
 	};
 	
+	/**
+	 * Action undoes the last edit of current document.
+	 */
+	private final Action undoAction = new LocalizableAction(LocalizationKeys.UNDO_KEY, formLocProvider) {
+
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			SingleDocumentModel model = documentModel.getCurrentDocument();
+			if (model == null)
+				return;
+			
+			UndoManager undoManager = model.getUndoManager();
+			if (undoManager.canUndo()) {
+				undoManager.undo();
+			}
+		}
+	};
+	
+	/**
+	 * Action redoes the last undone edit of current document.
+	 */
+	private final Action redoAction = new LocalizableAction(LocalizationKeys.REDO_KEY, formLocProvider) {
+
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			SingleDocumentModel model = documentModel.getCurrentDocument();
+			if (model == null)
+				return;
+			
+			UndoManager undoManager = model.getUndoManager();
+			if (undoManager.canRedo()) {
+				undoManager.redo();
+			}
+		}
+	};
+	
 	/**
 	 * Action calculates statistical info of current document </br>
 	 * and shows it to the user using {@link JOptionPane#showMessageDialog(Component, Object, String, int)}.
@@ -790,6 +1217,36 @@ public class JNotepadPP extends JFrame {
 		
 	};
 	
+	/**
+	 * Action shows dialog for finding and replacing text in current document.
+	 * Selected text, if it is within single line, is used as searched text.
+	 */
+	private final Action findAction = new LocalizableAction(LocalizationKeys.FIND_KEY, formLocProvider) {
+
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			SingleDocumentModel model = documentModel.getCurrentDocument();
+			if (model == null)
+				return;
+			
+			String selected = model.getTextComponent().getSelectedText();
+			if (selected != null && (selected.indexOf('\n') >= 0 || selected.indexOf('\r') >= 0)) {
+				selected = null;
+			}
+			if (findReplaceDialog == null) {
+				findReplaceDialog = new FindReplaceDialog(JNotepadPP.this, documentModel, transformRunner,
+						searchResultsPanel);
+			}
+			findReplaceDialog.showDialog(selected);
+		}
+		
+	};
+	
 	/**
 	 * Action switches program's language to the Croatian language.
 	 */
@@ -856,22 +1313,8 @@ public class JNotepadPP extends JFrame {
 			SingleDocumentModel model = documentModel.getCurrentDocument();
 			if (model == null)
 				return;
-			JTextArea textArea = model.getTextComponent();
-			Document doc = model.getTextComponent().getDocument();
-			int selectedLen = Math.abs(textArea.getCaret().getDot() - textArea.getCaret().getMark());
-			if (selectedLen == 0)
-				return;
-			
-			int offset = Math.min(textArea.getCaret().getDot(), textArea.getCaret().getMark());
-			try {
-				String text = doc.getText(offset, selectedLen).toUpperCase();
-				doc.remove(offset, selectedLen);
-				doc.insertString(offset, text, null);
-			} catch (BadLocationException ex) {
-				ex.printStackTrace();
-			}
+			convertSelectedCase(model.getTextComponent(), Conversion.UPPERCASE);
 		}
-		
 	};
 	
 	/**
@@ -889,20 +1332,7 @@ public class JNotepadPP extends JFrame {
 			SingleDocumentModel model = documentModel.getCurrentDocument();
 			if (model == null)
 				return;
-			JTextArea textArea = model.getTextComponent();
-			Document doc = model.getTextComponent().getDocument();
-			int selectedLen = Math.abs(textArea.getCaret().getDot() - textArea.getCaret().getMark());
-			if (selectedLen == 0)
-				return;
-			
-			int offset = Math.min(textArea.getCaret().getDot(), textArea.getCaret().getMark());
-			try {
-				String text = doc.getText(offset, selectedLen).toLowerCase();
-				doc.remove(offset, selectedLen);
-				doc.insertString(offset, text, null);
-			} catch (BadLocationException ex) {
-				ex.printStackTrace();
-			}
+			convertSelectedCase(model.getTextComponent(), Conversion.LOWERCASE);
 		}
 	};
 	
@@ -921,40 +1351,7 @@ public class JNotepadPP extends JFrame {
 			SingleDocumentModel model = documentModel.getCurrentDocument();
 			if (model == null)
 				return;
-			JTextArea textArea = model.getTextComponent();
-			Document doc = model.getTextComponent().getDocument();
-			int selectedLen = Math.abs(textArea.getCaret().getDot() - textArea.getCaret().getMark());
-			if (selectedLen == 0)
-				return;
-			
-			int offset = Math.min(textArea.getCaret().getDot(), textArea.getCaret().getMark());
-			try {
-				String text = doc.getText(offset, selectedLen);
-				text = invertCase(text);
-				doc.remove(offset, selectedLen);
-				doc.insertString(offset, text, null);
-			} catch (BadLocationException ex) {
-				ex.printStackTrace();
-			}
-		}
-
-		/**
-		 * Method inverts case for every letter of given {@code text}.
-		 * 
-		 * @param text text whose casing is inverted
-		 * @return     text with inverted casing
-		 */
-		private String invertCase(String text) {
-			char[] chars = text.toCharArray();
-			for (int i = 0; i < chars.length; i++) {
-				char c = chars[i];
-				if (Character.isLowerCase(c)) {
-					chars[i] = Character.toUpperCase(c);
-				} else {
-					chars[i] = Character.toLowerCase(c);
-				}
-			}
-			return new String(chars);
+			convertSelectedCase(model.getTextComponent(), Conversion.INVERTCASE);
 		}
 	};
 	
@@ -997,7 +1394,7 @@ public class JNotepadPP extends JFrame {
 	};
 	
 	/**
-	 * Action sorts selected lines in descending order.
+	 * Action removes equal lines from selected lines.
 	 */
 	private final Action uniqueAction = new LocalizableAction(LocalizationKeys.UNIQUE_KEY, formLocProvider) {
 		
@@ -1011,12 +1408,86 @@ public class JNotepadPP extends JFrame {
 			SingleDocumentModel model = documentModel.getCurrentDocument();
 			if (model == null)
 				return;
-			removeEqualLines(model.getTextComponent());
+			removeEqualLines(model.getTextComponent(), new LineDeduplicator(false, false), false);
+		}
+	};
+	
+	/**
+	 * Action removes selected lines that are equal to the line before them.
+	 */
+	private final Action uniqueAdjacentAction = new LocalizableAction(LocalizationKeys.UNIQUE_ADJACENT_KEY, formLocProvider) {
+		
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			SingleDocumentModel model = documentModel.getCurrentDocument();
+			if (model == null)
+				return;
+			removeEqualLines(model.getTextComponent(), new LineDeduplicator(true, false), false);
+		}
+	};
+	
+	/**
+	 * Action removes equal lines from selected lines ignoring case of letters.
+	 */
+	private final Action uniqueIgnoreCaseAction = new LocalizableAction(LocalizationKeys.UNIQUE_IGNORECASE_KEY, formLocProvider) {
+		
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			SingleDocumentModel model = documentModel.getCurrentDocument();
+			if (model == null)
+				return;
+			removeEqualLines(model.getTextComponent(), new LineDeduplicator(false, true), false);
+		}
+	};
+	
+	/**
+	 * Action removes equal lines from the whole document.
+	 */
+	private final Action uniqueDocumentAction = new LocalizableAction(LocalizationKeys.UNIQUE_DOCUMENT_KEY, formLocProvider) {
+		
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			SingleDocumentModel model = documentModel.getCurrentDocument();
+			if (model == null)
+				return;
+			removeEqualLines(model.getTextComponent(), new LineDeduplicator(false, false), true);
 		}
 	};
 	
 	/**
-	 * Method sorts selected lines from given {@code textArea}.
+	 * Method converts case of the selected text of given {@code textArea} using {@link CaseConverter}.
+	 * 
+	 * @param textArea   text area whose selected text is converted
+	 * @param conversion conversion that is done
+	 */
+	private void convertSelectedCase(JTextArea textArea, Conversion conversion) {
+		Caret caret = textArea.getCaret();
+		int start = Math.min(caret.getDot(), caret.getMark());
+		int end = Math.max(caret.getDot(), caret.getMark());
+		if (start == end)
+			return;
+		
+		Locale locale = Locale.forLanguageTag(formLocProvider.getCurrentLanguage());
+		transformRunner.run(textArea, start, end, new CaseConverter(conversion, locale), true);
+	}
+	
+	/**
+	 * Method sorts selected lines from given {@code textArea} using {@link LineSorter}.
 	 * If {@code isAscending} is {@code true} it sorts lines in ascending order,
 	 * otherwise in descending order.
 	 * 
@@ -1025,61 +1496,44 @@ public class JNotepadPP extends JFrame {
 	 * 					  or descending order
 	 */
 	private void sortSelectedLines(JTextArea textArea, boolean isAscending) {
-		try {
-			Document document = textArea.getDocument();
-			String currentLang = formLocProvider.getCurrentLanguage();
-			Locale currentLocale = Locale.forLanguageTag(currentLang);
-			Collator collator = Collator.getInstance(currentLocale);
-			Caret caret = textArea.getCaret();
-			
-			int length = Math.abs(textArea.getCaret().getDot() - caret.getMark());
-			int offset = Math.min(caret.getDot(), caret.getMark());
-			
-			offset = textArea.getLineStartOffset(textArea.getLineOfOffset(offset));
-			length = textArea.getLineEndOffset(textArea.getLineOfOffset(length + offset));
-			String text = document.getText(offset, length - offset);
-
-			List<String> lines = Arrays.asList(text.split("\r\n|\r|\n"));
-			Collections.sort(lines, isAscending ? collator : collator.reversed());
-			document.remove(offset, length - offset);
-
-			for (String line : lines) {
-				document.insertString(offset, line + "\n", null);
-				offset += line.length() + 1;
-			}
-		} catch (BadLocationException ex) {
-			ex.printStackTrace();
-		}
+		String currentLang = formLocProvider.getCurrentLanguage();
+		Locale currentLocale = Locale.forLanguageTag(currentLang);
+		Collator collator = Collator.getInstance(currentLocale);
+		
+		int[] range = getSelectedLines(textArea);
+		transformRunner.run(textArea, range[0], range[1], new LineSorter(collator, isAscending), true);
 	}
 	
 	/**
-	 * Method removes equal lines in given {@code textArea}.
+	 * Method returns range of the lines that are at least partially selected in given {@code textArea}.
+	 * Range includes terminator of its last line.
 	 * 
-	 * @param textArea text area whose equal lines are removed
+	 * @param textArea text area whose selected lines are returned
+	 * @return         array with start and end offset of selected lines
 	 */
-	private void removeEqualLines(JTextArea textArea) {
-		try {
-			Document document = textArea.getDocument();
-			Caret caret = textArea.getCaret();
-			
-			int length = Math.abs(textArea.getCaret().getDot() - caret.getMark());
-			int offset = Math.min(caret.getDot(), caret.getMark());
-			
-			offset = textArea.getLineStartOffset(textArea.getLineOfOffset(offset));
-			length = textArea.getLineEndOffset(textArea.getLineOfOffset(length + offset));
-			String text = document.getText(offset, length - offset);
-			
-			List<String> lines = Arrays.asList(text.split("\r\n|\r|\n"));
-			Set<String> uniqueLines = new LinkedHashSet<>(lines);
-			document.remove(offset, length - offset);
-
-			for (String line : uniqueLines) {
-				document.insertString(offset, line + "\n", null);
-				offset += line.length() + 1;
-			}
-		} catch (BadLocationException ex) {
-			ex.printStackTrace();
-		}
+	private int[] getSelectedLines(JTextArea textArea) {
+		Caret caret = textArea.getCaret();
+		Document document = textArea.getDocument();
+		Element lines = document.getDefaultRootElement();
+		
+		int start = Math.min(caret.getDot(), caret.getMark());
+		int end = Math.max(caret.getDot(), caret.getMark());
+		start = lines.getElement(lines.getElementIndex(start)).getStartOffset();
+		end = Math.min(lines.getElement(lines.getElementIndex(end)).getEndOffset(), document.getLength());
+		return new int[] { start, end };
+	}
+	
+	/**
+	 * Method removes equal lines in given {@code textArea} using given {@code deduplicator}.
+	 * 
+	 * @param textArea      text area whose equal lines are removed
+	 * @param deduplicator  deduplicator that removes equal lines
+	 * @param wholeDocument flag that shows whether lines of the whole document
+	 * 						or only selected lines are processed
+	 */
+	private void removeEqualLines(JTextArea textArea, LineDeduplicator deduplicator, boolean wholeDocument) {
+		int[] range = wholeDocument ? new int[] { 0, textArea.getDocument().getLength() } : getSelectedLines(textArea);
+		transformRunner.run(textArea, range[0], range[1], deduplicator, !wholeDocument);
 	}
 	
 	/**
@@ -1091,13 +1545,12 @@ public class JNotepadPP extends JFrame {
 	 * @return statistical info of given {@code document}
 	 */
 	private String getStatInfo(SingleDocumentModel document) {
-		JTextArea textArea = document.getTextComponent();
-		String documentText = document.getTextComponent().getText();
+		DocumentStatistics statistics = document.getStatistics();
 		String name = getFileName(document);
 		
-		int numOfChars = documentText.length();
-		int numOfNonBlankChars = documentText.replaceAll("\\s+", "").length();
-		int numOfLines = textArea.getLineCount();
+		int numOfChars = statistics.getCharacters();
+		int numOfNonBlankChars = statistics.getNonBlankCharacters();
+		int numOfLines = statistics.getLines();
 		return String.format(
 				"File: %s%n" +
 				"- Number of characters: %d%n" + 
@@ -1123,6 +1576,20 @@ public class JNotepadPP extends JFrame {
 		ascendingAction.setEnabled(isEnabled);
 		descendingAction.setEnabled(isEnabled);
 		uniqueAction.setEnabled(isEnabled);
+		uniqueAdjacentAction.setEnabled(isEnabled);
+		uniqueIgnoreCaseAction.setEnabled(isEnabled);
+	}
+	
+	/**
+	 * Method enables or disables undo and redo actions
+	 * according to the history of given {@code model}.
+	 * 
+	 * @param model document whose history is checked
+	 */
+	private void setEnabledHistoryActions(SingleDocumentModel model) {
+		UndoManager undoManager = model.getUndoManager();
+		undoAction.setEnabled(undoManager.canUndo());
+		redoAction.setEnabled(undoManager.canRedo());
 	}
 	
 	/**
@@ -1152,25 +1619,72 @@ public class JNotepadPP extends JFrame {
 	/**
 	 * Method exits program by disposing {@link JNotepadPP} frame. </br>
 	 * It also checks if there's unsaved documents and offers user to save those.
+	 * If user chooses to save them, frame is disposed once all of them are saved,
+	 * if some of them can not be saved program keeps running.
+	 * Autosave is turned off meanwhile, so documents the user chooses not to save are never written,
+	 * it is turned on again only if exiting is cancelled or saving fails.
+	 * Before frame is disposed, session is saved, including text of documents that are still not saved.
 	 */
 	private void exitProgram() {
+		int interval = 0;
+		if (documentModel instanceof DefaultMultipleDocumentModel) {
+			DefaultMultipleDocumentModel model = (DefaultMultipleDocumentModel) documentModel;
+			interval = model.getAutosaveInterval();
+			model.setAutosaveInterval(0);
+		}
+		int autosaveInterval = interval;
 		for (SingleDocumentModel document : documentModel) {
 			if (document.isModified()) {
 				int value = JOptionPane.showConfirmDialog(JNotepadPP.this, 
 						"Some documents are not saved!\n" + 
 						"Do you want to save them first?", "Warning", 
 						JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE);
-				if (value == JOptionPane.CANCEL_OPTION)
+				if (value == JOptionPane.CANCEL_OPTION) {
+					if (documentModel instanceof DefaultMultipleDocumentModel) {
+						((DefaultMultipleDocumentModel) documentModel).setAutosaveInterval(autosaveInterval);
+					}
 					return;
+				}
 				if (value == JOptionPane.YES_OPTION) {
-					saveAllAndCloseDocuments();
+					saveAllDocuments().whenComplete((v, ex) -> {
+						if (ex == null) {
+							saveSession();
+							dispose();
+						} else if (documentModel instanceof DefaultMultipleDocumentModel) {
+							// Failed save was already reported, user decides what to do next
+							((DefaultMultipleDocumentModel) documentModel).setAutosaveInterval(autosaveInterval);
+						}
+					});
+					return;
 				}
 				break;
 			}
 		}
+		saveSession();
 		dispose();
 	}
 	
+	/**
+	 * Method disposes the frame after it cancels all of its periodic tasks and shuts {@link UITicker} down,
+	 * so nothing is run after the frame is gone and AWT can shut down.
+	 */
+	@Override
+	public void dispose() {
+		if (clockTask != null) {
+			clockTask.cancel(false);
+		}
+		if (memoryTask != null) {
+			memoryTask.cancel(false);
+		}
+		if (documentModel instanceof DefaultMultipleDocumentModel) {
+			DefaultMultipleDocumentModel model = (DefaultMultipleDocumentModel) documentModel;
+			model.setAutosaveInterval(0);
+			model.setTabReleaseDelay(0);
+		}
+		UITicker.getInstance().shutdown();
+		super.dispose();
+	}
+	
 	/**
 	 * Method returns documents name which is got from document's path. </br>
 	 * If path is {@code null} method returns String '{@code new}'.
@@ -109,6 +109,30 @@ public class LocalizationKeys {
 	 * Key for unique action.
 	 */
 	public static final String UNIQUE_KEY = "unique";
+	/**
+	 * Key for unique adjacent lines action.
+	 */
+	public static final String UNIQUE_ADJACENT_KEY = "uniqueadjacent";
+	/**
+	 * Key for unique lines ignoring case action.
+	 */
+	public static final String UNIQUE_IGNORECASE_KEY = "uniqueignorecase";
+	/**
+	 * Key for unique lines of the document action.
+	 */
+	public static final String UNIQUE_DOCUMENT_KEY = "uniquedocument";
+	/**
+	 * Key for find and replace action.
+	 */
+	public static final String FIND_KEY = "find";
+	/**
+	 * Key for undo action.
+	 */
+	public static final String UNDO_KEY = "undo";
+	/**
+	 * Key for redo action.
+	 */
+	public static final String REDO_KEY = "redo";
 	/**
 	 * Suffix for short description key of all actions.
 	 */
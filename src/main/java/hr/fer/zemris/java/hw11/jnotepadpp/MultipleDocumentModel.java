@@ -1,6 +1,7 @@
 package hr.fer.zemris.java.hw11.jnotepadpp;
 
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface represents general form of manager of multiple documents.
@@ -25,6 +26,13 @@ public interface MultipleDocumentModel extends Iterable<SingleDocumentModel> {
 	 */
 	SingleDocumentModel getCurrentDocument();
 
+	/**
+	 * Method makes given opened document {@code model} current document.
+	 * 
+	 * @param model document that becomes current document
+	 */
+	void setCurrentDocument(SingleDocumentModel model);
+
 	/**
 	 * Method loads new document from given {@code path}.
 	 * 
@@ -33,6 +41,25 @@ public interface MultipleDocumentModel extends Iterable<SingleDocumentModel> {
 	 */
 	SingleDocumentModel loadDocument(Path path);
 
+	/**
+	 * Method loads new document from given {@code path} in background. </br>
+	 * Document is added immediately, but its text is shown once loading is finished.
+	 * 
+	 * @param path path from which document is loaded
+	 * @return     document that is being loaded
+	 */
+	SingleDocumentModel loadDocumentAsync(Path path);
+
+	/**
+	 * Method adds new document with given {@code path} whose text is loaded only once it is shown. </br>
+	 * Document does not become current document, so many documents can be added at once
+	 * without reading any of them.
+	 * 
+	 * @param path path from which document is loaded
+	 * @return     added document
+	 */
+	SingleDocumentModel loadDocumentLazily(Path path);
+
 	/**
 	 * Method saves given document {@code model} to the location of {@code newPath}. </br>
 	 * If {@code newPath} is {@code null}, {@code model}'s path is used.
@@ -42,6 +69,17 @@ public interface MultipleDocumentModel extends Iterable<SingleDocumentModel> {
 	 */
 	void saveDocument(SingleDocumentModel model, Path newPath);
 
+	/**
+	 * Method saves snapshot of given document {@code model} to the location of {@code newPath} in background. </br>
+	 * If {@code newPath} is {@code null}, {@code model}'s path is used.
+	 * Returned future completes on the Event Dispatch Thread once document is saved.
+	 * 
+	 * @param model   document model that is saved
+	 * @param newPath path to which document is saved
+	 * @return        future that completes when saving is finished
+	 */
+	CompletableFuture<Void> saveDocumentAsync(SingleDocumentModel model, Path newPath);
+
 	/**
 	 * Method closes given document {@code model}.
 	 * 
@@ -49,6 +87,23 @@ public interface MultipleDocumentModel extends Iterable<SingleDocumentModel> {
 	 */
 	void closeDocument(SingleDocumentModel model);
 
+	/**
+	 * Method returns opened document with given {@code path}.
+	 * Paths that point to the same file are treated as equal.
+	 * 
+	 * @param path path of the document
+	 * @return     opened document with given path or {@code null} if there's no such document
+	 */
+	SingleDocumentModel findDocument(Path path);
+
+	/**
+	 * Method returns index of given document {@code model}.
+	 * 
+	 * @param model document whose index is returned
+	 * @return      index of the document or -1 if document is not opened
+	 */
+	int indexOf(SingleDocumentModel model);
+
 	/**
 	 * Method adds given {@code MultipleDocumentListener} {@code l} 
 	 * to the list of listeners that are notified when changes happened.
@@ -0,0 +1,559 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.JTree;
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextSnapshot;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.FileMatch;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.FileSearch;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.MatchList;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.SearchTimeoutException;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.Searcher;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.SegmentedSearch;
+
+/**
+ * Class represents panel that searches all opened documents and shows found matches grouped by document. </br>
+ * Every search runs on its own {@link ForkJoinPool}: one task is submitted for every document
+ * and large documents are further split into segments by {@link SegmentedSearch}.
+ * Results of every document are added to the panel as soon as its search is over.
+ * Cancelling the search shuts the pool down, which interrupts all running searchers.
+ * </p>
+ *
+ * Panel can also search files of a directory tree using {@link FileSearch}.
+ * Double click on a match selects its document and the match itself,
+ * opening the file first if match was found in a file.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+class SearchResultsPanel extends JPanel {
+
+	/**
+	 * Serial number
+	 */
+	private static final long serialVersionUID = 1L;
+	/**
+	 * Maximal number of matches of a document that are shown
+	 */
+	private static final int MAX_SHOWN_MATCHES = 1000;
+	/**
+	 * Maximal number of characters of a line shown for a match
+	 */
+	private static final int MAX_LINE_LENGTH = 200;
+	/**
+	 * Name of a document that is not saved yet
+	 */
+	private static final String EMPTY_DOC_NAME = "new";
+
+	/**
+	 * Document model whose documents are searched
+	 */
+	private MultipleDocumentModel documentModel;
+	/**
+	 * Root of the tree of results
+	 */
+	private DefaultMutableTreeNode root = new DefaultMutableTreeNode();
+	/**
+	 * Model of the tree of results
+	 */
+	private DefaultTreeModel treeModel = new DefaultTreeModel(root);
+	/**
+	 * Label that shows state of the search
+	 */
+	private JLabel statusLabel = new JLabel(" ");
+	/**
+	 * Pool that runs current search, {@code null} if no search is running
+	 */
+	private ForkJoinPool pool;
+	/**
+	 * Number of documents whose search is not over yet
+	 */
+	private int pendingDocuments;
+	/**
+	 * Total number of found matches or number of changed documents
+	 */
+	private int total;
+	/**
+	 * Format of the summary shown once search is over, it is given total and number of result groups
+	 */
+	private String summaryFormat;
+
+	/**
+	 * Constructor that creates new {@link SearchResultsPanel} object.
+	 *
+	 * @param documentModel document model whose documents are searched
+	 */
+	SearchResultsPanel(MultipleDocumentModel documentModel) {
+		this.documentModel = documentModel;
+		initGUI();
+	}
+
+	/**
+	 * Method initializes components of the panel.
+	 */
+	private void initGUI() {
+		setLayout(new BorderLayout());
+		setPreferredSize(new Dimension(0, 150));
+		setBorder(BorderFactory.createEtchedBorder());
+
+		JTree tree = new JTree(treeModel);
+		tree.setRootVisible(false);
+		tree.setShowsRootHandles(true);
+		tree.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (e.getClickCount() != 2)
+					return;
+				TreePath path = tree.getPathForLocation(e.getX(), e.getY());
+				if (path == null)
+					return;
+				Object node = path.getLastPathComponent();
+				if (node instanceof MatchNode) {
+					showMatch((MatchNode) node);
+				} else if (((DefaultMutableTreeNode) node).getUserObject() instanceof FileMatch) {
+					openMatch((FileMatch) ((DefaultMutableTreeNode) node).getUserObject());
+				}
+			}
+		});
+
+		JButton stopButton = new JButton("Stop");
+		stopButton.addActionListener(e -> cancel());
+		JButton closeButton = new JButton("Close");
+		closeButton.addActionListener(e -> {
+			cancel();
+			setVisible(false);
+		});
+
+		JPanel controls = new JPanel(new BorderLayout());
+		JPanel buttons = new JPanel();
+		buttons.add(stopButton);
+		buttons.add(closeButton);
+		controls.add(statusLabel, BorderLayout.CENTER);
+		controls.add(buttons, BorderLayout.LINE_END);
+
+		add(controls, BorderLayout.PAGE_START);
+		add(new JScrollPane(tree), BorderLayout.CENTER);
+	}
+
+	/**
+	 * Method finds matches of given {@code searcher} in all opened documents.
+	 *
+	 * @param searcher searcher that finds matches
+	 */
+	void findInAll(Searcher searcher) {
+		start();
+		for (SingleDocumentModel model : documentModel) {
+			PieceTableDocument document = (PieceTableDocument) model.getDocument();
+			TextSnapshot snapshot = document.snapshot();
+			ForkJoinPool searchPool = pool;
+			searchPool.execute(() -> {
+				try {
+					MatchList matches = new SegmentedSearch(searcher, snapshot, 0, snapshot.length()).invoke();
+					SwingUtilities.invokeLater(() -> addMatches(searchPool, model, snapshot, matches));
+				} catch (CancellationException ex) {
+					// Search was cancelled
+				} catch (SearchTimeoutException ex) {
+					SwingUtilities.invokeLater(() -> addNote(searchPool, model, "search timed out"));
+				} catch (RuntimeException ex) {
+					SwingUtilities.invokeLater(() -> addNote(searchPool, model, "search failed"));
+				}
+			});
+		}
+		finishIfDone();
+	}
+
+	/**
+	 * Method replaces matches of given {@code searcher} in all opened documents with given {@code replacement}. </br>
+	 * New text of every document is computed in background and set with single edit on the Event Dispatch Thread,
+	 * so every document is changed atomically and marked as modified.
+	 * Documents that were changed while replacement was computed are left as they are.
+	 *
+	 * @param searcher    searcher that finds matches
+	 * @param replacement replacement of the matches
+	 */
+	void replaceInAll(Searcher searcher, String replacement) {
+		start();
+		summaryFormat = "Replaced in %d documents";
+		for (SingleDocumentModel model : documentModel) {
+			PieceTableDocument document = (PieceTableDocument) model.getDocument();
+			TextSnapshot snapshot = document.snapshot();
+			ForkJoinPool searchPool = pool;
+			searchPool.execute(() -> {
+				try {
+					String text = searcher.replaceAll(snapshot, 0, snapshot.length(), replacement, p -> {});
+					SwingUtilities.invokeLater(() -> applyReplacement(searchPool, model, document, snapshot, text));
+				} catch (InterruptedException ex) {
+					// Replacing was cancelled
+				} catch (SearchTimeoutException ex) {
+					SwingUtilities.invokeLater(() -> addNote(searchPool, model, "search timed out"));
+				} catch (RuntimeException ex) {
+					SwingUtilities.invokeLater(() -> addNote(searchPool, model, "search failed"));
+				}
+			});
+		}
+		finishIfDone();
+	}
+
+	/**
+	 * Method finds matches of given {@code searcher} in files of the tree of given {@code directory}
+	 * whose names match given {@code glob} pattern. Files are shown as soon as they are searched.
+	 *
+	 * @param searcher  searcher that finds matches
+	 * @param directory root of the searched tree
+	 * @param glob      glob pattern that names of searched files must match
+	 */
+	void findInFiles(Searcher searcher, Path directory, String glob) {
+		FileSearch search = new FileSearch(searcher, glob, FileSearch.DEFAULT_OPEN_FILES);
+		start();
+		pendingDocuments = 1;
+		summaryFormat = "%d matches in %d files";
+		ForkJoinPool searchPool = pool;
+		searchPool.execute(() -> {
+			try {
+				search.search(directory, (file, matches, matchCount) -> SwingUtilities.invokeLater(
+						() -> addFileMatches(searchPool, file, matches, matchCount)));
+			} catch (CancellationException ex) {
+				return;
+			} catch (RuntimeException ex) {
+				SwingUtilities.invokeLater(() -> statusLabel.setText("Search failed"));
+			}
+			SwingUtilities.invokeLater(() -> {
+				if (searchPool == pool) {
+					documentDone();
+				}
+			});
+		});
+	}
+
+	/**
+	 * Method cancels running search.
+	 */
+	void cancel() {
+		if (pool == null)
+			return;
+		pool.shutdownNow();
+		pool = null;
+		statusLabel.setText("Stopped");
+	}
+
+	/**
+	 * Method cancels previous search, clears results and starts new pool.
+	 */
+	private void start() {
+		cancel();
+		root.removeAllChildren();
+		treeModel.reload();
+		total = 0;
+		pendingDocuments = documentModel.getNumberOfDocuments();
+		summaryFormat = "%d matches in %d documents";
+		pool = new ForkJoinPool();
+		statusLabel.setText("Searching...");
+		setVisible(true);
+		revalidate();
+	}
+
+	/**
+	 * Method adds node with found matches of the document {@code model}.
+	 *
+	 * @param searchPool pool that found the matches, results of cancelled searches are ignored
+	 * @param model      searched document
+	 * @param snapshot   searched snapshot of the document
+	 * @param matches    found matches
+	 */
+	private void addMatches(ForkJoinPool searchPool, SingleDocumentModel model, TextSnapshot snapshot,
+			MatchList matches) {
+		if (searchPool != pool)
+			return;
+		total += matches.size();
+		if (matches.size() > 0) {
+			PieceTableDocument document = (PieceTableDocument) model.getDocument();
+			DocumentNode node = new DocumentNode(model, getName(model) + " (" + matches.size() + ")");
+			if (document.getModificationCount() != snapshot.getModificationCount()) {
+				node.setUserObject(getName(model) + " (" + matches.size() + ", changed since search)");
+			} else {
+				int shown = Math.min(matches.size(), MAX_SHOWN_MATCHES);
+				for (int i = 0; i < shown; i++) {
+					node.add(new MatchNode(document, matches.getStart(i), matches.getEnd(i),
+							snapshot.getModificationCount()));
+				}
+				if (shown < matches.size()) {
+					node.add(new DefaultMutableTreeNode("... " + (matches.size() - shown) + " more"));
+				}
+			}
+			insertNode(node);
+		}
+		documentDone();
+	}
+
+	/**
+	 * Method adds node with found matches of the {@code file}.
+	 *
+	 * @param searchPool pool that found the matches, results of cancelled searches are ignored
+	 * @param file       searched file
+	 * @param matches    found matches
+	 * @param matchCount number of all matches in the file
+	 */
+	private void addFileMatches(ForkJoinPool searchPool, Path file, List<FileMatch> matches, int matchCount) {
+		if (searchPool != pool)
+			return;
+		total += matchCount;
+		DefaultMutableTreeNode node = new DefaultMutableTreeNode(file + " (" + matchCount + ")");
+		int shown = Math.min(matches.size(), MAX_SHOWN_MATCHES);
+		for (int i = 0; i < shown; i++) {
+			node.add(new DefaultMutableTreeNode(matches.get(i), false));
+		}
+		if (shown < matchCount) {
+			node.add(new DefaultMutableTreeNode("... " + (matchCount - shown) + " more"));
+		}
+		treeModel.insertNodeInto(node, root, root.getChildCount());
+		statusLabel.setText("Searching... " + total + " matches in " + root.getChildCount() + " files");
+	}
+
+	/**
+	 * Method replaces text of the document {@code model} with given {@code text} if document was not changed
+	 * since the {@code snapshot} was taken.
+	 *
+	 * @param searchPool pool that computed the text, results of cancelled replacements are ignored
+	 * @param model      document whose text is replaced
+	 * @param document   text of the document
+	 * @param snapshot   snapshot from which text was computed
+	 * @param text       new text of the document, {@code null} if there were no matches
+	 */
+	private void applyReplacement(ForkJoinPool searchPool, SingleDocumentModel model, PieceTableDocument document,
+			TextSnapshot snapshot, String text) {
+		if (searchPool != pool)
+			return;
+		if (text != null) {
+			if (document.getModificationCount() != snapshot.getModificationCount()) {
+				insertNode(new DocumentNode(model, getName(model) + " (changed since search, not replaced)"));
+			} else {
+				try {
+					document.replaceText(0, document.getLength(), text);
+					model.setModified(true);
+					total++;
+					insertNode(new DocumentNode(model, getName(model) + " (replaced)"));
+				} catch (BadLocationException ex) {
+					ex.printStackTrace();
+				}
+			}
+		}
+		documentDone();
+	}
+
+	/**
+	 * Method adds node with given {@code note} about the document {@code model}.
+	 *
+	 * @param searchPool pool that searched the document, notes of cancelled searches are ignored
+	 * @param model      searched document
+	 * @param note       note about the document
+	 */
+	private void addNote(ForkJoinPool searchPool, SingleDocumentModel model, String note) {
+		if (searchPool != pool)
+			return;
+		insertNode(new DocumentNode(model, getName(model) + " (" + note + ")"));
+		documentDone();
+	}
+
+	/**
+	 * Method inserts node of a document so that nodes are in order of document tabs.
+	 *
+	 * @param node node that is inserted
+	 */
+	private void insertNode(DocumentNode node) {
+		int tab = documentModel.indexOf(node.model);
+		int index = 0;
+		while (index < root.getChildCount() && documentModel.indexOf(((DocumentNode) root.getChildAt(index)).model) < tab) {
+			index++;
+		}
+		treeModel.insertNodeInto(node, root, index);
+	}
+
+	/**
+	 * Method marks search of one document as done and shuts the pool down once all documents are searched.
+	 */
+	private void documentDone() {
+		pendingDocuments--;
+		finishIfDone();
+	}
+
+	/**
+	 * Method shows summary of the search if all documents are searched.
+	 */
+	private void finishIfDone() {
+		if (pendingDocuments > 0 || pool == null)
+			return;
+		pool.shutdown();
+		pool = null;
+		statusLabel.setText(String.format(summaryFormat, total, root.getChildCount()));
+	}
+
+	/**
+	 * Method selects document of given {@code node} and selects its match.
+	 *
+	 * @param node node of the match
+	 */
+	private void showMatch(MatchNode node) {
+		SingleDocumentModel model = ((DocumentNode) node.getParent()).model;
+		if (documentModel.indexOf(model) == -1 || model.getDocument() != node.document
+				|| node.document.getModificationCount() != node.modificationCount) {
+			statusLabel.setText("Document was changed since search");
+			return;
+		}
+		documentModel.setCurrentDocument(model);
+		JTextArea textArea = model.getTextComponent();
+		textArea.select(node.start, node.end);
+		textArea.requestFocusInWindow();
+	}
+
+	/**
+	 * Method opens file of given {@code match}, or selects it if it is already opened, and selects the match.
+	 *
+	 * @param match match in a file
+	 */
+	private void openMatch(FileMatch match) {
+		SingleDocumentModel model = documentModel.loadDocument(match.getFile());
+		if (model == null)
+			return;
+		documentModel.setCurrentDocument(model);
+		JTextArea textArea = model.getTextComponent();
+		Element lines = textArea.getDocument().getDefaultRootElement();
+		if (match.getLine() > lines.getElementCount())
+			return;
+		Element line = lines.getElement(match.getLine() - 1);
+		int start = Math.min(line.getStartOffset() + match.getColumn(), line.getEndOffset() - 1);
+		int end = Math.min(start + match.getLength(), textArea.getDocument().getLength());
+		textArea.select(start, end);
+		textArea.requestFocusInWindow();
+	}
+
+	/**
+	 * Method returns name of given {@code model} shown in the results.
+	 *
+	 * @param model document
+	 * @return      name of the document
+	 */
+	private static String getName(SingleDocumentModel model) {
+		Path path = model.getFilePath();
+		return path == null ? EMPTY_DOC_NAME : path.getFileName().toString();
+	}
+
+	/**
+	 * Class represents node of the document in the tree of results.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private static class DocumentNode extends DefaultMutableTreeNode {
+
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+		/**
+		 * Document of the node
+		 */
+		private SingleDocumentModel model;
+
+		/**
+		 * Constructor that creates new {@link DocumentNode} object.
+		 *
+		 * @param model document of the node
+		 * @param label label of the node
+		 */
+		DocumentNode(SingleDocumentModel model, String label) {
+			super(label);
+			this.model = model;
+		}
+	}
+
+	/**
+	 * Class represents node of the match in the tree of results.
+	 * Label of the node shows line number and text of the line in which match starts.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private static class MatchNode extends DefaultMutableTreeNode {
+
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+		/**
+		 * Document in which match was found
+		 */
+		private PieceTableDocument document;
+		/**
+		 * Start of the match
+		 */
+		private int start;
+		/**
+		 * End of the match
+		 */
+		private int end;
+		/**
+		 * Modification count of the document when match was found
+		 */
+		private long modificationCount;
+
+		/**
+		 * Constructor that creates new {@link MatchNode} object.
+		 *
+		 * @param document          document in which match was found
+		 * @param start             start of the match
+		 * @param end               end of the match
+		 * @param modificationCount modification count of the document when match was found
+		 */
+		MatchNode(PieceTableDocument document, int start, int end, long modificationCount) {
+			this.document = document;
+			this.start = start;
+			this.end = end;
+			this.modificationCount = modificationCount;
+			setUserObject(createLabel());
+		}
+
+		/**
+		 * Method creates label of the node.
+		 *
+		 * @return label of the node
+		 */
+		private String createLabel() {
+			Element lines = document.getDefaultRootElement();
+			int index = lines.getElementIndex(start);
+			Element line = lines.getElement(index);
+			int lineEnd = Math.min(line.getEndOffset(), document.getLength());
+			int length = Math.min(MAX_LINE_LENGTH, lineEnd - line.getStartOffset());
+			try {
+				String text = document.getText(line.getStartOffset(), length);
+				return "Ln " + (index + 1) + ": " + text.trim();
+			} catch (BadLocationException ex) {
+				return "Ln " + (index + 1);
+			}
+		}
+	}
+
+}
@@ -3,6 +3,8 @@ package hr.fer.zemris.java.hw11.jnotepadpp;
 import java.nio.file.Path;
 
 import javax.swing.JTextArea;
+import javax.swing.text.Document;
+import javax.swing.undo.UndoManager;
 
 /**
  * Interface represents general form of manager of single document.
@@ -20,6 +22,15 @@ public interface SingleDocumentModel {
 	 */
 	JTextArea getTextComponent();
 
+	/**
+	 * Method returns document that holds text of this document. </br>
+	 * Unlike {@link #getTextComponent()}, it never creates any component,
+	 * so it should be used whenever only the text is needed.
+	 * 
+	 * @return document of this document
+	 */
+	Document getDocument();
+
 	/**
 	 * Method returns path associated to this document.
 	 * 
@@ -43,10 +54,25 @@ public interface SingleDocumentModel {
 
 	/**
 	 * Method sets modified status of this document to the given value of {@code modified}.
+	 * Listeners are notified only if status has changed.
 	 * 
 	 * @param modified new modified status of document
 	 */
 	void setModified(boolean modified);
+	
+	/**
+	 * Method returns statistical informations of this document.
+	 * 
+	 * @return statistical informations of this document
+	 */
+	DocumentStatistics getStatistics();
+
+	/**
+	 * Method returns undo manager that keeps history of edits of this document.
+	 * 
+	 * @return undo manager of this document
+	 */
+	UndoManager getUndoManager();
 
 	/**
 	 * Method adds given {@link SingleDocumentListener} to the list of listeners.
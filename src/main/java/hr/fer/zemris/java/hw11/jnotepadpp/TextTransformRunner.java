@@ -0,0 +1,131 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.awt.Component;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.JOptionPane;
+import javax.swing.JTextArea;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingWorker;
+import javax.swing.text.BadLocationException;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextSnapshot;
+import hr.fer.zemris.java.hw11.jnotepadpp.transform.TextTransform;
+
+/**
+ * Class represents runner of {@link TextTransform}s on documents of text areas. </br>
+ * Snapshot of the document is taken on the Event Dispatch Thread and transformation
+ * is run on a pool of worker threads. Once transformation is finished, its result replaces
+ * transformed range with single edit, unless document was changed in the meantime.
+ * </p>
+ *
+ * If transformation takes longer than {@link #MILLIS_TO_POPUP} milliseconds,
+ * its progress is shown in the {@link ProgressMonitor} whose cancel button interrupts the transformation.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+class TextTransformRunner {
+
+	/**
+	 * Number of threads that run transformations
+	 */
+	private static final int TRANSFORM_THREADS = 2;
+	/**
+	 * Time in milliseconds after which progress of the transformation is shown
+	 */
+	private static final int MILLIS_TO_POPUP = 500;
+
+	/**
+	 * Component whose window is parent of shown dialogs
+	 */
+	private Component parent;
+	/**
+	 * Executor that runs transformations
+	 */
+	private ExecutorService executor;
+
+	/**
+	 * Constructor that creates new {@link TextTransformRunner} object.
+	 *
+	 * @param parent component whose window is parent of shown dialogs
+	 */
+	TextTransformRunner(Component parent) {
+		this.parent = parent;
+		executor = Executors.newFixedThreadPool(TRANSFORM_THREADS, r -> {
+			Thread thread = new Thread(r, "text-transform");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Method runs given {@code transform} on the range of the {@code textArea}'s document
+	 * between offsets {@code start} and {@code end}.
+	 *
+	 * @param textArea     text area whose document is transformed
+	 * @param start        start of the transformed range
+	 * @param end          end of the transformed range
+	 * @param transform    transformation that is run
+	 * @param selectResult flag that shows whether transformed range is selected afterwards
+	 */
+	void run(JTextArea textArea, int start, int end, TextTransform transform, boolean selectResult) {
+		Objects.requireNonNull(transform, "Transform must not be null");
+		PieceTableDocument document = (PieceTableDocument) textArea.getDocument();
+		TextSnapshot snapshot = document.snapshot();
+		ProgressMonitor monitor = new ProgressMonitor(parent, "Transforming text...", null, 0, 100);
+		monitor.setMillisToDecideToPopup(MILLIS_TO_POPUP);
+		monitor.setMillisToPopup(MILLIS_TO_POPUP);
+
+		SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
+			@Override
+			protected String doInBackground() throws Exception {
+				return transform.transform(snapshot, start, end, this::setProgress);
+			}
+
+			@Override
+			protected void done() {
+				monitor.close();
+				try {
+					String text = get();
+					if (text == null)
+						return;
+					if (document.getModificationCount() != snapshot.getModificationCount()) {
+						JOptionPane.showMessageDialog(parent,
+								"Document was changed while text was transformed.", "Warning",
+								JOptionPane.WARNING_MESSAGE);
+						return;
+					}
+					document.replaceText(start, end - start, text);
+					if (selectResult) {
+						textArea.select(start, start + text.length());
+					}
+				} catch (CancellationException | InterruptedException ex) {
+					// Transformation was cancelled by user
+				} catch (ExecutionException ex) {
+					JOptionPane.showMessageDialog(parent, "Text can not be transformed.",
+							"ERROR", JOptionPane.ERROR_MESSAGE);
+				} catch (BadLocationException ex) {
+					ex.printStackTrace();
+				}
+			}
+		};
+		worker.addPropertyChangeListener(e -> {
+			if (!"progress".equals(e.getPropertyName()))
+				return;
+			if (monitor.isCanceled()) {
+				worker.cancel(true);
+			} else {
+				monitor.setProgress((Integer) e.getNewValue());
+			}
+		});
+		executor.execute(worker);
+	}
+
+}
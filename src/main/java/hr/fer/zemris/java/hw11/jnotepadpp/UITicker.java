@@ -0,0 +1,101 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Class represents singleton scheduler of periodic work of the user interface,
+ * such as clock, automatic saving and memory gauge. </br>
+ * All periodic tasks share one daemon thread that only measures time,
+ * tasks themselves are run on the Event Dispatch Thread.
+ * </p>
+ *
+ * If the Event Dispatch Thread is busy and previous run of a task has not started yet,
+ * new run of that task is skipped, so busy Event Dispatch Thread is never flooded with ticks.
+ * Run that is already queued on the Event Dispatch Thread is skipped once its task is cancelled.
+ * </p>
+ *
+ * Every tick posts an event to the Event Dispatch Thread, which keeps AWT from shutting down,
+ * so ticker has to be shut down with {@link #shutdown()} once the application's last frame is disposed.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class UITicker {
+
+	/**
+	 * Ticker instance
+	 */
+	private static final UITicker INSTANCE = new UITicker();
+
+	/**
+	 * Executor that measures time between runs of the tasks
+	 */
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Private constructor that creates new {@link UITicker} object.
+	 */
+	private UITicker() {
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "ui-ticker");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Method returns instance of {@link UITicker}.
+	 *
+	 * @return instance of {@link UITicker}
+	 */
+	public static UITicker getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Method schedules given {@code task} to be run on the Event Dispatch Thread
+	 * every {@code period} time units. First run happens after one period.
+	 *
+	 * @param task   task that is run
+	 * @param period period between two runs of the task
+	 * @param unit   time unit of the {@code period}
+	 * @return       future that is used for cancelling the task
+	 * @throws java.util.concurrent.RejectedExecutionException if ticker is shut down
+	 */
+	public ScheduledFuture<?> schedule(Runnable task, long period, TimeUnit unit) {
+		Objects.requireNonNull(task, "Task must not be null");
+		AtomicBoolean pending = new AtomicBoolean();
+		AtomicReference<ScheduledFuture<?>> future = new AtomicReference<>();
+		future.set(scheduler.scheduleAtFixedRate(() -> {
+			if (!pending.compareAndSet(false, true))
+				return;
+			SwingUtilities.invokeLater(() -> {
+				pending.set(false);
+				ScheduledFuture<?> current = future.get();
+				if (!scheduler.isShutdown() && (current == null || !current.isCancelled())) {
+					task.run();
+				}
+			});
+		}, period, period, unit));
+		return future.get();
+	}
+
+	/**
+	 * Method cancels all scheduled tasks and stops the ticker.
+	 * Runs that are already queued on the Event Dispatch Thread are skipped.
+	 * Ticker can not be used afterwards.
+	 */
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+
+}
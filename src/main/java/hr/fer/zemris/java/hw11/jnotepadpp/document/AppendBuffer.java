@@ -0,0 +1,95 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.util.Arrays;
+
+/**
+ * Class represents append-only buffer that stores all text typed or pasted into
+ * a {@link PieceTableContent}. </br>
+ * Characters that were once appended are never changed, so pieces can safely refer to them.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+class AppendBuffer implements CharSource {
+
+	/**
+	 * Initial capacity of the buffer
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+	/**
+	 * Stored characters. Field is volatile, so snapshots that are read
+	 * on other threads see the characters copied to the grown array.
+	 */
+	private volatile char[] data = new char[INITIAL_CAPACITY];
+	/**
+	 * Number of stored characters
+	 */
+	private int length;
+
+	/**
+	 * Method appends given {@code text} to the end of the buffer.
+	 *
+	 * @param text text that is appended
+	 * @return     index at which appended text starts
+	 */
+	int append(String text) {
+		int start = length;
+		ensureCapacity(length + text.length());
+		text.getChars(0, text.length(), data, length);
+		length += text.length();
+		return start;
+	}
+
+	/**
+	 * Method grows {@link #data} so it can hold at least {@code capacity} characters.
+	 *
+	 * @param capacity required capacity
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity < 0)
+			throw new OutOfMemoryError("Append buffer is too large.");
+		if (capacity <= data.length)
+			return;
+		int newCapacity = Math.max(capacity, data.length + (data.length >> 1));
+		data = Arrays.copyOf(data, newCapacity < 0 ? capacity : newCapacity);
+	}
+
+	/**
+	 * Method returns array that backs this buffer.
+	 * Returned array must not be modified.
+	 *
+	 * @return backing array
+	 */
+	char[] array() {
+		return data;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length)
+			throw new IndexOutOfBoundsException("Was: " + index);
+		return data[index];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return new String(data, start, end - start);
+	}
+
+	@Override
+	public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+		System.arraycopy(data, srcBegin, dst, dstBegin, srcEnd - srcBegin);
+	}
+
+	@Override
+	public String toString() {
+		return new String(data, 0, length);
+	}
+
+}
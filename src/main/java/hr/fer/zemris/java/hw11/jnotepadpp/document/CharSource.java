@@ -0,0 +1,64 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.util.Objects;
+
+/**
+ * Interface represents immutable (or append-only) sequence of characters
+ * that pieces of {@link PieceTableContent} refer to. </br>
+ * In addition to {@link CharSequence} it offers bulk copying of characters.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public interface CharSource extends CharSequence {
+
+	/**
+	 * Method copies characters from this source into the destination array {@code dst}.
+	 *
+	 * @param srcBegin index of the first character in this source that is copied
+	 * @param srcEnd   index after the last character in this source that is copied
+	 * @param dst      destination array
+	 * @param dstBegin start offset in the destination array
+	 */
+	void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin);
+
+	/**
+	 * Method returns {@link CharSource} that is backed by given {@code text}.
+	 * Text is not copied.
+	 *
+	 * @param text text that source is backed by
+	 * @return     source backed by given text
+	 */
+	static CharSource of(String text) {
+		Objects.requireNonNull(text, "Text must not be null");
+		return new CharSource() {
+
+			@Override
+			public int length() {
+				return text.length();
+			}
+
+			@Override
+			public char charAt(int index) {
+				return text.charAt(index);
+			}
+
+			@Override
+			public CharSequence subSequence(int start, int end) {
+				return text.subSequence(start, end);
+			}
+
+			@Override
+			public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+				text.getChars(srcBegin, srcEnd, dst, dstBegin);
+			}
+
+			@Override
+			public String toString() {
+				return text;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,223 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * Class offers static methods for reading UTF-8 files into {@link PieceTableDocument} objects. </br>
+ * Small files are read into memory at once, while files whose size is at least
+ * given mapping threshold are mapped by {@link MappedTextSource}, either directly or through a private copy.
+ * Mapped file can be opened as a loading document that shows its text while the file is indexed.
+ * Text that was appended to a file can be read on its own, see {@link #readAppended(Path, byte[], long, long)}.
+ * </p>
+ *
+ * Reading reports progress as percentage of read bytes and stops
+ * with {@link InterruptedIOException} once reading thread is interrupted.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class DocumentReader {
+
+	/**
+	 * Number of bytes read at once from small files
+	 */
+	private static final int READ_CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * Private constructor that prevents creating instances of this class.
+	 */
+	private DocumentReader() {
+	}
+
+	/**
+	 * Method reads file at given {@code path} into new {@link PieceTableDocument}.
+	 * Mapped file is mapped directly, it is not copied.
+	 *
+	 * @param path             path of the file
+	 * @param mappingThreshold size of file in bytes from which file is mapped instead of read
+	 * @param progressListener listener of reading progress, can be {@code null}
+	 * @return                 read document
+	 * @throws IOException     if reading failed or reading thread was interrupted
+	 */
+	public static PieceTableDocument read(Path path, long mappingThreshold, IntConsumer progressListener)
+			throws IOException {
+		return read(path, mappingThreshold, false, progressListener);
+	}
+
+	/**
+	 * Method reads file at given {@code path} into new {@link PieceTableDocument}
+	 * and returns once the whole file is read.
+	 *
+	 * @param path             path of the file
+	 * @param mappingThreshold size of file in bytes from which file is mapped instead of read
+	 * @param privateCopy      flag that shows whether mapped file is copied before it is mapped
+	 * @param progressListener listener of reading progress, can be {@code null}
+	 * @return                 read document
+	 * @throws IOException     if reading failed or reading thread was interrupted
+	 */
+	public static PieceTableDocument read(Path path, long mappingThreshold, boolean privateCopy,
+			IntConsumer progressListener) throws IOException {
+		PieceTableDocument document = open(path, mappingThreshold, privateCopy, progressListener);
+		document.awaitIndexed();
+		checkInterrupted(path);
+		document.loadIndexed();
+		return document;
+	}
+
+	/**
+	 * Method opens file at given {@code path} as new {@link PieceTableDocument}. </br>
+	 * Small file is read at once. Mapped file is returned right after it is mapped, as a document
+	 * that is still loading, see {@link PieceTableDocument#isLoading()}, unless it is copied first.
+	 * Copied file is returned once it is copied and indexed.
+	 *
+	 * @param path             path of the file
+	 * @param mappingThreshold size of file in bytes from which file is mapped instead of read
+	 * @param privateCopy      flag that shows whether mapped file is copied before it is mapped
+	 * @param progressListener listener of reading progress, can be {@code null}
+	 * @return                 opened document
+	 * @throws IOException     if reading failed or reading thread was interrupted
+	 */
+	public static PieceTableDocument open(Path path, long mappingThreshold, boolean privateCopy,
+			IntConsumer progressListener) throws IOException {
+		Objects.requireNonNull(path, "Path must not be null");
+		IntConsumer listener = progressListener == null ? p -> {} : progressListener;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size >= mappingThreshold && privateCopy) {
+				MappedTextSource source = MappedTextSource.openCopy(path, listener).awaitIndex();
+				checkInterrupted(path);
+				return new PieceTableDocument(source);
+			}
+			if (size >= mappingThreshold)
+				return new PieceTableDocument(MappedTextSource.open(path, listener));
+			if (size > Integer.MAX_VALUE - 8)
+				throw new IOException("File is too large to be opened: " + path);
+
+			ByteBuffer bytes = ByteBuffer.allocate((int) size);
+			while (bytes.position() < bytes.capacity()) {
+				bytes.limit(Math.min(bytes.capacity(), bytes.position() + READ_CHUNK_SIZE));
+				if (channel.read(bytes) < 0)
+					break;
+				checkInterrupted(path);
+				listener.accept((int) (bytes.position() * 100L / Math.max(1, size)));
+			}
+			String text = new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8);
+			checkInterrupted(path);
+			return new PieceTableDocument(text);
+		}
+	}
+
+	/**
+	 * Method reads last {@code count} bytes of the file at given {@code path},
+	 * or the whole file if it is shorter.
+	 *
+	 * @param path         path of the file
+	 * @param count        maximal number of read bytes
+	 * @return             last bytes of the file
+	 * @throws IOException if file can not be read
+	 */
+	public static byte[] readTail(Path path, int count) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			return readRange(channel, Math.max(0, size - count), size);
+		}
+	}
+
+	/**
+	 * Method reads text that was appended to the file at given {@code path}
+	 * after its first {@code knownSize} bytes, until the file has {@code size} bytes. </br>
+	 * File is considered appended to only if bytes before {@code knownSize} are still given {@code knownTail},
+	 * which must be the last bytes that file had when it had {@code knownSize} bytes,
+	 * and if they end with a whole character, so appended bytes are decoded the same way as the whole file would be.
+	 * Only the known tail and appended bytes are read.
+	 *
+	 * @param path         path of the file
+	 * @param knownTail    last bytes of the file before it was appended to
+	 * @param knownSize    size of the file before it was appended to
+	 * @param size         size of the file after it was appended to
+	 * @return             appended text or {@code null} if file was not only appended to
+	 * @throws IOException if file can not be read
+	 */
+	public static String readAppended(Path path, byte[] knownTail, long knownSize, long size) throws IOException {
+		Objects.requireNonNull(knownTail, "Known tail must not be null");
+		if (size <= knownSize || knownTail.length > knownSize || size - knownSize > Integer.MAX_VALUE - 8)
+			return null;
+		if (knownTail.length == 0 && knownSize > 0 || !endsWithWholeCharacter(knownTail))
+			return null;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() < size)
+				return null;
+			byte[] tail = readRange(channel, knownSize - knownTail.length, knownSize);
+			if (!Arrays.equals(tail, knownTail))
+				return null;
+			byte[] appended = readRange(channel, knownSize, size);
+			// Continuation byte would be a part of the last known character
+			if ((appended[0] & 0xC0) == 0x80)
+				return null;
+			checkInterrupted(path);
+			return new String(appended, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Method checks if given UTF-8 {@code bytes} end with a whole character, not with a part of one.
+	 *
+	 * @param bytes checked bytes
+	 * @return      {@code true} if bytes end with a whole character, otherwise {@code false}
+	 */
+	private static boolean endsWithWholeCharacter(byte[] bytes) {
+		int continuations = 0;
+		for (int i = bytes.length - 1; i >= 0 && continuations < 4; i--) {
+			int b = bytes[i] & 0xFF;
+			if ((b & 0xC0) == 0x80) {
+				continuations++;
+				continue;
+			}
+			int expected = b < 0x80 ? 0 : b >= 0xF0 ? 3 : b >= 0xE0 ? 2 : b >= 0xC0 ? 1 : 0;
+			return continuations == expected;
+		}
+		return bytes.length == 0;
+	}
+
+	/**
+	 * Method reads bytes of given {@code channel} from {@code start} to {@code end}.
+	 *
+	 * @param channel      channel of the file
+	 * @param start        offset of the first read byte
+	 * @param end          offset after the last read byte
+	 * @return             read bytes
+	 * @throws IOException if bytes can not be read or file ends before {@code end}
+	 */
+	private static byte[] readRange(FileChannel channel, long start, long end) throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+		while (bytes.hasRemaining()) {
+			if (channel.read(bytes, start + bytes.position()) < 0)
+				throw new IOException("File ended before " + end + " bytes were read");
+		}
+		return bytes.array();
+	}
+
+	/**
+	 * Method checks if current thread is interrupted.
+	 *
+	 * @param path                    path of the file that is read
+	 * @throws InterruptedIOException if current thread is interrupted
+	 */
+	private static void checkInterrupted(Path path) throws InterruptedIOException {
+		if (Thread.currentThread().isInterrupted())
+			throw new InterruptedIOException("Reading was interrupted: " + path);
+	}
+
+}
@@ -0,0 +1,247 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+/**
+ * Class represents writer that saves text of a {@link Document} to the file. </br>
+ * Text is never copied as a whole: it is walked in chunks of {@link #CHUNK_SIZE} characters
+ * that are encoded with a reusable {@link CharsetEncoder} straight into a {@link FileChannel},
+ * so memory used for saving does not depend on document size.
+ * </p>
+ *
+ * Text is written to temporary file in the same directory, forced to disk and then
+ * atomically moved over the target file. If saving fails at any point, target file stays untouched.
+ * Writer reuses its buffers, so it must not be used by multiple threads at once.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class DocumentWriter {
+
+	/**
+	 * Number of characters that are encoded at once
+	 */
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * Encoder of the characters
+	 */
+	private final CharsetEncoder encoder;
+	/**
+	 * Buffer of characters that are encoded
+	 */
+	private final CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+	/**
+	 * Buffer of encoded bytes
+	 */
+	private final ByteBuffer bytes;
+
+	/**
+	 * Constructor that creates new {@link DocumentWriter} object that writes UTF-8 files.
+	 */
+	public DocumentWriter() {
+		this(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Constructor that creates new {@link DocumentWriter} object that writes files in given {@code charset}.
+	 *
+	 * @param charset charset of written files
+	 */
+	public DocumentWriter(Charset charset) {
+		encoder = Objects.requireNonNull(charset, "Charset must not be null").newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		bytes = ByteBuffer.allocate((int) Math.ceil(CHUNK_SIZE * encoder.maxBytesPerChar()));
+	}
+
+	/**
+	 * Method writes text of given {@code document} to the file at given {@code path}.
+	 * Text of {@link PieceTableDocument} is written from its snapshot,
+	 * text of other documents is read while holding document's read lock.
+	 *
+	 * @param document     document that is written
+	 * @param path         path of the file
+	 * @throws IOException if writing failed
+	 */
+	public void write(Document document, Path path) throws IOException {
+		Objects.requireNonNull(document, "Document must not be null");
+		if (document instanceof PieceTableDocument) {
+			write(((PieceTableDocument) document).snapshot(), path);
+			return;
+		}
+		write(readLocked(document), path);
+	}
+
+	/**
+	 * Method writes given {@code text} to the file at given {@code path}.
+	 *
+	 * @param text         text that is written
+	 * @param path         path of the file
+	 * @throws IOException if writing failed
+	 */
+	public void write(CharSource text, Path path) throws IOException {
+		Objects.requireNonNull(text, "Text must not be null");
+		Path target = Objects.requireNonNull(path, "Path must not be null").toAbsolutePath();
+		Path tempFile = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+				encode(text, channel);
+				channel.force(true);
+			}
+			copyPermissions(target, tempFile);
+			move(tempFile, target);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Method encodes given {@code text} and writes it to the {@code channel} at its current position.
+	 * Channel is neither forced nor closed.
+	 *
+	 * @param text         text that is written
+	 * @param channel      channel to which text is written
+	 * @return             number of written bytes
+	 * @throws IOException if writing failed
+	 */
+	public long write(CharSource text, FileChannel channel) throws IOException {
+		Objects.requireNonNull(text, "Text must not be null");
+		long start = channel.position();
+		encode(text, channel);
+		return channel.position() - start;
+	}
+
+	/**
+	 * Method reads whole text of given {@code document} while holding document's read lock.
+	 *
+	 * @param document     document whose text is read
+	 * @return             text of the document
+	 * @throws IOException if text can not be read
+	 */
+	private static CharSource readLocked(Document document) throws IOException {
+		String[] text = new String[1];
+		BadLocationException[] error = new BadLocationException[1];
+		document.render(() -> {
+			try {
+				text[0] = document.getText(0, document.getLength());
+			} catch (BadLocationException ex) {
+				error[0] = ex;
+			}
+		});
+		if (error[0] != null)
+			throw new IOException("Document can not be read.", error[0]);
+		return CharSource.of(text[0]);
+	}
+
+	/**
+	 * Method encodes given {@code text} chunk by chunk and writes it to the {@code channel}.
+	 *
+	 * @param text         text that is written
+	 * @param channel      channel to which text is written
+	 * @throws IOException if writing failed
+	 */
+	private void encode(CharSource text, FileChannel channel) throws IOException {
+		encoder.reset();
+		chars.clear();
+		bytes.clear();
+
+		int length = text.length();
+		int offset = 0;
+		while (offset < length) {
+			int count = Math.min(chars.remaining(), length - offset);
+			text.getChars(offset, offset + count, chars.array(), chars.position());
+			chars.position(chars.position() + count);
+			offset += count;
+			chars.flip();
+			encode(channel, false);
+			// Keeps unfinished surrogate pair for the next chunk
+			chars.compact();
+		}
+
+		chars.flip();
+		encode(channel, true);
+		while (encoder.flush(bytes).isOverflow()) {
+			writeBytes(channel);
+		}
+		writeBytes(channel);
+	}
+
+	/**
+	 * Method encodes characters from {@link #chars} and writes encoded bytes to the {@code channel}.
+	 *
+	 * @param channel      channel to which bytes are written
+	 * @param endOfInput   flag that shows whether there are no more characters after these
+	 * @throws IOException if writing failed
+	 */
+	private void encode(FileChannel channel, boolean endOfInput) throws IOException {
+		while (encoder.encode(chars, bytes, endOfInput).isOverflow()) {
+			writeBytes(channel);
+		}
+	}
+
+	/**
+	 * Method writes all bytes from {@link #bytes} to the {@code channel}.
+	 *
+	 * @param channel      channel to which bytes are written
+	 * @throws IOException if writing failed
+	 */
+	private void writeBytes(FileChannel channel) throws IOException {
+		bytes.flip();
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+		bytes.clear();
+	}
+
+	/**
+	 * Method copies POSIX permissions of existing {@code target} file to the {@code tempFile},
+	 * so replacing the target does not change its permissions.
+	 *
+	 * @param target       file whose permissions are copied
+	 * @param tempFile     file to which permissions are copied
+	 * @throws IOException if permissions can not be copied
+	 */
+	private static void copyPermissions(Path target, Path tempFile) throws IOException {
+		if (!Files.exists(target))
+			return;
+		try {
+			Files.setPosixFilePermissions(tempFile, Files.getPosixFilePermissions(target));
+		} catch (UnsupportedOperationException ignorable) {
+		}
+	}
+
+	/**
+	 * Method atomically moves {@code source} file to the {@code target}, replacing it.
+	 * If file system does not support atomic moves, file is moved non-atomically.
+	 *
+	 * @param source       file that is moved
+	 * @param target       new location of the file
+	 * @throws IOException if moving failed
+	 */
+	private static void move(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException ex) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+}
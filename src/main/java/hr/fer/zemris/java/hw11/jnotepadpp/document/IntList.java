@@ -0,0 +1,92 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.util.Arrays;
+
+/**
+ * Class represents growable list of primitive integers.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+class IntList {
+
+	/**
+	 * Stored values
+	 */
+	private int[] values = new int[16];
+	/**
+	 * Number of stored values
+	 */
+	private int size;
+
+	/**
+	 * Method adds given {@code value} to the end of the list.
+	 *
+	 * @param value value that is added
+	 */
+	void add(int value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size + (size >> 1));
+		}
+		values[size++] = value;
+	}
+
+	/**
+	 * Method returns value at given {@code index}.
+	 *
+	 * @param index index of the value
+	 * @return      value at the index
+	 */
+	int get(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Was: " + index);
+		return values[index];
+	}
+
+	/**
+	 * Method returns number of stored values.
+	 *
+	 * @return number of stored values
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Method removes all values from the list.
+	 */
+	void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Method returns index of the last value that is not greater than given {@code key}.
+	 * Values must be sorted in ascending order.
+	 *
+	 * @param key searched value
+	 * @return    index of the last value not greater than the key or -1 if there is none
+	 */
+	int floorIndex(int key) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (values[mid] <= key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low - 1;
+	}
+
+	/**
+	 * Method returns array of stored values.
+	 *
+	 * @return stored values
+	 */
+	int[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+}
@@ -0,0 +1,199 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+/**
+ * Class keeps offsets after every new line character of {@link PieceTableDocument}. </br>
+ * Offsets are kept in a single array of primitive integers that is split by a gap, the same way
+ * {@code GapContent} keeps characters: offsets before the gap are stored as they are,
+ * offsets after the gap are stored as distance from the end of the content, so they do not change
+ * when text is inserted or removed before them. Edit only moves offsets between the old and the new
+ * gap location, so edits that happen close to each other are cheap regardless of the number of lines.
+ * </p>
+ *
+ * Array that index is created with is shared until the first edit, so offsets of an indexed file
+ * are not copied unless the document is edited.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+class LineIndex {
+
+	/**
+	 * Minimal number of free slots in the gap after the array is enlarged
+	 */
+	private static final int MIN_GAP_SIZE = 64;
+
+	/**
+	 * Offsets before the gap followed by distances from the end after the gap
+	 */
+	private int[] ends;
+	/**
+	 * Index in {@link #ends} at which the gap starts
+	 */
+	private int gapStart;
+	/**
+	 * Index in {@link #ends} at which the gap ends
+	 */
+	private int gapEnd;
+	/**
+	 * Length of the content, including its implied break
+	 */
+	private int length;
+	/**
+	 * Flag that shows whether {@link #ends} is shared and must be copied before it is modified
+	 */
+	private boolean shared;
+
+	/**
+	 * Constructor that creates new {@link LineIndex} object.
+	 * Given {@code lineEnds} are not copied and never modified.
+	 *
+	 * @param lineEnds sorted offsets after every new line character of the content
+	 * @param length   length of the content, including its implied break
+	 */
+	LineIndex(int[] lineEnds, int length) {
+		this.ends = lineEnds;
+		this.gapStart = lineEnds.length;
+		this.gapEnd = lineEnds.length;
+		this.length = length;
+		this.shared = true;
+	}
+
+	/**
+	 * Method returns number of lines.
+	 *
+	 * @return number of lines
+	 */
+	int getLineCount() {
+		return size() + 1;
+	}
+
+	/**
+	 * Method returns offset of the first character of the line with given {@code index}.
+	 *
+	 * @param index index of the line
+	 * @return      start offset of the line
+	 */
+	int getLineStart(int index) {
+		return index == 0 ? 0 : end(index - 1);
+	}
+
+	/**
+	 * Method returns offset after the last character of the line with given {@code index}.
+	 *
+	 * @param index index of the line
+	 * @return      end offset of the line
+	 */
+	int getLineEnd(int index) {
+		return index < size() ? end(index) : length;
+	}
+
+	/**
+	 * Method returns index of the line that contains given {@code offset}.
+	 * Offsets outside of the content belong to the first or the last line.
+	 *
+	 * @param offset offset in the content
+	 * @return       index of the line
+	 */
+	int getLineIndex(int offset) {
+		int low = 0;
+		int high = size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (end(mid) <= offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Method updates offsets after {@code count} characters were inserted at {@code offset}.
+	 *
+	 * @param offset   insertion offset
+	 * @param count    number of inserted characters
+	 * @param lineEnds offsets after new line characters of the inserted text
+	 */
+	void insertUpdate(int offset, int count, IntList lineEnds) {
+		int added = lineEnds.size();
+		moveGap(getLineIndex(offset), added);
+		for (int i = 0; i < added; i++) {
+			ends[gapStart++] = lineEnds.get(i);
+		}
+		length += count;
+	}
+
+	/**
+	 * Method updates offsets after {@code count} characters were removed at {@code offset}.
+	 * Offsets of new line characters inside of the removed range are removed.
+	 *
+	 * @param offset removal offset
+	 * @param count  number of removed characters
+	 */
+	void removeUpdate(int offset, int count) {
+		int end = offset + count;
+		moveGap(getLineIndex(offset), 0);
+		while (gapEnd < ends.length && length - ends[gapEnd] <= end) {
+			gapEnd++;
+		}
+		length -= count;
+	}
+
+	/**
+	 * Method returns offset after the new line character with given {@code index}.
+	 *
+	 * @param index index of the new line character
+	 * @return      offset after the character
+	 */
+	private int end(int index) {
+		return index < gapStart ? ends[index] : length - ends[index + gapEnd - gapStart];
+	}
+
+	/**
+	 * Method returns number of stored offsets.
+	 *
+	 * @return number of offsets
+	 */
+	private int size() {
+		return ends.length - (gapEnd - gapStart);
+	}
+
+	/**
+	 * Method moves gap so that it starts before the offset with given {@code index}
+	 * and makes sure that at least {@code free} offsets can be added into it.
+	 *
+	 * @param index new start of the gap
+	 * @param free  number of offsets that are added into the gap
+	 */
+	private void moveGap(int index, int free) {
+		if (shared || gapEnd - gapStart < free) {
+			int size = size();
+			int capacity = Math.max(size + free + MIN_GAP_SIZE, size + (size >> 3));
+			int[] enlarged = new int[capacity];
+			int tail = ends.length - gapEnd;
+			System.arraycopy(ends, 0, enlarged, 0, gapStart);
+			System.arraycopy(ends, gapEnd, enlarged, capacity - tail, tail);
+			ends = enlarged;
+			gapEnd = capacity - tail;
+			shared = false;
+		}
+		if (index < gapStart) {
+			int count = gapStart - index;
+			for (int i = count - 1; i >= 0; i--) {
+				ends[gapEnd - count + i] = length - ends[index + i];
+			}
+			gapStart = index;
+			gapEnd -= count;
+		} else if (index > gapStart) {
+			int count = index - gapStart;
+			for (int i = 0; i < count; i++) {
+				ends[gapStart + i] = length - ends[gapEnd + i];
+			}
+			gapStart = index;
+			gapEnd += count;
+		}
+	}
+
+}
@@ -0,0 +1,602 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+
+/**
+ * Class represents {@link CharSource} whose characters are lazily decoded
+ * from UTF-8 file that is mapped into memory using {@link FileChannel#map}. </br>
+ * Opening the source only maps the file, so it takes constant time and heap.
+ * Index of the file is built on a background thread with a single sequential pass over mapped bytes.
+ * Index stores byte offset of every block of {@link #BLOCK_SIZE} characters
+ * and offset of every line end.
+ * </p>
+ *
+ * Index is published block by block: source always holds characters that are indexed so far
+ * and it grows until the whole file is indexed, see {@link #awaitIndex()}.
+ * Document takes newly indexed text with its line ends by {@link #takeIndexed()},
+ * so it can show the beginning of the file while the rest is still being indexed.
+ * </p>
+ *
+ * Mapping reads the file as it is at the moment, so text of the source changes if another program
+ * rewrites the file in place and reading it fails once the file is truncated. Such changes are noticed
+ * by the watcher of opened files, which reloads the document. If that is not enough, the file can be copied
+ * into a private temporary file that is mapped instead, see {@link #openCopy(Path, IntConsumer)}.
+ * Copy is deleted once it is closed, so it only takes disk space while the source is used.
+ * </p>
+ *
+ * Characters are decoded block by block only when they are requested
+ * and only last {@link #CACHED_BLOCKS} decoded blocks are kept in memory.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class MappedTextSource implements CharSource {
+
+	/**
+	 * Number of characters in a single decoded block
+	 */
+	private static final int BLOCK_SIZE = 1 << 14;
+	/**
+	 * Number of decoded blocks that are kept in memory
+	 */
+	private static final int CACHED_BLOCKS = 64;
+	/**
+	 * Largest file that can be mapped
+	 */
+	private static final long MAX_FILE_SIZE = Integer.MAX_VALUE - 1;
+	/**
+	 * Number of bytes copied at once into the private copy
+	 */
+	private static final long COPY_CHUNK_SIZE = 1 << 23;
+	/**
+	 * Prefix of names of private copies
+	 */
+	private static final String COPY_PREFIX = "jnotepadpp-";
+	/**
+	 * Executor that builds indexes of mapped files
+	 */
+	private static final ExecutorService INDEXER = Executors.newCachedThreadPool(r -> {
+		Thread thread = new Thread(r, "mapped-text-indexer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Path of the mapped file
+	 */
+	private final Path path;
+	/**
+	 * Mapped content of the file, set before index is built
+	 */
+	private MappedByteBuffer bytes;
+	/**
+	 * Flag that shows whether file is copied before it is mapped
+	 */
+	private final boolean copied;
+	/**
+	 * Byte offset of every indexed block, guarded by this source
+	 */
+	private final IntList blockByteStarts = new IntList();
+	/**
+	 * Character offset of every indexed block, guarded by this source
+	 */
+	private final IntList blockCharStarts = new IntList();
+	/**
+	 * Byte offset after the last indexed block, guarded by this source
+	 */
+	private int indexedBytes;
+	/**
+	 * Offsets after new line characters that are indexed but not taken yet, guarded by this source
+	 */
+	private IntList lineEnds = new IntList();
+	/**
+	 * Flag that shows whether some line ends were taken, guarded by this source
+	 */
+	private boolean lineEndsTaken;
+	/**
+	 * Number of indexed characters that are not blank, guarded by this source
+	 */
+	private int nonBlankCount;
+	/**
+	 * Number of characters that were taken, guarded by this source
+	 */
+	private int takenLength;
+	/**
+	 * Number of non-blank characters that were taken, guarded by this source
+	 */
+	private int takenNonBlankCount;
+	/**
+	 * Number of indexed characters
+	 */
+	private volatile int length;
+	/**
+	 * Result of index building
+	 */
+	private CompletableFuture<MappedTextSource> index;
+	/**
+	 * Listener that is notified about percentage of indexed bytes, can be {@code null}
+	 */
+	private final IntConsumer progressListener;
+	/**
+	 * Flag that shows whether index building is cancelled
+	 */
+	private volatile boolean cancelled;
+	/**
+	 * Recently decoded blocks, guarded by this source
+	 */
+	private final Map<Integer, char[]> cache = new LinkedHashMap<Integer, char[]>(CACHED_BLOCKS, 0.75f, true) {
+
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, char[]> eldest) {
+			return size() > CACHED_BLOCKS;
+		}
+	};
+
+	/**
+	 * Private constructor that creates new {@link MappedTextSource} object.
+	 *
+	 * @param path             {@link #path}
+	 * @param copied           {@link #copied}
+	 * @param progressListener {@link #progressListener}
+	 */
+	private MappedTextSource(Path path, boolean copied, IntConsumer progressListener) {
+		this.path = path;
+		this.copied = copied;
+		this.progressListener = progressListener;
+	}
+
+	/**
+	 * Method maps file at given {@code path} and starts building its index in background.
+	 *
+	 * @param path         path of the file
+	 * @return             mapped source
+	 * @throws IOException if file can not be mapped
+	 */
+	public static MappedTextSource open(Path path) throws IOException {
+		return open(path, null);
+	}
+
+	/**
+	 * Method maps file at given {@code path} read-only and starts building its index in background. </br>
+	 * File itself is mapped, nothing is read before this method returns.
+	 * Given {@code progressListener} is notified from the background thread
+	 * every time percentage of indexed bytes changes.
+	 *
+	 * @param path             path of the file
+	 * @param progressListener listener of indexing progress, can be {@code null}
+	 * @return                 mapped source
+	 * @throws IOException     if file can not be mapped
+	 */
+	public static MappedTextSource open(Path path, IntConsumer progressListener) throws IOException {
+		Objects.requireNonNull(path, "Path must not be null");
+		MappedTextSource source = new MappedTextSource(path, false, progressListener);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			source.bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, checkSize(channel.size(), path));
+		}
+		source.index = CompletableFuture.supplyAsync(source::buildIndex, INDEXER);
+		return source;
+	}
+
+	/**
+	 * Method copies file at given {@code path} into a private temporary file, maps the copy
+	 * and builds its index, all in background. </br>
+	 * Text of the source does not change when another program changes the file,
+	 * and the file is not held open while the source is used, but copying takes time
+	 * and disk space proportional to the size of the file.
+	 * Given {@code progressListener} is notified from the background thread
+	 * every time percentage of copied and indexed bytes changes.
+	 *
+	 * @param path             path of the file
+	 * @param progressListener listener of copying and indexing progress, can be {@code null}
+	 * @return                 source of the copied file
+	 * @throws IOException     if file is too large to be mapped or it can not be read
+	 */
+	public static MappedTextSource openCopy(Path path, IntConsumer progressListener) throws IOException {
+		Objects.requireNonNull(path, "Path must not be null");
+		checkSize(Files.size(path), path);
+		MappedTextSource source = new MappedTextSource(path, true, progressListener);
+		source.index = CompletableFuture.supplyAsync(() -> source.copy().buildIndex(), INDEXER);
+		return source;
+	}
+
+	/**
+	 * Method checks if file of given {@code size} can be mapped.
+	 *
+	 * @param size         size of the file
+	 * @param path         path of the file
+	 * @return             size of the file
+	 * @throws IOException if file is too large to be mapped
+	 */
+	private static long checkSize(long size, Path path) throws IOException {
+		if (size > MAX_FILE_SIZE)
+			throw new IOException("File is too large to be opened: " + path);
+		return size;
+	}
+
+	/**
+	 * Method returns future that is completed once index of this source is built.
+	 *
+	 * @return future of index building
+	 */
+	public CompletableFuture<MappedTextSource> indexed() {
+		return index;
+	}
+
+	/**
+	 * Method checks whether the whole file is indexed.
+	 *
+	 * @return {@code true} if index is built, otherwise {@code false}
+	 */
+	public boolean isIndexed() {
+		return index.isDone() && !index.isCompletedExceptionally();
+	}
+
+	/**
+	 * Method blocks until index of this source is built.
+	 * If waiting thread is interrupted, index building is cancelled.
+	 *
+	 * @return             this source
+	 * @throws IOException if building of index failed or waiting was interrupted
+	 */
+	public MappedTextSource awaitIndex() throws IOException {
+		try {
+			return index.get();
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof UncheckedIOException)
+				throw ((UncheckedIOException) ex.getCause()).getCause();
+			throw new IOException("File can not be indexed: " + path, ex.getCause());
+		} catch (InterruptedException ex) {
+			cancel();
+			Thread.currentThread().interrupt();
+			throw new IOException("Indexing was interrupted: " + path, ex);
+		}
+	}
+
+	/**
+	 * Method cancels building of the index. Source can not be used afterwards.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Method returns path of the mapped file.
+	 *
+	 * @return path of the mapped file
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Method checks whether this source maps a private copy of the file instead of the file itself.
+	 *
+	 * @return {@code true} if file is copied, otherwise {@code false}
+	 */
+	public boolean isCopy() {
+		return copied;
+	}
+
+	/**
+	 * Method returns offsets after every new line character of this source.
+	 * It can be used only once the whole file is indexed and only if no text was taken.
+	 *
+	 * @return offsets of line ends
+	 * @throws IllegalStateException if source is not indexed or its line ends were taken
+	 */
+	public synchronized int[] getLineEnds() {
+		checkIndexed();
+		if (lineEndsTaken)
+			throw new IllegalStateException("Line ends were taken: " + path);
+		return lineEnds.toArray();
+	}
+
+	/**
+	 * Method returns number of characters of this source that are not blank,
+	 * as defined by {@link PieceTableDocument#isBlank(char)}.
+	 *
+	 * @return number of non-blank characters
+	 * @throws IllegalStateException if source is not indexed
+	 */
+	public synchronized int getNonBlankCount() {
+		checkIndexed();
+		return nonBlankCount;
+	}
+
+	/**
+	 * Method returns text that was indexed since the last call of this method. </br>
+	 * Line ends of returned text are handed over and forgotten by this source,
+	 * so they are kept in memory only once.
+	 *
+	 * @return newly indexed text
+	 */
+	synchronized IndexedText takeIndexed() {
+		IndexedText indexed = new IndexedText(takenLength, length - takenLength,
+				nonBlankCount - takenNonBlankCount, lineEnds);
+		lineEnds = new IntList();
+		lineEndsTaken = true;
+		takenLength = length;
+		takenNonBlankCount = nonBlankCount;
+		return indexed;
+	}
+
+	/**
+	 * Method copies the file into a private temporary file and maps the copy.
+	 * Copy is opened with {@link StandardOpenOption#DELETE_ON_CLOSE},
+	 * so it is deleted once its mapping is no longer used.
+	 *
+	 * @return this source
+	 * @throws UncheckedIOException if file can not be copied
+	 */
+	private MappedTextSource copy() {
+		Path copy = null;
+		try {
+			copy = Files.createTempFile(COPY_PREFIX, null);
+			try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ);
+					FileChannel out = FileChannel.open(copy, StandardOpenOption.READ, StandardOpenOption.WRITE,
+							StandardOpenOption.DELETE_ON_CLOSE)) {
+				long size = checkSize(in.size(), path);
+				long position = 0;
+				while (position < size) {
+					if (cancelled)
+						throw new CancellationException("Copying was cancelled: " + path);
+					reportProgress((int) (position * 100L / size));
+					long count = in.transferTo(position, Math.min(COPY_CHUNK_SIZE, size - position), out);
+					if (count <= 0)
+						break;
+					position += count;
+				}
+				bytes = out.map(FileChannel.MapMode.READ_ONLY, 0, position);
+			}
+			return this;
+		} catch (IOException ex) {
+			if (copy != null) {
+				try {
+					Files.deleteIfExists(copy);
+				} catch (IOException ignorable) {
+					// Copy is in temporary directory anyway
+				}
+			}
+			throw new UncheckedIOException("File can not be copied: " + path, ex);
+		}
+	}
+
+	/**
+	 * Method notifies {@link #progressListener} about given {@code percentage} of the current step.
+	 * Copying and indexing of a copied file take half of the progress each.
+	 *
+	 * @param percentage percentage of the current step
+	 */
+	private void reportProgress(int percentage) {
+		if (progressListener == null)
+			return;
+		if (!copied) {
+			progressListener.accept(percentage);
+		} else if (bytes == null) {
+			progressListener.accept(percentage / 2);
+		} else {
+			progressListener.accept(50 + percentage / 2);
+		}
+	}
+
+	/**
+	 * Method decodes whole file once and builds index of blocks and lines.
+	 * It also counts non-blank characters. Every block is published as soon as it is indexed.
+	 *
+	 * @return this source
+	 */
+	private MappedTextSource buildIndex() {
+		CharsetDecoder decoder = newDecoder();
+		ByteBuffer in = bytes.duplicate();
+		CharBuffer out = CharBuffer.allocate(BLOCK_SIZE);
+		IntList blockLineEnds = new IntList();
+
+		int chars = 0;
+		int progress = -1;
+		while (in.hasRemaining()) {
+			if (cancelled)
+				throw new CancellationException("Indexing was cancelled: " + path);
+			int percentage = (int) (in.position() * 100L / in.limit());
+			int byteStart = in.position();
+			out.clear();
+			decoder.decode(in, out, true);
+			out.flip();
+			int nonBlank = 0;
+			for (int i = 0, n = out.remaining(); i < n; i++) {
+				char c = out.get(i);
+				if (c == '\n') {
+					blockLineEnds.add(chars + i + 1);
+				} else if (!PieceTableDocument.isBlank(c)) {
+					nonBlank++;
+				}
+			}
+			synchronized (this) {
+				blockByteStarts.add(byteStart);
+				blockCharStarts.add(chars);
+				for (int i = 0, n = blockLineEnds.size(); i < n; i++) {
+					lineEnds.add(blockLineEnds.get(i));
+				}
+				indexedBytes = in.position();
+				nonBlankCount += nonBlank;
+				chars += out.remaining();
+				length = chars;
+			}
+			blockLineEnds.clear();
+			if (percentage != progress) {
+				progress = percentage;
+				reportProgress(progress);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Method returns new UTF-8 decoder that replaces malformed input,
+	 * the same way {@link String#String(byte[], java.nio.charset.Charset)} does.
+	 *
+	 * @return new decoder
+	 */
+	private static CharsetDecoder newDecoder() {
+		return StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Method returns decoded characters of block with given {@code index}.
+	 * It is called only while holding the lock of this source.
+	 *
+	 * @param index index of the block
+	 * @return      decoded block
+	 */
+	private char[] getBlock(int index) {
+		char[] block = cache.get(index);
+		if (block != null)
+			return block;
+
+		ByteBuffer in = bytes.duplicate();
+		in.limit(index + 1 < blockByteStarts.size() ? blockByteStarts.get(index + 1) : indexedBytes);
+		in.position(blockByteStarts.get(index));
+		block = new char[getBlockEnd(index) - blockCharStarts.get(index)];
+		CharsetDecoder decoder = newDecoder();
+		CharBuffer out = CharBuffer.wrap(block);
+		decoder.decode(in, out, true);
+		decoder.flush(out);
+		cache.put(index, block);
+		return block;
+	}
+
+	/**
+	 * Method returns character offset after the block with given {@code index}.
+	 * It is called only while holding the lock of this source.
+	 *
+	 * @param index index of the block
+	 * @return      end of the block
+	 */
+	private int getBlockEnd(int index) {
+		return index + 1 < blockCharStarts.size() ? blockCharStarts.get(index + 1) : length;
+	}
+
+	/**
+	 * Method checks if index of this source is built.
+	 *
+	 * @throws IllegalStateException if index is not built
+	 */
+	private void checkIndexed() {
+		if (!isIndexed())
+			throw new IllegalStateException("Source is not indexed: " + path);
+	}
+
+	/**
+	 * {@inheritDoc} </br>
+	 * Length grows while the file is being indexed.
+	 */
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public synchronized char charAt(int index) {
+		if (index < 0 || index >= length)
+			throw new IndexOutOfBoundsException("Was: " + index);
+		int block = blockCharStarts.floorIndex(index);
+		return getBlock(block)[index - blockCharStarts.get(block)];
+	}
+
+	@Override
+	public synchronized void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+		if (srcBegin < 0 || srcBegin > srcEnd || srcEnd > length)
+			throw new IndexOutOfBoundsException("Invalid range: " + srcBegin + ", " + srcEnd);
+		int offset = srcBegin;
+		while (offset < srcEnd) {
+			int block = blockCharStarts.floorIndex(offset);
+			int blockStart = blockCharStarts.get(block);
+			int count = Math.min(srcEnd, getBlockEnd(block)) - offset;
+			System.arraycopy(getBlock(block), offset - blockStart, dst, dstBegin + offset - srcBegin, count);
+			offset += count;
+		}
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		char[] chars = new char[end - start];
+		getChars(start, end, chars, 0);
+		return new String(chars);
+	}
+
+	@Override
+	public String toString() {
+		return subSequence(0, length()).toString();
+	}
+
+	/**
+	 * Class represents text that was indexed since it was last taken from the source:
+	 * its range, number of its non-blank characters and offsets after its new line characters.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	static final class IndexedText {
+
+		/**
+		 * Offset of the text in the source
+		 */
+		final int start;
+		/**
+		 * Length of the text
+		 */
+		final int length;
+		/**
+		 * Number of non-blank characters of the text
+		 */
+		final int nonBlankCount;
+		/**
+		 * Offsets after new line characters of the text, relative to the start of the source
+		 */
+		final IntList lineEnds;
+
+		/**
+		 * Constructor that creates new {@link IndexedText} object.
+		 *
+		 * @param start         {@link #start}
+		 * @param length        {@link #length}
+		 * @param nonBlankCount {@link #nonBlankCount}
+		 * @param lineEnds      {@link #lineEnds}
+		 */
+		IndexedText(int start, int length, int nonBlankCount, IntList lineEnds) {
+			this.start = start;
+			this.length = length;
+			this.nonBlankCount = nonBlankCount;
+			this.lineEnds = lineEnds;
+		}
+	}
+
+}
@@ -0,0 +1,256 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.text.Position;
+
+/**
+ * Class keeps track of {@link Position} objects created by {@link PieceTableContent}. </br>
+ * Marks are kept sorted and split by a virtual gap, the same way {@code GapContent} does it:
+ * marks before the gap store their offset, marks after the gap store their offset
+ * increased by the gap length. Edit only moves marks between the old and the new gap location,
+ * so edits that happen close to each other are cheap regardless of the number of marks.
+ * </p>
+ *
+ * Positions are referenced weakly, marks of positions that are no longer used are removed lazily.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+class MarkTracker {
+
+	/**
+	 * Initial length of the virtual gap
+	 */
+	private static final long INITIAL_GAP_LENGTH = 1L << 40;
+	/**
+	 * Gap length under which gap is enlarged again
+	 */
+	private static final long MIN_GAP_LENGTH = 1L << 32;
+
+	/**
+	 * Marks sorted by their index
+	 */
+	private List<Mark> marks = new ArrayList<>();
+	/**
+	 * Offset at which virtual gap starts
+	 */
+	private int gapStart;
+	/**
+	 * Length of the virtual gap
+	 */
+	private long gapLength = INITIAL_GAP_LENGTH;
+	/**
+	 * Queue of marks whose positions were garbage collected
+	 */
+	private ReferenceQueue<TrackedPosition> queue = new ReferenceQueue<>();
+	/**
+	 * Number of marks whose positions were garbage collected
+	 */
+	private int unusedMarks;
+
+	/**
+	 * Method creates new position at given {@code offset}.
+	 *
+	 * @param offset offset of the position
+	 * @return       created position
+	 */
+	Position createPosition(int offset) {
+		purgeUnusedMarks();
+		long index = offset <= gapStart ? offset : offset + gapLength;
+		TrackedPosition position = new TrackedPosition();
+		Mark mark = new Mark(position, queue, index);
+		position.mark = mark;
+		marks.add(findFirstIndexAbove(index), mark);
+		return position;
+	}
+
+	/**
+	 * Method updates marks after {@code length} characters were inserted at {@code where}. </br>
+	 * Marks at the insertion offset are moved forward, except the ones at offset 0.
+	 *
+	 * @param where  insertion offset
+	 * @param length number of inserted characters
+	 */
+	void insertUpdate(int where, int length) {
+		moveGap(Math.max(where, 1));
+		gapLength -= length;
+		if (gapLength < MIN_GAP_LENGTH) {
+			enlargeGap();
+		}
+	}
+
+	/**
+	 * Method updates marks after {@code length} characters were removed at {@code where}. </br>
+	 * Marks inside of the removed region are moved to {@code where}.
+	 *
+	 * @param where  removal offset
+	 * @param length number of removed characters
+	 */
+	void removeUpdate(int where, int length) {
+		int end = where + length;
+		moveGap(end);
+		for (int i = findFirstOffsetAtLeast(where), n = findFirstOffsetAtLeast(end); i < n; i++) {
+			marks.get(i).index = where;
+		}
+		gapStart = where;
+		gapLength += length;
+	}
+
+	/**
+	 * Method moves gap to the given {@code offset} so that all marks
+	 * with offset smaller than {@code offset} are before the gap and all others after it.
+	 *
+	 * @param offset new gap start
+	 */
+	private void moveGap(int offset) {
+		int oldSplit = findFirstIndexAbove(gapStart);
+		int newSplit = findFirstOffsetAtLeast(offset);
+		for (int i = newSplit; i < oldSplit; i++) {
+			marks.get(i).index += gapLength;
+		}
+		for (int i = oldSplit; i < newSplit; i++) {
+			marks.get(i).index -= gapLength;
+		}
+		gapStart = offset;
+	}
+
+	/**
+	 * Method enlarges virtual gap back to its initial length.
+	 */
+	private void enlargeGap() {
+		long delta = INITIAL_GAP_LENGTH - gapLength;
+		for (int i = findFirstIndexAbove(gapStart), n = marks.size(); i < n; i++) {
+			marks.get(i).index += delta;
+		}
+		gapLength = INITIAL_GAP_LENGTH;
+	}
+
+	/**
+	 * Method returns offset that is represented by given {@code mark}.
+	 *
+	 * @param mark mark whose offset is returned
+	 * @return     offset of the mark
+	 */
+	private int offsetOf(Mark mark) {
+		return (int) (mark.index <= gapStart ? mark.index : mark.index - gapLength);
+	}
+
+	/**
+	 * Method returns index of the first mark whose offset is at least {@code offset}.
+	 *
+	 * @param offset searched offset
+	 * @return       index of the first such mark or number of marks if there's none
+	 */
+	private int findFirstOffsetAtLeast(int offset) {
+		int low = 0;
+		int high = marks.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (offsetOf(marks.get(mid)) < offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Method returns index of the first mark whose index is greater than given {@code index}.
+	 *
+	 * @param index searched index
+	 * @return      index of the first such mark or number of marks if there's none
+	 */
+	private int findFirstIndexAbove(long index) {
+		int low = 0;
+		int high = marks.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (marks.get(mid).index <= index) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Method removes marks whose positions were garbage collected
+	 * once they make up half of all marks.
+	 */
+	private void purgeUnusedMarks() {
+		while (queue.poll() != null) {
+			unusedMarks++;
+		}
+		if (unusedMarks == 0 || unusedMarks < marks.size() / 2)
+			return;
+
+		List<Mark> used = new ArrayList<>(marks.size() - unusedMarks);
+		for (Mark mark : marks) {
+			if (mark.get() != null) {
+				used.add(mark);
+			}
+		}
+		marks = used;
+		unusedMarks = 0;
+	}
+
+	/**
+	 * Class represents mark that stores index of a single {@link TrackedPosition}.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private static class Mark extends WeakReference<TrackedPosition> {
+
+		/**
+		 * Index of the mark in virtual gap space
+		 */
+		private long index;
+
+		/**
+		 * Constructor that creates new {@link Mark} object.
+		 *
+		 * @param position position this mark belongs to
+		 * @param queue    queue to which mark is enqueued once position is collected
+		 * @param index    {@link #index}
+		 */
+		Mark(TrackedPosition position, ReferenceQueue<TrackedPosition> queue, long index) {
+			super(position, queue);
+			this.index = index;
+		}
+	}
+
+	/**
+	 * Class represents {@link Position} whose offset is tracked by {@link MarkTracker}.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private class TrackedPosition implements Position {
+
+		/**
+		 * Mark of this position
+		 */
+		private Mark mark;
+
+		@Override
+		public int getOffset() {
+			return offsetOf(mark);
+		}
+
+		@Override
+		public String toString() {
+			return Integer.toString(getOffset());
+		}
+	}
+
+}
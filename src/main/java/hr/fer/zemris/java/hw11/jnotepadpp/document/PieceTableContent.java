@@ -0,0 +1,782 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * Class represents implementation of {@link AbstractDocument.Content} that is based on piece table. </br>
+ * Text is never copied or moved: original text stays in its {@link CharSource}
+ * and every inserted text is appended to the {@link AppendBuffer}.
+ * Document is described with sequence of pieces that refer to ranges of those sources.
+ * </p>
+ *
+ * Pieces are stored in randomized balanced binary tree (treap) ordered by document offset,
+ * where every node knows the length of text in its subtree.
+ * Because of that insertion, removal and finding the piece at some offset take O(log n) time,
+ * where n is number of pieces.
+ * </p>
+ *
+ * Removed and overwritten pieces are detached from the tree as a whole subtree and kept as a {@link PieceRun},
+ * which can later be inserted back. Since text in the sources is never changed, such run is a complete
+ * and compact record of removed text, no matter how long that text is.
+ * </p>
+ *
+ * Every node also keeps polynomial hash of its subtree, so fingerprint of the whole content
+ * is maintained with every edit in O(log n) time, see {@link #getFingerprint()}.
+ * </p>
+ *
+ * Just like {@code GapContent}, content always ends with implicit new line character.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class PieceTableContent implements AbstractDocument.Content {
+
+	/**
+	 * Source of implicit new line character that ends the content
+	 */
+	private static final CharSource END_OF_CONTENT = CharSource.of("\n");
+	/**
+	 * Base of the polynomial hash, power of this base is the weight of the document offset
+	 */
+	private static final long OFFSET_BASE = 0x9E3779B97F4A7C15L;
+	/**
+	 * Base of the polynomial hash, power of this base is the weight of the offset in the source
+	 */
+	private static final long SOURCE_BASE = 0xC2B2AE3D27D4EB4FL;
+	/**
+	 * Hash key of the {@link #END_OF_CONTENT}
+	 */
+	private static final long END_KEY = 0x165667B19E3779F9L;
+	/**
+	 * Hash key of the original text
+	 */
+	private static final long ORIGINAL_KEY = 0x27D4EB2F165667C5L;
+	/**
+	 * Hash key of the {@link #appendBuffer}
+	 */
+	private static final long APPEND_KEY = 0xFF51AFD7ED558CCDL;
+
+	/**
+	 * Source of the original text
+	 */
+	private final CharSource original;
+	/**
+	 * Root of the piece tree
+	 */
+	private Piece root;
+	/**
+	 * Buffer that holds all inserted text
+	 */
+	private AppendBuffer appendBuffer = new AppendBuffer();
+	/**
+	 * Tracker of created positions
+	 */
+	private MarkTracker marks = new MarkTracker();
+	/**
+	 * State of the pseudo random generator of piece priorities
+	 */
+	private int seed = 0x2545F491;
+	/**
+	 * Number of edits made to the content
+	 */
+	private long modificationCount;
+	/**
+	 * Pieces removed by the last removal, {@code null} if they were already taken
+	 */
+	private PieceRun lastRemoved;
+
+	/**
+	 * Constructor that creates new empty {@link PieceTableContent} object.
+	 */
+	public PieceTableContent() {
+		this(CharSource.of(""));
+	}
+
+	/**
+	 * Constructor that creates new {@link PieceTableContent} object
+	 * whose initial text is given {@code original} source. Source is not copied.
+	 *
+	 * @param original initial text of the content
+	 */
+	public PieceTableContent(CharSource original) {
+		this(original, original.length());
+	}
+
+	/**
+	 * Constructor that creates new {@link PieceTableContent} object
+	 * whose initial text are first {@code length} characters of given {@code original} source.
+	 * Rest of the source can be appended later by {@link #appendOriginal(int, int)}.
+	 *
+	 * @param original source of the original text
+	 * @param length   length of the initial text
+	 */
+	public PieceTableContent(CharSource original, int length) {
+		this.original = Objects.requireNonNull(original, "Original text must not be null");
+		if (length < 0 || length > original.length())
+			throw new IllegalArgumentException("Invalid length of original text: " + length);
+		Piece end = new Piece(END_OF_CONTENT, END_KEY, 0, 1, nextPriority());
+		root = length == 0 ? end : merge(new Piece(original, ORIGINAL_KEY, 0, length, nextPriority()), end);
+	}
+
+	@Override
+	public Position createPosition(int offset) throws BadLocationException {
+		if (offset < 0 || offset > length())
+			throw new BadLocationException("Invalid position", offset);
+		return marks.createPosition(offset);
+	}
+
+	@Override
+	public int length() {
+		return size(root);
+	}
+
+	@Override
+	public UndoableEdit insertString(int where, String str) throws BadLocationException {
+		if (where < 0 || where >= length())
+			throw new BadLocationException("Invalid insert", where);
+		if (str.isEmpty())
+			return null;
+
+		int start = appendBuffer.append(str);
+		Piece[] parts = split(root, where);
+		if (!extendRightmost(parts[0], appendBuffer, start, str.length())) {
+			parts[0] = merge(parts[0], new Piece(appendBuffer, APPEND_KEY, start, str.length(), nextPriority()));
+		}
+		root = merge(parts[0], parts[1]);
+		marks.insertUpdate(where, str.length());
+		modificationCount++;
+		return null;
+	}
+
+	/**
+	 * Method appends {@code length} characters of the original source starting at {@code start}
+	 * to the end of the content. </br>
+	 * It is used while original source is still growing, so appended text continues the last piece if it can.
+	 *
+	 * @param start  start of the appended text in the original source
+	 * @param length length of the appended text
+	 */
+	public void appendOriginal(int start, int length) {
+		if (start < 0 || length < 0 || start + length > original.length())
+			throw new IllegalArgumentException("Invalid range of original text: " + start + ", " + length);
+		if (length == 0)
+			return;
+
+		int where = length() - 1;
+		Piece[] parts = split(root, where);
+		if (!extendRightmost(parts[0], original, start, length)) {
+			parts[0] = merge(parts[0], new Piece(original, ORIGINAL_KEY, start, length, nextPriority()));
+		}
+		root = merge(parts[0], parts[1]);
+		marks.insertUpdate(where, length);
+		modificationCount++;
+	}
+
+	@Override
+	public UndoableEdit remove(int where, int nitems) throws BadLocationException {
+		if (where < 0 || nitems < 0 || where + nitems >= length())
+			throw new BadLocationException("Invalid remove", where);
+		if (nitems == 0)
+			return null;
+
+		Piece[] parts = split(root, where);
+		Piece[] rest = split(parts[1], nitems);
+		root = merge(parts[0], rest[1]);
+		lastRemoved = new PieceRun(rest[0]);
+		marks.removeUpdate(where, nitems);
+		modificationCount++;
+		return null;
+	}
+
+	/**
+	 * Method returns pieces removed by the last call of {@link #remove(int, int)}
+	 * and forgets about them, so they are returned only once.
+	 *
+	 * @return removed pieces or {@code null} if they were already taken
+	 */
+	PieceRun takeRemoved() {
+		PieceRun removed = lastRemoved;
+		lastRemoved = null;
+		return removed;
+	}
+
+	/**
+	 * Method inserts given detached {@code run} of pieces at offset {@code where}.
+	 * Run becomes part of the content and can not be used afterwards.
+	 *
+	 * @param where                 offset at which pieces are inserted
+	 * @param run                   inserted pieces
+	 * @throws BadLocationException if offset is not inside of the content
+	 */
+	void insert(int where, PieceRun run) throws BadLocationException {
+		if (where < 0 || where >= length())
+			throw new BadLocationException("Invalid insert", where);
+		int length = run.length();
+		Piece[] parts = split(root, where);
+		root = merge(merge(parts[0], run.take()), parts[1]);
+		marks.insertUpdate(where, length);
+		modificationCount++;
+	}
+
+	/**
+	 * Method replaces {@code run.length()} characters starting at {@code where} with given detached {@code run}
+	 * of pieces. Length of the content does not change, so created positions stay where they are.
+	 *
+	 * @param where                 offset of the first replaced character
+	 * @param run                   new pieces
+	 * @return                      replaced pieces
+	 * @throws BadLocationException if replaced range is not inside of the content
+	 */
+	PieceRun exchange(int where, PieceRun run) throws BadLocationException {
+		int length = run.length();
+		if (where < 0 || where + length >= length())
+			throw new BadLocationException("Invalid exchange", where);
+		Piece[] parts = split(root, where);
+		Piece[] rest = split(parts[1], length);
+		root = merge(merge(parts[0], run.take()), rest[1]);
+		modificationCount++;
+		return new PieceRun(rest[0]);
+	}
+
+	/**
+	 * Method replaces {@code str.length()} characters starting at {@code where} with given {@code str}. </br>
+	 * Length of the content does not change, so created positions stay where they are.
+	 *
+	 * @param where                 offset of the first replaced character
+	 * @param str                   new characters
+	 * @return                      replaced pieces
+	 * @throws BadLocationException if replaced range is not inside of the content
+	 */
+	public PieceRun overwrite(int where, String str) throws BadLocationException {
+		if (where < 0 || where + str.length() >= length())
+			throw new BadLocationException("Invalid overwrite", where);
+		if (str.isEmpty())
+			return new PieceRun(null);
+
+		int start = appendBuffer.append(str);
+		return exchange(where, new PieceRun(new Piece(appendBuffer, APPEND_KEY, start, str.length(), nextPriority())));
+	}
+
+	@Override
+	public String getString(int where, int len) throws BadLocationException {
+		checkRange(where, len);
+		char[] chars = new char[len];
+		copy(root, where, where + len, chars, 0);
+		return new String(chars);
+	}
+
+	@Override
+	public void getChars(int where, int len, Segment txt) throws BadLocationException {
+		checkRange(where, len);
+		if (txt.isPartialReturn() && len > 0) {
+			Piece piece = root;
+			int offset = where;
+			while (true) {
+				int leftSize = size(piece.left);
+				if (offset < leftSize) {
+					piece = piece.left;
+				} else if (offset < leftSize + piece.length) {
+					offset -= leftSize;
+					break;
+				} else {
+					offset -= leftSize + piece.length;
+					piece = piece.right;
+				}
+			}
+			if (piece.source == appendBuffer) {
+				txt.array = appendBuffer.array();
+				txt.offset = piece.start + offset;
+				txt.count = Math.min(len, piece.length - offset);
+				return;
+			}
+		}
+		char[] chars = new char[len];
+		copy(root, where, where + len, chars, 0);
+		txt.array = chars;
+		txt.offset = 0;
+		txt.count = len;
+	}
+
+	/**
+	 * Method returns number of edits that were made to the content.
+	 * 
+	 * @return number of edits
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Method returns fingerprint of the content. </br>
+	 * Fingerprint is polynomial hash of the sequence of characters' origins, where origin of a character
+	 * is its source and its offset in that source. Sources are never changed, so unless hashes collide,
+	 * equal fingerprints mean equal text. Fingerprint does not depend on how text is split into pieces, so content that is brought back
+	 * to some earlier state by undoing or reverting edits has the same fingerprint as in that state.
+	 * Text that is typed again is appended to the buffer, so it has different fingerprint than the original text.
+	 *
+	 * @return fingerprint of the content
+	 */
+	public long getFingerprint() {
+		return root.hash;
+	}
+
+	/**
+	 * Method takes snapshot of the first {@code length} characters of the content.
+	 * Only piece descriptors are copied, text itself is shared.
+	 *
+	 * @param length number of characters in the snapshot
+	 * @return       snapshot of the content
+	 */
+	public TextSnapshot snapshot(int length) {
+		List<Piece> pieces = new ArrayList<>();
+		collect(root, pieces);
+
+		CharSource[] sources = new CharSource[pieces.size()];
+		int[] sourceStarts = new int[pieces.size()];
+		int[] offsets = new int[pieces.size() + 1];
+		int count = 0;
+		int offset = 0;
+		for (Piece piece : pieces) {
+			if (offset >= length)
+				break;
+			sources[count] = piece.source;
+			sourceStarts[count] = piece.start;
+			offsets[count] = offset;
+			offset += Math.min(piece.length, length - offset);
+			count++;
+		}
+		offsets[count] = offset;
+		return new TextSnapshot(Arrays.copyOf(sources, count), Arrays.copyOf(sourceStarts, count),
+				Arrays.copyOf(offsets, count + 1), modificationCount, root.hash);
+	}
+
+	/**
+	 * Method adds pieces of the subtree {@code piece} to the list {@code pieces} in document order.
+	 *
+	 * @param piece  root of the subtree
+	 * @param pieces list to which pieces are added
+	 */
+	private static void collect(Piece piece, List<Piece> pieces) {
+		while (piece != null) {
+			collect(piece.left, pieces);
+			pieces.add(piece);
+			piece = piece.right;
+		}
+	}
+
+	/**
+	 * Method checks if range of {@code len} characters starting at {@code where} is inside of the content.
+	 *
+	 * @param where start of the range
+	 * @param len   length of the range
+	 * @throws BadLocationException if range is not inside of the content
+	 */
+	private void checkRange(int where, int len) throws BadLocationException {
+		if (where < 0 || len < 0 || where + len > length())
+			throw new BadLocationException("Invalid range", where);
+	}
+
+	/**
+	 * Method copies characters of the subtree {@code piece} in range [{@code from}, {@code to})
+	 * relative to the subtree start to the array {@code dst}.
+	 *
+	 * @param piece    root of the subtree
+	 * @param from     start of copied range
+	 * @param to       end of copied range
+	 * @param dst      destination array
+	 * @param dstBegin offset in destination array that corresponds to {@code from}
+	 */
+	private static void copy(Piece piece, int from, int to, char[] dst, int dstBegin) {
+		while (piece != null && from < to) {
+			int leftSize = size(piece.left);
+			if (from < leftSize) {
+				copy(piece.left, from, Math.min(to, leftSize), dst, dstBegin);
+			}
+			int pieceEnd = leftSize + piece.length;
+			int begin = Math.max(from, leftSize);
+			int end = Math.min(to, pieceEnd);
+			if (begin < end) {
+				int srcBegin = piece.start + begin - leftSize;
+				piece.source.getChars(srcBegin, srcBegin + end - begin, dst, dstBegin + begin - from);
+			}
+			if (to <= pieceEnd)
+				return;
+			// Continue iteratively in the right subtree
+			int skipped = Math.max(from, pieceEnd) - from;
+			dstBegin += skipped;
+			from = Math.max(from, pieceEnd) - pieceEnd;
+			to -= pieceEnd;
+			piece = piece.right;
+		}
+	}
+
+	/**
+	 * Method extends the last piece of the subtree {@code piece} by {@code length} characters
+	 * if it ends exactly where newly appended text of given {@code source} starts. </br>
+	 * That way continuous typing does not create new piece for every character.
+	 *
+	 * @param piece  root of the subtree
+	 * @param source source of the appended text
+	 * @param start  start of the appended text in the source
+	 * @param length length of appended text
+	 * @return       {@code true} if piece was extended, otherwise {@code false}
+	 */
+	private static boolean extendRightmost(Piece piece, CharSource source, int start, int length) {
+		if (piece == null)
+			return false;
+		boolean extended;
+		if (piece.right != null) {
+			extended = extendRightmost(piece.right, source, start, length);
+		} else {
+			extended = piece.source == source && piece.start + piece.length == start;
+			if (extended) {
+				piece.length += length;
+			}
+		}
+		if (extended) {
+			piece.update();
+		}
+		return extended;
+	}
+
+	/**
+	 * Method splits subtree {@code piece} into two subtrees.
+	 * First subtree contains first {@code offset} characters, second one contains the rest. </br>
+	 * If {@code offset} falls inside of a piece, that piece is split in two.
+	 *
+	 * @param piece  root of the subtree
+	 * @param offset split offset
+	 * @return       array with roots of both subtrees
+	 */
+	private static Piece[] split(Piece piece, int offset) {
+		if (piece == null)
+			return new Piece[2];
+
+		int leftSize = size(piece.left);
+		if (offset <= leftSize) {
+			Piece[] parts = split(piece.left, offset);
+			piece.left = parts[1];
+			piece.update();
+			parts[1] = piece;
+			return parts;
+		}
+		if (offset >= leftSize + piece.length) {
+			Piece[] parts = split(piece.right, offset - leftSize - piece.length);
+			piece.right = parts[0];
+			piece.update();
+			parts[0] = piece;
+			return parts;
+		}
+
+		int cut = offset - leftSize;
+		Piece tail = new Piece(piece.source, piece.sourceKey, piece.start + cut, piece.length - cut, piece.priority);
+		tail.right = piece.right;
+		tail.update();
+		piece.length = cut;
+		piece.right = null;
+		piece.update();
+		return new Piece[] { piece, tail };
+	}
+
+	/**
+	 * Method merges two subtrees where all pieces of {@code first} come before pieces of {@code second}.
+	 *
+	 * @param first  first subtree
+	 * @param second second subtree
+	 * @return       root of merged tree
+	 */
+	private static Piece merge(Piece first, Piece second) {
+		if (first == null)
+			return second;
+		if (second == null)
+			return first;
+		if (first.priority >= second.priority) {
+			first.right = merge(first.right, second);
+			first.update();
+			return first;
+		}
+		second.left = merge(first, second.left);
+		second.update();
+		return second;
+	}
+
+	/**
+	 * Method returns number of characters in given subtree.
+	 *
+	 * @param piece root of the subtree
+	 * @return      number of characters
+	 */
+	private static int size(Piece piece) {
+		return piece == null ? 0 : piece.size;
+	}
+
+	/**
+	 * Method returns hash of given subtree.
+	 *
+	 * @param piece root of the subtree
+	 * @return      hash of the subtree
+	 */
+	private static long hash(Piece piece) {
+		return piece == null ? 0 : piece.hash;
+	}
+
+	/**
+	 * Method returns {@link #OFFSET_BASE} raised to the number of characters in given subtree.
+	 *
+	 * @param piece root of the subtree
+	 * @return      shift of the subtree
+	 */
+	private static long shift(Piece piece) {
+		return piece == null ? 1 : piece.shift;
+	}
+
+	/**
+	 * Method raises {@code base} to the given {@code exponent} modulo 2<sup>64</sup>.
+	 *
+	 * @param base     base
+	 * @param exponent non-negative exponent
+	 * @return         power of the base
+	 */
+	private static long pow(long base, int exponent) {
+		long result = 1;
+		while (exponent > 0) {
+			if ((exponent & 1) != 0) {
+				result *= base;
+			}
+			base *= base;
+			exponent >>>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Method calculates sum of the first {@code count} powers of the {@code ratio} modulo 2<sup>64</sup>,
+	 * starting with power 0. Sum is built from the highest bit of the count, doubling number of terms
+	 * and adding one term as needed, so it takes O(log count) time.
+	 *
+	 * @param ratio ratio of the geometric series
+	 * @param count non-negative number of terms
+	 * @return      sum of the terms
+	 */
+	private static long geometricSum(long ratio, int count) {
+		long sum = 0;
+		long power = 1;
+		for (int bit = Integer.highestOneBit(count); bit > 0; bit >>>= 1) {
+			sum *= 1 + power;
+			power *= power;
+			if ((count & bit) != 0) {
+				sum += power;
+				power *= ratio;
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Method returns priority for new piece using xorshift generator.
+	 *
+	 * @return pseudo random priority
+	 */
+	private int nextPriority() {
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+		return seed;
+	}
+
+	/**
+	 * Class represents run of consecutive pieces that are detached from the content. </br>
+	 * Run only refers to the text in the sources, so it takes memory proportional to the number of its pieces,
+	 * not to the length of its text.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	public static final class PieceRun {
+
+		/**
+		 * Root of the subtree of pieces, {@code null} once run is inserted back into the content
+		 */
+		private Piece root;
+		/**
+		 * Number of pieces in the run
+		 */
+		private final int pieceCount;
+
+		/**
+		 * Constructor that creates new {@link PieceRun} object.
+		 *
+		 * @param root root of the detached subtree of pieces
+		 */
+		private PieceRun(Piece root) {
+			this(root, count(root));
+		}
+
+		/**
+		 * Constructor that creates new {@link PieceRun} object whose number of pieces is known.
+		 *
+		 * @param root       root of the detached subtree of pieces
+		 * @param pieceCount number of pieces in the subtree
+		 */
+		private PieceRun(Piece root, int pieceCount) {
+			this.root = root;
+			this.pieceCount = pieceCount;
+		}
+
+		/**
+		 * Method returns number of characters of the run.
+		 *
+		 * @return length of the run
+		 */
+		public int length() {
+			return size(root);
+		}
+
+		/**
+		 * Method returns number of pieces of the run.
+		 *
+		 * @return number of pieces
+		 */
+		public int getPieceCount() {
+			return pieceCount;
+		}
+
+		/**
+		 * Method joins two runs into single run with pieces of {@code first} followed by pieces of {@code second}.
+		 * Both runs can not be used afterwards.
+		 *
+		 * @param first  first run
+		 * @param second second run
+		 * @return       joined run
+		 */
+		public static PieceRun concat(PieceRun first, PieceRun second) {
+			int pieceCount = first.pieceCount + second.pieceCount;
+			return new PieceRun(merge(first.take(), second.take()), pieceCount);
+		}
+
+		/**
+		 * Method returns root of the run and marks the run as used.
+		 *
+		 * @return root of the subtree of pieces
+		 * @throws IllegalStateException if run was already used
+		 */
+		private Piece take() {
+			if (root == null && pieceCount > 0)
+				throw new IllegalStateException("Run was already used.");
+			Piece piece = root;
+			root = null;
+			return piece;
+		}
+
+		/**
+		 * Method counts pieces in given subtree.
+		 *
+		 * @param piece root of the subtree
+		 * @return      number of pieces
+		 */
+		private static int count(Piece piece) {
+			int count = 0;
+			while (piece != null) {
+				count += 1 + count(piece.left);
+				piece = piece.right;
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * Class represents single piece of the content and a node of the piece tree.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private static class Piece {
+
+		/**
+		 * Source that piece refers to
+		 */
+		private final CharSource source;
+		/**
+		 * Hash key of the source
+		 */
+		private final long sourceKey;
+		/**
+		 * Start of the piece in the source
+		 */
+		private final int start;
+		/**
+		 * Length of the piece
+		 */
+		private int length;
+		/**
+		 * Heap priority of the node
+		 */
+		private final int priority;
+		/**
+		 * Left child
+		 */
+		private Piece left;
+		/**
+		 * Right child
+		 */
+		private Piece right;
+		/**
+		 * Number of characters in subtree of this node
+		 */
+		private int size;
+		/**
+		 * Polynomial hash of origins of characters in subtree of this node
+		 */
+		private long hash;
+		/**
+		 * {@link #OFFSET_BASE} raised to the {@link #size}
+		 */
+		private long shift;
+
+		/**
+		 * Constructor that creates new {@link Piece} object.
+		 *
+		 * @param source    {@link #source}
+		 * @param sourceKey {@link #sourceKey}
+		 * @param start     {@link #start}
+		 * @param length    {@link #length}
+		 * @param priority  {@link #priority}
+		 */
+		Piece(CharSource source, long sourceKey, int start, int length, int priority) {
+			this.source = source;
+			this.sourceKey = sourceKey;
+			this.start = start;
+			this.length = length;
+			this.priority = priority;
+			update();
+		}
+
+		/**
+		 * Method recalculates {@link #size}, {@link #hash} and {@link #shift} from children. </br>
+		 * Character at offset {@code i} of the source contributes {@code sourceKey * SOURCE_BASE^i},
+		 * weighted by {@code OFFSET_BASE} raised to its offset in the subtree.
+		 * Consecutive characters of the piece therefore form geometric series,
+		 * which is why hash of the piece does not change when it is split.
+		 */
+		void update() {
+			size = size(left) + length + size(right);
+			long pieceShift = pow(OFFSET_BASE, length);
+			long pieceHash = sourceKey * pow(SOURCE_BASE, start) * geometricSum(SOURCE_BASE * OFFSET_BASE, length);
+			hash = hash(left) + shift(left) * (pieceHash + pieceShift * hash(right));
+			shift = shift(left) * pieceShift * shift(right);
+		}
+	}
+
+}
@@ -0,0 +1,1310 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.UndoableEditEvent;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.Segment;
+import javax.swing.tree.TreeNode;
+import javax.swing.undo.AbstractUndoableEdit;
+import javax.swing.undo.CannotRedoException;
+import javax.swing.undo.CannotUndoException;
+import javax.swing.undo.CompoundEdit;
+import javax.swing.undo.UndoableEdit;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.MappedTextSource.IndexedText;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableContent.PieceRun;
+
+/**
+ * Class represents plain text document whose text is stored in {@link PieceTableContent}. </br>
+ * Initial text of the document is never copied, it stays in its {@link CharSource}
+ * until document is saved, while all edits only change pieces that refer to it.
+ * </p>
+ *
+ * Document keeps number of its non-blank characters up to date with every edit,
+ * counting only inserted or removed characters, so it can be read at any time without scanning the text.
+ * </p>
+ *
+ * Document of a {@link MappedTextSource} can be created before the source is indexed.
+ * It holds the text that is indexed so far and it is loading until the rest of the source is appended
+ * by {@link #loadIndexed()}, it can not be edited meanwhile.
+ * </p>
+ *
+ * Lines of the document are kept as offsets of line ends in a {@link LineIndex},
+ * line elements are only created when they are requested, so memory taken by lines of a large document
+ * is a single array of integers instead of an element with two positions for every line.
+ * </p>
+ *
+ * Undoable edits that document publishes are compact deltas: an edit only knows its offset,
+ * length of the text it put into the document and {@link PieceRun} of pieces it took out of it.
+ * Undoing or redoing an edit swaps these two, so neither the text nor the line elements are copied.
+ * Every call of a public editing method is published as single edit, consecutive typed characters
+ * are merged into single edit by {@link UndoHistory}.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class PieceTableDocument extends AbstractDocument {
+
+	/**
+	 * Serial number
+	 */
+	private static final long serialVersionUID = -3528717094623905338L;
+	/**
+	 * Number of characters that are scanned at once
+	 */
+	private static final int SCAN_CHUNK_SIZE = 1 << 16;
+	/**
+	 * Maximal time in milliseconds between two typed characters that are merged into single edit
+	 */
+	private static final long MERGE_INTERVAL = 1000;
+	/**
+	 * Estimated number of bytes taken by a single edit
+	 */
+	private static final long EDIT_SIZE = 96;
+	/**
+	 * Estimated number of bytes taken by a single piece of an edit
+	 */
+	private static final long PIECE_SIZE = 48;
+
+	/**
+	 * Root element of the document whose children are lines
+	 */
+	private final LineMap lineMap;
+	/**
+	 * Number of characters of the document that are not blank
+	 */
+	private int nonBlankCount;
+	/**
+	 * Edit that is being recorded, it is published once outermost editing method ends
+	 */
+	private transient UndoableEdit pendingEdit;
+	/**
+	 * Number of editing methods that are currently running
+	 */
+	private int editDepth;
+	/**
+	 * Flag that shows whether an edit is being undone or redone, edits are not recorded meanwhile
+	 */
+	private boolean applyingHistory;
+	/**
+	 * Pieces removed while an edit is being undone or redone
+	 */
+	private transient PieceRun historyRun;
+	/**
+	 * Source whose text is still being appended to the document, {@code null} once the document is loaded
+	 */
+	private transient volatile MappedTextSource loadingSource;
+	/**
+	 * Flag that shows whether initial text of the document is mapped from the file itself
+	 */
+	private final boolean fileMapped;
+
+	/**
+	 * Constructor that creates new empty {@link PieceTableDocument} object.
+	 */
+	public PieceTableDocument() {
+		this(CharSource.of(""));
+	}
+
+	/**
+	 * Constructor that creates new {@link PieceTableDocument} object with given initial {@code text}.
+	 *
+	 * @param text initial text of the document
+	 */
+	public PieceTableDocument(String text) {
+		this(CharSource.of(text));
+	}
+
+	/**
+	 * Constructor that creates new {@link PieceTableDocument} object
+	 * whose initial text is given {@code original} source.
+	 *
+	 * @param original initial text of the document
+	 */
+	public PieceTableDocument(CharSource original) {
+		super(new PieceTableContent(original));
+		IntList lineEnds = new IntList();
+		nonBlankCount = scan(0, original.length(), lineEnds);
+		lineMap = new LineMap(new LineIndex(lineEnds.toArray(), getContent().length()));
+		fileMapped = false;
+		putProperty(PlainDocument.tabSizeAttribute, 8);
+	}
+
+	/**
+	 * Constructor that creates new {@link PieceTableDocument} object
+	 * whose initial text is given {@code original} source whose lines are already known. </br>
+	 * Source is not scanned at all, so its characters are not touched until they are needed.
+	 * Given {@code lineEnds} are not copied until the document is edited, and they are never modified.
+	 *
+	 * @param original      initial text of the document
+	 * @param lineEnds      offsets after every new line character of the {@code original}
+	 * @param nonBlankCount number of non-blank characters of the {@code original}
+	 */
+	public PieceTableDocument(CharSource original, int[] lineEnds, int nonBlankCount) {
+		super(new PieceTableContent(original));
+		this.nonBlankCount = nonBlankCount;
+		lineMap = new LineMap(new LineIndex(lineEnds, getContent().length()));
+		fileMapped = false;
+		putProperty(PlainDocument.tabSizeAttribute, 8);
+	}
+
+	/**
+	 * Constructor that creates new {@link PieceTableDocument} object
+	 * whose initial text is given {@link MappedTextSource}. </br>
+	 * Document holds the text that is already indexed, if source is still being indexed
+	 * document is loading until the rest of its text is appended by {@link #loadIndexed()}.
+	 *
+	 * @param source source of the initial text
+	 */
+	public PieceTableDocument(MappedTextSource source) {
+		this(source, source.isIndexed(), source.takeIndexed());
+	}
+
+	/**
+	 * Private constructor that creates new {@link PieceTableDocument} object
+	 * whose initial text is given {@code indexed} text of the {@link MappedTextSource}.
+	 *
+	 * @param source   source of the initial text
+	 * @param complete flag that shows whether source was indexed before its text was taken
+	 * @param indexed  initial text taken from the source
+	 */
+	private PieceTableDocument(MappedTextSource source, boolean complete, IndexedText indexed) {
+		super(new PieceTableContent(source, indexed.length));
+		nonBlankCount = indexed.nonBlankCount;
+		lineMap = new LineMap(new LineIndex(indexed.lineEnds.toArray(), getContent().length()));
+		fileMapped = !source.isCopy();
+		loadingSource = complete ? null : source;
+		putProperty(PlainDocument.tabSizeAttribute, 8);
+	}
+
+	/**
+	 * Method checks whether the document is still loading text of its {@link MappedTextSource}.
+	 *
+	 * @return {@code true} if document is loading, otherwise {@code false}
+	 */
+	public boolean isLoading() {
+		return loadingSource != null;
+	}
+
+	/**
+	 * Method checks whether initial text of the document is read from the mapped file itself
+	 * instead of from a private copy, so it changes if another program rewrites the file in place.
+	 *
+	 * @return {@code true} if the file is mapped, otherwise {@code false}
+	 */
+	public boolean isFileMapped() {
+		return fileMapped;
+	}
+
+	/**
+	 * Method appends text of the {@link MappedTextSource} that was indexed since it was last appended
+	 * and notifies listeners with insert event. </br>
+	 * Appended text is not an edit, so it can not be undone.
+	 * Once the whole source is appended, document is no longer loading.
+	 * Method does nothing if document is not loading.
+	 */
+	public void loadIndexed() {
+		writeLock();
+		try {
+			MappedTextSource source = loadingSource;
+			if (source == null)
+				return;
+			boolean complete = source.isIndexed();
+			IndexedText indexed = source.takeIndexed();
+			if (indexed.length > 0) {
+				int offset = getLength();
+				((PieceTableContent) getContent()).appendOriginal(indexed.start, indexed.length);
+				nonBlankCount += indexed.nonBlankCount;
+				DefaultDocumentEvent event = new DefaultDocumentEvent(offset, indexed.length,
+						DocumentEvent.EventType.INSERT);
+				// Nothing is edited while loading, so offsets in the source are offsets in the document
+				ElementEdit edit = lineMap.insertUpdate(offset, indexed.length, indexed.lineEnds);
+				if (edit != null) {
+					event.addEdit(edit);
+				}
+				super.insertUpdate(event, null);
+				event.end();
+				fireInsertUpdate(event);
+			}
+			// Listeners of the last insert still see the document as loading
+			if (complete) {
+				loadingSource = null;
+			}
+		} finally {
+			writeUnlock();
+		}
+	}
+
+	/**
+	 * Method blocks until the whole {@link MappedTextSource} of this document is indexed.
+	 * Indexed text is not appended, see {@link #loadIndexed()}.
+	 *
+	 * @throws IOException if indexing failed or waiting was interrupted
+	 */
+	public void awaitIndexed() throws IOException {
+		MappedTextSource source = loadingSource;
+		if (source != null) {
+			source.awaitIndex();
+		}
+	}
+
+	/**
+	 * Method takes snapshot of the text of this document.
+	 * It takes time proportional to the number of pieces, text itself is not copied.
+	 *
+	 * @return snapshot of the text
+	 */
+	public TextSnapshot snapshot() {
+		readLock();
+		try {
+			return ((PieceTableContent) getContent()).snapshot(getLength());
+		} finally {
+			readUnlock();
+		}
+	}
+
+	/**
+	 * Method returns number of edits that were made to this document.
+	 * It can be compared with {@link TextSnapshot#getModificationCount()}
+	 * to check whether document changed after the snapshot was taken.
+	 *
+	 * @return number of edits
+	 */
+	public long getModificationCount() {
+		readLock();
+		try {
+			return ((PieceTableContent) getContent()).getModificationCount();
+		} finally {
+			readUnlock();
+		}
+	}
+
+	/**
+	 * Method returns fingerprint of the text of this document. </br>
+	 * It is maintained with every edit, so it can be read in constant time.
+	 * Document that is brought back to an earlier state, for example by undoing edits,
+	 * has the same fingerprint as it had in that state.
+	 *
+	 * @return fingerprint of the text
+	 * @see PieceTableContent#getFingerprint()
+	 */
+	public long getFingerprint() {
+		readLock();
+		try {
+			return ((PieceTableContent) getContent()).getFingerprint();
+		} finally {
+			readUnlock();
+		}
+	}
+
+	/**
+	 * Method returns number of characters of this document that are not blank.
+	 *
+	 * @return number of non-blank characters
+	 */
+	public int getNonBlankCount() {
+		readLock();
+		try {
+			return nonBlankCount;
+		} finally {
+			readUnlock();
+		}
+	}
+
+	/**
+	 * Method replaces {@code length} characters starting at {@code offset} with given {@code text}. </br>
+	 * If {@code text} has the same length as replaced characters and it has line terminators
+	 * at the same places, characters are overwritten in place and listeners are notified
+	 * with remove event followed by insert event, while created positions and line structure stay untouched.
+	 * Otherwise text is replaced using {@link #replace(int, int, String, AttributeSet)}.
+	 *
+	 * @param offset                offset of the first replaced character
+	 * @param length                number of replaced characters
+	 * @param text                  new text
+	 * @throws BadLocationException if replaced range is not inside of the document
+	 */
+	public void replaceText(int offset, int length, String text) throws BadLocationException {
+		edit(() -> {
+			if (text.length() != length || length == 0 || !overwrite(offset, text)) {
+				replace(offset, length, text, null);
+			}
+		});
+	}
+
+	@Override
+	public void insertString(int offs, String str, AttributeSet a) throws BadLocationException {
+		edit(() -> super.insertString(offs, str, a));
+	}
+
+	@Override
+	public void remove(int offs, int len) throws BadLocationException {
+		edit(() -> super.remove(offs, len));
+	}
+
+	@Override
+	public void replace(int offset, int length, String text, AttributeSet attrs) throws BadLocationException {
+		edit(() -> super.replace(offset, length, text, attrs));
+	}
+
+	/**
+	 * Method makes given {@code change} under the write lock and publishes all edits
+	 * it makes as single undoable edit, unless it is a part of an outer change.
+	 *
+	 * @param change                change of the document
+	 * @throws BadLocationException if change is not inside of the document
+	 */
+	private void edit(Change change) throws BadLocationException {
+		if (loadingSource != null)
+			throw new BadLocationException("Document is still loading", 0);
+		writeLock();
+		editDepth++;
+		try {
+			change.apply();
+		} finally {
+			editDepth--;
+			try {
+				if (editDepth == 0) {
+					publishEdit();
+				}
+			} finally {
+				writeUnlock();
+			}
+		}
+	}
+
+	/**
+	 * Method adds given {@code edit} to the {@link #pendingEdit}.
+	 * Edit is merged with the pending one whenever their changes are adjacent.
+	 *
+	 * @param edit recorded edit
+	 */
+	private void recordEdit(TextEdit edit) {
+		if (pendingEdit == null) {
+			pendingEdit = edit;
+			return;
+		}
+		if (pendingEdit instanceof TextEdit && ((TextEdit) pendingEdit).append(edit))
+			return;
+		if (!(pendingEdit instanceof EditGroup)) {
+			EditGroup group = new EditGroup();
+			group.addEdit(pendingEdit);
+			pendingEdit = group;
+		}
+		pendingEdit.addEdit(edit);
+	}
+
+	/**
+	 * Method notifies undoable edit listeners about the {@link #pendingEdit}, if there is one.
+	 */
+	private void publishEdit() {
+		UndoableEdit edit = pendingEdit;
+		pendingEdit = null;
+		if (edit == null)
+			return;
+		if (edit instanceof EditGroup) {
+			((EditGroup) edit).end();
+		}
+		fireUndoableEditUpdate(new UndoableEditEvent(this, edit));
+	}
+
+	/**
+	 * Method estimates number of bytes of memory taken by given {@code edit}.
+	 * Text of edits of this document is never copied, so their size only depends on number of their pieces.
+	 *
+	 * @param edit edit whose size is estimated
+	 * @return     estimated size of the edit in bytes
+	 */
+	static long estimateSize(UndoableEdit edit) {
+		if (edit instanceof TextEdit)
+			return ((TextEdit) edit).estimateSize();
+		if (edit instanceof EditGroup)
+			return ((EditGroup) edit).estimateSize();
+		return EDIT_SIZE;
+	}
+
+	/**
+	 * Method inserts given {@code run} of pieces at {@code offset} and notifies listeners with insert event.
+	 *
+	 * @param offset                offset at which pieces are inserted
+	 * @param run                   inserted pieces
+	 * @throws BadLocationException if offset is not inside of the document
+	 */
+	private void insertRun(int offset, PieceRun run) throws BadLocationException {
+		int length = run.length();
+		((PieceTableContent) getContent()).insert(offset, run);
+		DefaultDocumentEvent event = new DefaultDocumentEvent(offset, length, DocumentEvent.EventType.INSERT);
+		insertUpdate(event, null);
+		event.end();
+		fireInsertUpdate(event);
+	}
+
+	/**
+	 * Method replaces characters starting at {@code offset} with given {@code run} of pieces of the same length
+	 * and notifies listeners with remove and insert event.
+	 *
+	 * @param offset                offset of the first replaced character
+	 * @param run                   new pieces
+	 * @return                      replaced pieces
+	 * @throws BadLocationException if replaced range is not inside of the document
+	 */
+	private PieceRun exchangeRun(int offset, PieceRun run) throws BadLocationException {
+		int length = run.length();
+		int removedNonBlank = countNonBlank(offset, length);
+		PieceRun replaced = ((PieceTableContent) getContent()).exchange(offset, run);
+		nonBlankCount += countNonBlank(offset, length) - removedNonBlank;
+		fireReplace(offset, length);
+		return replaced;
+	}
+
+	/**
+	 * Method notifies listeners that characters in given range were replaced in place
+	 * with remove event followed by insert event of the same range. </br>
+	 * Lines do not change, but views repaint only the line at the offset of an event without element changes,
+	 * so element of that line is replaced if the range spans more lines.
+	 *
+	 * @param offset offset of the first replaced character
+	 * @param length number of replaced characters
+	 */
+	private void fireReplace(int offset, int length) {
+		DefaultDocumentEvent removal = new DefaultDocumentEvent(offset, length, DocumentEvent.EventType.REMOVE);
+		removal.end();
+		fireRemoveUpdate(removal);
+
+		DefaultDocumentEvent insertion = new DefaultDocumentEvent(offset, length, DocumentEvent.EventType.INSERT);
+		ElementEdit edit = lineMap.replaceUpdate(offset, length);
+		if (edit != null) {
+			insertion.addEdit(edit);
+		}
+		insertion.end();
+		fireInsertUpdate(insertion);
+	}
+
+	/**
+	 * Method overwrites characters starting at {@code offset} with given {@code text}
+	 * and notifies listeners with remove and insert event,
+	 * unless line terminators of the text are not at the same places as in the document.
+	 *
+	 * @param offset                offset of the first overwritten character
+	 * @param text                  new text
+	 * @return                      {@code true} if text was overwritten, otherwise {@code false}
+	 * @throws BadLocationException if overwritten range is not inside of the document
+	 */
+	private boolean overwrite(int offset, String text) throws BadLocationException {
+		int length = text.length();
+		writeLock();
+		try {
+			if (offset < 0 || offset + length > getLength())
+				throw new BadLocationException("Invalid replace", offset);
+			Segment segment = new Segment();
+			segment.setPartialReturn(true);
+			int removedNonBlank = 0;
+			for (int done = 0; done < length; done += segment.count) {
+				getContent().getChars(offset + done, Math.min(SCAN_CHUNK_SIZE, length - done), segment);
+				for (int i = 0; i < segment.count; i++) {
+					char c = segment.array[segment.offset + i];
+					char replacement = text.charAt(done + i);
+					if ((c == '\n' || replacement == '\n') && c != replacement)
+						return false;
+					if (!isBlank(c)) {
+						removedNonBlank++;
+					}
+				}
+			}
+
+			PieceRun replaced = ((PieceTableContent) getContent()).overwrite(offset, text);
+			nonBlankCount += countNonBlank(offset, length) - removedNonBlank;
+			recordEdit(new TextEdit(offset, length, replaced, true));
+			fireReplace(offset, length);
+			return true;
+		} finally {
+			writeUnlock();
+		}
+	}
+
+	/**
+	 * Method checks if given character is blank. </br>
+	 * Blank characters are the ones matched by regular expression {@code \s}:
+	 * space, tab, new line, vertical tab, form feed and carriage return.
+	 *
+	 * @param c character that is checked
+	 * @return  {@code true} if character is blank, otherwise {@code false}
+	 */
+	public static boolean isBlank(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	@Override
+	public Element getDefaultRootElement() {
+		return lineMap;
+	}
+
+	@Override
+	public Element getParagraphElement(int pos) {
+		return lineMap.getElement(lineMap.getElementIndex(pos));
+	}
+
+	@Override
+	protected void insertUpdate(DefaultDocumentEvent chng, AttributeSet attr) {
+		IntList lineEnds = new IntList();
+		nonBlankCount += scan(chng.getOffset(), chng.getLength(), lineEnds);
+		ElementEdit edit = lineMap.insertUpdate(chng.getOffset(), chng.getLength(), lineEnds);
+		if (edit != null) {
+			chng.addEdit(edit);
+		}
+		super.insertUpdate(chng, attr);
+		if (!applyingHistory) {
+			recordEdit(new TextEdit(chng.getOffset(), chng.getLength(), null, false));
+		}
+	}
+
+	@Override
+	protected void removeUpdate(DefaultDocumentEvent chng) {
+		// Called before the text is removed, while it can still be read
+		nonBlankCount -= countNonBlank(chng.getOffset(), chng.getLength());
+		ElementEdit edit = lineMap.removeUpdate(chng.getOffset(), chng.getLength());
+		if (edit != null) {
+			chng.addEdit(edit);
+		}
+		super.removeUpdate(chng);
+	}
+
+	@Override
+	protected void postRemoveUpdate(DefaultDocumentEvent chng) {
+		super.postRemoveUpdate(chng);
+		PieceRun removed = ((PieceTableContent) getContent()).takeRemoved();
+		if (applyingHistory) {
+			historyRun = removed;
+		} else {
+			recordEdit(new TextEdit(chng.getOffset(), 0, removed, false));
+		}
+	}
+
+	/**
+	 * Method counts non-blank characters in given range of the content.
+	 *
+	 * @param offset start of the range
+	 * @param length length of the range
+	 * @return       number of non-blank characters in the range
+	 */
+	private int countNonBlank(int offset, int length) {
+		return scan(offset, length, null);
+	}
+
+	/**
+	 * Method counts non-blank characters in given range of the content
+	 * and adds offset after every new line character of the range to the given {@code lineEnds}. </br>
+	 * Text is scanned in chunks, so it is never copied as a whole.
+	 *
+	 * @param offset   start of the range
+	 * @param length   length of the range
+	 * @param lineEnds list of line ends, can be {@code null}
+	 * @return         number of non-blank characters in the range
+	 */
+	private int scan(int offset, int length, IntList lineEnds) {
+		Content content = getContent();
+		Segment segment = new Segment();
+		segment.setPartialReturn(true);
+		int count = 0;
+		try {
+			int end = offset + length;
+			while (offset < end) {
+				content.getChars(offset, Math.min(SCAN_CHUNK_SIZE, end - offset), segment);
+				for (int i = 0; i < segment.count; i++) {
+					char c = segment.array[segment.offset + i];
+					if (c == '\n') {
+						if (lineEnds != null) {
+							lineEnds.add(offset + i + 1);
+						}
+					} else if (!isBlank(c)) {
+						count++;
+					}
+				}
+				offset += segment.count;
+			}
+		} catch (BadLocationException ex) {
+			throw new IllegalStateException(ex);
+		}
+		return count;
+	}
+
+	/**
+	 * Interface represents change of the document that can fail with {@link BadLocationException}.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private interface Change {
+
+		/**
+		 * Method makes the change.
+		 *
+		 * @throws BadLocationException if change is not inside of the document
+		 */
+		void apply() throws BadLocationException;
+	}
+
+	/**
+	 * Class represents undoable edit of this document as a delta:
+	 * {@code length} characters at {@code offset} that edit put into the document
+	 * and {@code detached} run of pieces that it took out of it. </br>
+	 * Undo and redo are the same operation, they swap these two.
+	 * In-place edits have the same length on both sides and are swapped without moving any position.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private class TextEdit extends AbstractUndoableEdit {
+
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Offset of the edit
+		 */
+		private int offset;
+		/**
+		 * Number of characters at the offset that are currently in the document
+		 */
+		private int length;
+		/**
+		 * Pieces that are currently out of the document, {@code null} if there are none
+		 */
+		private transient PieceRun detached;
+		/**
+		 * Flag that shows whether edit is swapped in place
+		 */
+		private final boolean inPlace;
+		/**
+		 * Time of the last change merged into this edit
+		 */
+		private long time;
+
+		/**
+		 * Constructor that creates new {@link TextEdit} object.
+		 *
+		 * @param offset   offset of the edit
+		 * @param length   number of characters that edit put into the document
+		 * @param detached pieces that edit took out of the document, {@code null} if there are none
+		 * @param inPlace  flag that shows whether edit is swapped in place
+		 */
+		TextEdit(int offset, int length, PieceRun detached, boolean inPlace) {
+			this.offset = offset;
+			this.length = length;
+			this.detached = detached;
+			this.inPlace = inPlace;
+			this.time = System.currentTimeMillis();
+		}
+
+		@Override
+		public void undo() throws CannotUndoException {
+			super.undo();
+			try {
+				swap();
+			} catch (BadLocationException ex) {
+				throw new CannotUndoException();
+			}
+		}
+
+		@Override
+		public void redo() throws CannotRedoException {
+			super.redo();
+			try {
+				swap();
+			} catch (BadLocationException ex) {
+				throw new CannotRedoException();
+			}
+		}
+
+		/**
+		 * Method merges given {@code anEdit} into this edit if it is a typed character
+		 * that was typed right after this edit, at its end.
+		 */
+		@Override
+		public boolean addEdit(UndoableEdit anEdit) {
+			if (!(anEdit instanceof TextEdit) || !canUndo())
+				return false;
+			TextEdit next = (TextEdit) anEdit;
+			if (next.getDocument() != getDocument() || next.time - time > MERGE_INTERVAL || !next.isTyped())
+				return false;
+			if (!append(next))
+				return false;
+			time = next.time;
+			return true;
+		}
+
+		/**
+		 * Method merges given {@code next} edit, that was made right after this one, into this edit
+		 * if their changes are adjacent.
+		 * Merged edit is not undone on its own afterwards.
+		 *
+		 * @param next next edit
+		 * @return     {@code true} if edit was merged, otherwise {@code false}
+		 */
+		boolean append(TextEdit next) {
+			if (inPlace || next.inPlace)
+				return false;
+			if (next.detached == null) {
+				if (next.offset != offset + length)
+					return false;
+				length += next.length;
+				return true;
+			}
+			if (next.length != 0)
+				return false;
+
+			int removed = next.detached.length();
+			if (next.offset >= offset && next.offset + removed <= offset + length) {
+				// Removed text was put into the document by this edit
+				length -= removed;
+				return true;
+			}
+			if (length != 0)
+				return false;
+			if (detached == null) {
+				// Everything this edit put into the document was removed again
+				detached = next.detached;
+				offset = next.offset;
+				return true;
+			}
+			if (next.offset + removed == offset) {
+				detached = PieceRun.concat(next.detached, detached);
+				offset = next.offset;
+				return true;
+			}
+			if (next.offset == offset) {
+				detached = PieceRun.concat(detached, next.detached);
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Method checks whether this edit is a single typed character:
+		 * insertion of a character that is not a new line or removal of a single character.
+		 *
+		 * @return {@code true} if edit is a typed character, otherwise {@code false}
+		 */
+		private boolean isTyped() {
+			if (inPlace)
+				return false;
+			if (detached == null) {
+				try {
+					return length == 1 && !getText(offset, 1).equals("\n");
+				} catch (BadLocationException ex) {
+					return false;
+				}
+			}
+			return length == 0 && detached.length() == 1;
+		}
+
+		/**
+		 * Method swaps characters that edit put into the document with the pieces it took out of it.
+		 *
+		 * @throws BadLocationException if edit is not inside of the document
+		 */
+		private void swap() throws BadLocationException {
+			writeLock();
+			applyingHistory = true;
+			try {
+				if (inPlace) {
+					detached = exchangeRun(offset, detached);
+					return;
+				}
+				int restored = detached == null ? 0 : detached.length();
+				PieceRun removed = null;
+				if (length > 0) {
+					remove(offset, length);
+					removed = historyRun;
+					historyRun = null;
+				}
+				if (detached != null) {
+					insertRun(offset, detached);
+				}
+				detached = removed;
+				length = restored;
+			} finally {
+				applyingHistory = false;
+				writeUnlock();
+			}
+		}
+
+		/**
+		 * Method estimates number of bytes of memory taken by this edit.
+		 *
+		 * @return estimated size of the edit in bytes
+		 */
+		long estimateSize() {
+			return EDIT_SIZE + (detached == null ? 0 : PIECE_SIZE * detached.getPieceCount());
+		}
+
+		/**
+		 * Method returns document of this edit.
+		 *
+		 * @return document of the edit
+		 */
+		private PieceTableDocument getDocument() {
+			return PieceTableDocument.this;
+		}
+	}
+
+	/**
+	 * Class represents group of edits made by single call of an editing method
+	 * whose changes are not adjacent, so they are undone and redone together.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private static class EditGroup extends CompoundEdit {
+
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Method estimates number of bytes of memory taken by edits of this group.
+		 *
+		 * @return estimated size of the group in bytes
+		 */
+		long estimateSize() {
+			long size = EDIT_SIZE;
+			for (UndoableEdit edit : edits) {
+				size += PieceTableDocument.estimateSize(edit);
+			}
+			return size;
+		}
+	}
+
+	/**
+	 * Class represents root element of the document whose children are its lines. </br>
+	 * Offsets of lines are kept in {@link LineIndex} and line elements are created only when they are requested.
+	 * Created elements are referenced weakly and sorted by index of their line, the same way {@link MarkTracker}
+	 * keeps positions, so element of a line stays the same object while it is used, for example by a view,
+	 * and it keeps following its line when lines before it are added or removed.
+	 * </p>
+	 *
+	 * Lines that are replaced by an edit are reported with {@link ElementEdit} that views expect,
+	 * their elements are detached and keep offsets they had before the edit.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private class LineMap extends AbstractElement {
+
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Offsets of line ends
+		 */
+		private final transient LineIndex lines;
+		/**
+		 * References to created line elements sorted by index of their line
+		 */
+		private transient List<LineReference> references = new ArrayList<>();
+		/**
+		 * Queue of references whose elements were garbage collected
+		 */
+		private final transient ReferenceQueue<LineElement> queue = new ReferenceQueue<>();
+		/**
+		 * Number of references whose elements were garbage collected
+		 */
+		private int unusedReferences;
+
+		/**
+		 * Constructor that creates new {@link LineMap} object.
+		 *
+		 * @param lines {@link #lines}
+		 */
+		LineMap(LineIndex lines) {
+			super(null, null);
+			this.lines = lines;
+		}
+
+		/**
+		 * Method updates lines after {@code length} characters were inserted at {@code offset}.
+		 *
+		 * @param offset   insertion offset
+		 * @param length   number of inserted characters
+		 * @param lineEnds offsets after new line characters of the inserted text
+		 * @return         edit of the lines or {@code null} if no line was added
+		 */
+		synchronized ElementEdit insertUpdate(int offset, int length, IntList lineEnds) {
+			if (lineEnds.size() == 0) {
+				lines.insertUpdate(offset, length, lineEnds);
+				return null;
+			}
+			int index = lines.getLineIndex(offset);
+			Element[] removed = detach(index, 1);
+			lines.insertUpdate(offset, length, lineEnds);
+			Element[] added = attach(index, 1, lineEnds.size() + 1);
+			return new ElementEdit(this, index, removed, added);
+		}
+
+		/**
+		 * Method replaces element of the line at {@code offset} after {@code length} characters at it
+		 * were replaced in place, if replaced range spans more lines.
+		 *
+		 * @param offset offset of the replaced range
+		 * @param length length of the replaced range
+		 * @return       edit of the line or {@code null} if range is inside of a single line
+		 */
+		synchronized ElementEdit replaceUpdate(int offset, int length) {
+			int index = lines.getLineIndex(offset);
+			if (lines.getLineIndex(offset + length) == index)
+				return null;
+			Element[] removed = detach(index, 1);
+			Element[] added = attach(index, 1, 1);
+			return new ElementEdit(this, index, removed, added);
+		}
+
+		/**
+		 * Method updates lines before {@code length} characters at {@code offset} are removed.
+		 *
+		 * @param offset removal offset
+		 * @param length number of removed characters
+		 * @return       edit of the lines or {@code null} if no line was removed
+		 */
+		synchronized ElementEdit removeUpdate(int offset, int length) {
+			int index = lines.getLineIndex(offset);
+			int merged = lines.getLineIndex(offset + length) - index;
+			if (merged == 0) {
+				lines.removeUpdate(offset, length);
+				return null;
+			}
+			Element[] removed = detach(index, merged + 1);
+			lines.removeUpdate(offset, length);
+			Element[] added = attach(index, merged + 1, 1);
+			return new ElementEdit(this, index, removed, added);
+		}
+
+		/**
+		 * Method detaches elements of {@code count} lines starting at line with given {@code index}
+		 * before the lines are replaced. Lines that have no element get a new detached one.
+		 *
+		 * @param index index of the first replaced line
+		 * @param count number of replaced lines
+		 * @return      elements of the replaced lines
+		 */
+		private Element[] detach(int index, int count) {
+			purgeUnusedReferences();
+			Element[] detached = new Element[count];
+			int from = findFirstLineAtLeast(index);
+			int to = findFirstLineAtLeast(index + count);
+			for (int i = from; i < to; i++) {
+				LineReference reference = references.get(i);
+				LineElement element = reference.get();
+				if (element != null) {
+					element.detach();
+					detached[reference.line - index] = element;
+				}
+			}
+			references.subList(from, to).clear();
+			for (int i = 0; i < count; i++) {
+				if (detached[i] == null) {
+					detached[i] = new LineElement(this, lines.getLineStart(index + i), lines.getLineEnd(index + i));
+				}
+			}
+			return detached;
+		}
+
+		/**
+		 * Method creates elements of {@code count} lines starting at line with given {@code index}
+		 * after {@code replaced} lines were replaced by them, and moves elements of the following lines.
+		 *
+		 * @param index    index of the first new line
+		 * @param replaced number of replaced lines
+		 * @param count    number of new lines
+		 * @return         elements of the new lines
+		 */
+		private Element[] attach(int index, int replaced, int count) {
+			int from = findFirstLineAtLeast(index);
+			for (int i = from, n = references.size(); i < n; i++) {
+				references.get(i).line += count - replaced;
+			}
+			Element[] attached = new Element[count];
+			List<LineReference> attachedReferences = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				LineElement element = new LineElement(this, index + i);
+				attached[i] = element;
+				attachedReferences.add(element.reference);
+			}
+			references.addAll(from, attachedReferences);
+			return attached;
+		}
+
+		/**
+		 * Method returns index of the first reference whose line index is at least {@code index}.
+		 *
+		 * @param index searched line index
+		 * @return      index of the first such reference or number of references if there's none
+		 */
+		private int findFirstLineAtLeast(int index) {
+			int low = 0;
+			int high = references.size();
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (references.get(mid).line < index) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * Method removes references whose elements were garbage collected
+		 * once they make up half of all references.
+		 */
+		private void purgeUnusedReferences() {
+			while (queue.poll() != null) {
+				unusedReferences++;
+			}
+			if (unusedReferences == 0 || unusedReferences < references.size() / 2)
+				return;
+
+			List<LineReference> used = new ArrayList<>(Math.max(0, references.size() - unusedReferences));
+			for (LineReference reference : references) {
+				if (reference.get() != null) {
+					used.add(reference);
+				}
+			}
+			references = used;
+			unusedReferences = 0;
+		}
+
+		@Override
+		public String getName() {
+			return ParagraphElementName;
+		}
+
+		@Override
+		public int getStartOffset() {
+			return 0;
+		}
+
+		@Override
+		public int getEndOffset() {
+			return getContent().length();
+		}
+
+		@Override
+		public synchronized Element getElement(int index) {
+			if (index < 0 || index >= lines.getLineCount())
+				return null;
+			purgeUnusedReferences();
+			int position = findFirstLineAtLeast(index);
+			if (position < references.size() && references.get(position).line == index) {
+				LineElement element = references.get(position).get();
+				if (element != null)
+					return element;
+				element = new LineElement(this, index);
+				references.set(position, element.reference);
+				return element;
+			}
+			LineElement element = new LineElement(this, index);
+			references.add(position, element.reference);
+			return element;
+		}
+
+		@Override
+		public synchronized int getElementCount() {
+			return lines.getLineCount();
+		}
+
+		@Override
+		public synchronized int getElementIndex(int offset) {
+			return lines.getLineIndex(offset);
+		}
+
+		@Override
+		public boolean isLeaf() {
+			return false;
+		}
+
+		@Override
+		public boolean getAllowsChildren() {
+			return true;
+		}
+
+		@Override
+		public Enumeration<TreeNode> children() {
+			return new Enumeration<TreeNode>() {
+
+				/**
+				 * Index of the next line
+				 */
+				private int next;
+
+				@Override
+				public boolean hasMoreElements() {
+					return next < getElementCount();
+				}
+
+				@Override
+				public TreeNode nextElement() {
+					return (TreeNode) getElement(next++);
+				}
+			};
+		}
+	}
+
+	/**
+	 * Class represents element of a single line that is created by {@link LineMap} on demand. </br>
+	 * Offsets of the line are read from the {@link LineIndex} while the element is attached,
+	 * once the line is replaced, element keeps offsets it had before.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private class LineElement extends AbstractElement {
+
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Reference that holds index of the line, {@code null} once element is detached
+		 */
+		private transient LineReference reference;
+		/**
+		 * Start offset of the detached element
+		 */
+		private int start;
+		/**
+		 * End offset of the detached element
+		 */
+		private int end;
+
+		/**
+		 * Constructor that creates new {@link LineElement} object of the line with given {@code index}.
+		 *
+		 * @param parent line map of the document
+		 * @param index  index of the line
+		 */
+		LineElement(LineMap parent, int index) {
+			super(parent, null);
+			this.reference = new LineReference(this, index, parent.queue);
+		}
+
+		/**
+		 * Constructor that creates new detached {@link LineElement} object.
+		 *
+		 * @param parent line map of the document
+		 * @param start  {@link #start}
+		 * @param end    {@link #end}
+		 */
+		LineElement(LineMap parent, int start, int end) {
+			super(parent, null);
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * Method detaches this element from its line, keeping its current offsets.
+		 */
+		void detach() {
+			start = getStartOffset();
+			end = getEndOffset();
+			reference = null;
+		}
+
+		@Override
+		public String getName() {
+			return ContentElementName;
+		}
+
+		@Override
+		public int getStartOffset() {
+			LineReference current = reference;
+			return current == null ? start : lineMap.lines.getLineStart(current.line);
+		}
+
+		@Override
+		public int getEndOffset() {
+			LineReference current = reference;
+			return current == null ? end : lineMap.lines.getLineEnd(current.line);
+		}
+
+		@Override
+		public int getElementIndex(int offset) {
+			return -1;
+		}
+
+		@Override
+		public Element getElement(int index) {
+			return null;
+		}
+
+		@Override
+		public int getElementCount() {
+			return 0;
+		}
+
+		@Override
+		public boolean isLeaf() {
+			return true;
+		}
+
+		@Override
+		public boolean getAllowsChildren() {
+			return false;
+		}
+
+		@Override
+		public Enumeration<TreeNode> children() {
+			return null;
+		}
+	}
+
+	/**
+	 * Class represents weak reference to a {@link LineElement} that stores index of its line.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private static class LineReference extends WeakReference<LineElement> {
+
+		/**
+		 * Index of the line
+		 */
+		private int line;
+
+		/**
+		 * Constructor that creates new {@link LineReference} object.
+		 *
+		 * @param element element of the line
+		 * @param line    {@link #line}
+		 * @param queue   queue to which reference is enqueued once element is collected
+		 */
+		LineReference(LineElement element, int line, ReferenceQueue<LineElement> queue) {
+			super(element, queue);
+			this.line = line;
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.util.Objects;
+
+import javax.swing.text.BadLocationException;
+
+/**
+ * Class represents difference between two texts as a single replacement:
+ * range of the old text between their common prefix and common suffix
+ * is replaced with the corresponding range of the new text. </br>
+ * Applying the difference instead of replacing the whole text keeps positions, caret and line structure
+ * outside of the changed range, which is useful when a file is reloaded after a small external change.
+ * </p>
+ *
+ * Texts are compared in chunks through {@link CharSource#getChars(int, int, char[], int)},
+ * so comparing texts that are mapped from files does not copy them into memory.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class TextDifference {
+
+	/**
+	 * Number of characters that are compared at once
+	 */
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * Offset of the replaced range
+	 */
+	private final int offset;
+	/**
+	 * Length of the replaced range of the old text
+	 */
+	private final int removedLength;
+	/**
+	 * Text that replaces the range
+	 */
+	private final String insertedText;
+
+	/**
+	 * Constructor that creates new {@link TextDifference} object.
+	 *
+	 * @param offset        {@link #offset}
+	 * @param removedLength {@link #removedLength}
+	 * @param insertedText  {@link #insertedText}
+	 */
+	private TextDifference(int offset, int removedLength, String insertedText) {
+		this.offset = offset;
+		this.removedLength = removedLength;
+		this.insertedText = insertedText;
+	}
+
+	/**
+	 * Method computes difference that turns {@code oldText} into {@code newText}.
+	 *
+	 * @param oldText old text
+	 * @param newText new text
+	 * @return        difference of the texts
+	 */
+	public static TextDifference compute(CharSource oldText, CharSource newText) {
+		Objects.requireNonNull(oldText, "Old text must not be null");
+		Objects.requireNonNull(newText, "New text must not be null");
+		int oldLength = oldText.length();
+		int newLength = newText.length();
+		int maxLength = Math.min(oldLength, newLength);
+		char[] oldChunk = new char[CHUNK_SIZE];
+		char[] newChunk = new char[CHUNK_SIZE];
+
+		int prefix = 0;
+		while (prefix < maxLength) {
+			int count = Math.min(CHUNK_SIZE, maxLength - prefix);
+			oldText.getChars(prefix, prefix + count, oldChunk, 0);
+			newText.getChars(prefix, prefix + count, newChunk, 0);
+			int i = 0;
+			while (i < count && oldChunk[i] == newChunk[i]) {
+				i++;
+			}
+			prefix += i;
+			if (i < count)
+				break;
+		}
+
+		int suffix = 0;
+		int maxSuffix = maxLength - prefix;
+		while (suffix < maxSuffix) {
+			int count = Math.min(CHUNK_SIZE, maxSuffix - suffix);
+			oldText.getChars(oldLength - suffix - count, oldLength - suffix, oldChunk, 0);
+			newText.getChars(newLength - suffix - count, newLength - suffix, newChunk, 0);
+			int i = 0;
+			while (i < count && oldChunk[count - 1 - i] == newChunk[count - 1 - i]) {
+				i++;
+			}
+			suffix += i;
+			if (i < count)
+				break;
+		}
+
+		return new TextDifference(prefix, oldLength - prefix - suffix,
+				newText.subSequence(prefix, newLength - suffix).toString());
+	}
+
+	/**
+	 * Method checks whether texts are equal.
+	 *
+	 * @return {@code true} if there's nothing to replace, otherwise {@code false}
+	 */
+	public boolean isEmpty() {
+		return removedLength == 0 && insertedText.isEmpty();
+	}
+
+	/**
+	 * Method applies this difference to the given {@code document} that holds the old text,
+	 * as a single undoable edit.
+	 *
+	 * @param document              document that holds the old text
+	 * @throws BadLocationException if replaced range is not inside of the document
+	 */
+	public void apply(PieceTableDocument document) throws BadLocationException {
+		if (!isEmpty()) {
+			document.replaceText(offset, removedLength, insertedText);
+		}
+	}
+
+}
@@ -0,0 +1,127 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.util.Arrays;
+
+/**
+ * Class represents immutable snapshot of the text of a {@link PieceTableDocument}. </br>
+ * Snapshot only copies piece descriptors, not the text itself,
+ * because sources that pieces refer to are never changed.
+ * It can therefore be taken on the Event Dispatch Thread in time proportional to number of pieces
+ * and safely read from any other thread while document is being edited.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class TextSnapshot implements CharSource {
+
+	/**
+	 * Sources of the pieces
+	 */
+	private final CharSource[] sources;
+	/**
+	 * Start of every piece in its source
+	 */
+	private final int[] sourceStarts;
+	/**
+	 * Offset of every piece in the snapshot, followed by length of the snapshot.
+	 * Snapshot contains no empty pieces, so offsets are strictly increasing.
+	 */
+	private final int[] offsets;
+	/**
+	 * Modification count of the document when snapshot was taken
+	 */
+	private final long modificationCount;
+	/**
+	 * Fingerprint of the document when snapshot was taken
+	 */
+	private final long fingerprint;
+
+	/**
+	 * Constructor that creates new {@link TextSnapshot} object.
+	 *
+	 * @param sources           {@link #sources}
+	 * @param sourceStarts      {@link #sourceStarts}
+	 * @param offsets           {@link #offsets}
+	 * @param modificationCount {@link #modificationCount}
+	 * @param fingerprint       {@link #fingerprint}
+	 */
+	TextSnapshot(CharSource[] sources, int[] sourceStarts, int[] offsets, long modificationCount, long fingerprint) {
+		this.sources = sources;
+		this.sourceStarts = sourceStarts;
+		this.offsets = offsets;
+		this.modificationCount = modificationCount;
+		this.fingerprint = fingerprint;
+	}
+
+	/**
+	 * Method returns modification count of the document at the moment snapshot was taken.
+	 *
+	 * @return modification count of the document
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Method returns fingerprint of the document at the moment snapshot was taken.
+	 *
+	 * @return fingerprint of the document
+	 * @see PieceTableDocument#getFingerprint()
+	 */
+	public long getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * Method returns index of the piece that contains character at given {@code offset}.
+	 *
+	 * @param offset offset of the character
+	 * @return       index of the piece
+	 */
+	private int findPiece(int offset) {
+		int index = Arrays.binarySearch(offsets, 0, sources.length, offset);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	@Override
+	public int length() {
+		return offsets[sources.length];
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length())
+			throw new IndexOutOfBoundsException("Was: " + index);
+		int piece = findPiece(index);
+		return sources[piece].charAt(sourceStarts[piece] + index - offsets[piece]);
+	}
+
+	@Override
+	public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+		if (srcBegin < 0 || srcBegin > srcEnd || srcEnd > length())
+			throw new IndexOutOfBoundsException("Invalid range: " + srcBegin + ", " + srcEnd);
+		int offset = srcBegin;
+		int piece = srcBegin < srcEnd ? findPiece(srcBegin) : 0;
+		while (offset < srcEnd) {
+			int count = Math.min(srcEnd, offsets[piece + 1]) - offset;
+			int start = sourceStarts[piece] + offset - offsets[piece];
+			sources[piece].getChars(start, start + count, dst, dstBegin + offset - srcBegin);
+			offset += count;
+			piece++;
+		}
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		char[] chars = new char[end - start];
+		getChars(start, end, chars, 0);
+		return new String(chars);
+	}
+
+	@Override
+	public String toString() {
+		return subSequence(0, length()).toString();
+	}
+
+}
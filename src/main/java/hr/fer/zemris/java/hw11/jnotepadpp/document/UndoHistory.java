@@ -0,0 +1,99 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import javax.swing.undo.UndoManager;
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * Class represents undo history of a single {@link PieceTableDocument}. </br>
+ * History is not limited by number of edits, but by estimated memory that its edits take.
+ * Once history grows over its budget, oldest edits are evicted from it.
+ * Edits of the document only refer to pieces of text that is already in the memory,
+ * so the budget counts pieces, not characters, and even bulk edits of large documents take little of it.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class UndoHistory extends UndoManager {
+
+	/**
+	 * Serial number
+	 */
+	private static final long serialVersionUID = 1L;
+	/**
+	 * Default memory budget of the history in bytes
+	 */
+	public static final long DEFAULT_BUDGET = 16L << 20;
+
+	/**
+	 * Memory budget of the history in bytes
+	 */
+	private final long budget;
+
+	/**
+	 * Constructor that creates new {@link UndoHistory} object with {@link #DEFAULT_BUDGET}.
+	 */
+	public UndoHistory() {
+		this(DEFAULT_BUDGET);
+	}
+
+	/**
+	 * Constructor that creates new {@link UndoHistory} object.
+	 *
+	 * @param budget memory budget of the history in bytes
+	 * @throws IllegalArgumentException if budget is not positive
+	 */
+	public UndoHistory(long budget) {
+		if (budget <= 0)
+			throw new IllegalArgumentException("Budget must be positive. Was: " + budget);
+		this.budget = budget;
+		setLimit(-1);
+	}
+
+	@Override
+	public synchronized boolean addEdit(UndoableEdit anEdit) {
+		boolean added = super.addEdit(anEdit);
+		evict();
+		return added;
+	}
+
+	@Override
+	public synchronized void undo() {
+		super.undo();
+		evict();
+	}
+
+	@Override
+	public synchronized void redo() {
+		super.redo();
+		evict();
+	}
+
+	/**
+	 * Method estimates number of bytes of memory taken by edits of this history.
+	 *
+	 * @return estimated size of the history in bytes
+	 */
+	public synchronized long estimateSize() {
+		long size = 0;
+		for (UndoableEdit edit : edits) {
+			size += PieceTableDocument.estimateSize(edit);
+		}
+		return size;
+	}
+
+	/**
+	 * Method evicts edits while history is over its budget. </br>
+	 * Oldest edit is evicted first. If there are no edits that can be undone,
+	 * newest edit that can be redone is evicted instead. The last remaining edit is never evicted.
+	 */
+	private void evict() {
+		long size = estimateSize();
+		while (size > budget && edits.size() > 1) {
+			int index = canUndo() ? 0 : edits.size() - 1;
+			size -= PieceTableDocument.estimateSize(edits.get(index));
+			trimEdits(index, index);
+		}
+	}
+
+}
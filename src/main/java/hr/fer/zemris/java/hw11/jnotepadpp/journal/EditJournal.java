@@ -0,0 +1,785 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.journal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+
+import javax.swing.text.BadLocationException;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.DocumentReader;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+
+/**
+ * Class represents append-only journal of edits of a single document. </br>
+ * Journal starts with a header that describes base text of the document: either the file it was loaded from,
+ * identified by its size and time of last modification, or the text itself if it is not saved anywhere.
+ * Header is followed by inserts and removals made to the document since then,
+ * so text of the document can be recovered by {@link #replay(Path, long, IntConsumer)} if program crashes.
+ * Stored and inserted text is written as UTF-16 characters and its length is counted in characters,
+ * so every text of the document is recovered exactly, even unpaired surrogates that UTF-8 can not encode.
+ * </p>
+ *
+ * Edits are recorded in memory and written in groups by a single background thread
+ * at most once every commit interval. Every group is written as one frame protected by a checksum
+ * and it is forced to the disk before the next one is written, so a crash loses at most the last interval of edits
+ * and a frame that was written only partially is ignored on replay.
+ * </p>
+ *
+ * Once document is saved, journal is compacted by {@link #reset(Path, CharSource, boolean)}:
+ * it starts again from the saved file, so it never grows past edits made since the last save.
+ * New base is written into a temporary file that atomically replaces the journal file once it is forced to the disk,
+ * so a crash during compaction leaves either the old or the new journal, never a partially written one.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class EditJournal {
+
+	/**
+	 * Extension of journal files
+	 */
+	public static final String EXTENSION = ".journal";
+	/**
+	 * Default interval in milliseconds in which recorded edits are written and forced to the disk
+	 */
+	public static final int DEFAULT_COMMIT_INTERVAL = 500;
+	/**
+	 * Extension of the temporary file that replaces the journal file when its base changes
+	 */
+	private static final String TEMP_EXTENSION = ".tmp";
+	/**
+	 * Number that every journal file starts with
+	 */
+	private static final int MAGIC = 0x4A4E504A;
+	/**
+	 * Version of the journal file format
+	 */
+	private static final int VERSION = 2;
+	/**
+	 * Flag of the header that has path of the document
+	 */
+	private static final int HAS_PATH = 1;
+	/**
+	 * Flag of the header whose base text is stored in the journal
+	 */
+	private static final int HAS_TEXT = 2;
+	/**
+	 * Type of the record of inserted text
+	 */
+	private static final byte INSERT = 1;
+	/**
+	 * Type of the record of removed text
+	 */
+	private static final byte REMOVE = 2;
+	/**
+	 * Number of characters of the stored base text that are written at once
+	 */
+	private static final int TEXT_CHUNK_SIZE = 1 << 16;
+	/**
+	 * Executor that writes all journals, one task at a time
+	 */
+	private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "journal-writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * File of this journal
+	 */
+	private final Path file;
+	/**
+	 * Edits recorded since the last commit, guarded by this journal
+	 */
+	private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+	/**
+	 * Stream that encodes records into {@link #pending}
+	 */
+	private final DataOutputStream pendingOutput = new DataOutputStream(pending);
+	/**
+	 * Base that is written with the next commit, {@code null} if base is not changed
+	 */
+	private Base pendingBase;
+	/**
+	 * Flag that shows whether journal is closed
+	 */
+	private boolean closed;
+	/**
+	 * Channel of the journal file, used only by the writer thread, {@code null} until first commit
+	 */
+	private FileChannel channel;
+	/**
+	 * Flag that shows whether journal file was created
+	 */
+	private volatile boolean started;
+	/**
+	 * Periodic task that commits recorded edits
+	 */
+	private final ScheduledFuture<?> commitTask;
+
+	/**
+	 * Constructor that creates new {@link EditJournal} object. </br>
+	 * Journal file is not created until there is something to write.
+	 * Base of the journal must be set by {@link #reset(Path, CharSource, boolean)} before any edit is recorded.
+	 *
+	 * @param file           {@link #file}
+	 * @param commitInterval interval in milliseconds in which recorded edits are written
+	 * @throws IllegalArgumentException if commit interval is not positive
+	 */
+	public EditJournal(Path file, int commitInterval) {
+		this.file = Objects.requireNonNull(file, "File must not be null").toAbsolutePath();
+		if (commitInterval <= 0)
+			throw new IllegalArgumentException("Commit interval must be positive. Was: " + commitInterval);
+		commitTask = WRITER.scheduleWithFixedDelay(this::commit, commitInterval, commitInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Method returns file of this journal.
+	 *
+	 * @return journal file
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Method starts journal again from the given base, discarding all edits recorded before. </br>
+	 * If {@code saved} is {@code true}, {@code text} is the content of the file at {@code path}
+	 * and journal refers to that file instead of storing the text.
+	 * Otherwise the text is written into the journal as soon as possible.
+	 *
+	 * @param path  path of the document, can be {@code null}
+	 * @param text  current text of the document
+	 * @param saved flag that shows whether text is saved in the file at {@code path}
+	 */
+	public void reset(Path path, CharSource text, boolean saved) {
+		Objects.requireNonNull(text, "Text must not be null");
+		Base base = null;
+		if (saved && path != null) {
+			try {
+				base = new Base(path, null, Files.size(path), Files.getLastModifiedTime(path).toMillis());
+			} catch (IOException ex) {
+				// File can not be identified, so it can not be used as base
+			}
+		}
+		if (base == null) {
+			base = new Base(path, text, 0, 0);
+		}
+		synchronized (this) {
+			if (closed)
+				return;
+			pendingBase = base;
+			pending.reset();
+		}
+		if (started || base.isStored()) {
+			WRITER.execute(this::commit);
+		}
+	}
+
+	/**
+	 * Method records that {@code text} was inserted at given {@code offset}.
+	 *
+	 * @param offset offset of the inserted text
+	 * @param text   inserted text
+	 */
+	public synchronized void recordInsert(int offset, CharSequence text) {
+		if (closed)
+			return;
+		try {
+			pendingOutput.writeByte(INSERT);
+			pendingOutput.writeInt(offset);
+			pendingOutput.writeInt(text.length());
+			pendingOutput.writeChars(text.toString());
+		} catch (IOException ex) {
+			// Writing to the memory does not fail
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Method records that {@code length} characters were removed at given {@code offset}.
+	 *
+	 * @param offset offset of the removed text
+	 * @param length number of removed characters
+	 */
+	public synchronized void recordRemove(int offset, int length) {
+		if (closed)
+			return;
+		try {
+			pendingOutput.writeByte(REMOVE);
+			pendingOutput.writeInt(offset);
+			pendingOutput.writeInt(length);
+		} catch (IOException ex) {
+			// Writing to the memory does not fail
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Method closes this journal. No edits are recorded afterwards.
+	 * If {@code delete} is {@code false}, edits recorded so far are written first,
+	 * otherwise journal file is deleted.
+	 *
+	 * @param delete flag that shows whether journal file is deleted
+	 * @return       future that is completed once journal is closed
+	 */
+	public Future<?> close(boolean delete) {
+		synchronized (this) {
+			closed = true;
+		}
+		commitTask.cancel(false);
+		return WRITER.submit(() -> {
+			if (!delete) {
+				commit();
+			}
+			closeChannel();
+			if (delete) {
+				deleteFile(file);
+			}
+		});
+	}
+
+	/**
+	 * Method writes base and edits recorded since the last commit and forces them to the disk.
+	 * It is run only by the writer thread.
+	 */
+	private void commit() {
+		Base base;
+		byte[] records;
+		synchronized (this) {
+			if (pending.size() == 0 && (pendingBase == null || !started && !pendingBase.isStored()))
+				return;
+			base = pendingBase;
+			records = pending.toByteArray();
+			pendingBase = null;
+			pending.reset();
+		}
+
+		if (channel == null && base == null)
+			return;
+		try {
+			if (base != null) {
+				replaceFile(base, records);
+				return;
+			}
+			if (records.length > 0) {
+				writeFrame(channel, records);
+			}
+			channel.force(false);
+		} catch (IOException ex) {
+			System.err.println("Journal can not be written: " + file);
+			commitTask.cancel(false);
+			synchronized (this) {
+				closed = true;
+			}
+			closeChannel();
+		}
+	}
+
+	/**
+	 * Method writes given {@code base} and {@code records} into a temporary file, forces it to the disk
+	 * and atomically replaces the journal file with it. </br>
+	 * Journal file is not changed if writing fails. Channel of the temporary file becomes channel of the journal.
+	 *
+	 * @param base         new base of the journal
+	 * @param records      encoded records made after the base
+	 * @throws IOException if writing or replacing failed
+	 */
+	private void replaceFile(Base base, byte[] records) throws IOException {
+		Files.createDirectories(file.getParent());
+		Path temp = file.resolveSibling(file.getFileName() + TEMP_EXTENSION);
+		FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		try {
+			writeHeader(tempChannel, base);
+			if (records.length > 0) {
+				writeFrame(tempChannel, records);
+			}
+			tempChannel.force(true);
+			move(temp, file);
+		} catch (IOException | RuntimeException ex) {
+			try {
+				tempChannel.close();
+				Files.deleteIfExists(temp);
+			} catch (IOException ignorable) {
+				// Journal file is not changed anyway
+			}
+			throw ex;
+		}
+		closeChannel();
+		channel = tempChannel;
+		started = true;
+	}
+
+	/**
+	 * Method moves {@code source} file over the {@code target} file, atomically if file system supports it.
+	 *
+	 * @param source       moved file
+	 * @param target       replaced file
+	 * @throws IOException if file can not be moved
+	 */
+	private static void move(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException ex) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Method writes header that describes given {@code base} at the current position of the {@code channel}.
+	 *
+	 * @param channel      channel of the journal file
+	 * @param base         base of the journal
+	 * @throws IOException if writing failed
+	 */
+	private static void writeHeader(FileChannel channel, Base base) throws IOException {
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(header);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeByte((base.path != null ? HAS_PATH : 0) | (base.text != null ? HAS_TEXT : 0));
+		if (base.path != null) {
+			byte[] path = base.path.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8);
+			if (path.length > 0xFFFF)
+				throw new IOException("Path is too long: " + base.path);
+			out.writeShort(path.length);
+			out.write(path);
+		}
+		if (base.text == null) {
+			out.writeLong(base.size);
+			out.writeLong(base.lastModified);
+			writeFully(channel, ByteBuffer.wrap(header.toByteArray()));
+			return;
+		}
+
+		out.writeLong(base.text.length());
+		writeFully(channel, ByteBuffer.wrap(header.toByteArray()));
+		writeText(channel, base.text);
+	}
+
+	/**
+	 * Method writes given {@code text} as UTF-16 characters in chunks, so it is never copied as a whole.
+	 *
+	 * @param channel      channel of the journal file
+	 * @param text         written text
+	 * @throws IOException if writing failed
+	 */
+	private static void writeText(FileChannel channel, CharSource text) throws IOException {
+		char[] chars = new char[TEXT_CHUNK_SIZE];
+		ByteBuffer buffer = ByteBuffer.allocate(2 * TEXT_CHUNK_SIZE);
+		for (int offset = 0, length = text.length(); offset < length; offset += TEXT_CHUNK_SIZE) {
+			int count = Math.min(TEXT_CHUNK_SIZE, length - offset);
+			text.getChars(offset, offset + count, chars, 0);
+			buffer.clear();
+			buffer.asCharBuffer().put(chars, 0, count);
+			buffer.limit(2 * count);
+			writeFully(channel, buffer);
+		}
+	}
+
+	/**
+	 * Method writes given {@code records} as one frame: its length, its checksum and the records.
+	 *
+	 * @param channel      channel of the journal file
+	 * @param records      encoded records
+	 * @throws IOException if writing failed
+	 */
+	private static void writeFrame(FileChannel channel, byte[] records) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(records);
+		ByteBuffer frame = ByteBuffer.allocate(2 * Integer.BYTES + records.length);
+		frame.putInt(records.length).putInt((int) crc.getValue()).put(records);
+		frame.flip();
+		writeFully(channel, frame);
+	}
+
+	/**
+	 * Method writes all remaining bytes of the {@code buffer} to the {@code channel}.
+	 *
+	 * @param channel      channel of the journal file
+	 * @param buffer       buffer whose bytes are written
+	 * @throws IOException if writing failed
+	 */
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Method closes channel of the journal file if it is opened.
+	 */
+	private void closeChannel() {
+		if (channel == null)
+			return;
+		try {
+			channel.close();
+		} catch (IOException ex) {
+			// Nothing more can be written anyway
+		}
+		channel = null;
+	}
+
+	/**
+	 * Method deletes given journal {@code file} in the writer thread,
+	 * after everything that is already scheduled to be written.
+	 *
+	 * @param file journal file that is deleted
+	 * @return     future that is completed once file is deleted
+	 */
+	public static Future<?> discard(Path file) {
+		Objects.requireNonNull(file, "File must not be null");
+		return WRITER.submit(() -> deleteFile(file));
+	}
+
+	/**
+	 * Method deletes given {@code file}, reporting failure to the standard error.
+	 *
+	 * @param file file that is deleted
+	 */
+	private static void deleteFile(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException ex) {
+			System.err.println("Journal can not be deleted: " + file);
+		}
+	}
+
+	/**
+	 * Method returns all journal files in given {@code directory}.
+	 *
+	 * @param directory    directory of journals
+	 * @return             journal files or empty list if directory does not exist
+	 * @throws IOException if directory can not be read
+	 */
+	public static List<Path> findJournals(Path directory) throws IOException {
+		List<Path> journals = new ArrayList<>();
+		if (!Files.isDirectory(directory))
+			return journals;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+			for (Path file : stream) {
+				if (Files.isRegularFile(file)) {
+					journals.add(file);
+				}
+			}
+		}
+		return journals;
+	}
+
+	/**
+	 * Method reads header of given journal {@code file}.
+	 *
+	 * @param file         journal file
+	 * @return             header of the journal
+	 * @throws IOException if file can not be read or it is not a valid journal
+	 */
+	public static Header readHeader(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			return readHeader(in, file, Files.size(file));
+		}
+	}
+
+	/**
+	 * Method reads header of the journal {@code file} from given stream.
+	 *
+	 * @param in           stream positioned at the start of the journal
+	 * @param file         journal file
+	 * @param fileSize     size of the journal file in bytes
+	 * @return             header of the journal
+	 * @throws IOException if header is not valid
+	 */
+	private static Header readHeader(DataInputStream in, Path file, long fileSize) throws IOException {
+		try {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				throw new IOException("Invalid journal file: " + file);
+			int flags = in.readByte();
+			long length = 2 * Integer.BYTES + 1 + 2 * Long.BYTES;
+			Path path = null;
+			if ((flags & HAS_PATH) != 0) {
+				byte[] bytes = new byte[in.readUnsignedShort()];
+				in.readFully(bytes);
+				path = Paths.get(new String(bytes, StandardCharsets.UTF_8));
+				length += Short.BYTES + bytes.length;
+			}
+			if ((flags & HAS_TEXT) != 0) {
+				long textLength = in.readLong();
+				if (textLength < 0 || length - Long.BYTES + 2 * textLength > fileSize)
+					throw new IOException("Journal file is truncated: " + file);
+				return new Header(path, true, textLength, 0, length - Long.BYTES + 2 * textLength, fileSize);
+			}
+			long size = in.readLong();
+			long lastModified = in.readLong();
+			return new Header(path, false, size, lastModified, length, fileSize);
+		} catch (EOFException ex) {
+			throw new IOException("Journal file is truncated: " + file, ex);
+		} catch (IllegalArgumentException ex) {
+			// Invalid path
+			throw new IOException("Invalid journal file: " + file, ex);
+		}
+	}
+
+	/**
+	 * Method recovers text of the document from given journal {@code file}. </br>
+	 * Base text is read first, either from the journal or from the file of the document,
+	 * and then all complete frames of edits are applied to it in order.
+	 * Frame that was written only partially ends the journal.
+	 *
+	 * @param file             journal file
+	 * @param mappingThreshold size of file in bytes from which file of the document is mapped instead of read
+	 * @param progressListener listener of reading progress, can be {@code null}
+	 * @return                 recovered document
+	 * @throws IOException     if journal is not valid or file of the document was changed since journal was started
+	 */
+	public static PieceTableDocument replay(Path file, long mappingThreshold, IntConsumer progressListener)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+			Header header = readHeader(in, file, channel.size());
+			PieceTableDocument document;
+			if (header.hasText) {
+				if (header.size > Integer.MAX_VALUE - 8)
+					throw new IOException("Journal text is too large to be recovered: " + file);
+				document = new PieceTableDocument(readText(in, (int) header.size));
+			} else {
+				Path path = header.getPath();
+				if (path == null || !Files.isRegularFile(path) || Files.size(path) != header.size
+						|| Files.getLastModifiedTime(path).toMillis() != header.lastModified)
+					throw new IOException("File was changed after journal was started: " + path);
+				document = DocumentReader.read(path, mappingThreshold, progressListener);
+			}
+
+			long remaining = header.fileSize - header.length;
+			byte[] records;
+			while ((records = readFrame(in, remaining)) != null) {
+				applyFrame(ByteBuffer.wrap(records), document, file);
+				remaining -= 2 * Integer.BYTES + records.length;
+			}
+			return document;
+		}
+	}
+
+	/**
+	 * Method reads {@code length} UTF-16 characters of the stored base text in chunks.
+	 *
+	 * @param in           stream positioned at the start of the text
+	 * @param length       number of characters of the text
+	 * @return             read text
+	 * @throws IOException if reading failed
+	 */
+	private static String readText(DataInputStream in, int length) throws IOException {
+		char[] text = new char[length];
+		byte[] bytes = new byte[2 * TEXT_CHUNK_SIZE];
+		for (int offset = 0; offset < length; offset += TEXT_CHUNK_SIZE) {
+			int count = Math.min(TEXT_CHUNK_SIZE, length - offset);
+			in.readFully(bytes, 0, 2 * count);
+			ByteBuffer.wrap(bytes, 0, 2 * count).asCharBuffer().get(text, offset, count);
+		}
+		return new String(text);
+	}
+
+	/**
+	 * Method reads the next frame of edits.
+	 *
+	 * @param in           stream positioned at the start of the frame
+	 * @param remaining    number of bytes of the journal file that are not read yet
+	 * @return             records of the frame or {@code null} if there are no more complete frames
+	 * @throws IOException if reading failed
+	 */
+	private static byte[] readFrame(DataInputStream in, long remaining) throws IOException {
+		try {
+			int length = in.readInt();
+			int checksum = in.readInt();
+			if (length < 0 || length > remaining - 2 * Integer.BYTES)
+				return null;
+			byte[] records = new byte[length];
+			in.readFully(records);
+			CRC32 crc = new CRC32();
+			crc.update(records);
+			return (int) crc.getValue() == checksum ? records : null;
+		} catch (EOFException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Method applies records of a single frame to the {@code document}.
+	 *
+	 * @param records      records of the frame
+	 * @param document     document to which edits are applied
+	 * @param file         journal file
+	 * @throws IOException if records are not valid
+	 */
+	private static void applyFrame(ByteBuffer records, PieceTableDocument document, Path file) throws IOException {
+		try {
+			while (records.hasRemaining()) {
+				byte type = records.get();
+				int offset = records.getInt();
+				if (type == INSERT) {
+					char[] text = new char[records.getInt()];
+					for (int i = 0; i < text.length; i++) {
+						text[i] = records.getChar();
+					}
+					document.insertString(offset, new String(text), null);
+				} else if (type == REMOVE) {
+					document.remove(offset, records.getInt());
+				} else {
+					throw new IOException("Invalid journal file: " + file);
+				}
+			}
+		} catch (BufferUnderflowException | NegativeArraySizeException | BadLocationException ex) {
+			throw new IOException("Invalid journal file: " + file, ex);
+		}
+	}
+
+	/**
+	 * Class represents base of the journal that is written with its header.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private static class Base {
+
+		/**
+		 * Path of the document, can be {@code null}
+		 */
+		private final Path path;
+		/**
+		 * Text that is stored in the journal, {@code null} if journal refers to the file of the document
+		 */
+		private final CharSource text;
+		/**
+		 * Size of the file in bytes
+		 */
+		private final long size;
+		/**
+		 * Time of the last modification of the file in milliseconds
+		 */
+		private final long lastModified;
+
+		/**
+		 * Constructor that creates new {@link Base} object.
+		 *
+		 * @param path         {@link #path}
+		 * @param text         {@link #text}
+		 * @param size         {@link #size}
+		 * @param lastModified {@link #lastModified}
+		 */
+		Base(Path path, CharSource text, long size, long lastModified) {
+			this.path = path;
+			this.text = text;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * Method checks whether base holds text that has to be written even if no edit is recorded.
+		 *
+		 * @return {@code true} if base holds non-empty text, otherwise {@code false}
+		 */
+		boolean isStored() {
+			return text != null && text.length() > 0;
+		}
+	}
+
+	/**
+	 * Class represents header of a journal file that was read from the disk.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	public static class Header {
+
+		/**
+		 * Path of the document, {@code null} if document was never saved
+		 */
+		private final Path path;
+		/**
+		 * Flag that shows whether base text is stored in the journal
+		 */
+		private final boolean hasText;
+		/**
+		 * Length of the stored base text in characters or size of the base file in bytes
+		 */
+		private final long size;
+		/**
+		 * Time of the last modification of the base file in milliseconds
+		 */
+		private final long lastModified;
+		/**
+		 * Size of the header, including stored text, in bytes
+		 */
+		private final long length;
+		/**
+		 * Size of the journal file in bytes
+		 */
+		private final long fileSize;
+
+		/**
+		 * Constructor that creates new {@link Header} object.
+		 *
+		 * @param path         {@link #path}
+		 * @param hasText      {@link #hasText}
+		 * @param size         {@link #size}
+		 * @param lastModified {@link #lastModified}
+		 * @param length       {@link #length}
+		 * @param fileSize     {@link #fileSize}
+		 */
+		Header(Path path, boolean hasText, long size, long lastModified, long length, long fileSize) {
+			this.path = path;
+			this.hasText = hasText;
+			this.size = size;
+			this.lastModified = lastModified;
+			this.length = length;
+			this.fileSize = fileSize;
+		}
+
+		/**
+		 * Method returns path of the document.
+		 *
+		 * @return path of the document or {@code null} if document was never saved
+		 */
+		public Path getPath() {
+			return path;
+		}
+
+		/**
+		 * Method checks whether journal holds anything that is not saved in the file of the document.
+		 *
+		 * @return {@code true} if journal holds unsaved text or edits, otherwise {@code false}
+		 */
+		public boolean hasUnsavedText() {
+			return hasText || fileSize > length;
+		}
+	}
+
+}
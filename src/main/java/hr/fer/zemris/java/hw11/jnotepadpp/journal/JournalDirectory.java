@@ -0,0 +1,178 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.journal;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Class represents directory of {@link EditJournal}s that is shared by all running instances of the program. </br>
+ * Every instance keeps its journals in its own subdirectory and locks it for as long as it runs
+ * by holding {@link FileLock} on the lock file in it. Lock is released by the operating system
+ * once the instance ends, even if it crashes, so subdirectory that can be locked
+ * belongs to an instance that is no longer running.
+ * </p>
+ *
+ * Journals of such subdirectories are adopted: they are moved into the subdirectory of this instance
+ * while their subdirectory is locked, so every journal is recovered by exactly one instance
+ * and journals of running instances are never touched.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class JournalDirectory {
+
+	/**
+	 * Name of the lock file of a subdirectory
+	 */
+	private static final String LOCK_FILE = "instance.lock";
+
+	/**
+	 * Subdirectory of this instance
+	 */
+	private final Path directory;
+	/**
+	 * Channel of the lock file that holds the {@link #lock}
+	 */
+	private final FileChannel lockChannel;
+	/**
+	 * Lock of the subdirectory of this instance
+	 */
+	private final FileLock lock;
+
+	/**
+	 * Private constructor that creates new {@link JournalDirectory} object.
+	 *
+	 * @param directory   {@link #directory}
+	 * @param lockChannel {@link #lockChannel}
+	 * @param lock        {@link #lock}
+	 */
+	private JournalDirectory(Path directory, FileChannel lockChannel, FileLock lock) {
+		this.directory = directory;
+		this.lockChannel = lockChannel;
+		this.lock = lock;
+	}
+
+	/**
+	 * Method creates and locks new subdirectory of this instance in the given {@code root} directory of journals.
+	 *
+	 * @param root         directory of journals
+	 * @return             journal directory of this instance
+	 * @throws IOException if subdirectory can not be created or locked
+	 */
+	public static JournalDirectory open(Path root) throws IOException {
+		Objects.requireNonNull(root, "Directory must not be null");
+		Path directory = root.toAbsolutePath().resolve(UUID.randomUUID().toString());
+		Files.createDirectories(directory);
+		FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE);
+		try {
+			FileLock lock = channel.tryLock();
+			if (lock == null)
+				throw new IOException("Journal directory can not be locked: " + directory);
+			return new JournalDirectory(directory, channel, lock);
+		} catch (IOException | RuntimeException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Method returns path of a new journal file in the subdirectory of this instance.
+	 *
+	 * @return path of a new journal file
+	 */
+	public Path newJournalFile() {
+		return directory.resolve(UUID.randomUUID() + EditJournal.EXTENSION);
+	}
+
+	/**
+	 * Method adopts journals of instances that are no longer running
+	 * and returns all journal files in the subdirectory of this instance.
+	 * Subdirectories of running instances are skipped.
+	 *
+	 * @return             journal files of this instance
+	 * @throws IOException if directory of journals can not be read
+	 */
+	public List<Path> findJournals() throws IOException {
+		if (!lock.isValid())
+			throw new IOException("Journal directory is not locked: " + directory);
+		List<Path> others = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.getParent())) {
+			for (Path other : stream) {
+				if (Files.isDirectory(other) && !other.equals(directory)) {
+					others.add(other);
+				}
+			}
+		}
+		for (Path other : others) {
+			adopt(other);
+		}
+		return EditJournal.findJournals(directory);
+	}
+
+	/**
+	 * Method moves journals of given subdirectory of another instance into the subdirectory of this instance
+	 * and deletes that subdirectory, unless the other instance is still running.
+	 *
+	 * @param other subdirectory of another instance
+	 */
+	private void adopt(Path other) {
+		Path lockFile = other.resolve(LOCK_FILE);
+		try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			FileLock otherLock;
+			try {
+				otherLock = channel.tryLock();
+			} catch (OverlappingFileLockException ex) {
+				// Locked by this program
+				return;
+			}
+			if (otherLock == null)
+				return;
+			for (Path journal : EditJournal.findJournals(other)) {
+				Files.move(journal, directory.resolve(journal.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+			}
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(other)) {
+				for (Path file : stream) {
+					if (!file.equals(lockFile)) {
+						Files.deleteIfExists(file);
+					}
+				}
+			}
+		} catch (IOException ex) {
+			System.err.println("Journals can not be adopted: " + other);
+			return;
+		}
+
+		// Lock file can be deleted only once it is closed
+		try {
+			Files.deleteIfExists(lockFile);
+			Files.deleteIfExists(other);
+		} catch (IOException ex) {
+			// Another instance is adopting the same subdirectory, it deletes it instead
+		}
+	}
+
+	/**
+	 * Method releases the lock of the subdirectory of this instance, so its journals can be adopted.
+	 * Journals can not be found afterwards.
+	 */
+	public void close() {
+		try {
+			lockChannel.close();
+		} catch (IOException ex) {
+			// Lock is released by the operating system anyway
+		}
+	}
+
+}
@@ -1,12 +1,16 @@
 package hr.fer.zemris.java.hw11.jnotepadpp.local;
 
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Class represents abstract localization provider that implements {@link ILocalizationProvider}.
  * It defines methods for adding and removing {@link ILocalizationListener} objects 
  * and fire method for notifying listeners about localization change.
+ * </p>
+ * 
+ * Listeners are kept in a copy-on-write list, so they can be added and removed from any thread,
+ * even by a listener while listeners are being notified.
  * 
  * @author Ante Gazibaric
  * @version 1.0
@@ -17,7 +21,7 @@ public abstract class AbstractLocalizationProvider implements ILocalizationProvi
 	/**
 	 * List of listeners waiting on localization change
 	 */
-	private List<ILocalizationListener> listeners = new LinkedList<>();
+	private List<ILocalizationListener> listeners = new CopyOnWriteArrayList<>();
 	
 	/**
 	 * Method adds given listener to the localization change list of listeners.
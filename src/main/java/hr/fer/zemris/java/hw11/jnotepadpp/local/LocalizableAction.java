@@ -23,6 +23,10 @@ public abstract class LocalizableAction extends AbstractAction {
 	 * Key to which String value is associated.
 	 */
 	private String key;
+	/**
+	 * Key to which short description is associated.
+	 */
+	private String descriptionKey;
 	/**
 	 * Localization provider.
 	 */
@@ -36,6 +40,7 @@ public abstract class LocalizableAction extends AbstractAction {
 	 */
 	public LocalizableAction(String key, ILocalizationProvider lp) {
 		this.key = Objects.requireNonNull(key, "Key must not be null");
+		this.descriptionKey = LocalizationKeys.getDescritpionKey(key);
 		this.lp = Objects.requireNonNull(lp, "Localization provider must not be null");
 		updateActions();
 		addListeners();
@@ -46,7 +51,7 @@ public abstract class LocalizableAction extends AbstractAction {
 	 */
 	private void updateActions() {
 		putValue(NAME, lp.getString(key));
-		putValue(SHORT_DESCRIPTION, lp.getString(LocalizationKeys.getDescritpionKey(key)));
+		putValue(SHORT_DESCRIPTION, lp.getString(descriptionKey));
 	}
 	
 	/**
@@ -1,13 +1,24 @@
 package hr.fer.zemris.java.hw11.jnotepadpp.local;
 
-import java.util.Locale;
-import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.SwingUtilities;
 
 /**
  * Class represents singleton localization provider that offers localized names
  * that are associated to the specified key.
  * It offers static method for receiving {@link LocalizationProvider} object.
- * 
+ * </p>
+ *
+ * Strings of all supported languages are read into {@link LocalizationTable} in the background once provider is created,
+ * so changing language only replaces the array of strings that is used.
+ * Listeners are then notified in a single task on the Event Dispatch Thread,
+ * and language changes made before that task runs are merged into one notification.
+ * </p>
+ *
+ * Instance is created by the class loader when it is first requested,
+ * so it can be safely requested from any thread without locking.
+ *
  * @author Ante Gazibaric
  * @version 1.0
  *
@@ -17,64 +28,92 @@ public class LocalizationProvider extends AbstractLocalizationProvider {
 	/**
 	 * Current language.
 	 */
-	private String language;
+	private volatile String language;
+	/**
+	 * Strings of the current language indexed by indexes of their keys
+	 */
+	private volatile String[] values;
+	/**
+	 * Table of strings of all languages
+	 */
+	private final LocalizationTable table;
 	/**
-	 * Resource bundle object that provides support for 
-	 * getting localized names from given key.
+	 * Flag that shows whether notification of listeners is already scheduled
 	 */
-	private ResourceBundle bundle;
+	private final AtomicBoolean updateScheduled = new AtomicBoolean();
 	/**
 	 * Default language.
 	 */
 	private static final String DEFAULT_LANGUAGE = "en";
 	/**
-	 * Localization provider.
+	 * Languages whose strings are read in the background
 	 */
-	private static LocalizationProvider provider;
+	private static final String[] SUPPORTED_LANGUAGES = { "en", "hr", "de" };
 	/**
 	 * Base name of the file that has key=value localized content.
 	 */
 	private static final String baseName = "hr.fer.zemris.java.hw11.jnotepadpp.local.translations";
-	
+
 	/**
 	 * Private constructor that creates new {@code LocalizationProvider} object.
 	 */
 	private LocalizationProvider() {
 		language = DEFAULT_LANGUAGE;
-		bundle = ResourceBundle.getBundle(baseName, Locale.forLanguageTag(language));
+		table = new LocalizationTable(baseName, DEFAULT_LANGUAGE);
+		values = table.getValues(language);
+		table.preload(SUPPORTED_LANGUAGES);
 	}
-	
+
 	/**
 	 * Method that returns instance of {@link LocalizationProvider}.
-	 * 
+	 *
 	 * @return instance of {@link LocalizationProvider}
 	 */
 	public static LocalizationProvider getInstance() {
-		if (provider == null) {
-			provider = new LocalizationProvider();
-		}
-		return provider;
+		return Holder.INSTANCE;
 	}
 
 	@Override
 	public String getString(String key) {
-		return bundle.getString(key);
+		return values[table.indexOf(key)];
 	}
 
 	@Override
 	public String getCurrentLanguage() {
 		return language;
 	}
-	
+
 	/**
-	 * Method sets current language of provider to the given {@code language}.
-	 * 
+	 * Method sets current language of provider to the given {@code language}. </br>
+	 * Strings of the new language are returned immediately, listeners are notified later on the Event Dispatch Thread.
+	 *
 	 * @param language new language
 	 */
 	public void setLanguage(String language) {
+		values = table.getValues(language);
 		this.language = language;
-		bundle = ResourceBundle.getBundle(baseName, Locale.forLanguageTag(language));
-		this.fire();
+		if (updateScheduled.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(() -> {
+				updateScheduled.set(false);
+				fire();
+			});
+		}
 	}
-	
+
+	/**
+	 * Class holds the only instance of the {@link LocalizationProvider}.
+	 * It is initialized only when {@link LocalizationProvider#getInstance()} is called for the first time.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private static class Holder {
+
+		/**
+		 * Instance of the {@link LocalizationProvider}
+		 */
+		private static final LocalizationProvider INSTANCE = new LocalizationProvider();
+	}
+
 }
@@ -1,7 +1,11 @@
 package hr.fer.zemris.java.hw11.jnotepadpp.local;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Class represents bridge between localization provider and listeners.
+ * Once disconnected, bridge no longer listens to the provider, so provider does not keep
+ * its listeners alive.
  * 
  * @author Ante Gazibaric
  * @version 1.0
@@ -20,7 +24,7 @@ public class LocalizationProviderBridge extends AbstractLocalizationProvider {
 	/**
 	 * Flag that shows is it connected to the provider
 	 */
-	private boolean isConnected;
+	private final AtomicBoolean isConnected = new AtomicBoolean();
 	
 	/**
 	 * Constructor that creates new {@link LocalizationProviderBridge} object.
@@ -36,20 +40,18 @@ public class LocalizationProviderBridge extends AbstractLocalizationProvider {
 	 * Method disconnects bridge from localization provider.
 	 */
 	public void disconnect() {
-		if (!isConnected)
-			return;
-		isConnected = true;
-		provider.removeLocalizationListener(bridgeListener);
+		if (isConnected.compareAndSet(true, false)) {
+			provider.removeLocalizationListener(bridgeListener);
+		}
 	}
 	
 	/**
 	 * Method connects bridge to the localization provider.
 	 */
 	public void connect() {
-		if (isConnected)
-			return;
-		isConnected = true;
-		provider.addLocalizationListener(bridgeListener);
+		if (isConnected.compareAndSet(false, true)) {
+			provider.addLocalizationListener(bridgeListener);
+		}
 	}
 	
 	@Override
@@ -0,0 +1,138 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.local;
+
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.Objects;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class represents table of localized strings of all languages. </br>
+ * Every key is given an index once, when the table is created from the bundle of the default language.
+ * Strings of every language are then copied from its {@link ResourceBundle} into an array indexed by those indexes,
+ * so looking up a string takes single hash lookup of the key and single array access,
+ * and switching language only replaces the array that is used.
+ * </p>
+ *
+ * Bundles are read only once, either when language is needed for the first time
+ * or in the background by {@link #preload(String...)}.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+class LocalizationTable {
+
+	/**
+	 * Base name of the bundles
+	 */
+	private final String baseName;
+	/**
+	 * Keys mapped to their indexes
+	 */
+	private final Map<String, Integer> keyIndexes = new HashMap<>();
+	/**
+	 * Keys ordered by their indexes
+	 */
+	private final String[] keys;
+	/**
+	 * Strings of the default language, used for keys that other languages do not translate
+	 */
+	private final String[] defaultValues;
+	/**
+	 * Languages mapped to their strings
+	 */
+	private final Map<String, String[]> values = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor that creates new {@link LocalizationTable} object.
+	 * Bundle of the default language is read immediately and defines keys of the table.
+	 *
+	 * @param baseName        {@link #baseName}
+	 * @param defaultLanguage language whose bundle defines keys of the table
+	 */
+	LocalizationTable(String baseName, String defaultLanguage) {
+		this.baseName = Objects.requireNonNull(baseName, "Base name must not be null");
+		ResourceBundle bundle = getBundle(defaultLanguage);
+		int index = 0;
+		for (Enumeration<String> e = bundle.getKeys(); e.hasMoreElements();) {
+			keyIndexes.put(e.nextElement(), index++);
+		}
+		keys = new String[index];
+		defaultValues = new String[index];
+		for (Map.Entry<String, Integer> entry : keyIndexes.entrySet()) {
+			keys[entry.getValue()] = entry.getKey();
+			defaultValues[entry.getValue()] = bundle.getString(entry.getKey());
+		}
+		values.put(defaultLanguage, defaultValues);
+	}
+
+	/**
+	 * Method returns index of given {@code key}.
+	 *
+	 * @param key key whose index is returned
+	 * @return    index of the key
+	 * @throws MissingResourceException if table does not contain the key
+	 */
+	int indexOf(String key) {
+		Integer index = keyIndexes.get(key);
+		if (index == null)
+			throw new MissingResourceException("Can't find resource for key " + key, baseName, key);
+		return index;
+	}
+
+	/**
+	 * Method returns strings of given {@code language} indexed by indexes of their keys.
+	 * Bundle of the language is read if it was not read before.
+	 *
+	 * @param language language whose strings are returned
+	 * @return         strings of the language
+	 */
+	String[] getValues(String language) {
+		return values.computeIfAbsent(language, this::readValues);
+	}
+
+	/**
+	 * Method reads bundles of given {@code languages} in a background thread.
+	 *
+	 * @param languages languages that are read
+	 */
+	void preload(String... languages) {
+		Thread thread = new Thread(() -> {
+			for (String language : languages) {
+				getValues(language);
+			}
+		}, "localization-loader");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Method reads strings of given {@code language} from its bundle.
+	 *
+	 * @param language language whose strings are read
+	 * @return         strings of the language
+	 */
+	private String[] readValues(String language) {
+		ResourceBundle bundle = getBundle(language);
+		String[] languageValues = new String[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			languageValues[i] = bundle.containsKey(keys[i]) ? bundle.getString(keys[i]) : defaultValues[i];
+		}
+		return languageValues;
+	}
+
+	/**
+	 * Method returns bundle of given {@code language}.
+	 *
+	 * @param language language of the bundle
+	 * @return         bundle of the language
+	 */
+	private ResourceBundle getBundle(String language) {
+		return ResourceBundle.getBundle(baseName, Locale.forLanguageTag(language));
+	}
+
+}
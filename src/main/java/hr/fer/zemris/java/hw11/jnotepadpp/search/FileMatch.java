@@ -0,0 +1,105 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Class represents match found in a file by {@link FileSearch}. </br>
+ * Match knows the line in which it starts, its position within that line and the text of the line,
+ * so it can be shown without opening the file.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class FileMatch {
+
+	/**
+	 * File in which match was found
+	 */
+	private final Path file;
+	/**
+	 * Number of the line in which match starts, starting from 1
+	 */
+	private final int line;
+	/**
+	 * Offset of the match from the start of its line
+	 */
+	private final int column;
+	/**
+	 * Length of the match
+	 */
+	private final int length;
+	/**
+	 * Text of the line in which match starts, possibly shortened
+	 */
+	private final String lineText;
+
+	/**
+	 * Constructor that creates new {@link FileMatch} object.
+	 *
+	 * @param file     file in which match was found
+	 * @param line     number of the line in which match starts, starting from 1
+	 * @param column   offset of the match from the start of its line
+	 * @param length   length of the match
+	 * @param lineText text of the line in which match starts
+	 */
+	public FileMatch(Path file, int line, int column, int length, String lineText) {
+		this.file = Objects.requireNonNull(file, "File must not be null");
+		this.line = line;
+		this.column = column;
+		this.length = length;
+		this.lineText = Objects.requireNonNull(lineText, "Line text must not be null");
+	}
+
+	/**
+	 * Method returns file in which match was found.
+	 *
+	 * @return file of the match
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Method returns number of the line in which match starts, starting from 1.
+	 *
+	 * @return line of the match
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * Method returns offset of the match from the start of its line.
+	 *
+	 * @return column of the match
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * Method returns length of the match.
+	 *
+	 * @return length of the match
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Method returns text of the line in which match starts, possibly shortened.
+	 *
+	 * @return text of the line
+	 */
+	public String getLineText() {
+		return lineText;
+	}
+
+	@Override
+	public String toString() {
+		return "Ln " + line + ": " + lineText.trim();
+	}
+
+}
@@ -0,0 +1,26 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Interface represents listener that is notified about matches that {@link FileSearch} found in a file.
+ * Listener is notified from searching threads, once for every file that contains matches.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+@FunctionalInterface
+public interface FileMatchListener {
+
+	/**
+	 * Method is called when search of a file that contains matches is over.
+	 *
+	 * @param file       searched file
+	 * @param matches    found matches, at most {@link FileSearch#MAX_MATCHES_PER_FILE} of them
+	 * @param matchCount number of all matches in the file
+	 */
+	void matchesFound(Path file, List<FileMatch> matches, int matchCount);
+
+}
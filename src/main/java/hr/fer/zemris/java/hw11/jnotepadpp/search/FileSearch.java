@@ -0,0 +1,249 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.MappedTextSource;
+
+/**
+ * Class represents search of all text files in a directory tree. </br>
+ * Directory tree is walked in parallel: every directory is listed by its own fork-join task,
+ * which forks tasks for its subdirectories and searches its files.
+ * Symbolic links to directories are not followed, so walk always ends.
+ * </p>
+ *
+ * Every file is mapped into memory through {@link MappedTextSource} and searched by {@link SegmentedSearch},
+ * so even large files are never read into the heap as a whole.
+ * Files whose first {@link #SNIFF_SIZE} bytes contain a zero byte are treated as binary and skipped.
+ * Number of files that are open at once is limited, so walk of a large tree does not exhaust
+ * file handles or thrash the disk.
+ * If searching thread is interrupted, search ends with {@link CancellationException}.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class FileSearch {
+
+	/**
+	 * Default number of files that are searched at once
+	 */
+	public static final int DEFAULT_OPEN_FILES = 4;
+	/**
+	 * Maximal number of matches of a single file that are reported
+	 */
+	public static final int MAX_MATCHES_PER_FILE = 1000;
+	/**
+	 * Number of bytes from the start of the file that are checked to detect binary files
+	 */
+	private static final int SNIFF_SIZE = 8192;
+	/**
+	 * Maximal number of characters of the line that are reported with a match
+	 */
+	private static final int MAX_LINE_LENGTH = 200;
+
+	/**
+	 * Searcher that finds matches
+	 */
+	private final Searcher searcher;
+	/**
+	 * Matcher of names of files that are searched
+	 */
+	private final PathMatcher fileFilter;
+	/**
+	 * Permits for files that can be open at once
+	 */
+	private final Semaphore openFiles;
+
+	/**
+	 * Constructor that creates new {@link FileSearch} object.
+	 *
+	 * @param searcher  searcher that finds matches
+	 * @param glob      glob pattern that names of searched files must match, for example {@code *.java}
+	 * @param openFiles number of files that are searched at once
+	 * @throws IllegalArgumentException if glob pattern is invalid or number of files is not positive
+	 */
+	public FileSearch(Searcher searcher, String glob, int openFiles) {
+		this.searcher = Objects.requireNonNull(searcher, "Searcher must not be null");
+		Objects.requireNonNull(glob, "Glob must not be null");
+		if (openFiles < 1)
+			throw new IllegalArgumentException("Number of open files must be positive. Was: " + openFiles);
+		this.fileFilter = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+		this.openFiles = new Semaphore(openFiles);
+	}
+
+	/**
+	 * Method searches all files in the tree of given {@code directory}.
+	 * When it is called from a fork-join pool, directories are walked in parallel in that pool.
+	 *
+	 * @param directory root of the searched tree
+	 * @param listener  listener that is notified about files with matches
+	 */
+	public void search(Path directory, FileMatchListener listener) {
+		Objects.requireNonNull(directory, "Directory must not be null");
+		Objects.requireNonNull(listener, "Listener must not be null");
+		new DirectoryTask(directory, listener).invoke();
+	}
+
+	/**
+	 * Method searches single file and notifies the {@code listener} if it contains matches.
+	 * Files that can not be read are skipped.
+	 *
+	 * @param file     searched file
+	 * @param listener listener that is notified about matches
+	 */
+	private void searchFile(Path file, FileMatchListener listener) {
+		try {
+			openFiles.acquire();
+		} catch (InterruptedException ex) {
+			throw new CancellationException("Search was interrupted.");
+		}
+		try {
+			if (isBinary(file))
+				return;
+			MappedTextSource source = MappedTextSource.open(file).awaitIndex();
+			MatchList matches = new SegmentedSearch(searcher, source, 0, source.length()).invoke();
+			if (matches.size() > 0) {
+				listener.matchesFound(file, toFileMatches(file, source, matches), matches.size());
+			}
+		} catch (IOException ex) {
+			if (Thread.currentThread().isInterrupted())
+				throw new CancellationException("Search was interrupted.");
+			// File can not be read, it is skipped
+		} finally {
+			openFiles.release();
+		}
+	}
+
+	/**
+	 * Method converts first {@link #MAX_MATCHES_PER_FILE} matches to {@link FileMatch}es.
+	 *
+	 * @param file    file in which matches were found
+	 * @param source  text of the file
+	 * @param matches found matches
+	 * @return        matches with their lines
+	 */
+	private static List<FileMatch> toFileMatches(Path file, MappedTextSource source, MatchList matches) {
+		int[] lineEnds = source.getLineEnds();
+		int count = Math.min(matches.size(), MAX_MATCHES_PER_FILE);
+		List<FileMatch> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int start = matches.getStart(i);
+			// Number of line ends at or before the start is index of the line
+			int line = Arrays.binarySearch(lineEnds, start);
+			line = line >= 0 ? line + 1 : -line - 1;
+			int lineStart = line == 0 ? 0 : lineEnds[line - 1];
+			int lineEnd = line < lineEnds.length ? lineEnds[line] - 1 : source.length();
+			int shownEnd = Math.min(lineEnd, lineStart + MAX_LINE_LENGTH);
+			String lineText = source.subSequence(lineStart, shownEnd).toString();
+			result.add(new FileMatch(file, line + 1, start - lineStart, matches.getEnd(i) - start, lineText));
+		}
+		return result;
+	}
+
+	/**
+	 * Method checks whether given {@code file} is binary file. </br>
+	 * File is binary if its first {@link #SNIFF_SIZE} bytes contain a zero byte,
+	 * which never happens in UTF-8 encoded text.
+	 *
+	 * @param file         checked file
+	 * @return             {@code true} if file is binary, otherwise {@code false}
+	 * @throws IOException if file can not be read
+	 */
+	static boolean isBinary(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(SNIFF_SIZE);
+			while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+				// Read until buffer is full or file ends
+			}
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				if (buffer.get() == 0)
+					return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Class represents fork-join task that searches single directory.
+	 * It forks tasks for subdirectories and searches files of the directory.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private class DirectoryTask extends RecursiveAction {
+
+		/**
+		 * Serial number
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Searched directory
+		 */
+		private final Path directory;
+		/**
+		 * Listener that is notified about files with matches
+		 */
+		private final FileMatchListener listener;
+
+		/**
+		 * Constructor that creates new {@link DirectoryTask} object.
+		 *
+		 * @param directory searched directory
+		 * @param listener  listener that is notified about files with matches
+		 */
+		DirectoryTask(Path directory, FileMatchListener listener) {
+			this.directory = directory;
+			this.listener = listener;
+		}
+
+		@Override
+		protected void compute() {
+			List<DirectoryTask> subdirectories = new ArrayList<>();
+			List<Path> files = new ArrayList<>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+				for (Path entry : stream) {
+					if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+						subdirectories.add(new DirectoryTask(entry, listener));
+					} else if (Files.isRegularFile(entry) && fileFilter.matches(entry.getFileName())) {
+						files.add(entry);
+					}
+				}
+			} catch (IOException ex) {
+				// Directory can not be listed, it is skipped
+				return;
+			}
+
+			for (DirectoryTask task : subdirectories) {
+				task.fork();
+			}
+			for (Path file : files) {
+				if (Thread.currentThread().isInterrupted())
+					throw new CancellationException("Search was interrupted.");
+				searchFile(file, listener);
+			}
+			for (DirectoryTask task : subdirectories) {
+				task.join();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,155 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.transform.TextTransform;
+
+/**
+ * Class represents searcher of literal text that uses Boyer-Moore-Horspool algorithm. </br>
+ * Text is scanned through a window of fixed size that is refilled straight from the text,
+ * so searched text is never copied as a whole and most of its characters are not even compared.
+ * Windows overlap by length of the pattern, so matches that cross window borders are found as well.
+ * </p>
+ *
+ * Searching can ignore case of letters, in which case characters are compared
+ * the same way as in {@link String#equalsIgnoreCase(String)}.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class LiteralSearcher implements Searcher {
+
+	/**
+	 * Size of the window through which text is scanned
+	 */
+	private static final int WINDOW_SIZE = 1 << 16;
+	/**
+	 * Size of the table of bad character shifts, characters are hashed by their lowest bits
+	 */
+	private static final int SHIFT_TABLE_SIZE = 256;
+
+	/**
+	 * Searched pattern, with folded case if case is ignored
+	 */
+	private final char[] pattern;
+	/**
+	 * Flag that shows whether case of letters is ignored
+	 */
+	private final boolean ignoreCase;
+	/**
+	 * Shift of the pattern for every bucket of characters
+	 */
+	private final int[] shifts = new int[SHIFT_TABLE_SIZE];
+
+	/**
+	 * Constructor that creates new {@link LiteralSearcher} object.
+	 *
+	 * @param pattern    searched text
+	 * @param ignoreCase flag that shows whether case of letters is ignored
+	 */
+	public LiteralSearcher(String pattern, boolean ignoreCase) {
+		Objects.requireNonNull(pattern, "Pattern must not be null");
+		if (pattern.isEmpty())
+			throw new IllegalArgumentException("Pattern must not be empty.");
+		this.ignoreCase = ignoreCase;
+		this.pattern = new char[pattern.length()];
+		for (int i = 0; i < this.pattern.length; i++) {
+			this.pattern[i] = fold(pattern.charAt(i));
+		}
+
+		// Characters that share a bucket get the smallest of their shifts, which is always safe
+		int m = this.pattern.length;
+		Arrays.fill(shifts, m);
+		for (int j = 0; j < m - 1; j++) {
+			shifts[this.pattern[j] % SHIFT_TABLE_SIZE] = m - 1 - j;
+		}
+	}
+
+	@Override
+	public void find(CharSource text, int start, int end, MatchListener listener, IntConsumer progressListener)
+			throws InterruptedException {
+		int m = pattern.length;
+		char[] window = new char[Math.max(WINDOW_SIZE, 2 * m)];
+		int position = start;
+		while (end - position >= m) {
+			if (Thread.currentThread().isInterrupted())
+				throw new InterruptedException("Search was interrupted.");
+			int count = Math.min(window.length, end - position);
+			text.getChars(position, position + count, window, 0);
+
+			int i = 0;
+			while (i + m <= count) {
+				int j = m - 1;
+				while (j >= 0 && fold(window[i + j]) == pattern[j]) {
+					j--;
+				}
+				if (j < 0) {
+					listener.matchFound(position + i, position + i + m);
+					i += m;
+				} else {
+					i += shifts[fold(window[i + m - 1]) % SHIFT_TABLE_SIZE];
+				}
+			}
+			// Candidates from i onwards do not fit into this window
+			position += i;
+			TextTransform.reportProgress(progressListener, start, end, position);
+		}
+	}
+
+	@Override
+	public String replaceAll(CharSource text, int start, int end, String replacement, IntConsumer progressListener)
+			throws InterruptedException {
+		StringBuilder sb = new StringBuilder(end - start);
+		// End of the last match and number of matches
+		int[] state = { start, 0 };
+		char[] buffer = new char[WINDOW_SIZE];
+		find(text, start, end, (matchStart, matchEnd) -> {
+			append(text, state[0], matchStart, buffer, sb);
+			sb.append(replacement);
+			state[0] = matchEnd;
+			state[1]++;
+		}, progressListener);
+		if (state[1] == 0)
+			return null;
+		append(text, state[0], end, buffer, sb);
+		return sb.toString();
+	}
+
+	@Override
+	public int getMaxMatchLength() {
+		return pattern.length;
+	}
+
+	/**
+	 * Method appends characters of the text between {@code start} and {@code end} to the {@code sb}.
+	 *
+	 * @param text   text whose characters are appended
+	 * @param start  start of the appended characters
+	 * @param end    end of the appended characters
+	 * @param buffer buffer through which characters are copied
+	 * @param sb     builder to which characters are appended
+	 */
+	static void append(CharSource text, int start, int end, char[] buffer, StringBuilder sb) {
+		for (int offset = start; offset < end; ) {
+			int count = Math.min(buffer.length, end - offset);
+			text.getChars(offset, offset + count, buffer, 0);
+			sb.append(buffer, 0, count);
+			offset += count;
+		}
+	}
+
+	/**
+	 * Method returns character used for comparison of given character {@code c}.
+	 *
+	 * @param c character
+	 * @return  character used for comparison
+	 */
+	private char fold(char c) {
+		return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+	}
+
+}
@@ -0,0 +1,193 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Objects;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Highlighter;
+import javax.swing.text.JTextComponent;
+
+/**
+ * Class represents painter of search matches in the text component. </br>
+ * Matches are stored as two sorted arrays of offsets and painter is installed
+ * as a single highlight that covers the whole text, so adding thousands of matches
+ * does not create thousands of highlights.
+ * When painted, only matches that lie within the visible part of the component are painted,
+ * and the first of them is found with binary search.
+ * </p>
+ *
+ * Matches have to be added in order of their offsets.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class MatchHighlighter implements Highlighter.HighlightPainter {
+
+	/**
+	 * Initial capacity of arrays of matches
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * Color of painted matches
+	 */
+	private final Color color;
+	/**
+	 * Start offsets of matches
+	 */
+	private int[] starts = new int[INITIAL_CAPACITY];
+	/**
+	 * End offsets of matches
+	 */
+	private int[] ends = new int[INITIAL_CAPACITY];
+	/**
+	 * Number of matches
+	 */
+	private int size;
+
+	/**
+	 * Constructor that creates new {@link MatchHighlighter} object.
+	 *
+	 * @param color color of painted matches
+	 */
+	public MatchHighlighter(Color color) {
+		this.color = Objects.requireNonNull(color, "Color must not be null");
+	}
+
+	/**
+	 * Method adds match between offsets {@code start} and {@code end}.
+	 *
+	 * @param start start of the match
+	 * @param end   end of the match
+	 * @throws IllegalArgumentException if match is not after previously added matches
+	 */
+	public void add(int start, int end) {
+		if (start > end || (size > 0 && start < starts[size - 1]))
+			throw new IllegalArgumentException("Matches must be added in order.");
+		if (size == starts.length) {
+			starts = Arrays.copyOf(starts, 2 * size);
+			ends = Arrays.copyOf(ends, 2 * size);
+		}
+		starts[size] = start;
+		ends[size] = end;
+		size++;
+	}
+
+	/**
+	 * Method removes all matches.
+	 */
+	public void clear() {
+		size = 0;
+		if (starts.length > INITIAL_CAPACITY) {
+			starts = new int[INITIAL_CAPACITY];
+			ends = new int[INITIAL_CAPACITY];
+		}
+	}
+
+	/**
+	 * Method returns number of matches.
+	 *
+	 * @return number of matches
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Method returns index of the first match that ends after given {@code offset}.
+	 *
+	 * @param offset offset in the text
+	 * @return       index of the first match that ends after the offset or {@link #size()} if there is no such match
+	 */
+	public int indexAfter(int offset) {
+		// Matches do not overlap, so ends are sorted as well
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (ends[mid] <= offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Method returns start of the match with given {@code index}.
+	 *
+	 * @param index index of the match
+	 * @return      start of the match
+	 */
+	public int getStart(int index) {
+		Objects.checkIndex(index, size);
+		return starts[index];
+	}
+
+	/**
+	 * Method returns end of the match with given {@code index}.
+	 *
+	 * @param index index of the match
+	 * @return      end of the match
+	 */
+	public int getEnd(int index) {
+		Objects.checkIndex(index, size);
+		return ends[index];
+	}
+
+	@Override
+	public void paint(Graphics g, int p0, int p1, Shape bounds, JTextComponent c) {
+		if (size == 0)
+			return;
+		Rectangle visible = c.getVisibleRect();
+		int first = c.viewToModel2D(new Point(visible.x, visible.y));
+		int last = c.viewToModel2D(new Point(visible.x + visible.width, visible.y + visible.height));
+		g.setColor(color);
+		try {
+			for (int i = indexAfter(first); i < size && starts[i] <= last; i++) {
+				paintMatch(g, c, starts[i], ends[i]);
+			}
+		} catch (BadLocationException ex) {
+			// Matches are stale, they are cleared once document changes
+		}
+	}
+
+	/**
+	 * Method paints single match, line by line if it spans more lines.
+	 *
+	 * @param g                     graphics used for painting
+	 * @param c                     text component
+	 * @param start                 start of the match
+	 * @param end                   end of the match
+	 * @throws BadLocationException if match is outside of the document
+	 */
+	private static void paintMatch(Graphics g, JTextComponent c, int start, int end) throws BadLocationException {
+		Rectangle2D view0 = c.modelToView2D(start);
+		Rectangle2D view1 = c.modelToView2D(end);
+		if (view0 == null || view1 == null)
+			return;
+		Rectangle r0 = view0.getBounds();
+		Rectangle r1 = view1.getBounds();
+		if (r0.y == r1.y) {
+			g.fillRect(r0.x, r0.y, Math.max(1, r1.x - r0.x), r0.height);
+			return;
+		}
+		Rectangle visible = c.getVisibleRect();
+		int right = visible.x + visible.width;
+		g.fillRect(r0.x, r0.y, right - r0.x, r0.height);
+		int middle = r0.y + r0.height;
+		if (middle < r1.y) {
+			g.fillRect(visible.x, middle, visible.width, r1.y - middle);
+		}
+		g.fillRect(visible.x, r1.y, r1.x - visible.x, r1.height);
+	}
+
+}
@@ -0,0 +1,121 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Class represents list of matches in the text, in order of their offsets. </br>
+ * Start and end offsets are stored in a single growable array of primitive values,
+ * so millions of matches take only eight bytes each.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class MatchList implements MatchListener {
+
+	/**
+	 * Initial capacity of the list
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Start and end offsets of matches, one after another
+	 */
+	private int[] offsets = new int[2 * INITIAL_CAPACITY];
+	/**
+	 * Number of matches
+	 */
+	private int size;
+
+	@Override
+	public void matchFound(int start, int end) {
+		add(start, end);
+	}
+
+	/**
+	 * Method adds match between offsets {@code start} and {@code end} to the end of the list.
+	 *
+	 * @param start start of the match
+	 * @param end   end of the match
+	 */
+	public void add(int start, int end) {
+		if (2 * size == offsets.length) {
+			offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+		}
+		offsets[2 * size] = start;
+		offsets[2 * size + 1] = end;
+		size++;
+	}
+
+	/**
+	 * Method adds matches of given {@code other} list, starting with the one at index {@code from},
+	 * to the end of this list.
+	 *
+	 * @param other list whose matches are added
+	 * @param from  index of the first added match
+	 */
+	public void addAll(MatchList other, int from) {
+		Objects.requireNonNull(other, "List must not be null");
+		Objects.checkIndex(from, other.size + 1);
+		int count = other.size - from;
+		if (2 * (size + count) > offsets.length) {
+			offsets = Arrays.copyOf(offsets, Math.max(2 * offsets.length, 2 * (size + count)));
+		}
+		System.arraycopy(other.offsets, 2 * from, offsets, 2 * size, 2 * count);
+		size += count;
+	}
+
+	/**
+	 * Method returns index of the first match that starts at or after given {@code offset}.
+	 *
+	 * @param offset offset in the text
+	 * @return       index of the first match that starts at or after the offset
+	 *               or {@link #size()} if there is no such match
+	 */
+	public int indexFrom(int offset) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (offsets[2 * mid] < offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Method returns number of matches.
+	 *
+	 * @return number of matches
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Method returns start of the match with given {@code index}.
+	 *
+	 * @param index index of the match
+	 * @return      start of the match
+	 */
+	public int getStart(int index) {
+		Objects.checkIndex(index, size);
+		return offsets[2 * index];
+	}
+
+	/**
+	 * Method returns end of the match with given {@code index}.
+	 *
+	 * @param index index of the match
+	 * @return      end of the match
+	 */
+	public int getEnd(int index) {
+		Objects.checkIndex(index, size);
+		return offsets[2 * index + 1];
+	}
+
+}
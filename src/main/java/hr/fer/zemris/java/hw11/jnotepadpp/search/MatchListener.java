@@ -0,0 +1,21 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+/**
+ * Interface represents listener that is notified about every match found by {@link Searcher}.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+@FunctionalInterface
+public interface MatchListener {
+
+	/**
+	 * Method is called when match is found.
+	 *
+	 * @param start start offset of the match
+	 * @param end   end offset of the match
+	 */
+	void matchFound(int start, int end);
+
+}
@@ -0,0 +1,221 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.transform.TextTransform;
+
+/**
+ * Class represents searcher of matches of regular expression. </br>
+ * Regular expression reads the text through a view that caches a window of characters,
+ * so sequential reads of the matcher do not look up the text for every character.
+ * </p>
+ *
+ * Every match has time budget: if matcher can not find next match within it,
+ * which usually happens because of catastrophic backtracking, search stops with {@link SearchTimeoutException}.
+ * Budget and interruption of the searching thread are checked from the view itself,
+ * so even a single long running match attempt can be stopped.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class RegexSearcher implements Searcher {
+
+	/**
+	 * Default time budget of finding single match in milliseconds
+	 */
+	public static final long DEFAULT_TIME_BUDGET = 2000;
+	/**
+	 * Size of the cached window of the text
+	 */
+	private static final int WINDOW_SIZE = 1 << 14;
+	/**
+	 * Number of reads of characters between two checks of time budget
+	 */
+	private static final int CHECK_INTERVAL = 1 << 12;
+
+	/**
+	 * Pattern that is searched
+	 */
+	private final Pattern pattern;
+	/**
+	 * Time budget of finding single match in nanoseconds
+	 */
+	private final long timeBudget;
+
+	/**
+	 * Constructor that creates new {@link RegexSearcher} object with default time budget.
+	 *
+	 * @param regex      regular expression that is searched
+	 * @param ignoreCase flag that shows whether case of letters is ignored
+	 * @throws java.util.regex.PatternSyntaxException if regular expression is invalid
+	 */
+	public RegexSearcher(String regex, boolean ignoreCase) {
+		this(regex, ignoreCase, DEFAULT_TIME_BUDGET);
+	}
+
+	/**
+	 * Constructor that creates new {@link RegexSearcher} object.
+	 *
+	 * @param regex      regular expression that is searched
+	 * @param ignoreCase flag that shows whether case of letters is ignored
+	 * @param timeBudget time budget of finding single match in milliseconds
+	 * @throws java.util.regex.PatternSyntaxException if regular expression is invalid
+	 */
+	public RegexSearcher(String regex, boolean ignoreCase, long timeBudget) {
+		Objects.requireNonNull(regex, "Regular expression must not be null");
+		int flags = Pattern.MULTILINE | (ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+		this.pattern = Pattern.compile(regex, flags);
+		this.timeBudget = timeBudget * 1_000_000;
+	}
+
+	@Override
+	public void find(CharSource text, int start, int end, MatchListener listener, IntConsumer progressListener)
+			throws InterruptedException {
+		BudgetedText view = new BudgetedText(text, start, end);
+		Matcher matcher = pattern.matcher(view);
+		while (find(matcher, view)) {
+			listener.matchFound(start + matcher.start(), start + matcher.end());
+			TextTransform.reportProgress(progressListener, start, end, start + matcher.end());
+		}
+	}
+
+	@Override
+	public String replaceAll(CharSource text, int start, int end, String replacement, IntConsumer progressListener)
+			throws InterruptedException {
+		BudgetedText view = new BudgetedText(text, start, end);
+		Matcher matcher = pattern.matcher(view);
+		StringBuilder sb = new StringBuilder(end - start);
+		boolean found = false;
+		while (find(matcher, view)) {
+			found = true;
+			matcher.appendReplacement(sb, replacement);
+			TextTransform.reportProgress(progressListener, start, end, start + matcher.end());
+		}
+		if (!found)
+			return null;
+		matcher.appendTail(sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Method finds next match of the {@code matcher} within the time budget.
+	 *
+	 * @param matcher               matcher that finds the match
+	 * @param view                  text that matcher reads
+	 * @return                      {@code true} if match was found, otherwise {@code false}
+	 * @throws InterruptedException if current thread was interrupted
+	 */
+	private boolean find(Matcher matcher, BudgetedText view) throws InterruptedException {
+		view.deadline = System.nanoTime() + timeBudget;
+		try {
+			return matcher.find();
+		} catch (CancellationException ex) {
+			throw new InterruptedException("Search was interrupted.");
+		}
+	}
+
+	/**
+	 * Class represents view of a range of the text that checks time budget
+	 * and interruption of current thread while it is being read.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private static class BudgetedText implements CharSequence {
+
+		/**
+		 * Text that is viewed
+		 */
+		private final CharSource text;
+		/**
+		 * Start of the viewed range
+		 */
+		private final int start;
+		/**
+		 * Length of the viewed range
+		 */
+		private final int length;
+		/**
+		 * Cached window of the text
+		 */
+		private final char[] window = new char[WINDOW_SIZE];
+		/**
+		 * Offset of the window in the view
+		 */
+		private int windowStart;
+		/**
+		 * Number of characters in the window
+		 */
+		private int windowLength;
+		/**
+		 * Number of reads since the last check of time budget
+		 */
+		private int reads;
+		/**
+		 * Time in nanoseconds until which current match has to be found
+		 */
+		private long deadline;
+
+		/**
+		 * Constructor that creates new {@link BudgetedText} object.
+		 *
+		 * @param text  text that is viewed
+		 * @param start start of the viewed range
+		 * @param end   end of the viewed range
+		 */
+		BudgetedText(CharSource text, int start, int end) {
+			this.text = Objects.requireNonNull(text, "Text must not be null");
+			if (start < 0 || start > end || end > text.length())
+				throw new IndexOutOfBoundsException("Invalid range: " + start + ", " + end);
+			this.start = start;
+			this.length = end - start;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (++reads == CHECK_INTERVAL) {
+				reads = 0;
+				if (Thread.currentThread().isInterrupted())
+					throw new CancellationException("Search was interrupted.");
+				if (System.nanoTime() > deadline)
+					throw new SearchTimeoutException("Regular expression takes too long to match.");
+			}
+			if (index < windowStart || index >= windowStart + windowLength) {
+				if (index < 0 || index >= length)
+					throw new IndexOutOfBoundsException("Was: " + index);
+				// Window starts a bit before the index, so matcher can also step back cheaply
+				windowStart = Math.max(0, index - WINDOW_SIZE / 4);
+				windowLength = Math.min(WINDOW_SIZE, length - windowStart);
+				text.getChars(start + windowStart, start + windowStart + windowLength, window, 0);
+			}
+			return window[index - windowStart];
+		}
+
+		@Override
+		public CharSequence subSequence(int from, int to) {
+			if (from < 0 || from > to || to > length)
+				throw new IndexOutOfBoundsException("Invalid range: " + from + ", " + to);
+			char[] chars = new char[to - from];
+			text.getChars(start + from, start + to, chars, 0);
+			return new String(chars);
+		}
+
+		@Override
+		public String toString() {
+			return subSequence(0, length).toString();
+		}
+	}
+
+}
@@ -0,0 +1,27 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+/**
+ * Exception is thrown when regular expression can not find a match within its time budget,
+ * usually because of catastrophic backtracking.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class SearchTimeoutException extends RuntimeException {
+
+	/**
+	 * Serial number
+	 */
+	private static final long serialVersionUID = 4631917384519057247L;
+
+	/**
+	 * Constructor that creates new {@link SearchTimeoutException} object.
+	 *
+	 * @param message message of the exception
+	 */
+	public SearchTimeoutException(String message) {
+		super(message);
+	}
+
+}
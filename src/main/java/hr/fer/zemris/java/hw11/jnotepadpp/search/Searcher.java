@@ -0,0 +1,57 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.util.function.IntConsumer;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharSource;
+
+/**
+ * Interface represents searcher of matches of some query in the text. </br>
+ * Searcher only reads given text, so it can be run on a worker thread against a snapshot of the document.
+ * Searching stops with {@link InterruptedException} once searching thread is interrupted.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public interface Searcher {
+
+	/**
+	 * Method finds all non-overlapping matches in given {@code text} between offsets {@code start}
+	 * and {@code end}. Matches are reported to the {@code listener} in order of their offsets.
+	 *
+	 * @param text                  text that is searched
+	 * @param start                 start of the searched range
+	 * @param end                   end of the searched range
+	 * @param listener              listener that is notified about matches
+	 * @param progressListener      listener of searching progress in percentages
+	 * @throws InterruptedException if current thread was interrupted
+	 */
+	void find(CharSource text, int start, int end, MatchListener listener, IntConsumer progressListener)
+			throws InterruptedException;
+
+	/**
+	 * Method replaces all matches in given {@code text} between offsets {@code start} and {@code end}
+	 * with given {@code replacement}.
+	 *
+	 * @param text                  text whose matches are replaced
+	 * @param start                 start of the range
+	 * @param end                   end of the range
+	 * @param replacement           replacement of the matches
+	 * @param progressListener      listener of progress in percentages
+	 * @return                      text of the range with replaced matches or {@code null} if there are no matches
+	 * @throws InterruptedException if current thread was interrupted
+	 */
+	String replaceAll(CharSource text, int start, int end, String replacement, IntConsumer progressListener)
+			throws InterruptedException;
+
+	/**
+	 * Method returns maximal length of a match. </br>
+	 * If it is known, text can be searched in independent segments that overlap by that length.
+	 *
+	 * @return maximal length of a match or {@code -1} if it is unknown
+	 */
+	default int getMaxMatchLength() {
+		return -1;
+	}
+
+}
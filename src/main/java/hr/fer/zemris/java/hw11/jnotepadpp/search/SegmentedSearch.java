@@ -0,0 +1,166 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RecursiveTask;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharSource;
+
+/**
+ * Class represents fork-join task that finds all matches of a {@link Searcher} in a range of the text. </br>
+ * If maximal length of a match is known, large ranges are split in halves until segments are
+ * at most {@link #SEGMENT_SIZE} characters long and segments are searched in parallel.
+ * Every segment reads past its end by the maximal length of a match, so matches that cross
+ * segment borders are found by the segment in which they start.
+ * </p>
+ *
+ * When segments are joined and the last match of the left segment reaches into the right one,
+ * right segment is searched again from the end of that match, one match at a time, until a match
+ * that the right segment has already found is reached. From that match on both searches find the same matches,
+ * so found matches are exactly the same as those found by searching the whole range at once.
+ * If searching thread is interrupted, task completes with {@link CancellationException}.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class SegmentedSearch extends RecursiveTask<MatchList> {
+
+	/**
+	 * Serial number
+	 */
+	private static final long serialVersionUID = 1L;
+	/**
+	 * Length of the segment that is not split further
+	 */
+	public static final int SEGMENT_SIZE = 1 << 20;
+
+	/**
+	 * Searcher that finds matches
+	 */
+	private final Searcher searcher;
+	/**
+	 * Searched text
+	 */
+	private final CharSource text;
+	/**
+	 * Start of the segment
+	 */
+	private final int start;
+	/**
+	 * End of the segment
+	 */
+	private final int end;
+	/**
+	 * End of the whole searched range, matches can not go past it
+	 */
+	private final int limit;
+
+	/**
+	 * Constructor that creates new {@link SegmentedSearch} object.
+	 *
+	 * @param searcher searcher that finds matches
+	 * @param text     searched text
+	 * @param start    start of the searched range
+	 * @param end      end of the searched range
+	 */
+	public SegmentedSearch(Searcher searcher, CharSource text, int start, int end) {
+		this(searcher, text, start, end, end);
+		if (start < 0 || start > end || end > text.length())
+			throw new IndexOutOfBoundsException("Invalid range: " + start + ", " + end);
+	}
+
+	/**
+	 * Constructor that creates new {@link SegmentedSearch} object for a segment of the range.
+	 *
+	 * @param searcher searcher that finds matches
+	 * @param text     searched text
+	 * @param start    start of the segment
+	 * @param end      end of the segment
+	 * @param limit    end of the whole searched range
+	 */
+	private SegmentedSearch(Searcher searcher, CharSource text, int start, int end, int limit) {
+		this.searcher = Objects.requireNonNull(searcher, "Searcher must not be null");
+		this.text = Objects.requireNonNull(text, "Text must not be null");
+		this.start = start;
+		this.end = end;
+		this.limit = limit;
+	}
+
+	@Override
+	protected MatchList compute() {
+		if (end - start <= SEGMENT_SIZE || searcher.getMaxMatchLength() < 0)
+			return search(start);
+
+		int middle = (start + end) >>> 1;
+		SegmentedSearch left = new SegmentedSearch(searcher, text, start, middle, limit);
+		SegmentedSearch right = new SegmentedSearch(searcher, text, middle, end, limit);
+		invokeAll(left, right);
+		MatchList matches = left.join();
+		MatchList rightMatches = right.join();
+
+		int lastEnd = matches.size() == 0 ? start : matches.getEnd(matches.size() - 1);
+		if (lastEnd > middle) {
+			right.resume(lastEnd, rightMatches, matches);
+		} else {
+			matches.addAll(rightMatches, 0);
+		}
+		return matches;
+	}
+
+	/**
+	 * Method searches this segment from given {@code from} offset and adds found matches to the {@code result}. </br>
+	 * Matches are found one at a time, until a match that is already in {@code segmentMatches} is found.
+	 * That match and all matches after it are then taken from {@code segmentMatches}.
+	 *
+	 * @param from           offset from which segment is searched
+	 * @param segmentMatches matches found by searching this segment from its start
+	 * @param result         list to which matches are added
+	 */
+	private void resume(int from, MatchList segmentMatches, MatchList result) {
+		int length = searcher.getMaxMatchLength();
+		while (from < end) {
+			// Leftmost match that starts before from + length ends before from + 2 * length
+			int windowEnd = Math.min(limit, from + 2 * length - 1);
+			MatchList found = new SegmentedSearch(searcher, text, from, Math.min(end, from + length), windowEnd)
+					.search(from);
+			if (found.size() == 0) {
+				from += length;
+				continue;
+			}
+			int matchStart = found.getStart(0);
+			int index = segmentMatches.indexFrom(matchStart);
+			if (index < segmentMatches.size() && segmentMatches.getStart(index) == matchStart) {
+				result.addAll(segmentMatches, index);
+				return;
+			}
+			result.add(matchStart, found.getEnd(0));
+			from = found.getEnd(0);
+		}
+	}
+
+	/**
+	 * Method finds matches that start in this segment at or after given {@code from} offset.
+	 *
+	 * @param from offset from which segment is searched
+	 * @return     found matches
+	 */
+	private MatchList search(int from) {
+		MatchList matches = new MatchList();
+		int overlap = Math.max(0, searcher.getMaxMatchLength() - 1);
+		int searchEnd = end == limit ? limit : Math.min(limit, end + overlap);
+		if (from >= searchEnd)
+			return matches;
+		try {
+			searcher.find(text, from, searchEnd, (matchStart, matchEnd) -> {
+				if (matchStart < end || end == limit) {
+					matches.add(matchStart, matchEnd);
+				}
+			}, p -> {});
+		} catch (InterruptedException ex) {
+			throw new CancellationException("Search was interrupted.");
+		}
+		return matches;
+	}
+
+}
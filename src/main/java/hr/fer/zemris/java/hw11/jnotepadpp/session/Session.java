@@ -0,0 +1,360 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.session;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.DocumentWriter;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+
+/**
+ * Class represents session of the editor: ordered list of tabs that were opened and index of the selected tab. </br>
+ * Session is stored in a compact binary file. File starts with a short header that is followed by unsaved texts
+ * of all documents encoded in UTF-8, one after another. After the texts comes an index that describes every tab
+ * and the file ends with position of that index.
+ * </p>
+ *
+ * Reading a session reads only its header and index, which take few bytes per tab no matter how large
+ * the documents are. Unsaved text of a tab is read from the file only when {@link #readText(SessionEntry, IntConsumer)}
+ * is called, so tabs can be restored lazily.
+ * Session is written to temporary file first and then moved over the old session file,
+ * so the old session stays intact if writing fails.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class Session {
+
+	/**
+	 * Number that every session file starts with
+	 */
+	private static final int MAGIC = 0x4A4E5053;
+	/**
+	 * Version of the session file format
+	 */
+	private static final int VERSION = 1;
+	/**
+	 * Size of the header in bytes
+	 */
+	private static final int HEADER_SIZE = 8;
+	/**
+	 * Number of bytes of unsaved text that are read at once
+	 */
+	private static final int READ_CHUNK_SIZE = 1 << 20;
+	/**
+	 * Flag of the entry that has path
+	 */
+	private static final int HAS_PATH = 1;
+	/**
+	 * Flag of the entry that has unsaved text
+	 */
+	private static final int HAS_TEXT = 2;
+
+	/**
+	 * Entries of the tabs in order of the tabs
+	 */
+	private final List<SessionEntry> entries;
+	/**
+	 * Index of the selected tab, -1 if there are no tabs
+	 */
+	private final int selectedIndex;
+	/**
+	 * File from which session was read, {@code null} if it was not read from a file
+	 */
+	private final Path file;
+
+	/**
+	 * Constructor that creates new {@link Session} object.
+	 *
+	 * @param entries       {@link #entries}
+	 * @param selectedIndex {@link #selectedIndex}
+	 * @throws IllegalArgumentException if selected index is not index of an entry
+	 */
+	public Session(List<SessionEntry> entries, int selectedIndex) {
+		this(entries, selectedIndex, null);
+	}
+
+	/**
+	 * Constructor that creates new {@link Session} object that was read from given {@code file}.
+	 *
+	 * @param entries       {@link #entries}
+	 * @param selectedIndex {@link #selectedIndex}
+	 * @param file          {@link #file}
+	 * @throws IllegalArgumentException if selected index is not index of an entry
+	 */
+	private Session(List<SessionEntry> entries, int selectedIndex, Path file) {
+		this.entries = Collections.unmodifiableList(new ArrayList<>(
+				Objects.requireNonNull(entries, "Entries must not be null")));
+		if (entries.isEmpty() ? selectedIndex != -1 : selectedIndex < 0 || selectedIndex >= entries.size())
+			throw new IllegalArgumentException("Invalid selected index: " + selectedIndex);
+		this.selectedIndex = selectedIndex;
+		this.file = file;
+	}
+
+	/**
+	 * Method returns entries of the tabs in order of the tabs.
+	 *
+	 * @return unmodifiable list of entries
+	 */
+	public List<SessionEntry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Method returns index of the selected tab.
+	 *
+	 * @return index of the selected tab or -1 if there are no tabs
+	 */
+	public int getSelectedIndex() {
+		return selectedIndex;
+	}
+
+	/**
+	 * Method reads unsaved text of given {@code entry} into new {@link PieceTableDocument}.
+	 *
+	 * @param entry            entry of this session that has unsaved text
+	 * @param progressListener listener of reading progress, can be {@code null}
+	 * @return                 document with the unsaved text
+	 * @throws IOException     if reading failed or reading thread was interrupted
+	 * @throws IllegalArgumentException if entry has no unsaved text
+	 */
+	public PieceTableDocument readText(SessionEntry entry, IntConsumer progressListener) throws IOException {
+		if (!entry.hasText())
+			throw new IllegalArgumentException("Entry has no unsaved text.");
+		if (entry.getText() != null)
+			return new PieceTableDocument(entry.getText());
+		IntConsumer listener = progressListener == null ? p -> {} : progressListener;
+
+		long size = entry.getTextSize();
+		if (size > Integer.MAX_VALUE - 8)
+			throw new IOException("Unsaved text is too large to be restored.");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer bytes = ByteBuffer.allocate((int) size);
+			while (bytes.hasRemaining()) {
+				bytes.limit(Math.min(bytes.capacity(), bytes.position() + READ_CHUNK_SIZE));
+				if (channel.read(bytes, entry.getTextPosition() + bytes.position()) < 0)
+					throw new IOException("Session file is truncated: " + file);
+				if (Thread.currentThread().isInterrupted())
+					throw new InterruptedIOException("Reading was interrupted: " + file);
+				listener.accept((int) (bytes.position() * 100L / Math.max(1, size)));
+			}
+			return new PieceTableDocument(new String(bytes.array(), StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Method reads header and index of the session stored in given {@code file}.
+	 * Unsaved texts are not read.
+	 *
+	 * @param file         session file
+	 * @return             read session
+	 * @throws IOException if file can not be read or it is not a valid session file
+	 */
+	public static Session read(Path file) throws IOException {
+		Objects.requireNonNull(file, "File must not be null");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + Long.BYTES);
+			if (size < header.capacity())
+				throw new IOException("Invalid session file: " + file);
+			readFully(channel, header.limit(HEADER_SIZE), 0);
+			readFully(channel, header.limit(header.capacity()), size - Long.BYTES);
+			if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+				throw new IOException("Invalid session file: " + file);
+			long indexPosition = header.getLong(HEADER_SIZE);
+			if (indexPosition < HEADER_SIZE || indexPosition > size - Long.BYTES
+					|| size - Long.BYTES - indexPosition > Integer.MAX_VALUE)
+				throw new IOException("Invalid session file: " + file);
+
+			ByteBuffer index = ByteBuffer.allocate((int) (size - Long.BYTES - indexPosition));
+			readFully(channel, index, indexPosition);
+			return readIndex(new DataInputStream(new ByteArrayInputStream(index.array())), indexPosition, file);
+		}
+	}
+
+	/**
+	 * Method reads index of the session.
+	 *
+	 * @param in            stream of the index
+	 * @param indexPosition position of the index in the file, texts must end before it
+	 * @param file          session file
+	 * @return              read session
+	 * @throws IOException  if index is not valid
+	 */
+	private static Session readIndex(DataInputStream in, long indexPosition, Path file) throws IOException {
+		try {
+			int count = in.readInt();
+			int selectedIndex = in.readInt();
+			if (count < 0)
+				throw new IOException("Invalid session file: " + file);
+			List<SessionEntry> entries = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				int flags = in.readByte();
+				Path path = (flags & HAS_PATH) != 0 ? Paths.get(in.readUTF()) : null;
+				int dot = in.readInt();
+				int mark = in.readInt();
+				Point scrollPosition = new Point(in.readInt(), in.readInt());
+				if ((flags & HAS_TEXT) == 0) {
+					entries.add(new SessionEntry(path, dot, mark, scrollPosition, null));
+					continue;
+				}
+				long textPosition = in.readLong();
+				long textSize = in.readLong();
+				if (textPosition < HEADER_SIZE || textSize < 0 || textPosition + textSize > indexPosition)
+					throw new IOException("Invalid session file: " + file);
+				entries.add(new SessionEntry(path, dot, mark, scrollPosition, textPosition, textSize));
+			}
+			return new Session(entries, selectedIndex, file);
+		} catch (IllegalArgumentException ex) {
+			// Invalid path or selected index
+			throw new IOException("Invalid session file: " + file, ex);
+		}
+	}
+
+	/**
+	 * Method writes this session to the given {@code file}, replacing it.
+	 *
+	 * @param file         session file
+	 * @throws IOException if writing failed
+	 */
+	public void write(Path file) throws IOException {
+		Path target = Objects.requireNonNull(file, "File must not be null").toAbsolutePath();
+		Files.createDirectories(target.getParent());
+		Path tempFile = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+				writeContent(channel);
+				channel.force(true);
+			}
+			try {
+				Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Method writes header, unsaved texts, index and position of the index to the {@code channel}.
+	 *
+	 * @param channel      channel to which session is written
+	 * @throws IOException if writing failed
+	 */
+	private void writeContent(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+		header.flip();
+		writeFully(channel, header);
+
+		DocumentWriter writer = new DocumentWriter();
+		long[] textPositions = new long[entries.size()];
+		long[] textSizes = new long[entries.size()];
+		for (int i = 0; i < entries.size(); i++) {
+			SessionEntry entry = entries.get(i);
+			if (!entry.hasText())
+				continue;
+			textPositions[i] = channel.position();
+			if (entry.getText() != null) {
+				textSizes[i] = writer.write(entry.getText(), channel);
+			} else {
+				textSizes[i] = copyText(entry, channel);
+			}
+		}
+
+		long indexPosition = channel.position();
+		ByteArrayOutputStream index = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(index);
+		out.writeInt(entries.size());
+		out.writeInt(selectedIndex);
+		for (int i = 0; i < entries.size(); i++) {
+			SessionEntry entry = entries.get(i);
+			Path path = entry.getPath();
+			out.writeByte((path != null ? HAS_PATH : 0) | (entry.hasText() ? HAS_TEXT : 0));
+			if (path != null) {
+				out.writeUTF(path.toAbsolutePath().toString());
+			}
+			out.writeInt(entry.getDot());
+			out.writeInt(entry.getMark());
+			Point scrollPosition = entry.getScrollPosition();
+			out.writeInt(scrollPosition.x);
+			out.writeInt(scrollPosition.y);
+			if (entry.hasText()) {
+				out.writeLong(textPositions[i]);
+				out.writeLong(textSizes[i]);
+			}
+		}
+		out.writeLong(indexPosition);
+		writeFully(channel, ByteBuffer.wrap(index.toByteArray()));
+	}
+
+	/**
+	 * Method copies unsaved text of given {@code entry} from the file of this session to the {@code channel}.
+	 *
+	 * @param entry        entry whose text is copied
+	 * @param channel      channel to which text is copied
+	 * @return             number of copied bytes
+	 * @throws IOException if copying failed
+	 */
+	private long copyText(SessionEntry entry, FileChannel channel) throws IOException {
+		try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+			long copied = 0;
+			while (copied < entry.getTextSize()) {
+				long count = source.transferTo(entry.getTextPosition() + copied, entry.getTextSize() - copied, channel);
+				if (count <= 0)
+					throw new IOException("Session file is truncated: " + file);
+				copied += count;
+			}
+			return copied;
+		}
+	}
+
+	/**
+	 * Method reads bytes from the {@code channel} starting at given {@code position} until {@code buffer} is full.
+	 *
+	 * @param channel      channel from which bytes are read
+	 * @param buffer       buffer into which bytes are read
+	 * @param position     position in the channel of the first read byte
+	 * @throws IOException if channel ends before buffer is full
+	 */
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		long offset = position - buffer.position();
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, offset + buffer.position()) < 0)
+				throw new IOException("Session file is truncated.");
+		}
+	}
+
+	/**
+	 * Method writes all remaining bytes of the {@code buffer} to the {@code channel}.
+	 *
+	 * @param channel      channel to which bytes are written
+	 * @param buffer       buffer whose bytes are written
+	 * @throws IOException if writing failed
+	 */
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+}
@@ -0,0 +1,174 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.session;
+
+import java.awt.Point;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharSource;
+
+/**
+ * Class represents state of single tab that is recorded in a {@link Session}. </br>
+ * It holds path of the document, position of the caret and selection, position of the scrolled view
+ * and text of the document if it was not saved.
+ * Entry of a session that is read from a file does not hold the text itself, only its location in that file,
+ * so text is read only once it is needed, see {@link Session#readText(SessionEntry, java.util.function.IntConsumer)}.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class SessionEntry {
+
+	/**
+	 * Path of the document, {@code null} if document was never saved
+	 */
+	private final Path path;
+	/**
+	 * Position of the caret
+	 */
+	private final int dot;
+	/**
+	 * Position of the selection mark
+	 */
+	private final int mark;
+	/**
+	 * Position of the upper left corner of the scrolled view
+	 */
+	private final Point scrollPosition;
+	/**
+	 * Unsaved text of the document, {@code null} if there is no such text or it is stored in the session file
+	 */
+	private final CharSource text;
+	/**
+	 * Position of the unsaved text in the session file, -1 if it is not stored there
+	 */
+	private final long textPosition;
+	/**
+	 * Number of bytes of the unsaved text in the session file
+	 */
+	private final long textSize;
+
+	/**
+	 * Constructor that creates new {@link SessionEntry} object.
+	 *
+	 * @param path           {@link #path}
+	 * @param dot            {@link #dot}
+	 * @param mark           {@link #mark}
+	 * @param scrollPosition {@link #scrollPosition}
+	 * @param text           {@link #text}
+	 */
+	public SessionEntry(Path path, int dot, int mark, Point scrollPosition, CharSource text) {
+		this(path, dot, mark, scrollPosition, text, -1, 0);
+	}
+
+	/**
+	 * Constructor that creates new {@link SessionEntry} object whose text is stored in the session file.
+	 *
+	 * @param path           {@link #path}
+	 * @param dot            {@link #dot}
+	 * @param mark           {@link #mark}
+	 * @param scrollPosition {@link #scrollPosition}
+	 * @param textPosition   {@link #textPosition}
+	 * @param textSize       {@link #textSize}
+	 */
+	SessionEntry(Path path, int dot, int mark, Point scrollPosition, long textPosition, long textSize) {
+		this(path, dot, mark, scrollPosition, null, textPosition, textSize);
+	}
+
+	/**
+	 * Constructor that initializes all fields of the {@link SessionEntry}.
+	 *
+	 * @param path           {@link #path}
+	 * @param dot            {@link #dot}
+	 * @param mark           {@link #mark}
+	 * @param scrollPosition {@link #scrollPosition}
+	 * @param text           {@link #text}
+	 * @param textPosition   {@link #textPosition}
+	 * @param textSize       {@link #textSize}
+	 */
+	private SessionEntry(Path path, int dot, int mark, Point scrollPosition, CharSource text,
+			long textPosition, long textSize) {
+		if (dot < 0 || mark < 0)
+			throw new IllegalArgumentException("Caret position must not be negative. Was: " + dot + ", " + mark);
+		this.path = path;
+		this.dot = dot;
+		this.mark = mark;
+		this.scrollPosition = new Point(Objects.requireNonNull(scrollPosition, "Scroll position must not be null"));
+		this.text = text;
+		this.textPosition = textPosition;
+		this.textSize = textSize;
+	}
+
+	/**
+	 * Method returns path of the document.
+	 *
+	 * @return path of the document or {@code null} if document was never saved
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Method returns position of the caret.
+	 *
+	 * @return position of the caret
+	 */
+	public int getDot() {
+		return dot;
+	}
+
+	/**
+	 * Method returns position of the selection mark.
+	 *
+	 * @return position of the selection mark
+	 */
+	public int getMark() {
+		return mark;
+	}
+
+	/**
+	 * Method returns position of the upper left corner of the scrolled view.
+	 *
+	 * @return scroll position
+	 */
+	public Point getScrollPosition() {
+		return new Point(scrollPosition);
+	}
+
+	/**
+	 * Method checks whether entry holds unsaved text of the document.
+	 *
+	 * @return {@code true} if document had unsaved text, otherwise {@code false}
+	 */
+	public boolean hasText() {
+		return text != null || textPosition >= 0;
+	}
+
+	/**
+	 * Method returns unsaved text that entry holds in memory.
+	 *
+	 * @return unsaved text or {@code null} if there is no text in memory
+	 */
+	CharSource getText() {
+		return text;
+	}
+
+	/**
+	 * Method returns position of the unsaved text in the session file.
+	 *
+	 * @return position of the text or -1 if it is not stored in the session file
+	 */
+	long getTextPosition() {
+		return textPosition;
+	}
+
+	/**
+	 * Method returns number of bytes of the unsaved text in the session file.
+	 *
+	 * @return size of the text in bytes
+	 */
+	long getTextSize() {
+		return textSize;
+	}
+
+}
@@ -0,0 +1,213 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.transform;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharSource;
+
+/**
+ * Class represents converter of the case of letters. </br>
+ * Text is converted in chunks of fixed size, so only one chunk and the result are in memory.
+ * Chunks are cut between words whenever possible and never inside of a surrogate pair,
+ * so locale specific and context sensitive mappings, such as Greek final sigma,
+ * give the same result as conversion of the whole text at once.
+ * </p>
+ *
+ * Converted text can have different length than the original,
+ * for example when German sharp s is converted to upper case.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class CaseConverter implements TextTransform {
+
+	/**
+	 * Number of characters converted at once
+	 */
+	private static final int CHUNK_SIZE = 1 << 16;
+	/**
+	 * Maximal number of characters by which chunk is shortened to end between words
+	 */
+	private static final int MAX_WORD_LENGTH = 256;
+
+	/**
+	 * Enumeration of supported conversions.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	public enum Conversion {
+		/**
+		 * Conversion to upper case
+		 */
+		UPPERCASE,
+		/**
+		 * Conversion to lower case
+		 */
+		LOWERCASE,
+		/**
+		 * Conversion of upper case letters to lower case and vice versa
+		 */
+		INVERTCASE
+	}
+
+	/**
+	 * Conversion that is done
+	 */
+	private final Conversion conversion;
+	/**
+	 * Locale whose case mapping rules are used
+	 */
+	private final Locale locale;
+
+	/**
+	 * Constructor that creates new {@link CaseConverter} object.
+	 *
+	 * @param conversion conversion that is done
+	 * @param locale     locale whose case mapping rules are used
+	 */
+	public CaseConverter(Conversion conversion, Locale locale) {
+		this.conversion = Objects.requireNonNull(conversion, "Conversion must not be null");
+		this.locale = Objects.requireNonNull(locale, "Locale must not be null");
+	}
+
+	/**
+	 * Method converts case of given {@code text} between offsets {@code start} and {@code end}.
+	 * Conversion stops with {@link InterruptedException} once current thread is interrupted.
+	 *
+	 * @param text                  text that is converted
+	 * @param start                 start of the converted range
+	 * @param end                   end of the converted range
+	 * @param progressListener      listener of conversion progress in percentages
+	 * @return                      converted text
+	 * @throws InterruptedException if current thread was interrupted
+	 */
+	@Override
+	public String transform(CharSource text, int start, int end, IntConsumer progressListener)
+			throws InterruptedException {
+		Objects.requireNonNull(text, "Text must not be null");
+		if (start < 0 || start > end || end > text.length())
+			throw new IndexOutOfBoundsException("Invalid range: " + start + ", " + end);
+
+		StringBuilder sb = new StringBuilder(end - start);
+		char[] chunk = new char[Math.min(CHUNK_SIZE, end - start)];
+		int offset = start;
+		while (offset < end) {
+			if (Thread.currentThread().isInterrupted())
+				throw new InterruptedException("Case conversion was interrupted.");
+			int count = Math.min(chunk.length, end - offset);
+			text.getChars(offset, offset + count, chunk, 0);
+			if (offset + count < end) {
+				count = findCut(chunk, count);
+			}
+			convert(chunk, count, sb);
+			offset += count;
+			TextTransform.reportProgress(progressListener, start, end, offset);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Method finds length of the chunk so that it ends between words,
+	 * or at least not inside of a surrogate pair.
+	 *
+	 * @param chunk chunk of text
+	 * @param count number of characters in the chunk
+	 * @return      length to which chunk is shortened
+	 */
+	private static int findCut(char[] chunk, int count) {
+		for (int i = count - 1; i >= Math.max(1, count - MAX_WORD_LENGTH); i--) {
+			if (Character.isWhitespace(chunk[i]))
+				return i + 1;
+		}
+		return Character.isHighSurrogate(chunk[count - 1]) ? count - 1 : count;
+	}
+
+	/**
+	 * Method converts first {@code count} characters of the {@code chunk} and appends them to the {@code sb}.
+	 *
+	 * @param chunk chunk of text
+	 * @param count number of converted characters
+	 * @param sb    builder to which converted characters are appended
+	 */
+	private void convert(char[] chunk, int count, StringBuilder sb) {
+		switch (conversion) {
+		case UPPERCASE:
+			sb.append(new String(chunk, 0, count).toUpperCase(locale));
+			break;
+		case LOWERCASE:
+			sb.append(new String(chunk, 0, count).toLowerCase(locale));
+			break;
+		case INVERTCASE:
+			invertCase(chunk, count, sb);
+			break;
+		}
+	}
+
+	/**
+	 * Method inverts case of first {@code count} characters of the {@code chunk}
+	 * and appends them to the {@code sb}. </br>
+	 * Text is split into runs of code points of the same case and every run is converted at once,
+	 * so locale specific mappings are respected.
+	 *
+	 * @param chunk chunk of text
+	 * @param count number of converted characters
+	 * @param sb    builder to which converted characters are appended
+	 */
+	private void invertCase(char[] chunk, int count, StringBuilder sb) {
+		int runStart = 0;
+		int runCase = 0;
+		int i = 0;
+		while (i < count) {
+			int codePoint = Character.codePointAt(chunk, i, count);
+			int pointCase = caseOf(codePoint);
+			if (pointCase != runCase) {
+				appendRun(chunk, runStart, i, runCase, sb);
+				runStart = i;
+				runCase = pointCase;
+			}
+			i += Character.charCount(codePoint);
+		}
+		appendRun(chunk, runStart, count, runCase, sb);
+	}
+
+	/**
+	 * Method returns case of given {@code codePoint}.
+	 *
+	 * @param codePoint code point
+	 * @return          {@code 1} for upper and title case letters, {@code -1} for lower case letters,
+	 *                  {@code 0} for other code points
+	 */
+	private static int caseOf(int codePoint) {
+		if (Character.isUpperCase(codePoint) || Character.isTitleCase(codePoint))
+			return 1;
+		if (Character.isLowerCase(codePoint))
+			return -1;
+		return 0;
+	}
+
+	/**
+	 * Method appends run of code points of the same case with inverted case.
+	 *
+	 * @param chunk   chunk of text
+	 * @param start   start of the run
+	 * @param end     end of the run
+	 * @param runCase case of the run, as returned by {@link #caseOf(int)}
+	 * @param sb      builder to which run is appended
+	 */
+	private void appendRun(char[] chunk, int start, int end, int runCase, StringBuilder sb) {
+		if (start == end)
+			return;
+		if (runCase == 0) {
+			sb.append(chunk, start, end - start);
+		} else if (runCase > 0) {
+			sb.append(new String(chunk, start, end - start).toLowerCase(locale));
+		} else {
+			sb.append(new String(chunk, start, end - start).toUpperCase(locale));
+		}
+	}
+
+}
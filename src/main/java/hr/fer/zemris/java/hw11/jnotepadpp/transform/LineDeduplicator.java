@@ -0,0 +1,372 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.transform;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharSource;
+
+/**
+ * Class represents remover of equal lines of text. First occurrence of every line is kept. </br>
+ * Lines are never copied into separate strings: every line is identified by 64-bit hash
+ * of its characters and offset of its first occurrence in the original text.
+ * When hashes of two lines are equal, their characters are compared in the original text,
+ * so hash collisions never remove distinct lines.
+ * </p>
+ *
+ * Lines can be compared ignoring case and it is possible to remove only
+ * lines that are equal to the line right before them. Lines can be terminated with
+ * {@code \r\n}, {@code \r} or {@code \n}, kept lines keep their original terminators.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class LineDeduplicator implements TextTransform {
+
+	/**
+	 * Number of characters read at once
+	 */
+	private static final int CHUNK_SIZE = 1 << 16;
+	/**
+	 * Offset basis of the FNV-1a hash
+	 */
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	/**
+	 * Prime of the FNV-1a hash
+	 */
+	private static final long FNV_PRIME = 0x100000001b3L;
+	/**
+	 * Initial capacity of the table of lines
+	 */
+	private static final int INITIAL_CAPACITY = 1 << 10;
+	/**
+	 * Number of lines processed between two progress reports
+	 */
+	private static final int PROGRESS_LINES = 1 << 12;
+
+	/**
+	 * Flag that shows whether only adjacent equal lines are removed
+	 */
+	private final boolean adjacentOnly;
+	/**
+	 * Flag that shows whether case of letters is ignored
+	 */
+	private final boolean ignoreCase;
+
+	/**
+	 * Text whose lines are compared
+	 */
+	private CharSource text;
+	/**
+	 * Hashes of kept lines, in open addressing table
+	 */
+	private long[] hashes;
+	/**
+	 * Start offsets of kept lines, {@code -1} for empty slots of the table
+	 */
+	private int[] starts;
+	/**
+	 * Lengths of kept lines, without terminators
+	 */
+	private int[] lengths;
+	/**
+	 * Number of lines in the table
+	 */
+	private int size;
+	/**
+	 * End of the range whose lines are compared
+	 */
+	private int end;
+	/**
+	 * Chunk of the text that is being scanned
+	 */
+	private char[] chunk = new char[CHUNK_SIZE];
+	/**
+	 * Offset of the first character of the {@link #chunk}
+	 */
+	private int chunkStart;
+	/**
+	 * Offset after the last character of the {@link #chunk}
+	 */
+	private int chunkEnd;
+	/**
+	 * Buffer used for comparison and copying of lines
+	 */
+	private char[] first = new char[CHUNK_SIZE];
+	/**
+	 * Buffer used for comparison of lines
+	 */
+	private char[] second = new char[CHUNK_SIZE];
+
+	/**
+	 * Constructor that creates new {@link LineDeduplicator} object.
+	 *
+	 * @param adjacentOnly flag that shows whether only adjacent equal lines are removed
+	 * @param ignoreCase   flag that shows whether case of letters is ignored
+	 */
+	public LineDeduplicator(boolean adjacentOnly, boolean ignoreCase) {
+		this.adjacentOnly = adjacentOnly;
+		this.ignoreCase = ignoreCase;
+	}
+
+	/**
+	 * Method removes equal lines of given {@code text} between offsets {@code start} and {@code end}.
+	 * Result ends with line terminator only if the range ends with one.
+	 *
+	 * @param text                  text whose equal lines are removed
+	 * @param start                 start of the range
+	 * @param end                   end of the range
+	 * @param progressListener      listener of progress in percentages
+	 * @return                      text of the range without equal lines
+	 * @throws InterruptedException if current thread was interrupted
+	 */
+	public String removeEqualLines(CharSource text, int start, int end, IntConsumer progressListener)
+			throws InterruptedException {
+		Objects.requireNonNull(text, "Text must not be null");
+		if (start < 0 || start > end || end > text.length())
+			throw new IndexOutOfBoundsException("Invalid range: " + start + ", " + end);
+		this.text = text;
+		this.end = end;
+		chunkStart = chunkEnd = start;
+		initTable();
+
+		StringBuilder sb = new StringBuilder();
+		int previousStart = -1;
+		int previousLength = 0;
+		long previousHash = 0;
+		int lineStart = start;
+		int lineCount = 0;
+		while (lineStart < end) {
+			if (++lineCount % PROGRESS_LINES == 0) {
+				if (Thread.currentThread().isInterrupted())
+					throw new InterruptedException("Removing of equal lines was interrupted.");
+				TextTransform.reportProgress(progressListener, start, end, lineStart);
+			}
+			long hash = FNV_OFFSET;
+			int offset = lineStart;
+			char c = 0;
+			while (offset < end && (c = charAt(offset)) != '\n' && c != '\r') {
+				hash = (hash ^ fold(c)) * FNV_PRIME;
+				offset++;
+			}
+			int length = offset - lineStart;
+			int nextLine = offset;
+			if (offset < end) {
+				nextLine++;
+				if (c == '\r' && nextLine < end && charAt(nextLine) == '\n') {
+					nextLine++;
+				}
+			}
+
+			boolean isDuplicate;
+			if (adjacentOnly) {
+				isDuplicate = previousStart != -1 && previousHash == hash
+						&& regionsEqual(previousStart, lineStart, previousLength, length);
+				previousStart = lineStart;
+				previousLength = length;
+				previousHash = hash;
+			} else {
+				isDuplicate = !add(hash, lineStart, length);
+			}
+			if (!isDuplicate) {
+				append(sb, lineStart, nextLine);
+			}
+			lineStart = nextLine;
+		}
+
+		if (!endsWithTerminator(start, end)) {
+			stripTerminator(sb);
+		}
+		this.text = null;
+		hashes = null;
+		starts = null;
+		lengths = null;
+		return sb.toString();
+	}
+
+	@Override
+	public String transform(CharSource text, int start, int end, IntConsumer progressListener)
+			throws InterruptedException {
+		String result = removeEqualLines(text, start, end, progressListener);
+		return result.length() == end - start ? null : result;
+	}
+
+	/**
+	 * Method returns character of the text at given {@code offset}.
+	 * Text is read in chunks, so consecutive characters are read from {@link #chunk}.
+	 *
+	 * @param offset offset of the character
+	 * @return       character at given offset
+	 */
+	private char charAt(int offset) {
+		if (offset < chunkStart || offset >= chunkEnd) {
+			chunkStart = offset;
+			chunkEnd = Math.min(end, offset + CHUNK_SIZE);
+			text.getChars(chunkStart, chunkEnd, chunk, 0);
+		}
+		return chunk[offset - chunkStart];
+	}
+
+	/**
+	 * Method returns character used for hashing and comparison of given character {@code c}.
+	 * If case is ignored, it is the same for characters that are equal
+	 * according to {@link String#equalsIgnoreCase(String)}.
+	 *
+	 * @param c character
+	 * @return  character used for comparison
+	 */
+	private char fold(char c) {
+		return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+	}
+
+	/**
+	 * Method adds line to the table if equal line is not in the table already.
+	 *
+	 * @param hash   hash of the line
+	 * @param start  start offset of the line
+	 * @param length length of the line
+	 * @return       {@code true} if line was added, {@code false} if equal line is in the table
+	 */
+	private boolean add(long hash, int start, int length) {
+		int mask = starts.length - 1;
+		for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+			if (starts[slot] == -1) {
+				hashes[slot] = hash;
+				starts[slot] = start;
+				lengths[slot] = length;
+				if (++size > starts.length >> 1) {
+					growTable();
+				}
+				return true;
+			}
+			if (hashes[slot] == hash && regionsEqual(starts[slot], start, lengths[slot], length))
+				return false;
+		}
+	}
+
+	/**
+	 * Method creates empty table of lines.
+	 */
+	private void initTable() {
+		hashes = new long[INITIAL_CAPACITY];
+		starts = new int[INITIAL_CAPACITY];
+		lengths = new int[INITIAL_CAPACITY];
+		Arrays.fill(starts, -1);
+		size = 0;
+	}
+
+	/**
+	 * Method doubles capacity of the table of lines.
+	 */
+	private void growTable() {
+		long[] oldHashes = hashes;
+		int[] oldStarts = starts;
+		int[] oldLengths = lengths;
+		int capacity = oldStarts.length << 1;
+		hashes = new long[capacity];
+		starts = new int[capacity];
+		lengths = new int[capacity];
+		Arrays.fill(starts, -1);
+
+		int mask = capacity - 1;
+		for (int i = 0; i < oldStarts.length; i++) {
+			if (oldStarts[i] == -1)
+				continue;
+			int slot = mix(oldHashes[i]) & mask;
+			while (starts[slot] != -1) {
+				slot = (slot + 1) & mask;
+			}
+			hashes[slot] = oldHashes[i];
+			starts[slot] = oldStarts[i];
+			lengths[slot] = oldLengths[i];
+		}
+	}
+
+	/**
+	 * Method spreads bits of given {@code hash} for indexing the table.
+	 *
+	 * @param hash hash of the line
+	 * @return     mixed hash
+	 */
+	private static int mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		return (int) hash;
+	}
+
+	/**
+	 * Method compares two lines of the text.
+	 *
+	 * @param firstStart    start of the first line
+	 * @param secondStart   start of the second line
+	 * @param firstLength   length of the first line
+	 * @param secondLength  length of the second line
+	 * @return              {@code true} if lines are equal, otherwise {@code false}
+	 */
+	private boolean regionsEqual(int firstStart, int secondStart, int firstLength, int secondLength) {
+		if (firstLength != secondLength)
+			return false;
+		for (int done = 0; done < firstLength; ) {
+			int count = Math.min(CHUNK_SIZE, firstLength - done);
+			text.getChars(firstStart + done, firstStart + done + count, first, 0);
+			text.getChars(secondStart + done, secondStart + done + count, second, 0);
+			for (int i = 0; i < count; i++) {
+				if (first[i] != second[i] && fold(first[i]) != fold(second[i]))
+					return false;
+			}
+			done += count;
+		}
+		return true;
+	}
+
+	/**
+	 * Method appends characters of the text between {@code start} and {@code end} to the {@code sb}.
+	 *
+	 * @param sb    builder to which characters are appended
+	 * @param start start of the appended characters
+	 * @param end   end of the appended characters
+	 */
+	private void append(StringBuilder sb, int start, int end) {
+		for (int offset = start; offset < end; ) {
+			int count = Math.min(CHUNK_SIZE, end - offset);
+			text.getChars(offset, offset + count, first, 0);
+			sb.append(first, 0, count);
+			offset += count;
+		}
+	}
+
+	/**
+	 * Method checks if range of the text ends with line terminator.
+	 *
+	 * @param start start of the range
+	 * @param end   end of the range
+	 * @return      {@code true} if range ends with line terminator, otherwise {@code false}
+	 */
+	private boolean endsWithTerminator(int start, int end) {
+		if (start == end)
+			return false;
+		char last = text.charAt(end - 1);
+		return last == '\n' || last == '\r';
+	}
+
+	/**
+	 * Method removes line terminator from the end of the {@code sb}, if there is one.
+	 *
+	 * @param sb builder whose terminator is removed
+	 */
+	private static void stripTerminator(StringBuilder sb) {
+		int length = sb.length();
+		if (length > 0 && sb.charAt(length - 1) == '\n') {
+			length--;
+			if (length > 0 && sb.charAt(length - 1) == '\r') {
+				length--;
+			}
+		} else if (length > 0 && sb.charAt(length - 1) == '\r') {
+			length--;
+		}
+		sb.setLength(length);
+	}
+
+}
@@ -0,0 +1,160 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.transform;
+
+import java.util.Objects;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharSource;
+
+/**
+ * Class represents reader of lines of a range of text. </br>
+ * Lines can be terminated with {@code \r\n}, {@code \r} or {@code \n}, terminators are not part of read lines.
+ * Text is read in chunks, so text of {@link CharSource} is copied only once.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+class LineReader {
+
+	/**
+	 * Number of characters read at once
+	 */
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * Text whose lines are read
+	 */
+	private final CharSequence text;
+	/**
+	 * End of the read range
+	 */
+	private final int end;
+	/**
+	 * Offset in the text of the first character after the chunk
+	 */
+	private int offset;
+	/**
+	 * Current chunk of text
+	 */
+	private final char[] chunk;
+	/**
+	 * Position of next character in the chunk
+	 */
+	private int position;
+	/**
+	 * Number of characters in the chunk
+	 */
+	private int count;
+	/**
+	 * Flag that shows whether last read line was terminated
+	 */
+	private boolean terminated;
+
+	/**
+	 * Constructor that creates new {@link LineReader} object.
+	 *
+	 * @param text  text whose lines are read
+	 * @param start start of the read range
+	 * @param end   end of the read range
+	 */
+	LineReader(CharSequence text, int start, int end) {
+		this.text = Objects.requireNonNull(text, "Text must not be null");
+		if (start < 0 || start > end || end > text.length())
+			throw new IndexOutOfBoundsException("Invalid range: " + start + ", " + end);
+		this.offset = start;
+		this.end = end;
+		this.chunk = new char[Math.min(CHUNK_SIZE, end - start)];
+	}
+
+	/**
+	 * Method reads next line.
+	 *
+	 * @return next line or {@code null} if there are no more lines
+	 */
+	String nextLine() {
+		StringBuilder sb = null;
+		while (true) {
+			if (position == count && !fill()) {
+				if (sb == null)
+					return null;
+				terminated = false;
+				return sb.toString();
+			}
+
+			int lineStart = position;
+			while (position < count && chunk[position] != '\n' && chunk[position] != '\r') {
+				position++;
+			}
+			if (position == count) {
+				if (sb == null) {
+					sb = new StringBuilder();
+				}
+				sb.append(chunk, lineStart, position - lineStart);
+				continue;
+			}
+
+			String line;
+			if (sb == null) {
+				line = new String(chunk, lineStart, position - lineStart);
+			} else {
+				line = sb.append(chunk, lineStart, position - lineStart).toString();
+			}
+			if (chunk[position++] == '\r' && peek() == '\n') {
+				position++;
+			}
+			terminated = true;
+			return line;
+		}
+	}
+
+	/**
+	 * Method returns offset in the text of the first character that is not read yet.
+	 *
+	 * @return offset of the first unread character
+	 */
+	int position() {
+		return offset - count + position;
+	}
+
+	/**
+	 * Method checks whether the last read line was terminated with line terminator.
+	 * If all lines are read, it shows whether read range ends with line terminator.
+	 *
+	 * @return {@code true} if last read line was terminated, otherwise {@code false}
+	 */
+	boolean endsWithTerminator() {
+		return terminated;
+	}
+
+	/**
+	 * Method returns next character without reading it.
+	 *
+	 * @return next character or {@code 0} if there are no more characters
+	 */
+	private char peek() {
+		if (position == count && !fill())
+			return 0;
+		return chunk[position];
+	}
+
+	/**
+	 * Method reads next chunk of text.
+	 *
+	 * @return {@code true} if chunk was read, {@code false} if there are no more characters
+	 */
+	private boolean fill() {
+		if (offset == end)
+			return false;
+		count = Math.min(chunk.length, end - offset);
+		if (text instanceof CharSource) {
+			((CharSource) text).getChars(offset, offset + count, chunk, 0);
+		} else {
+			for (int i = 0; i < count; i++) {
+				chunk[i] = text.charAt(offset + i);
+			}
+		}
+		offset += count;
+		position = 0;
+		return true;
+	}
+
+}
@@ -0,0 +1,301 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.transform;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharSource;
+
+/**
+ * Class represents sorter of text lines according to the given {@link Collator}. </br>
+ * Collation key of every line is computed only once, in parallel,
+ * and keys are then sorted with {@link Arrays#parallelSort(Object[], Comparator)}.
+ * Sorting is stable, so equal lines keep their order.
+ * </p>
+ *
+ * If estimated memory needed for sorting exceeds given memory budget,
+ * lines are sorted in runs that fit into the budget, every run is written to temporary file
+ * and sorted runs are then merged, so only one line of every run is in memory at once.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class LineSorter implements TextTransform {
+
+	/**
+	 * Default memory budget in bytes
+	 */
+	private static final long DEFAULT_MEMORY_BUDGET = Runtime.getRuntime().maxMemory() / 8;
+	/**
+	 * Estimated number of bytes used for every character of sorted line, by the line and its collation key
+	 */
+	private static final int BYTES_PER_CHAR = 6;
+	/**
+	 * Estimated number of bytes used by objects of every sorted line
+	 */
+	private static final int BYTES_PER_LINE = 96;
+	/**
+	 * Number of lines read between two progress reports
+	 */
+	private static final int PROGRESS_LINES = 1 << 12;
+
+	/**
+	 * Collator that compares lines
+	 */
+	private final Collator collator;
+	/**
+	 * Order of sorted keys
+	 */
+	private final Comparator<CollationKey> order;
+	/**
+	 * Memory budget in bytes
+	 */
+	private final long memoryBudget;
+	/**
+	 * Copies of the collator for threads that compute collation keys, collator is not thread safe
+	 */
+	private final ThreadLocal<Collator> collators;
+
+	/**
+	 * Constructor that creates new {@link LineSorter} object with default memory budget.
+	 *
+	 * @param collator    collator that compares lines
+	 * @param isAscending flag that shows whether lines are sorted in ascending or descending order
+	 */
+	public LineSorter(Collator collator, boolean isAscending) {
+		this(collator, isAscending, DEFAULT_MEMORY_BUDGET);
+	}
+
+	/**
+	 * Constructor that creates new {@link LineSorter} object.
+	 *
+	 * @param collator     collator that compares lines
+	 * @param isAscending  flag that shows whether lines are sorted in ascending or descending order
+	 * @param memoryBudget memory in bytes that can be used for sorting in memory
+	 */
+	public LineSorter(Collator collator, boolean isAscending, long memoryBudget) {
+		this.collator = Objects.requireNonNull(collator, "Collator must not be null");
+		this.order = isAscending ? Comparator.naturalOrder() : Comparator.reverseOrder();
+		this.memoryBudget = memoryBudget;
+		this.collators = ThreadLocal.withInitial(() -> (Collator) collator.clone());
+	}
+
+	/**
+	 * Method sorts lines of given {@code text} between offsets {@code start} and {@code end}. </br>
+	 * Lines can be terminated with {@code \r\n}, {@code \r} or {@code \n}.
+	 * Lines of sorted text are terminated with {@code \n}. Sorted text ends with line terminator
+	 * only if sorted range ends with one.
+	 * Lines are read in the first half of the progress, sorted and merged in the second one.
+	 *
+	 * @param text                  text whose lines are sorted
+	 * @param start                 start of the sorted range
+	 * @param end                   end of the sorted range
+	 * @param progressListener      listener of sorting progress in percentages
+	 * @return                      sorted lines
+	 * @throws IOException          if lines can not be sorted on disk
+	 * @throws InterruptedException if current thread was interrupted
+	 */
+	public String sort(CharSequence text, int start, int end, IntConsumer progressListener)
+			throws IOException, InterruptedException {
+		LineReader reader = new LineReader(text, start, end);
+		List<String> lines = new ArrayList<>();
+		List<Path> runs = new ArrayList<>();
+		StringBuilder sb = new StringBuilder(end - start);
+		try {
+			long size = 0;
+			String line;
+			int count = 0;
+			while ((line = reader.nextLine()) != null) {
+				if (++count % PROGRESS_LINES == 0) {
+					checkInterrupted();
+					TextTransform.reportProgress(progressListener, start, 2 * end - start, reader.position());
+				}
+				lines.add(line);
+				size += BYTES_PER_LINE + (long) BYTES_PER_CHAR * line.length();
+				if (size > memoryBudget) {
+					runs.add(writeRun(sortLines(lines)));
+					lines.clear();
+					size = 0;
+				}
+			}
+
+			if (runs.isEmpty()) {
+				for (String sortedLine : sortLines(lines)) {
+					sb.append(sortedLine).append('\n');
+				}
+			} else {
+				if (!lines.isEmpty()) {
+					runs.add(writeRun(sortLines(lines)));
+					lines.clear();
+				}
+				checkInterrupted();
+				mergeRuns(runs, sb);
+			}
+			progressListener.accept(100);
+		} finally {
+			for (Path run : runs) {
+				Files.deleteIfExists(run);
+			}
+		}
+
+		if (!reader.endsWithTerminator() && sb.length() > 0) {
+			sb.setLength(sb.length() - 1);
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public String transform(CharSource text, int start, int end, IntConsumer progressListener)
+			throws IOException, InterruptedException {
+		return sort(text, start, end, progressListener);
+	}
+
+	/**
+	 * Method checks if current thread is interrupted.
+	 *
+	 * @throws InterruptedException if current thread is interrupted
+	 */
+	private static void checkInterrupted() throws InterruptedException {
+		if (Thread.currentThread().isInterrupted())
+			throw new InterruptedException("Sorting was interrupted.");
+	}
+
+	/**
+	 * Method sorts given {@code lines} in memory.
+	 *
+	 * @param lines lines that are sorted
+	 * @return      sorted lines
+	 */
+	private String[] sortLines(List<String> lines) {
+		CollationKey[] keys = new CollationKey[lines.size()];
+		IntStream.range(0, keys.length).parallel()
+				.forEach(i -> keys[i] = collators.get().getCollationKey(lines.get(i)));
+		Arrays.parallelSort(keys, order);
+
+		String[] sorted = new String[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			sorted[i] = keys[i].getSourceString();
+		}
+		return sorted;
+	}
+
+	/**
+	 * Method writes given sorted {@code lines} to new temporary file.
+	 *
+	 * @param lines        sorted lines
+	 * @return             path of the temporary file
+	 * @throws IOException if lines can not be written
+	 */
+	private static Path writeRun(String[] lines) throws IOException {
+		Path run = Files.createTempFile("jnotepadpp-sort", ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+			for (String line : lines) {
+				writer.write(line);
+				writer.write('\n');
+			}
+		}
+		return run;
+	}
+
+	/**
+	 * Method merges sorted runs and appends merged lines to the {@code sb}.
+	 *
+	 * @param runs         paths of the sorted runs
+	 * @param sb           builder to which merged lines are appended
+	 * @throws IOException if runs can not be read
+	 */
+	private void mergeRuns(List<Path> runs, StringBuilder sb) throws IOException {
+		PriorityQueue<Run> queue = new PriorityQueue<>();
+		try {
+			for (int i = 0; i < runs.size(); i++) {
+				Run run = new Run(Files.newBufferedReader(runs.get(i), StandardCharsets.UTF_8), i);
+				if (run.advance()) {
+					queue.add(run);
+				} else {
+					run.reader.close();
+				}
+			}
+			while (!queue.isEmpty()) {
+				Run run = queue.poll();
+				sb.append(run.key.getSourceString()).append('\n');
+				if (run.advance()) {
+					queue.add(run);
+				} else {
+					run.reader.close();
+				}
+			}
+		} finally {
+			for (Run run : queue) {
+				run.reader.close();
+			}
+		}
+	}
+
+	/**
+	 * Class represents sorted run that is being merged.
+	 * Runs are ordered by their current lines, equal lines are ordered by index of the run.
+	 *
+	 * @author Ante Gazibaric
+	 * @version 1.0
+	 *
+	 */
+	private class Run implements Comparable<Run> {
+
+		/**
+		 * Reader of the run
+		 */
+		private final BufferedReader reader;
+		/**
+		 * Index of the run
+		 */
+		private final int index;
+		/**
+		 * Collation key of the current line
+		 */
+		private CollationKey key;
+
+		/**
+		 * Constructor that creates new {@link Run} object.
+		 *
+		 * @param reader {@link #reader}
+		 * @param index  {@link #index}
+		 */
+		Run(BufferedReader reader, int index) {
+			this.reader = reader;
+			this.index = index;
+		}
+
+		/**
+		 * Method reads next line of the run.
+		 *
+		 * @return             {@code true} if line was read, {@code false} if run has no more lines
+		 * @throws IOException if line can not be read
+		 */
+		boolean advance() throws IOException {
+			String line = reader.readLine();
+			key = line == null ? null : collator.getCollationKey(line);
+			return line != null;
+		}
+
+		@Override
+		public int compareTo(Run other) {
+			int result = order.compare(key, other.key);
+			return result != 0 ? result : Integer.compare(index, other.index);
+		}
+	}
+
+}
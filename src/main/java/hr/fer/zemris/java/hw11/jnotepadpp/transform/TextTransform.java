@@ -0,0 +1,52 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.transform;
+
+import java.io.IOException;
+import java.util.function.IntConsumer;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharSource;
+
+/**
+ * Interface represents transformation of a range of text, such as sorting of lines
+ * or conversion of letter case. </br>
+ * Transformation is run on a worker thread, so it must only read given text
+ * and it should not use any Swing components.
+ * </p>
+ *
+ * Long transformations should report their progress and stop
+ * with {@link InterruptedException} once their thread is interrupted.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+@FunctionalInterface
+public interface TextTransform {
+
+	/**
+	 * Method transforms given {@code text} between offsets {@code start} and {@code end}.
+	 *
+	 * @param text                  text that is transformed
+	 * @param start                 start of the transformed range
+	 * @param end                   end of the transformed range
+	 * @param progressListener      listener of transformation progress in percentages
+	 * @return                      text that replaces transformed range or {@code null} if range is not changed
+	 * @throws IOException          if transformation failed
+	 * @throws InterruptedException if current thread was interrupted
+	 */
+	String transform(CharSource text, int start, int end, IntConsumer progressListener)
+			throws IOException, InterruptedException;
+
+	/**
+	 * Method reports progress of processing of the range between {@code start} and {@code end},
+	 * once {@code offset} is reached.
+	 *
+	 * @param progressListener listener of transformation progress
+	 * @param start            start of the transformed range
+	 * @param end              end of the transformed range
+	 * @param offset           offset that is reached
+	 */
+	static void reportProgress(IntConsumer progressListener, int start, int end, int offset) {
+		progressListener.accept((int) ((offset - start) * 100L / Math.max(1, end - start)));
+	}
+
+}
@@ -0,0 +1,126 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.swing.text.BadLocationException;
+
+import org.junit.Test;
+
+/**
+ * Class represents tests of {@link PieceTableContent}.
+ * Random edits are applied to the content and to the {@link StringBuilder} that serves as an oracle.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class PieceTableContentTest {
+
+	/**
+	 * Number of random edits in a test
+	 */
+	private static final int EDIT_COUNT = 2000;
+
+	/**
+	 * Method tests that random insertions and removals give the same text as the oracle.
+	 *
+	 * @throws BadLocationException if edit is outside of the content
+	 */
+	@Test
+	public void testRandomEdits() throws BadLocationException {
+		Random random = new Random(42);
+		PieceTableContent content = new PieceTableContent(CharSource.of("original text\nof the content"));
+		StringBuilder oracle = new StringBuilder("original text\nof the content\n");
+
+		for (int i = 0; i < EDIT_COUNT; i++) {
+			edit(content, oracle, random, i);
+			assertEquals(oracle.length(), content.length());
+		}
+		assertEquals(oracle.toString(), content.getString(0, content.length()));
+
+		for (int i = 0; i < 100; i++) {
+			int where = random.nextInt(oracle.length());
+			int length = random.nextInt(oracle.length() - where + 1);
+			assertEquals(oracle.substring(where, where + length), content.getString(where, length));
+		}
+	}
+
+	/**
+	 * Method tests that snapshot keeps the text it was taken of while content is edited afterwards.
+	 *
+	 * @throws BadLocationException if edit is outside of the content
+	 */
+	@Test
+	public void testSnapshotIsNotChangedByLaterEdits() throws BadLocationException {
+		Random random = new Random(7);
+		PieceTableContent content = new PieceTableContent();
+		StringBuilder oracle = new StringBuilder("\n");
+		List<TextSnapshot> snapshots = new ArrayList<>();
+		List<String> texts = new ArrayList<>();
+
+		for (int i = 0; i < EDIT_COUNT; i++) {
+			edit(content, oracle, random, i);
+			if (i % 100 == 0) {
+				snapshots.add(content.snapshot(content.length() - 1));
+				texts.add(oracle.substring(0, oracle.length() - 1));
+			}
+		}
+		for (int i = 0; i < snapshots.size(); i++) {
+			assertEquals(texts.get(i), snapshots.get(i).toString());
+		}
+	}
+
+	/**
+	 * Method tests that fingerprint does not depend on how text is split into pieces,
+	 * but text that is typed again has different fingerprint than the original text.
+	 *
+	 * @throws BadLocationException if edit is outside of the content
+	 */
+	@Test
+	public void testFingerprintDependsOnOrigins() throws BadLocationException {
+		PieceTableContent content = new PieceTableContent(CharSource.of("hello world"));
+		long original = content.getFingerprint();
+
+		content.insertString(5, ",");
+		assertNotEquals(original, content.getFingerprint());
+		content.remove(5, 1);
+		assertEquals(original, content.getFingerprint());
+
+		content.remove(0, 1);
+		content.insertString(0, "h");
+		assertEquals("hello world\n", content.getString(0, content.length()));
+		assertNotEquals(original, content.getFingerprint());
+	}
+
+	/**
+	 * Method applies a random insertion or removal to the {@code content} and the {@code oracle}.
+	 * Implicit new line at the end of the content is never removed.
+	 *
+	 * @param content                content that is edited
+	 * @param oracle                 text that is expected in the content
+	 * @param random                 random generator
+	 * @param index                  index of the edit
+	 * @throws BadLocationException if edit is outside of the content
+	 */
+	private static void edit(PieceTableContent content, StringBuilder oracle, Random random, int index)
+			throws BadLocationException {
+		int length = oracle.length() - 1;
+		if (length > 0 && random.nextInt(3) == 0) {
+			int where = random.nextInt(length);
+			int count = Math.min(length - where, 1 + random.nextInt(20));
+			content.remove(where, count);
+			oracle.delete(where, where + count);
+		} else {
+			int where = random.nextInt(length + 1);
+			String text = random.nextBoolean() ? "x" + index : "line " + index + "\n";
+			content.insertString(where, text);
+			oracle.insert(where, text);
+		}
+	}
+
+}
@@ -0,0 +1,162 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.swing.text.BadLocationException;
+
+import org.junit.Test;
+
+/**
+ * Class represents tests of {@link UndoHistory} that records edits of {@link PieceTableDocument}.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class UndoHistoryTest {
+
+	/**
+	 * Number of random edits in a test
+	 */
+	private static final int EDIT_COUNT = 300;
+
+	/**
+	 * Method tests that undoing all edits and redoing them again restores every intermediate text.
+	 *
+	 * @throws BadLocationException if edit is outside of the document
+	 */
+	@Test
+	public void testUndoRedoRoundTrip() throws BadLocationException {
+		PieceTableDocument document = new PieceTableDocument("first line\nsecond line");
+		UndoHistory history = new UndoHistory();
+		document.addUndoableEditListener(history);
+
+		List<String> texts = new ArrayList<>();
+		List<Long> fingerprints = new ArrayList<>();
+		texts.add(text(document));
+		fingerprints.add(document.getFingerprint());
+		Random random = new Random(3);
+		for (int i = 0; i < EDIT_COUNT; i++) {
+			edit(document, random, i);
+			texts.add(text(document));
+			fingerprints.add(document.getFingerprint());
+		}
+
+		for (int i = EDIT_COUNT - 1; i >= 0; i--) {
+			history.undo();
+			assertEquals(texts.get(i), text(document));
+			assertEquals(fingerprints.get(i).longValue(), document.getFingerprint());
+		}
+		assertFalse(history.canUndo());
+
+		for (int i = 1; i <= EDIT_COUNT; i++) {
+			history.redo();
+			assertEquals(texts.get(i), text(document));
+			assertEquals(fingerprints.get(i).longValue(), document.getFingerprint());
+		}
+		assertFalse(history.canRedo());
+	}
+
+	/**
+	 * Method tests that oldest edits are evicted once history is over its budget
+	 * and that remaining edits are still undone correctly.
+	 *
+	 * @throws BadLocationException if edit is outside of the document
+	 */
+	@Test
+	public void testEvictionOfOldestEdits() throws BadLocationException {
+		long budget = 2000;
+		PieceTableDocument document = new PieceTableDocument();
+		UndoHistory history = new UndoHistory(budget);
+		document.addUndoableEditListener(history);
+
+		List<String> texts = new ArrayList<>();
+		texts.add(text(document));
+		Random random = new Random(5);
+		for (int i = 0; i < EDIT_COUNT; i++) {
+			edit(document, random, i);
+			texts.add(text(document));
+			assertTrue(history.estimateSize() <= budget || !history.canUndo());
+		}
+
+		int undone = 0;
+		while (history.canUndo()) {
+			history.undo();
+			undone++;
+			assertEquals(texts.get(EDIT_COUNT - undone), text(document));
+		}
+		assertTrue(undone > 0);
+		assertTrue(undone < EDIT_COUNT);
+	}
+
+	/**
+	 * Method tests that the last edit is kept even if it alone is over the budget.
+	 *
+	 * @throws BadLocationException if edit is outside of the document
+	 */
+	@Test
+	public void testLastEditIsNeverEvicted() throws BadLocationException {
+		PieceTableDocument document = new PieceTableDocument("text");
+		UndoHistory history = new UndoHistory(1);
+		document.addUndoableEditListener(history);
+
+		document.insertString(0, "first ", null);
+		document.insertString(0, "second ", null);
+		assertTrue(history.canUndo());
+		history.undo();
+		assertEquals("first text", text(document));
+		assertFalse(history.canUndo());
+		assertTrue(history.canRedo());
+		history.redo();
+		assertEquals("second first text", text(document));
+	}
+
+	/**
+	 * Method tests that history can not be created with a budget that is not positive.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testBudgetMustBePositive() {
+		new UndoHistory(0);
+	}
+
+	/**
+	 * Method applies a random edit to the {@code document}.
+	 * Edits change more than a single character, so they are never merged as typing.
+	 *
+	 * @param document               document that is edited
+	 * @param random                 random generator
+	 * @param index                  index of the edit
+	 * @throws BadLocationException if edit is outside of the document
+	 */
+	private static void edit(PieceTableDocument document, Random random, int index) throws BadLocationException {
+		int length = document.getLength();
+		int choice = random.nextInt(3);
+		if (length > 2 && choice == 0) {
+			int offset = random.nextInt(length - 1);
+			document.remove(offset, Math.min(length - offset, 2 + random.nextInt(10)));
+		} else if (length > 2 && choice == 1) {
+			int offset = random.nextInt(length - 1);
+			document.replace(offset, Math.min(length - offset, 2 + random.nextInt(10)), "r" + index, null);
+		} else {
+			document.insertString(random.nextInt(length + 1), "i" + index + "\n", null);
+		}
+	}
+
+	/**
+	 * Method returns whole text of the given {@code document}.
+	 *
+	 * @param document               document whose text is returned
+	 * @return                       text of the document
+	 * @throws BadLocationException never
+	 */
+	private static String text(PieceTableDocument document) throws BadLocationException {
+		return document.getText(0, document.getLength());
+	}
+
+}
@@ -0,0 +1,217 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.swing.text.BadLocationException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+
+/**
+ * Class represents tests of {@link EditJournal}.
+ * Edits are applied to a {@link PieceTableDocument} and recorded in the journal,
+ * which is then replayed from the whole or from the torn journal file.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class EditJournalTest {
+
+	/**
+	 * Interval in milliseconds in which journals of the tests are committed
+	 */
+	private static final int COMMIT_INTERVAL = 10;
+	/**
+	 * Time in milliseconds the test waits for a journal to be written
+	 */
+	private static final long TIMEOUT = 10_000;
+	/**
+	 * Threshold above which replayed files would be mapped
+	 */
+	private static final long MAPPING_THRESHOLD = 1L << 30;
+
+	/**
+	 * Folder in which journals and documents of a test are created
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Method tests that replayed journal gives the text of the document, including unpaired surrogates.
+	 *
+	 * @throws Exception if journal can not be written or replayed
+	 */
+	@Test
+	public void testReplayOfStoredText() throws Exception {
+		PieceTableDocument document = new PieceTableDocument("base\ntext \uD800 of the document");
+		EditJournal journal = new EditJournal(folder.getRoot().toPath().resolve("stored.journal"), COMMIT_INTERVAL);
+		journal.reset(null, document.snapshot(), false);
+		applyEdits(document, journal, new Random(11), 0, 200);
+		journal.close(false).get();
+
+		EditJournal.Header header = EditJournal.readHeader(journal.getFile());
+		assertTrue(header.hasUnsavedText());
+		assertEquals(text(document), text(EditJournal.replay(journal.getFile(), MAPPING_THRESHOLD, null)));
+	}
+
+	/**
+	 * Method tests that journal whose base is a saved file is replayed on top of that file.
+	 *
+	 * @throws Exception if journal can not be written or replayed
+	 */
+	@Test
+	public void testReplayOfSavedFile() throws Exception {
+		Path path = folder.newFile("document.txt").toPath();
+		String content = "saved\nčćž text\n";
+		Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+		PieceTableDocument document = new PieceTableDocument(content);
+		EditJournal journal = new EditJournal(folder.getRoot().toPath().resolve("saved.journal"), COMMIT_INTERVAL);
+		journal.reset(path, document.snapshot(), true);
+		applyEdits(document, journal, new Random(13), 0, 100);
+		journal.close(false).get();
+
+		EditJournal.Header header = EditJournal.readHeader(journal.getFile());
+		assertTrue(header.hasUnsavedText());
+		assertEquals(path.toAbsolutePath(), header.getPath().toAbsolutePath());
+		assertEquals(text(document), text(EditJournal.replay(journal.getFile(), MAPPING_THRESHOLD, null)));
+	}
+
+	/**
+	 * Method tests that journal that is cut anywhere in its last frame is replayed
+	 * up to the end of the previous frame.
+	 *
+	 * @throws Exception if journal can not be written or replayed
+	 */
+	@Test
+	public void testReplayOfTornFrame() throws Exception {
+		PieceTableDocument document = new PieceTableDocument("torn\njournal");
+		Path file = folder.getRoot().toPath().resolve("torn.journal");
+		EditJournal journal = new EditJournal(file, COMMIT_INTERVAL);
+		journal.reset(null, document.snapshot(), false);
+		long baseSize = awaitSize(file, 0);
+		String baseText = text(document);
+
+		Random random = new Random(17);
+		// Edits recorded while journal is locked are committed in a single frame
+		synchronized (journal) {
+			applyEdits(document, journal, random, 0, 50);
+		}
+		long firstSize = awaitSize(file, baseSize);
+		String firstText = text(document);
+
+		synchronized (journal) {
+			applyEdits(document, journal, random, 50, 50);
+		}
+		journal.close(false).get();
+		byte[] bytes = Files.readAllBytes(file);
+		assertEquals(text(document), text(EditJournal.replay(file, MAPPING_THRESHOLD, null)));
+
+		Path torn = folder.getRoot().toPath().resolve("cut.journal");
+		for (long size : new long[] { firstSize, firstSize + 1, firstSize + 6, (firstSize + bytes.length) / 2,
+				bytes.length - 1 }) {
+			Files.write(torn, Arrays.copyOf(bytes, (int) size));
+			assertEquals("Cut at " + size, firstText, text(EditJournal.replay(torn, MAPPING_THRESHOLD, null)));
+		}
+		for (long size : new long[] { baseSize + 3, (baseSize + firstSize) / 2, firstSize - 1 }) {
+			Files.write(torn, Arrays.copyOf(bytes, (int) size));
+			assertEquals("Cut at " + size, baseText, text(EditJournal.replay(torn, MAPPING_THRESHOLD, null)));
+		}
+	}
+
+	/**
+	 * Method tests that journal of a saved file can not be replayed once the file is changed.
+	 *
+	 * @throws Exception if journal can not be written
+	 */
+	@Test
+	public void testReplayFailsIfSavedFileChanged() throws Exception {
+		Path path = folder.newFile("changed.txt").toPath();
+		Files.write(path, "original".getBytes(StandardCharsets.UTF_8));
+		EditJournal journal = new EditJournal(folder.getRoot().toPath().resolve("changed.journal"), COMMIT_INTERVAL);
+		journal.reset(path, CharSource.of("original"), true);
+		journal.recordInsert(0, "edited ");
+		journal.close(false).get();
+
+		Files.write(path, "changed file".getBytes(StandardCharsets.UTF_8));
+		try {
+			EditJournal.replay(journal.getFile(), MAPPING_THRESHOLD, null);
+			fail("Journal of the changed file was replayed");
+		} catch (IOException ex) {
+			// Expected
+		}
+	}
+
+	/**
+	 * Method applies {@code count} random edits to the {@code document} and records them in the {@code journal}.
+	 * Inserted texts contain characters outside of ASCII and unpaired surrogates.
+	 *
+	 * @param document               edited document
+	 * @param journal                journal in which edits are recorded
+	 * @param random                 random generator
+	 * @param first                  index of the first edit
+	 * @param count                  number of edits
+	 * @throws BadLocationException if edit is outside of the document
+	 */
+	private static void applyEdits(PieceTableDocument document, EditJournal journal, Random random, int first,
+			int count) throws BadLocationException {
+		for (int i = first; i < first + count; i++) {
+			int length = document.getLength();
+			if (length > 0 && random.nextInt(3) == 0) {
+				int offset = random.nextInt(length);
+				int removed = Math.min(length - offset, 1 + random.nextInt(5));
+				document.remove(offset, removed);
+				journal.recordRemove(offset, removed);
+			} else {
+				int offset = random.nextInt(length + 1);
+				String inserted = "x" + i + "ž" + (i % 7 == 0 ? "\uD83D" : "") + (i % 11 == 0 ? "\uDE00\n" : "");
+				document.insertString(offset, inserted, null);
+				journal.recordInsert(offset, inserted);
+			}
+		}
+	}
+
+	/**
+	 * Method waits until given {@code file} is larger than {@code size}.
+	 *
+	 * @param file                  waited file
+	 * @param size                  size the file has to exceed
+	 * @return                      new size of the file
+	 * @throws IOException          if size of the file can not be read
+	 * @throws InterruptedException if thread is interrupted while waiting
+	 */
+	private static long awaitSize(Path file, long size) throws IOException, InterruptedException {
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (System.currentTimeMillis() < deadline) {
+			if (Files.exists(file) && Files.size(file) > size)
+				return Files.size(file);
+			Thread.sleep(COMMIT_INTERVAL);
+		}
+		throw new AssertionError("Journal was not written: " + file);
+	}
+
+	/**
+	 * Method returns whole text of the given {@code document}.
+	 *
+	 * @param document               document whose text is returned
+	 * @return                       text of the document
+	 * @throws BadLocationException never
+	 */
+	private static String text(PieceTableDocument document) throws BadLocationException {
+		return document.getText(0, document.getLength());
+	}
+
+}
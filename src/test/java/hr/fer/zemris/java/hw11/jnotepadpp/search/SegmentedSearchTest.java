@@ -0,0 +1,135 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharSource;
+
+/**
+ * Class represents tests of {@link SegmentedSearch}.
+ * Matches found by searching segments in parallel are compared with matches of a single pass over the whole text.
+ *
+ * @author Ante Gazibaric
+ * @version 1.0
+ *
+ */
+public class SegmentedSearchTest {
+
+	/**
+	 * Length of the searched text, text is split into several segments
+	 */
+	private static final int TEXT_LENGTH = 5 * SegmentedSearch.SEGMENT_SIZE / 2;
+
+	/**
+	 * Method tests overlapping candidates of a literal pattern in runs that cross segment borders.
+	 *
+	 * @throws InterruptedException if search is interrupted
+	 */
+	@Test
+	public void testRunsAcrossSegmentBorders() throws InterruptedException {
+		CharSource text = CharSource.of(createRuns(new Random(1)));
+		for (String pattern : new String[] { "a", "aa", "aaa", "aaaaaaa", "ab", "ba" }) {
+			assertSameMatches(new LiteralSearcher(pattern, false), text, 0, text.length());
+		}
+	}
+
+	/**
+	 * Method tests that search of a part of the text finds only matches inside of that part.
+	 *
+	 * @throws InterruptedException if search is interrupted
+	 */
+	@Test
+	public void testSearchOfRange() throws InterruptedException {
+		CharSource text = CharSource.of(createRuns(new Random(2)));
+		int start = SegmentedSearch.SEGMENT_SIZE / 2 + 1;
+		int end = text.length() - SegmentedSearch.SEGMENT_SIZE / 3;
+		assertSameMatches(new LiteralSearcher("aaa", false), text, start, end);
+		assertSameMatches(new LiteralSearcher("AB", true), text, start, end);
+	}
+
+	/**
+	 * Method tests a literal pattern that appears exactly on every segment border.
+	 *
+	 * @throws InterruptedException if search is interrupted
+	 */
+	@Test
+	public void testMatchesOnSegmentBorders() throws InterruptedException {
+		StringBuilder sb = new StringBuilder(TEXT_LENGTH);
+		while (sb.length() < TEXT_LENGTH) {
+			sb.append("needle in a haystack ");
+		}
+		CharSource text = CharSource.of(sb.toString());
+		MatchList matches = assertSameMatches(new LiteralSearcher("needle", false), text, 0, text.length());
+		assertTrue(matches.size() > TEXT_LENGTH / 30);
+	}
+
+	/**
+	 * Method tests that regular expression, whose matches have unknown length, is searched in a single pass.
+	 *
+	 * @throws InterruptedException if search is interrupted
+	 */
+	@Test
+	public void testRegularExpression() throws InterruptedException {
+		CharSource text = CharSource.of(createRuns(new Random(3)));
+		assertSameMatches(new RegexSearcher("a+b", false), text, 0, text.length());
+	}
+
+	/**
+	 * Method searches given range of the {@code text} both in segments and in a single pass
+	 * and checks that the same matches are found.
+	 *
+	 * @param searcher              searcher that finds matches
+	 * @param text                  searched text
+	 * @param start                 start of the searched range
+	 * @param end                   end of the searched range
+	 * @return                      matches found in segments
+	 * @throws InterruptedException if search is interrupted
+	 */
+	private static MatchList assertSameMatches(Searcher searcher, CharSource text, int start, int end)
+			throws InterruptedException {
+		MatchList expected = new MatchList();
+		searcher.find(text, start, end, expected, progress -> {
+		});
+		MatchList actual = new SegmentedSearch(searcher, text, start, end).invoke();
+
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.getStart(i), actual.getStart(i));
+			assertEquals(expected.getEnd(i), actual.getEnd(i));
+		}
+		return actual;
+	}
+
+	/**
+	 * Method creates text of {@link #TEXT_LENGTH} characters that consists of random runs of {@code 'a'}
+	 * separated by a {@code 'b'}. Long runs are placed over the segment borders.
+	 *
+	 * @param random random generator
+	 * @return       created text
+	 */
+	private static String createRuns(Random random) {
+		char[] chars = new char[TEXT_LENGTH];
+		int i = 0;
+		while (i < TEXT_LENGTH) {
+			int run = 1 + random.nextInt(random.nextInt(10) == 0 ? 200 : 8);
+			for (int j = 0; j < run && i < TEXT_LENGTH; j++) {
+				chars[i++] = 'a';
+			}
+			if (i < TEXT_LENGTH) {
+				chars[i++] = 'b';
+			}
+		}
+		int step = SegmentedSearch.SEGMENT_SIZE / 8;
+		for (int border = step; border < TEXT_LENGTH; border += step) {
+			for (int j = Math.max(0, border - 50); j < Math.min(TEXT_LENGTH, border + 51); j++) {
+				chars[j] = 'a';
+			}
+		}
+		return new String(chars);
+	}
+
+}